@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.util.ReflectionUtils;
+
+import com.cumulocity.microservice.subscription.service.MicroserviceSubscriptionsService;
+import com.cumulocity.model.ID;
+import com.cumulocity.model.idtype.GId;
+import com.cumulocity.rest.representation.identity.ExternalIDRepresentation;
+import com.cumulocity.rest.representation.inventory.ManagedObjectRepresentation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dynamic.mapper.App;
+import dynamic.mapper.configuration.ServiceConfiguration;
+import dynamic.mapper.connector.core.client.AConnectorClient;
+import dynamic.mapper.connector.core.registry.ConnectorRegistry;
+import dynamic.mapper.core.C8YAgent;
+import dynamic.mapper.core.ConfigurationRegistry;
+import dynamic.mapper.core.MeasurementBatcher;
+import dynamic.mapper.core.mock.MockIdentity;
+import dynamic.mapper.core.mock.MockInventory;
+import dynamic.mapper.model.Extension;
+import dynamic.mapper.model.Mapping;
+import dynamic.mapper.model.MappingStatus;
+import dynamic.mapper.model.Qos;
+import dynamic.mapper.processor.inbound.CamelDispatcherInbound;
+import dynamic.mapper.processor.inbound.route.DynamicMapperInboundRoutes;
+import dynamic.mapper.processor.model.C8YMessage;
+import dynamic.mapper.processor.model.ProcessingContext;
+import dynamic.mapper.processor.outbound.CamelDispatcherOutbound;
+import dynamic.mapper.processor.outbound.route.DynamicMapperOutboundRoutes;
+import dynamic.mapper.service.ExtensionInboundRegistry;
+import dynamic.mapper.service.MappingService;
+import dynamic.mapper.service.ServiceConfigurationService;
+import dynamic.mapper.service.cache.FlowStateStore;
+import dynamic.mapper.service.cache.MappingCacheManager;
+import dynamic.mapper.service.resolver.MappingResolverService;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Offline stand-in for the running microservice, so that the inbound and
+ * outbound Camel pipelines can be driven end-to-end without a Cumulocity
+ * platform or a broker.
+ *
+ * <p>The processors and routes are the production Spring components, wired in a
+ * plain application context. Mapping resolution, the JSONata expression cache,
+ * the GraalVM resources and the extension registry are the production classes
+ * as well. Only the platform facing parts are replaced: identity and inventory
+ * requests of the {@link C8YAgent} are answered by {@link MockIdentity} and
+ * {@link MockInventory}, sending a measurement, event or alarm returns without
+ * a request and the connector client discards published messages. All stand-ins
+ * are stub-only mocks, so they do not record invocations.</p>
+ */
+@Slf4j
+public class BenchmarkEnvironment implements AutoCloseable {
+
+    public static final String TENANT = "t_benchmark";
+    public static final String CONNECTOR_IDENTIFIER = "benchmark";
+    public static final String EXTERNAL_ID_TYPE = "c8y_Serial";
+
+    private static final String[] COMPONENT_PACKAGES = {
+            "dynamic.mapper.processor.inbound.processor",
+            "dynamic.mapper.processor.inbound.route",
+            "dynamic.mapper.processor.outbound.processor",
+            "dynamic.mapper.processor.outbound.route",
+            "dynamic.mapper.processor.util" };
+
+    @Getter
+    private final ConfigurationRegistry configurationRegistry;
+
+    @Getter
+    private final ServiceConfiguration serviceConfiguration;
+
+    @Getter
+    private final AConnectorClient connectorClient;
+
+    private final MappingCacheManager mappingCacheManager;
+    private final ExtensionInboundRegistry extensionInboundRegistry;
+    private final MockInventory mockInventory;
+    private final MockIdentity mockIdentity;
+    private final CamelContext camelContext;
+    private final ExecutorService virtualThreadPool;
+    private final AnnotationConfigApplicationContext applicationContext;
+
+    /**
+     * @param graalContextPoolSize number of pre-warmed GraalVM contexts per code
+     *                             mapping, {@code 0} creates a context per message
+     */
+    public BenchmarkEnvironment(int graalContextPoolSize) throws Exception {
+        App app = new App();
+        ObjectMapper objectMapper = app.objectMapper();
+        virtualThreadPool = app.virtualThreadPool();
+        camelContext = new DefaultCamelContext();
+
+        MicroserviceSubscriptionsService subscriptionsService = stub(MicroserviceSubscriptionsService.class);
+        when(subscriptionsService.getTenant()).thenReturn(TENANT);
+        mockInventory = new MockInventory(subscriptionsService);
+        mockIdentity = new MockIdentity(subscriptionsService);
+
+        mappingCacheManager = new MappingCacheManager();
+        mappingCacheManager.createTenantCache(TENANT);
+        extensionInboundRegistry = new ExtensionInboundRegistry();
+        extensionInboundRegistry.initializeExtensions(TENANT);
+        FlowStateStore flowStateStore = new FlowStateStore();
+
+        C8YAgent c8yAgent = createC8YAgent();
+        ConnectorRegistry connectorRegistry = stub(ConnectorRegistry.class);
+        connectorClient = createConnectorClient(c8yAgent);
+        when(connectorRegistry.getClientForTenant(TENANT, CONNECTOR_IDENTIFIER)).thenReturn(connectorClient);
+
+        configurationRegistry = new ConfigurationRegistry();
+        configurationRegistry.setC8yAgent(c8yAgent);
+        configurationRegistry.setObjectMapper(objectMapper);
+        configurationRegistry.setVirtualThreadPool(virtualThreadPool);
+        setField(configurationRegistry, "camelContext", camelContext);
+        setField(configurationRegistry, "connectorRegistry", connectorRegistry);
+        MappingService mappingService = createMappingService(mappingCacheManager,
+                new MappingResolverService(mappingCacheManager, configurationRegistry));
+        configurationRegistry.setMappingComponent(mappingService);
+
+        serviceConfiguration = new ServiceConfiguration();
+        serviceConfiguration.setGraalContextPoolSize(graalContextPoolSize);
+        new ServiceConfigurationService(null).initCodeTemplates(serviceConfiguration, false);
+        configurationRegistry.addServiceConfiguration(TENANT, serviceConfiguration);
+        configurationRegistry.createGraalsResources(TENANT, serviceConfiguration);
+
+        applicationContext = new AnnotationConfigApplicationContext();
+        var beanFactory = applicationContext.getBeanFactory();
+        beanFactory.registerSingleton("objectMapper", objectMapper);
+        beanFactory.registerSingleton("virtualThreadPool", virtualThreadPool);
+        beanFactory.registerSingleton("camelContext", camelContext);
+        beanFactory.registerSingleton("configurationRegistry", configurationRegistry);
+        beanFactory.registerSingleton("c8yAgent", c8yAgent);
+        beanFactory.registerSingleton("mappingService", mappingService);
+        beanFactory.registerSingleton("connectorRegistry", connectorRegistry);
+        beanFactory.registerSingleton("mappingCacheManager", mappingCacheManager);
+        beanFactory.registerSingleton("flowStateStore", flowStateStore);
+        beanFactory.registerSingleton("extensionInboundRegistry", extensionInboundRegistry);
+        applicationContext.register(MeasurementBatcher.class);
+        applicationContext.scan(COMPONENT_PACKAGES);
+        applicationContext.refresh();
+
+        camelContext.addRoutes(applicationContext.getBean(DynamicMapperInboundRoutes.class));
+        camelContext.addRoutes(applicationContext.getBean(DynamicMapperOutboundRoutes.class));
+        camelContext.start();
+    }
+
+    public CamelDispatcherInbound createInboundDispatcher() {
+        return new CamelDispatcherInbound(configurationRegistry, connectorClient);
+    }
+
+    public CamelDispatcherOutbound createOutboundDispatcher() {
+        return new CamelDispatcherOutbound(configurationRegistry, connectorClient);
+    }
+
+    /**
+     * Deploys a mapping, it is resolved like a mapping loaded from the inventory.
+     */
+    public void addMapping(Mapping mapping) {
+        mappingCacheManager.addMapping(TENANT, mapping);
+    }
+
+    public void addExtension(Extension extension) {
+        extensionInboundRegistry.addExtension(TENANT, extension);
+    }
+
+    /**
+     * Creates a device with an external ID of type {@link #EXTERNAL_ID_TYPE}.
+     *
+     * @return the global ID of the device
+     */
+    public String createDevice(String externalId) {
+        ManagedObjectRepresentation device = new ManagedObjectRepresentation();
+        device.setName(externalId);
+        device.setType("c8y_BenchmarkDevice");
+        device.set(new Object(), "c8y_IsDevice");
+        ManagedObjectRepresentation created = mockInventory.create(device);
+
+        ExternalIDRepresentation identity = new ExternalIDRepresentation();
+        identity.setExternalId(externalId);
+        identity.setType(EXTERNAL_ID_TYPE);
+        identity.setManagedObject(created);
+        mockIdentity.create(identity);
+        return created.getId().getValue();
+    }
+
+    /**
+     * Fails fast when a path did not produce a request or reported errors, so
+     * that a broken setup is not measured as a very fast one.
+     */
+    public static void verifyProcessed(String path, List<? extends ProcessingContext<?>> contexts) {
+        if (contexts == null || contexts.isEmpty()) {
+            throw new IllegalStateException("No mapping processed the message for path " + path);
+        }
+        for (ProcessingContext<?> context : contexts) {
+            if (context.hasError()) {
+                throw new IllegalStateException("Processing failed for path " + path + ": " + context.getErrors());
+            }
+            if (context.getRequests() == null || context.getRequests().isEmpty()) {
+                throw new IllegalStateException("No request was created for path " + path);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            camelContext.stop();
+        } catch (Exception e) {
+            log.warn("{} - Error stopping benchmark Camel context: {}", TENANT, e.getMessage());
+        }
+        applicationContext.close();
+        configurationRegistry.removeGraalsResources(TENANT);
+        virtualThreadPool.shutdownNow();
+    }
+
+    private C8YAgent createC8YAgent() throws Exception {
+        C8YAgent c8yAgent = stub(C8YAgent.class);
+        when(c8yAgent.resolveExternalId2GlobalId(anyString(), any(ID.class), any()))
+                .thenAnswer(invocation -> resolveExternalId(invocation.getArgument(1)));
+        when(c8yAgent.resolveGlobalId2ExternalId(anyString(), any(GId.class), any(), any()))
+                .thenAnswer(invocation -> mockIdentity.getExternalIdsOfGlobalId(invocation.getArgument(1)));
+        when(c8yAgent.upsertDevice(anyString(), any(), any(), any(Integer.class)))
+                .thenAnswer(invocation -> upsertDevice(invocation.getArgument(1)));
+        return c8yAgent;
+    }
+
+    private ExternalIDRepresentation resolveExternalId(ID identity) {
+        if (identity.getType() == null) {
+            identity.setType(EXTERNAL_ID_TYPE);
+        }
+        return mockIdentity.getExternalId(identity);
+    }
+
+    private ManagedObjectRepresentation upsertDevice(ID identity) {
+        ExternalIDRepresentation existing = identity != null ? resolveExternalId(identity) : null;
+        if (existing != null) {
+            return mockInventory.get(existing.getManagedObject().getId());
+        }
+        String globalId = createDevice(identity != null ? identity.getValue() : "implicit-" + System.nanoTime());
+        return mockInventory.get(GId.asGId(globalId));
+    }
+
+    private AConnectorClient createConnectorClient(C8YAgent c8yAgent) {
+        AConnectorClient client = stub(AConnectorClient.class);
+        when(client.getTenant()).thenReturn(TENANT);
+        when(client.getConnectorIdentifier()).thenReturn(CONNECTOR_IDENTIFIER);
+        when(client.getConnectorName()).thenReturn(CONNECTOR_IDENTIFIER);
+        when(client.getC8yAgent()).thenReturn(c8yAgent);
+        when(client.isConnected()).thenReturn(true);
+        when(client.isMappingInboundDeployed(anyString())).thenReturn(true);
+        when(client.isMappingOutboundDeployed(anyString())).thenReturn(true);
+        when(client.determineMaxQosInbound(any(List.class))).thenReturn(Qos.AT_LEAST_ONCE);
+        when(client.determineMaxQosOutbound(any(List.class))).thenReturn(Qos.AT_LEAST_ONCE);
+        return client;
+    }
+
+    private MappingService createMappingService(MappingCacheManager cacheManager,
+            MappingResolverService resolverService) throws Exception {
+        MappingService mappingService = stub(MappingService.class);
+        MappingStatus mappingStatus = new MappingStatus();
+        when(mappingService.resolveMappingInbound(anyString(), anyString()))
+                .thenAnswer(invocation -> resolverService.resolveInbound(invocation.getArgument(0),
+                        invocation.getArgument(1)));
+        when(mappingService.resolveMappingOutbound(anyString(), any(C8YMessage.class), any()))
+                .thenAnswer(invocation -> resolverService.resolveOutbound(invocation.getArgument(0),
+                        invocation.getArgument(1)));
+        when(mappingService.getMappingStatus(anyString(), any())).thenReturn(mappingStatus);
+        when(mappingService.getCompiledExpression(anyString(), any(Mapping.class), anyString()))
+                .thenAnswer(invocation -> cacheManager.getCompiledExpression(invocation.getArgument(0),
+                        invocation.getArgument(1), invocation.getArgument(2)));
+        return mappingService;
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        var field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
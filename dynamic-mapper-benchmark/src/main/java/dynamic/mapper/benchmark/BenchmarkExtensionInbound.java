@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import com.dashjoin.jsonata.json.Json;
+
+import dynamic.mapper.processor.extension.ProcessorExtensionInbound;
+import dynamic.mapper.processor.model.CumulocityObject;
+import dynamic.mapper.processor.model.JavaExtensionContext;
+import dynamic.mapper.processor.model.Message;
+
+/**
+ * Inbound Java extension used by the benchmark, the logic of
+ * ProcessorExtensionCustomMeasurement without logging.
+ */
+public class BenchmarkExtensionInbound implements ProcessorExtensionInbound<byte[]> {
+
+    @Override
+    public CumulocityObject[] onMessage(Message<byte[]> message, JavaExtensionContext context) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> jsonObject = (Map<String, Object>) Json
+                .parseJson(new String(message.getPayload(), StandardCharsets.UTF_8));
+        Number temperature = (Number) jsonObject.get("temperature");
+        return new CumulocityObject[] { CumulocityObject.measurement()
+                .type("c8y_TemperatureMeasurement")
+                .time(jsonObject.get("time").toString())
+                .fragment("c8y_TemperatureMeasurement", "T", temperature.doubleValue(),
+                        jsonObject.get("unit").toString())
+                .externalId(jsonObject.get("externalId").toString(), context.getMapping().getExternalIdType())
+                .build() };
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import dynamic.mapper.processor.extension.ProcessorExtensionOutbound;
+import dynamic.mapper.processor.model.DeviceMessage;
+import dynamic.mapper.processor.model.JavaExtensionContext;
+import dynamic.mapper.processor.model.Message;
+
+/**
+ * Outbound Java extension used by the benchmark, forwards the temperature of a
+ * measurement to {@code measurements/<externalId>}.
+ */
+public class BenchmarkExtensionOutbound implements ProcessorExtensionOutbound<Object> {
+
+    @Override
+    public DeviceMessage[] onMessage(Message<Object> message, JavaExtensionContext context) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> payload = (Map<String, Object>) message.getPayload();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> measurement = (Map<String, Object>) payload.get("c8y_TemperatureMeasurement");
+
+        Map<String, Object> devicePayload = new HashMap<>();
+        devicePayload.put("time", payload.get("time"));
+        devicePayload.put("deviceId", context.getExternalId());
+        devicePayload.put("Temperature", measurement.get("T"));
+        return new DeviceMessage[] {
+                DeviceMessage.forTopic("measurements/" + context.getExternalId())
+                        .payload(devicePayload)
+                        .build() };
+    }
+}
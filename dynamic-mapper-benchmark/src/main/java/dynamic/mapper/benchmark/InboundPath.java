@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import dynamic.mapper.model.API;
+import dynamic.mapper.model.Direction;
+import dynamic.mapper.model.Extension;
+import dynamic.mapper.model.ExtensionEntry;
+import dynamic.mapper.model.ExtensionType;
+import dynamic.mapper.model.Mapping;
+import dynamic.mapper.model.Qos;
+import dynamic.mapper.model.SnoopStatus;
+import dynamic.mapper.model.Substitution;
+import dynamic.mapper.processor.model.MappingType;
+import dynamic.mapper.processor.model.TransformationType;
+import dynamic.mapper.processor.processor.fixed.InternalCustomMeasurementOuter.InternalCustomMeasurement;
+
+/**
+ * Inbound processing paths covered by {@link InboundPipelineBenchmark}. Every
+ * path turns a device message into one temperature measurement of the device
+ * whose external ID is the last topic level.
+ */
+public enum InboundPath {
+
+    JSONATA(MappingType.JSON, TransformationType.JSONATA),
+    SUBSTITUTION_AS_CODE(MappingType.JSON, TransformationType.SUBSTITUTION_AS_CODE),
+    SMART_FUNCTION(MappingType.JSON, TransformationType.SMART_FUNCTION),
+    EXTENSION_JAVA(MappingType.EXTENSION_JAVA, TransformationType.EXTENSION_JAVA),
+    PROTOBUF_INTERNAL(MappingType.PROTOBUF_INTERNAL, TransformationType.DEFAULT);
+
+    static final String EXTENSION_NAME = "dynamic-mapper-benchmark";
+    static final String EXTENSION_EVENT = "BenchmarkMeasurement";
+
+    private static final String TEMPERATURE_TEMPLATE = "{\"c8y_TemperatureMeasurement\":{\"T\":{\"value\":110,\"unit\":\"C\"}},"
+            + "\"time\":\"2022-08-05T00:14:49.389+02:00\",\"type\":\"c8y_TemperatureMeasurement\"}";
+    private static final String GENERIC_TEMPLATE = "{\"c8y_GenericMeasurement\":{\"Module\":{\"value\":110,\"unit\":\"l\"}},"
+            + "\"time\":\"2022-08-05T00:14:49.389+02:00\",\"type\":\"c8y_GenericMeasurement_type\"}";
+    private static final String SOURCE_TEMPLATE = "{\"temperature\":21.5,\"unit\":\"C\","
+            + "\"time\":\"2022-08-05T00:14:49.389+02:00\",\"externalId\":\"dev-0\"}";
+
+    private final MappingType mappingType;
+    private final TransformationType transformationType;
+
+    InboundPath(MappingType mappingType, TransformationType transformationType) {
+        this.mappingType = mappingType;
+        this.transformationType = transformationType;
+    }
+
+    public String topic(String externalId) {
+        return "bench/" + name().toLowerCase() + "/" + externalId;
+    }
+
+    public Mapping mapping() {
+        Mapping.MappingBuilder builder = Mapping.builder()
+                .id("benchmark-inbound-" + ordinal())
+                .identifier("bench-in-" + ordinal())
+                .name("Benchmark inbound " + name())
+                .mappingTopic(topic("+"))
+                .mappingTopicSample(topic("dev-0"))
+                .targetAPI(API.MEASUREMENT)
+                .direction(Direction.INBOUND)
+                .sourceTemplate(SOURCE_TEMPLATE)
+                .targetTemplate(this == PROTOBUF_INTERNAL ? GENERIC_TEMPLATE : TEMPERATURE_TEMPLATE)
+                .mappingType(mappingType)
+                .transformationType(transformationType)
+                .substitutions(new Substitution[0])
+                .active(true)
+                .debug(false)
+                .createNonExistingDevice(false)
+                .updateExistingDevice(false)
+                .useExternalId(true)
+                .externalIdType(BenchmarkEnvironment.EXTERNAL_ID_TYPE)
+                .snoopStatus(SnoopStatus.NONE)
+                .qos(Qos.AT_LEAST_ONCE);
+        switch (this) {
+            case JSONATA -> builder.substitutions(new Substitution[] {
+                    substitution("_TOPIC_LEVEL_[2]", "_IDENTITY_.externalId"),
+                    substitution("temperature", "c8y_TemperatureMeasurement.T.value"),
+                    substitution("unit", "c8y_TemperatureMeasurement.T.unit"),
+                    substitution("time", "time") });
+            case SUBSTITUTION_AS_CODE -> builder.code(BenchmarkCode.load("inbound-substitution-as-code.js"));
+            case SMART_FUNCTION -> builder.code(BenchmarkCode.load("inbound-smart-function.js"));
+            case EXTENSION_JAVA -> builder.extension(extensionEntry());
+            default -> {
+            }
+        }
+        return builder.build();
+    }
+
+    public byte[] payload(String externalId) {
+        if (this == PROTOBUF_INTERNAL) {
+            return InternalCustomMeasurement.newBuilder()
+                    .setExternalIdType(BenchmarkEnvironment.EXTERNAL_ID_TYPE)
+                    .setExternalId(externalId)
+                    .setUnit("C")
+                    .setTimestamp(System.currentTimeMillis())
+                    .setMeasurementType("c8y_GenericMeasurement")
+                    .setValue(21.5F)
+                    .build()
+                    .toByteArray();
+        }
+        return ("{\"temperature\":21.5,\"unit\":\"C\",\"time\":\"2025-01-01T12:00:00.000Z\",\"externalId\":\""
+                + externalId + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Extensions the path relies on, they are registered before the mapping
+     */
+    public List<Extension> extensions() {
+        if (this != EXTENSION_JAVA) {
+            return List.of();
+        }
+        Extension extension = new Extension(EXTENSION_NAME, EXTENSION_NAME, true);
+        ExtensionEntry entry = extensionEntry();
+        entry.setExtensionImplInbound(new BenchmarkExtensionInbound());
+        extension.getExtensionEntries().put(EXTENSION_EVENT, entry);
+        return List.of(extension);
+    }
+
+    private static ExtensionEntry extensionEntry() {
+        return ExtensionEntry.builder()
+                .extensionName(EXTENSION_NAME)
+                .eventName(EXTENSION_EVENT)
+                .fqnClassName(BenchmarkExtensionInbound.class.getName())
+                .extensionType(ExtensionType.EXTENSION_INBOUND)
+                .direction(Direction.INBOUND)
+                .loaded(true)
+                .build();
+    }
+
+    static Substitution substitution(String pathSource, String pathTarget) {
+        return Substitution.builder().pathSource(pathSource).pathTarget(pathTarget).build();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dynamic.mapper.connector.core.callback.ConnectorMessage;
+import dynamic.mapper.processor.inbound.CamelDispatcherInbound;
+import dynamic.mapper.processor.model.ProcessingContext;
+
+/**
+ * Processes a device message through {@link CamelDispatcherInbound}: mapping
+ * resolution, the Camel route, transformation, identity lookup and the request
+ * sent to Cumulocity. Each invocation waits for the result, so the score is
+ * the latency of one message and the throughput of a single connector thread.
+ *
+ * <p>Throughput is reported in ops/ms, SampleTime reports the latency
+ * percentiles (p99) and {@code -prof gc} the allocation rate per message.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InboundPipelineBenchmark {
+
+    @Param
+    private InboundPath path;
+
+    @Param("0")
+    private int graalContextPoolSize;
+
+    @Param("100")
+    private int devices;
+
+    private BenchmarkEnvironment environment;
+    private CamelDispatcherInbound dispatcher;
+    private String[] externalIds;
+    private byte[][] payloads;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        environment = new BenchmarkEnvironment(graalContextPoolSize);
+        path.extensions().forEach(environment::addExtension);
+        environment.addMapping(path.mapping());
+        dispatcher = environment.createInboundDispatcher();
+
+        externalIds = new String[devices];
+        payloads = new byte[devices][];
+        for (int i = 0; i < devices; i++) {
+            externalIds[i] = "dev-" + i;
+            payloads[i] = path.payload(externalIds[i]);
+            environment.createDevice(externalIds[i]);
+        }
+        BenchmarkEnvironment.verifyProcessed(path.name(), process());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public List<? extends ProcessingContext<?>> process() throws Exception {
+        // A new message per invocation, the message caches its decoded payload
+        int device = next++ % devices;
+        ConnectorMessage message = ConnectorMessage.builder()
+                .tenant(BenchmarkEnvironment.TENANT)
+                .connectorIdentifier(BenchmarkEnvironment.CONNECTOR_IDENTIFIER)
+                .clientId(externalIds[device])
+                .topic(path.topic(externalIds[device]))
+                .payload(payloads[device])
+                .sendPayload(true)
+                .build();
+        var result = dispatcher.onMessage(message).getProcessingResult();
+        // No future is returned when no mapping matched, verified in setUp
+        return result != null ? result.get() : List.of();
+    }
+}
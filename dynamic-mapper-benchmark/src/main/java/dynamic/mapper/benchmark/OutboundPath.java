@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.benchmark;
+
+import java.util.List;
+
+import dynamic.mapper.model.API;
+import dynamic.mapper.model.Direction;
+import dynamic.mapper.model.Extension;
+import dynamic.mapper.model.ExtensionEntry;
+import dynamic.mapper.model.ExtensionType;
+import dynamic.mapper.model.Mapping;
+import dynamic.mapper.model.Qos;
+import dynamic.mapper.model.SnoopStatus;
+import dynamic.mapper.model.Substitution;
+import dynamic.mapper.notification.websocket.Notification;
+import dynamic.mapper.processor.model.MappingType;
+import dynamic.mapper.processor.model.TransformationType;
+
+/**
+ * Outbound processing paths covered by {@link OutboundPipelineBenchmark}. Every
+ * path forwards the temperature of a measurement created in Cumulocity to
+ * {@code measurements/<externalId>}. Protobuf payloads are only supported
+ * inbound, so there is no protobuf path.
+ */
+public enum OutboundPath {
+
+    JSONATA(MappingType.JSON, TransformationType.JSONATA),
+    SUBSTITUTION_AS_CODE(MappingType.JSON, TransformationType.SUBSTITUTION_AS_CODE),
+    SMART_FUNCTION(MappingType.JSON, TransformationType.SMART_FUNCTION),
+    EXTENSION_JAVA(MappingType.JSON, TransformationType.EXTENSION_JAVA);
+
+    static final String EXTENSION_EVENT = "BenchmarkDeviceMessage";
+
+    private static final String SOURCE_TEMPLATE = "{\"c8y_TemperatureMeasurement\":{\"T\":{\"value\":110,\"unit\":\"C\"}},"
+            + "\"time\":\"2022-08-05T00:14:49.389+02:00\",\"source\":{\"id\":\"909090\"},\"type\":\"c8y_TemperatureMeasurement\"}";
+    private static final String TARGET_TEMPLATE = "{\"deviceId\":\"909090\",\"time\":\"2022-08-05T00:14:49.389+02:00\","
+            + "\"Temperature\":{\"value\":110,\"unit\":\"C\"}}";
+
+    private final MappingType mappingType;
+    private final TransformationType transformationType;
+
+    OutboundPath(MappingType mappingType, TransformationType transformationType) {
+        this.mappingType = mappingType;
+        this.transformationType = transformationType;
+    }
+
+    public Mapping mapping() {
+        Mapping.MappingBuilder builder = Mapping.builder()
+                .id("benchmark-outbound-" + ordinal())
+                .identifier("bench-out-" + ordinal())
+                .name("Benchmark outbound " + name())
+                .publishTopic("measurements/+")
+                .publishTopicSample("measurements/dev-0")
+                .targetAPI(API.MEASUREMENT)
+                .direction(Direction.OUTBOUND)
+                .sourceTemplate(SOURCE_TEMPLATE)
+                .targetTemplate(TARGET_TEMPLATE)
+                .mappingType(mappingType)
+                .transformationType(transformationType)
+                .substitutions(new Substitution[0])
+                .active(true)
+                .debug(false)
+                .createNonExistingDevice(false)
+                .updateExistingDevice(false)
+                .useExternalId(true)
+                .externalIdType(BenchmarkEnvironment.EXTERNAL_ID_TYPE)
+                .snoopStatus(SnoopStatus.NONE)
+                .filterMapping("c8y_TemperatureMeasurement")
+                .qos(Qos.AT_LEAST_ONCE);
+        switch (this) {
+            case JSONATA -> builder.substitutions(new Substitution[] {
+                    InboundPath.substitution("_IDENTITY_.externalId", "_TOPIC_LEVEL_[1]"),
+                    InboundPath.substitution("_IDENTITY_.externalId", "deviceId"),
+                    InboundPath.substitution("c8y_TemperatureMeasurement.T", "Temperature"),
+                    InboundPath.substitution("time", "time") });
+            case SUBSTITUTION_AS_CODE -> builder.code(BenchmarkCode.load("outbound-substitution-as-code.js"));
+            case SMART_FUNCTION -> builder.code(BenchmarkCode.load("outbound-smart-function.js"));
+            case EXTENSION_JAVA -> builder.extension(extensionEntry());
+        }
+        return builder.build();
+    }
+
+    /**
+     * A measurement CREATE notification, as received from the Cumulocity
+     * notification websocket, for the device with the given global ID.
+     */
+    public Notification notification(String globalId, int sequence) {
+        String payload = "{\"id\":\"" + (1000000 + sequence) + "\",\"source\":{\"id\":\"" + globalId + "\"},"
+                + "\"type\":\"c8y_TemperatureMeasurement\",\"time\":\"2025-01-01T12:00:00.000Z\","
+                + "\"c8y_TemperatureMeasurement\":{\"T\":{\"value\":21.5,\"unit\":\"C\"}}}";
+        String tenant = BenchmarkEnvironment.TENANT;
+        return Notification.parse("/" + tenant + "/benchmark-subscription/" + sequence + "\n"
+                + "/" + tenant + "/measurements\n"
+                + "CREATE\n"
+                + "benchmark-subscription\n"
+                + "\n"
+                + payload);
+    }
+
+    /**
+     * Extensions the path relies on, they are registered before the mapping
+     */
+    public List<Extension> extensions() {
+        if (this != EXTENSION_JAVA) {
+            return List.of();
+        }
+        Extension extension = new Extension(InboundPath.EXTENSION_NAME, InboundPath.EXTENSION_NAME, true);
+        ExtensionEntry entry = extensionEntry();
+        entry.setExtensionImplOutbound(new BenchmarkExtensionOutbound());
+        extension.getExtensionEntries().put(EXTENSION_EVENT, entry);
+        return List.of(extension);
+    }
+
+    private static ExtensionEntry extensionEntry() {
+        return ExtensionEntry.builder()
+                .extensionName(InboundPath.EXTENSION_NAME)
+                .eventName(EXTENSION_EVENT)
+                .fqnClassName(BenchmarkExtensionOutbound.class.getName())
+                .extensionType(ExtensionType.EXTENSION_OUTBOUND)
+                .direction(Direction.OUTBOUND)
+                .loaded(true)
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dynamic.mapper.notification.websocket.Notification;
+import dynamic.mapper.processor.model.ProcessingContext;
+import dynamic.mapper.processor.outbound.CamelDispatcherOutbound;
+
+/**
+ * Processes a Cumulocity measurement notification through
+ * {@link CamelDispatcherOutbound}: mapping resolution, the Camel route,
+ * external ID lookup, transformation and publishing to the connector. Each
+ * invocation waits for the result, like {@link InboundPipelineBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OutboundPipelineBenchmark {
+
+    @Param
+    private OutboundPath path;
+
+    @Param("0")
+    private int graalContextPoolSize;
+
+    @Param("100")
+    private int devices;
+
+    private BenchmarkEnvironment environment;
+    private CamelDispatcherOutbound dispatcher;
+    private Notification[] notifications;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        environment = new BenchmarkEnvironment(graalContextPoolSize);
+        path.extensions().forEach(environment::addExtension);
+        environment.addMapping(path.mapping());
+        dispatcher = environment.createOutboundDispatcher();
+
+        notifications = new Notification[devices];
+        for (int i = 0; i < devices; i++) {
+            String globalId = environment.createDevice("dev-" + i);
+            notifications[i] = path.notification(globalId, i);
+        }
+        BenchmarkEnvironment.verifyProcessed(path.name(), process());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public List<? extends ProcessingContext<?>> process() throws Exception {
+        Notification notification = notifications[next++ % notifications.length];
+        var result = dispatcher.onNotification(notification).getProcessingResult();
+        // No future is returned when no mapping matched, verified in setUp
+        return result != null ? result.get() : List.of();
+    }
+}
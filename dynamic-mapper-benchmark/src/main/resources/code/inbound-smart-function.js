@@ -0,0 +1,23 @@
+/**
+ * Benchmark mapping: one temperature measurement for the device named in the payload.
+ * Same logic as the default template, without console output and inventory lookups.
+ */
+function onMessage(msg, context) {
+    var payload = msg.getPayload();
+
+    return [{
+        cumulocityType: "measurement",
+        action: "create",
+        payload: {
+            "time": payload["time"],
+            "type": "c8y_TemperatureMeasurement",
+            "c8y_TemperatureMeasurement": {
+                "T": {
+                    "unit": payload["unit"],
+                    "value": payload["temperature"]
+                }
+            }
+        },
+        externalSource: [{ "type": "c8y_Serial", "externalId": payload["externalId"] }]
+    }];
+}
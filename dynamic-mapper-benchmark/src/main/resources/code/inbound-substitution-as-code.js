@@ -0,0 +1,23 @@
+/**
+ * Benchmark mapping: one temperature measurement, device from the second topic level.
+ * Same logic as the default template, without tracing.
+ */
+function extractFromSource(ctx) {
+    const sourceObject = JSON.parse(ctx.getPayload());
+    const result = new SubstitutionResult();
+
+    const fragmentTemperature = {
+        T: {
+            value: sourceObject['temperature'],
+            unit: sourceObject['unit']
+        }
+    };
+    addSubstitution(result, 'c8y_TemperatureMeasurement',
+        new SubstitutionValue(fragmentTemperature, TYPE.OBJECT, RepairStrategy.DEFAULT, false));
+    addSubstitution(result, 'time',
+        new SubstitutionValue(sourceObject['time'], TYPE.TEXTUAL, RepairStrategy.DEFAULT, false));
+    addSubstitution(result, ctx.getGenericDeviceIdentifier(),
+        new SubstitutionValue(sourceObject['_TOPIC_LEVEL_'][2], TYPE.TEXTUAL, RepairStrategy.DEFAULT, false));
+
+    return result;
+}
@@ -0,0 +1,16 @@
+/**
+ * Benchmark mapping: forwards the temperature of a measurement to measurements/<externalId>.
+ */
+function onMessage(msg, context) {
+    var payload = msg.getPayload();
+    const externalId = context.getConfig().externalId;
+
+    return {
+        topic: `measurements/${externalId}`,
+        payload: {
+            "time": payload["time"],
+            "deviceId": externalId,
+            "Temperature": payload["c8y_TemperatureMeasurement"]["T"]
+        }
+    };
+}
@@ -0,0 +1,18 @@
+/**
+ * Benchmark mapping: forwards the temperature of a measurement to measurements/<externalId>.
+ */
+function extractFromSource(ctx) {
+    const sourceObject = JSON.parse(ctx.getPayload());
+    const result = new SubstitutionResult();
+
+    addSubstitution(result, 'time',
+        new SubstitutionValue(sourceObject['time'], TYPE.TEXTUAL, RepairStrategy.DEFAULT, false));
+    addSubstitution(result, 'Temperature',
+        new SubstitutionValue(sourceObject['c8y_TemperatureMeasurement']['T'], TYPE.OBJECT, RepairStrategy.DEFAULT, false));
+    addSubstitution(result, '_TOPIC_LEVEL_[1]',
+        new SubstitutionValue(ctx.getExternalIdentifier(), TYPE.TEXTUAL, RepairStrategy.DEFAULT, false));
+    addSubstitution(result, 'deviceId',
+        new SubstitutionValue(ctx.getC8YIdentifier(), TYPE.TEXTUAL, RepairStrategy.DEFAULT, false));
+
+    return result;
+}
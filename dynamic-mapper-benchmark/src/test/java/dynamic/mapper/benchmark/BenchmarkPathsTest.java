@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import dynamic.mapper.connector.core.callback.ConnectorMessage;
+import dynamic.mapper.model.Mapping;
+import dynamic.mapper.processor.model.ProcessingContext;
+
+/**
+ * Processes one message per benchmark path, so that a path which no longer
+ * produces a request fails the build instead of being measured.
+ */
+class BenchmarkPathsTest {
+
+    @ParameterizedTest
+    @EnumSource(InboundPath.class)
+    void testInboundPathCreatesRequest(InboundPath path) throws Exception {
+        try (BenchmarkEnvironment environment = new BenchmarkEnvironment(0)) {
+            path.extensions().forEach(environment::addExtension);
+            environment.addMapping(path.mapping());
+            environment.createDevice("dev-0");
+
+            ConnectorMessage message = ConnectorMessage.builder()
+                    .tenant(BenchmarkEnvironment.TENANT)
+                    .connectorIdentifier(BenchmarkEnvironment.CONNECTOR_IDENTIFIER)
+                    .clientId("dev-0")
+                    .topic(path.topic("dev-0"))
+                    .payload(path.payload("dev-0"))
+                    .sendPayload(true)
+                    .build();
+            List<? extends ProcessingContext<?>> contexts = environment.createInboundDispatcher()
+                    .onMessage(message).getProcessingResult().get();
+
+            assertDoesNotThrow(() -> BenchmarkEnvironment.verifyProcessed(path.name(), contexts));
+        }
+    }
+
+    @Test
+    void testFanOutProcessesEveryMapping() throws Exception {
+        try (BenchmarkEnvironment environment = new BenchmarkEnvironment(0)) {
+            for (int i = 0; i < 5; i++) {
+                Mapping mapping = InboundPath.JSONATA.mapping();
+                mapping.setId("benchmark-fan-out-" + i);
+                mapping.setIdentifier("bench-fan-" + i);
+                environment.addMapping(mapping);
+            }
+            environment.createDevice("dev-0");
+
+            ConnectorMessage message = ConnectorMessage.builder()
+                    .tenant(BenchmarkEnvironment.TENANT)
+                    .connectorIdentifier(BenchmarkEnvironment.CONNECTOR_IDENTIFIER)
+                    .clientId("dev-0")
+                    .topic(InboundPath.JSONATA.topic("dev-0"))
+                    .payload(InboundPath.JSONATA.payload("dev-0"))
+                    .sendPayload(true)
+                    .build();
+            List<? extends ProcessingContext<?>> contexts = environment.createInboundDispatcher()
+                    .onMessage(message).getProcessingResult().get();
+
+            assertDoesNotThrow(() -> BenchmarkEnvironment.verifyProcessed("FAN_OUT", contexts));
+            assertEquals(5, contexts.size());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(OutboundPath.class)
+    void testOutboundPathCreatesRequest(OutboundPath path) throws Exception {
+        try (BenchmarkEnvironment environment = new BenchmarkEnvironment(0)) {
+            path.extensions().forEach(environment::addExtension);
+            environment.addMapping(path.mapping());
+            String globalId = environment.createDevice("dev-0");
+
+            List<? extends ProcessingContext<?>> contexts = environment.createOutboundDispatcher()
+                    .onNotification(path.notification(globalId, 0)).getProcessingResult().get();
+
+            assertDoesNotThrow(() -> BenchmarkEnvironment.verifyProcessed(path.name(), contexts));
+        }
+    }
+}
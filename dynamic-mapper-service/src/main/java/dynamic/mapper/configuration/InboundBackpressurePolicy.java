@@ -19,19 +19,14 @@
  *
  */
 
-package dynamic.mapper.core;
+package dynamic.mapper.configuration;
 
-import java.util.concurrent.Semaphore;
-
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-@Configuration
-public class SemaphoreConfiguration {
-
-    @Bean
-    public Semaphore c8ySemaphore(@Value("#{new Integer('${C8Y.httpClient.pool.perHost}')}") Integer maxConnections) {
-        return new Semaphore(maxConnections, false);
-    }
+/**
+ * Behaviour of a connector when the number of inbound messages in processing
+ * reaches {@code inboundMaxInFlight}.
+ */
+public enum InboundBackpressurePolicy {
+    BLOCK, // block the transport thread until a message has been processed
+    SHED_QOS0, // drop messages of QoS 0 mappings, block for all others
+    PAUSE, // pause consumption where the connector supports it (Kafka), block otherwise
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.configuration;
+
+/**
+ * Key by which inbound messages of a connector are kept in order. Messages
+ * with the same key are processed one after the other, messages with
+ * different keys in parallel.
+ */
+public enum InboundOrderingKey {
+    NONE, // no ordering, every message is processed independently
+    TOPIC, // messages on the same topic
+    CLIENT_ID, // messages of the same transport client, the topic when the connector has no client ID
+    // messages for the same device, as extracted by the device identifier of the first mapping. The payload is
+    // parsed and the identifier evaluated on the transport thread, before the message is handed to its lane
+    EXTERNAL_ID,
+}
@@ -65,6 +65,13 @@ public class ServiceConfiguration implements Cloneable {
         this.smartFunctionAgent = null;
         this.flowStateRetention = 1440;
         this.supportESM = false;
+        this.graalContextPoolSize = 0;
+        this.measurementBatchSize = 0;
+        this.measurementBatchLingerMs = 50;
+        this.inboundMaxInFlight = 0;
+        this.inboundBackpressurePolicy = InboundBackpressurePolicy.BLOCK;
+        this.inboundOrderingKey = InboundOrderingKey.NONE;
+        this.inboundOrderingLanes = 64;
     }
 
     @Schema(requiredMode = Schema.RequiredMode.REQUIRED, description = "Enable logging of message payloads for debugging purposes. Caution: May expose sensitive data in logs.", example = "false")
@@ -179,4 +186,32 @@ public class ServiceConfiguration implements Cloneable {
     @NotNull
     @JsonSetter(nulls = Nulls.SKIP)
     private Boolean supportESM;
+
+    @Schema(requiredMode = Schema.RequiredMode.NOT_REQUIRED, description = "Number of pre-warmed GraalVM contexts kept per Smart Function or Substitution as Code mapping. Pooled contexts keep the shared, system and mapping code evaluated between messages, so global JavaScript state survives across invocations. Set to 0 to create a fresh context for every message.", example = "0", minimum = "0")
+    @JsonSetter(nulls = Nulls.SKIP)
+    private Integer graalContextPoolSize;
+
+    @Schema(requiredMode = Schema.RequiredMode.NOT_REQUIRED, description = "Maximum number of inbound measurements sent to Cumulocity in one measurement collection request. Set to 0 or 1 to send every measurement individually.", example = "0", minimum = "0")
+    @JsonSetter(nulls = Nulls.SKIP)
+    private Integer measurementBatchSize;
+
+    @Schema(requiredMode = Schema.RequiredMode.NOT_REQUIRED, description = "Maximum time in milliseconds a measurement waits for further measurements before an incomplete batch is sent. Only used when measurementBatchSize is greater than 1.", example = "50", minimum = "0")
+    @JsonSetter(nulls = Nulls.SKIP)
+    private Integer measurementBatchLingerMs;
+
+    @Schema(requiredMode = Schema.RequiredMode.NOT_REQUIRED, description = "Maximum number of inbound messages per connector that are in processing at the same time. When reached, inboundBackpressurePolicy applies. Set to 0 for no limit.", example = "0", minimum = "0")
+    @JsonSetter(nulls = Nulls.SKIP)
+    private Integer inboundMaxInFlight;
+
+    @Schema(requiredMode = Schema.RequiredMode.NOT_REQUIRED, description = "Behaviour when inboundMaxInFlight is reached: BLOCK blocks the transport thread, SHED_QOS0 drops messages of QoS 0 mappings and blocks for others, PAUSE pauses consumption for connectors that support it (Kafka) and blocks otherwise.", example = "BLOCK")
+    @JsonSetter(nulls = Nulls.SKIP)
+    private InboundBackpressurePolicy inboundBackpressurePolicy;
+
+    @Schema(requiredMode = Schema.RequiredMode.NOT_REQUIRED, description = "Keeps inbound messages with the same key in order: NONE processes every message independently, TOPIC, CLIENT_ID and EXTERNAL_ID process messages with the same topic, client ID or device external ID one after the other. EXTERNAL_ID parses the payload on the receiving thread of the connector, prefer TOPIC or CLIENT_ID when they identify the device.", example = "NONE")
+    @JsonSetter(nulls = Nulls.SKIP)
+    private InboundOrderingKey inboundOrderingKey;
+
+    @Schema(requiredMode = Schema.RequiredMode.NOT_REQUIRED, description = "Number of serial lanes per connector the ordering keys are distributed on when inboundOrderingKey is not NONE. Messages of different lanes are processed in parallel.", example = "64", minimum = "1", maximum = "1024")
+    @JsonSetter(nulls = Nulls.SKIP)
+    private Integer inboundOrderingLanes;
 }
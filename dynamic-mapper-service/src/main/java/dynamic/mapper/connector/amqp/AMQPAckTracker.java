@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.amqp;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.rabbitmq.client.Channel;
+
+/**
+ * Tracks the deliveries of one AMQP channel that wait for a manual ack, so
+ * that processed deliveries are acknowledged with one cumulative ack
+ * ({@code multiple=true}) instead of one ack per delivery.
+ *
+ * <p>Deliveries are registered by the consumer thread of the channel in
+ * delivery tag order and completed by whichever thread finishes processing
+ * them. The cumulative ack covers the deliveries up to the highest tag below
+ * which all registered deliveries have completed, so a delivery is never
+ * acknowledged before it was processed. Rejected deliveries are nacked
+ * individually right away and no longer hold back the acks of later
+ * deliveries.</p>
+ */
+class AMQPAckTracker {
+
+    private enum State {
+        PENDING, PROCESSED, REJECTED
+    }
+
+    private final Channel channel;
+
+    // Structure: < deliveryTag, State >, ordered by delivery tag
+    private final TreeMap<Long, State> deliveries = new TreeMap<>();
+
+    AMQPAckTracker(Channel channel) {
+        this.channel = channel;
+    }
+
+    synchronized void register(long deliveryTag) {
+        deliveries.put(deliveryTag, State.PENDING);
+    }
+
+    /**
+     * Marks a delivery as processed and sends a cumulative ack if it was the
+     * lowest delivery still in processing.
+     */
+    synchronized void ack(long deliveryTag) throws IOException {
+        complete(deliveryTag, State.PROCESSED);
+    }
+
+    /**
+     * Rejects a delivery, the broker requeues or drops it depending on
+     * {@code requeue}.
+     */
+    synchronized void nack(long deliveryTag, boolean requeue) throws IOException {
+        if (deliveries.get(deliveryTag) != State.PENDING) {
+            return;
+        }
+        channel.basicNack(deliveryTag, false, requeue);
+        complete(deliveryTag, State.REJECTED);
+    }
+
+    /**
+     * Number of deliveries registered but not yet acknowledged or rejected.
+     */
+    synchronized int getPendingAcks() {
+        return deliveries.size();
+    }
+
+    private void complete(long deliveryTag, State state) throws IOException {
+        if (deliveries.get(deliveryTag) != State.PENDING) {
+            return;
+        }
+        deliveries.put(deliveryTag, state);
+        long ackUpTo = -1;
+        while (!deliveries.isEmpty() && deliveries.firstEntry().getValue() != State.PENDING) {
+            Map.Entry<Long, State> first = deliveries.pollFirstEntry();
+            // Only a delivery that is still unacknowledged may end a cumulative ack
+            if (first.getValue() == State.PROCESSED) {
+                ackUpTo = first.getKey();
+            }
+        }
+        if (ackUpTo >= 0) {
+            channel.basicAck(ackUpTo, true);
+        }
+    }
+}
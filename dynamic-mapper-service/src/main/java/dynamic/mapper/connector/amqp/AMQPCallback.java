@@ -21,20 +21,29 @@
 
 package dynamic.mapper.connector.amqp;
 
+import com.cumulocity.sdk.client.SDKException;
 import com.rabbitmq.client.*;
 import dynamic.mapper.configuration.ServiceConfiguration;
 import dynamic.mapper.connector.core.callback.ConnectorMessage;
 import dynamic.mapper.connector.core.callback.GenericMessageCallback;
 import dynamic.mapper.core.ConfigurationRegistry;
+import dynamic.mapper.processor.ProcessingException;
+import dynamic.mapper.processor.model.ProcessingContext;
 import dynamic.mapper.processor.model.ProcessingResultWrapper;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Callback handler for incoming AMQP messages.
  * Implements RabbitMQ's DefaultConsumer to handle message delivery.
+ * With manual acks, deliveries are acknowledged through the
+ * {@link AMQPAckTracker} of the channel once they are processed.
  */
 @Slf4j
 public class AMQPCallback extends DefaultConsumer {
@@ -45,15 +54,21 @@ public class AMQPCallback extends DefaultConsumer {
     private final String connectorName;
     private final ServiceConfiguration serviceConfiguration;
     private final ExecutorService virtualThreadPool;
+    // null when the consumer uses automatic acks
+    private final AMQPAckTracker ackTracker;
 
     /**
      * Constructor
+     *
+     * @param ackTracker tracker of the consume channel for manual acks, or
+     *                   null if the consumer uses automatic acks
      */
     public AMQPCallback(String tenant,
             ConfigurationRegistry configurationRegistry,
             GenericMessageCallback callback,
             String connectorIdentifier,
-            String connectorName) {
+            String connectorName,
+            AMQPAckTracker ackTracker) {
         super(null); // Channel will be set when basicConsume is called
         this.genericMessageCallback = callback;
         this.tenant = tenant;
@@ -61,6 +76,7 @@ public class AMQPCallback extends DefaultConsumer {
         this.connectorName = connectorName;
         this.serviceConfiguration = configurationRegistry.getServiceConfiguration(tenant);
         this.virtualThreadPool = configurationRegistry.getVirtualThreadPool();
+        this.ackTracker = ackTracker;
     }
 
     @Override
@@ -75,6 +91,11 @@ public class AMQPCallback extends DefaultConsumer {
         // Convert routing key to topic format (replace . with /)
         String topic = routingKey.replace(".", "/");
 
+        // Deliveries are registered in delivery tag order, by the consumer thread of the channel
+        if (ackTracker != null) {
+            ackTracker.register(deliveryTag);
+        }
+
         try {
             // Build connector message
             ConnectorMessage connectorMessage = ConnectorMessage.builder()
@@ -98,15 +119,10 @@ public class AMQPCallback extends DefaultConsumer {
                         tenant, routingKey, connectorIdentifier);
             }
 
-            // Acknowledge message if not auto-ack
-            // Note: If autoAck is true in basicConsume, this won't be needed
-            if (this.getChannel() != null && !envelope.isRedeliver()) {
-                this.getChannel().basicAck(deliveryTag, false);
-            }
-
-            if (serviceConfiguration.getLogPayload()) {
-                log.info("{} - PROCESSING_COMPLETED: message on routing key: [{}], connector: {}",
-                        tenant, routingKey, connectorIdentifier);
+            if (ackTracker != null) {
+                // Wait for the result off the consumer thread, so that the next
+                // deliveries within the prefetch window are processed meanwhile
+                virtualThreadPool.submit(() -> completeDelivery(routingKey, deliveryTag, processedResults));
             }
 
         } catch (Exception e) {
@@ -114,14 +130,75 @@ public class AMQPCallback extends DefaultConsumer {
                     tenant, routingKey, e);
 
             // Reject message and requeue
-            try {
-                if (this.getChannel() != null) {
-                    this.getChannel().basicNack(deliveryTag, false, true);
+            rejectDelivery(deliveryTag);
+        }
+    }
+
+    private void completeDelivery(String routingKey, long deliveryTag, ProcessingResultWrapper<?> processedResults) {
+        // Bounded also without maxCPUTimeMS: deliveries are acked in order, one stuck delivery blocks all later acks
+        int timeout = processedResults.getResultTimeoutMS();
+        try {
+            List<? extends ProcessingContext<?>> results = null;
+            if (processedResults.getProcessingResult() != null) {
+                results = processedResults.getProcessingResult().get(timeout, TimeUnit.MILLISECONDS);
+            }
+
+            int httpStatusCode = getHighestHttpStatus(results);
+            if (httpStatusCode < 500) {
+                // Processed, or failed with an error a redelivery does not fix
+                ackTracker.ack(deliveryTag);
+                if (serviceConfiguration.getLogPayload()) {
+                    log.info("{} - PROCESSING_COMPLETED: message on routing key: [{}], connector: {}",
+                            tenant, routingKey, connectorIdentifier);
+                }
+            } else {
+                log.warn("{} - Server error {} for message on routing key: [{}], requeueing, connector: {}",
+                        tenant, httpStatusCode, routingKey, connectorIdentifier);
+                rejectDelivery(deliveryTag);
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            log.warn("{} - Processing interrupted for message on routing key: [{}], connector: {}",
+                    tenant, routingKey, connectorIdentifier);
+            rejectDelivery(deliveryTag);
+        } catch (TimeoutException e) {
+            var cancelResult = processedResults.getProcessingResult().cancel(true);
+            log.warn("{} - Processing timed out with: {} milliseconds, connector {}, result of cancelling: {}",
+                    tenant, timeout, connectorIdentifier, cancelResult);
+            rejectDelivery(deliveryTag);
+        } catch (IOException e) {
+            log.error("{} - Error acknowledging message on routing key: [{}]", tenant, routingKey, e);
+        }
+    }
+
+    private void rejectDelivery(long deliveryTag) {
+        if (ackTracker == null) {
+            return;
+        }
+        try {
+            ackTracker.nack(deliveryTag, true);
+        } catch (IOException ex) {
+            log.error("{} - Error rejecting message", tenant, ex);
+        }
+    }
+
+    private int getHighestHttpStatus(List<? extends ProcessingContext<?>> results) {
+        int httpStatusCode = 0;
+        if (results == null) {
+            return httpStatusCode;
+        }
+        for (ProcessingContext<?> context : results) {
+            if (!context.hasError()) {
+                continue;
+            }
+            for (Exception error : context.getErrors()) {
+                if (error instanceof ProcessingException processingException
+                        && processingException.getOriginException() instanceof SDKException sdkException
+                        && sdkException.getHttpStatus() > httpStatusCode) {
+                    httpStatusCode = sdkException.getHttpStatus();
                 }
-            } catch (IOException ex) {
-                log.error("{} - Error rejecting message", tenant, ex);
             }
         }
+        return httpStatusCode;
     }
 
     @Override
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.amqp;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.Connection;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Channels of one AMQP connection: one channel for the consumers, with a
+ * prefetch limit per consumer, and several publish channels in confirm mode.
+ *
+ * <p>A channel must not be used by several threads for publishing, so a
+ * publish holds the lock of one publish channel only while the message is
+ * written. Publisher confirms are received asynchronously; the number of
+ * unconfirmed messages per publish channel is bounded, a publish waits for a
+ * free slot when the broker falls behind.</p>
+ */
+@Slf4j
+class AMQPChannelPool {
+
+    private static final long PUBLISH_PERMIT_TIMEOUT_SECONDS = 30;
+
+    private final String tenant;
+    private final String connectorIdentifier;
+    private final Connection connection;
+    private final int publishChannelCount;
+    private final int prefetchCount;
+    private final int maxOutstandingConfirms;
+
+    @Getter
+    private Channel consumeChannel;
+
+    @Getter
+    private AMQPAckTracker ackTracker;
+
+    // Replaced as a whole, publishers use the list they read
+    private volatile List<PublishChannel> publishChannels = List.of();
+    private final AtomicInteger nextPublishChannel = new AtomicInteger();
+    private final List<Gauge> gauges = new ArrayList<>();
+
+    private static class PublishChannel implements ConfirmListener {
+        private final Channel channel;
+        private final Semaphore permits;
+        // Structure: < publishSeqNo, confirmation >
+        private final ConcurrentSkipListMap<Long, CompletableFuture<Void>> outstanding = new ConcurrentSkipListMap<>();
+
+        PublishChannel(Channel channel, int maxOutstandingConfirms) {
+            this.channel = channel;
+            this.permits = new Semaphore(maxOutstandingConfirms);
+        }
+
+        @Override
+        public void handleAck(long deliveryTag, boolean multiple) {
+            confirm(deliveryTag, multiple, null);
+        }
+
+        @Override
+        public void handleNack(long deliveryTag, boolean multiple) {
+            confirm(deliveryTag, multiple, new IOException("Message was rejected by the broker"));
+        }
+
+        private void confirm(long deliveryTag, boolean multiple, Exception error) {
+            ConcurrentNavigableMap<Long, CompletableFuture<Void>> confirmed = multiple
+                    ? outstanding.headMap(deliveryTag, true)
+                    : outstanding.subMap(deliveryTag, true, deliveryTag, true);
+            confirmed.keySet().forEach(seqNo -> complete(seqNo, error));
+        }
+
+        private void complete(long seqNo, Exception error) {
+            CompletableFuture<Void> confirmation = outstanding.remove(seqNo);
+            if (confirmation == null) {
+                return;
+            }
+            permits.release();
+            if (error == null) {
+                confirmation.complete(null);
+            } else {
+                confirmation.completeExceptionally(error);
+            }
+        }
+
+        private void failAll(Exception error) {
+            outstanding.keySet().forEach(seqNo -> complete(seqNo, error));
+        }
+    }
+
+    AMQPChannelPool(String tenant, String connectorIdentifier, Connection connection, int publishChannelCount,
+            int prefetchCount, int maxOutstandingConfirms) {
+        this.tenant = tenant;
+        this.connectorIdentifier = connectorIdentifier;
+        this.connection = connection;
+        this.publishChannelCount = Math.max(1, publishChannelCount);
+        this.prefetchCount = Math.max(0, prefetchCount);
+        this.maxOutstandingConfirms = Math.max(1, maxOutstandingConfirms);
+    }
+
+    void open() throws IOException {
+        consumeChannel = connection.createChannel();
+        // Applies to each consumer started on the channel afterwards, 0 means unlimited
+        consumeChannel.basicQos(prefetchCount);
+        ackTracker = new AMQPAckTracker(consumeChannel);
+
+        List<PublishChannel> opened = new ArrayList<>(publishChannelCount);
+        for (int i = 0; i < publishChannelCount; i++) {
+            Channel channel = connection.createChannel();
+            channel.confirmSelect();
+            PublishChannel publishChannel = new PublishChannel(channel, maxOutstandingConfirms);
+            channel.addConfirmListener(publishChannel);
+            // Confirms of a closed channel never arrive
+            channel.addShutdownListener(cause -> publishChannel.failAll(cause));
+            opened.add(publishChannel);
+        }
+        publishChannels = List.copyOf(opened);
+        Tags tags = Tags.of("tenant", tenant, "connector", connectorIdentifier);
+        gauges.add(Gauge.builder("dynmapper_amqp_pending_acks", ackTracker, AMQPAckTracker::getPendingAcks)
+                .description("Number of deliveries in processing that are not yet acknowledged")
+                .tags(tags)
+                .register(Metrics.globalRegistry));
+        gauges.add(Gauge.builder("dynmapper_amqp_outstanding_confirms", this,
+                AMQPChannelPool::getOutstandingConfirms)
+                .description("Number of published messages waiting for a confirm of the broker")
+                .tags(tags)
+                .register(Metrics.globalRegistry));
+        log.debug("{} - Opened AMQP channels: 1 consume channel with prefetch {}, {} publish channels", tenant,
+                prefetchCount, publishChannelCount);
+    }
+
+    /**
+     * Publishes a message on the next publish channel.
+     *
+     * @return future completed when the broker confirms the message, or
+     *         exceptionally when the broker rejects it or the channel closes
+     * @throws IOException if the message could not be written or too many
+     *                     messages are waiting for a confirm
+     */
+    CompletableFuture<Void> publish(String exchange, String routingKey, AMQP.BasicProperties props, byte[] body)
+            throws IOException, InterruptedException {
+        List<PublishChannel> channels = publishChannels;
+        if (channels.isEmpty()) {
+            throw new IOException("AMQP publish channels are closed");
+        }
+        PublishChannel publishChannel = channels
+                .get(Math.floorMod(nextPublishChannel.getAndIncrement(), channels.size()));
+        if (!publishChannel.permits.tryAcquire(PUBLISH_PERMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IOException("Timed out waiting for publisher confirms of the broker");
+        }
+        CompletableFuture<Void> confirmation = new CompletableFuture<>();
+        long seqNo;
+        synchronized (publishChannel) {
+            seqNo = publishChannel.channel.getNextPublishSeqNo();
+            publishChannel.outstanding.put(seqNo, confirmation);
+            try {
+                publishChannel.channel.basicPublish(exchange, routingKey, props, body);
+            } catch (IOException | RuntimeException e) {
+                publishChannel.complete(seqNo, e);
+                throw e;
+            }
+        }
+        return confirmation;
+    }
+
+    boolean isOpen() {
+        if (consumeChannel == null || !consumeChannel.isOpen()) {
+            return false;
+        }
+        return publishChannels.stream().allMatch(p -> p.channel.isOpen());
+    }
+
+    /**
+     * Number of published messages waiting for a confirm of the broker.
+     */
+    int getOutstandingConfirms() {
+        return publishChannels.stream().mapToInt(p -> p.outstanding.size()).sum();
+    }
+
+    void close() {
+        gauges.forEach(Metrics.globalRegistry::remove);
+        gauges.clear();
+        List<PublishChannel> channels = publishChannels;
+        publishChannels = List.of();
+        for (PublishChannel publishChannel : channels) {
+            closeChannel(publishChannel.channel);
+            publishChannel.failAll(new IOException("Publish channel closed"));
+        }
+        closeChannel(consumeChannel);
+    }
+
+    private void closeChannel(Channel channel) {
+        if (channel != null && channel.isOpen()) {
+            try {
+                channel.close();
+            } catch (Exception e) {
+                log.debug("{} - Error closing channel: {}", tenant, e.getMessage());
+            }
+        }
+    }
+}
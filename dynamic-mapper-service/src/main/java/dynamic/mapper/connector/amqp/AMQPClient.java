@@ -26,6 +26,7 @@ import dynamic.mapper.configuration.ConnectorConfiguration;
 import dynamic.mapper.configuration.ConnectorId;
 import dynamic.mapper.connector.core.ConnectorProperty;
 import dynamic.mapper.connector.core.ConnectorPropertyBuilder;
+import dynamic.mapper.connector.core.ConnectorPropertyType;
 import dynamic.mapper.connector.core.ConnectorSpecification;
 import dynamic.mapper.connector.core.ConnectorSpecificationBuilder;
 import dynamic.mapper.connector.core.client.AConnectorClient;
@@ -47,7 +48,10 @@ import org.apache.commons.lang3.StringUtils;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -57,9 +61,13 @@ import java.util.concurrent.TimeoutException;
 @Slf4j
 public class AMQPClient extends AConnectorClient {
 
+    private static final int DEFAULT_PREFETCH_COUNT = 250;
+    private static final int DEFAULT_PUBLISH_CHANNELS = 4;
+    private static final int DEFAULT_MAX_OUTSTANDING_CONFIRMS = 1000;
+
     // AMQP-specific fields
     private Connection connection;
-    private Channel channel;
+    private AMQPChannelPool channelPool;
     private final Map<String, String> consumerTags = new ConcurrentHashMap<>();
 
     @Getter
@@ -163,8 +171,10 @@ public class AMQPClient extends AConnectorClient {
             // Build connection
             connection = buildConnection();
 
-            // Create channel
-            channel = connection.createChannel();
+            // Create consume and publish channels
+            channelPool = new AMQPChannelPool(tenant, connectorIdentifier, connection, getPublishChannels(),
+                    getPrefetchCount(), getMaxOutstandingConfirms());
+            channelPool.open();
 
             // Set up recovery listener
             ((Recoverable) connection).addRecoveryListener(new RecoveryListener() {
@@ -254,6 +264,7 @@ public class AMQPClient extends AConnectorClient {
         }
 
         try {
+            Channel channel = channelPool.getConsumeChannel();
             String queueName = (String) connectorConfiguration.getProperties()
                     .getOrDefault("queuePrefix", "");
             if (!queueName.isEmpty()) {
@@ -285,15 +296,16 @@ public class AMQPClient extends AConnectorClient {
             }
 
             // Create callback
+            boolean autoAck = qos == Qos.AT_MOST_ONCE;
             AMQPCallback callback = new AMQPCallback(
                     tenant,
                     configurationRegistry,
                     dispatcher,
                     connectorIdentifier,
-                    connectorName);
+                    connectorName,
+                    autoAck ? null : channelPool.getAckTracker());
 
-            // Start consuming
-            boolean autoAck = qos == Qos.AT_MOST_ONCE;
+            // Start consuming, at most 'prefetchCount' unacknowledged deliveries per consumer
             String consumerTag = channel.basicConsume(queueName, autoAck, callback);
             consumerTags.put(topic, consumerTag);
 
@@ -316,7 +328,7 @@ public class AMQPClient extends AConnectorClient {
         try {
             String consumerTag = consumerTags.remove(topic);
             if (consumerTag != null) {
-                channel.basicCancel(consumerTag);
+                channelPool.getConsumeChannel().basicCancel(consumerTag);
                 log.info("{} - Successfully unsubscribed from topic: [{}]", tenant, topic);
                 sendSubscriptionEvents(topic, "Unsubscribed");
             }
@@ -336,10 +348,11 @@ public class AMQPClient extends AConnectorClient {
             connectionStateManager.updateStatus(ConnectorStatus.DISCONNECTING, true, true);
 
             // Cancel all consumers
-            if (channel != null && channel.isOpen()) {
+            Channel consumeChannel = channelPool != null ? channelPool.getConsumeChannel() : null;
+            if (consumeChannel != null && consumeChannel.isOpen()) {
                 for (String consumerTag : consumerTags.values()) {
                     try {
-                        channel.basicCancel(consumerTag);
+                        consumeChannel.basicCancel(consumerTag);
                     } catch (Exception e) {
                         log.debug("{} - Error cancelling consumer: {}", tenant, e.getMessage());
                     }
@@ -347,13 +360,9 @@ public class AMQPClient extends AConnectorClient {
                 consumerTags.clear();
             }
 
-            // Close channel
-            if (channel != null && channel.isOpen()) {
-                try {
-                    channel.close();
-                } catch (Exception e) {
-                    log.debug("{} - Error closing channel: {}", tenant, e.getMessage());
-                }
+            // Close channels, unconfirmed publishes fail
+            if (channelPool != null) {
+                channelPool.close();
             }
 
             // Close connection
@@ -388,7 +397,7 @@ public class AMQPClient extends AConnectorClient {
     @Override
     protected boolean isPhysicallyConnected() {
         return connection != null && connection.isOpen() &&
-               channel != null && channel.isOpen();
+               channelPool != null && channelPool.isOpen();
     }
 
     @Override
@@ -397,7 +406,7 @@ public class AMQPClient extends AConnectorClient {
         disconnect();
 
         synchronized (disconnectionLock) {
-            channel = null;
+            channelPool = null;
             connection = null;
         }
 
@@ -438,6 +447,10 @@ public class AMQPClient extends AConnectorClient {
         String exchangeName = (String) connectorConfiguration.getProperties()
                 .getOrDefault("exchange", "");
 
+        // Publish all requests first, then wait for the confirms of the broker
+        boolean awaitConfirms = context.getQos() == Qos.AT_LEAST_ONCE;
+        List<PendingConfirm> pendingConfirms = new ArrayList<>();
+
         // Process each request
         for (int i = 0; i < requests.size(); i++) {
             DynamicMapperRequest request = requests.get(i);
@@ -467,7 +480,11 @@ public class AMQPClient extends AConnectorClient {
                         .build();
 
                 // Publish message
-                channel.basicPublish(exchangeName, routingKey, props, payload.getBytes(StandardCharsets.UTF_8));
+                CompletableFuture<Void> confirmation = channelPool.publish(exchangeName, routingKey, props,
+                        payload.getBytes(StandardCharsets.UTF_8));
+                if (awaitConfirms) {
+                    pendingConfirms.add(new PendingConfirm(i, request, confirmation));
+                }
 
                 if (context.getMapping().getDebug() || context.getServiceConfiguration().getLogPayload()) {
                     log.info("{} - Published message ({}/{}): exchange=[{}], routingKey=[{}], QoS: {}, payload: {}",
@@ -484,6 +501,47 @@ public class AMQPClient extends AConnectorClient {
                         "Failed to publish message " + (i + 1) + "/" + requests.size(), e));
             }
         }
+
+        for (PendingConfirm pendingConfirm : pendingConfirms) {
+            try {
+                pendingConfirm.confirmation().get(CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failPublish(context, pendingConfirm, e);
+                return;
+            } catch (ExecutionException e) {
+                failPublish(context, pendingConfirm, e.getCause() instanceof Exception cause ? cause : e);
+            } catch (TimeoutException e) {
+                failPublish(context, pendingConfirm, e);
+            }
+        }
+    }
+
+    private record PendingConfirm(int index, DynamicMapperRequest request, CompletableFuture<Void> confirmation) {
+    }
+
+    private void failPublish(ProcessingContext<?> context, PendingConfirm pendingConfirm, Exception e) {
+        int total = context.getRequests().size();
+        log.error("{} - Message not confirmed by broker ({}/{}): {}", tenant, pendingConfirm.index() + 1, total,
+                e.getMessage());
+        pendingConfirm.request().setError(e);
+        context.addError(new dynamic.mapper.processor.ProcessingException(
+                "Failed to publish message " + (pendingConfirm.index() + 1) + "/" + total, e));
+    }
+
+    private int getPrefetchCount() {
+        Object value = connectorConfiguration.getProperties().get("prefetchCount");
+        return value instanceof Number ? ((Number) value).intValue() : DEFAULT_PREFETCH_COUNT;
+    }
+
+    private int getPublishChannels() {
+        Object value = connectorConfiguration.getProperties().get("publishChannels");
+        return value instanceof Number ? ((Number) value).intValue() : DEFAULT_PUBLISH_CHANNELS;
+    }
+
+    private int getMaxOutstandingConfirms() {
+        Object value = connectorConfiguration.getProperties().get("maxOutstandingConfirms");
+        return value instanceof Number ? ((Number) value).intValue() : DEFAULT_MAX_OUTSTANDING_CONFIRMS;
     }
 
     @Override
@@ -634,13 +692,32 @@ public class AMQPClient extends AConnectorClient {
                         .order(14)
                         .defaultValue(true))
 
+                // Throughput
+                .property("prefetchCount", ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                        .order(15)
+                        .description("Maximum number of unacknowledged messages per consumer, 0 means unlimited")
+                        .required(false)
+                        .defaultValue(DEFAULT_PREFETCH_COUNT))
+
+                .property("publishChannels", ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                        .order(16)
+                        .description("Number of channels used to publish outbound messages")
+                        .required(false)
+                        .defaultValue(DEFAULT_PUBLISH_CHANNELS))
+
+                .property("maxOutstandingConfirms", ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                        .order(17)
+                        .description("Maximum number of published messages per channel waiting for a publisher confirm")
+                        .required(false)
+                        .defaultValue(DEFAULT_MAX_OUTSTANDING_CONFIRMS))
+
                 // Wildcard support flags
                 .property("supportsWildcardInTopicInbound", ConnectorPropertyBuilder.optionalBoolean()
-                        .order(15)
+                        .order(18)
                         .defaultValue(true))
 
                 .property("supportsWildcardInTopicOutbound", ConnectorPropertyBuilder.optionalBoolean()
-                        .order(16)
+                        .order(19)
                         .defaultValue(false))
 
                 .build();
@@ -21,7 +21,10 @@
 
 package dynamic.mapper.connector.core.callback;
 
+import java.nio.ByteBuffer;
+
 import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -30,7 +33,9 @@ import lombok.Setter;
 @Setter
 @Builder
 public class ConnectorMessage {
-    private byte[] payload;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private MessagePayload payload;
 
     private String key;
 
@@ -47,4 +52,39 @@ public class ConnectorMessage {
     private String connectorIdentifier;
 
     private Boolean sendPayload;
+
+    /**
+     * @return the payload as byte array, it is shared by all mappings of the
+     *         message and must not be changed
+     */
+    public byte[] getPayload() {
+        return payload != null ? payload.getBytes() : null;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = MessagePayload.of(payload);
+    }
+
+    /**
+     * @return the payload with cached text and JSON views, or {@code null}
+     */
+    public MessagePayload getMessagePayload() {
+        return payload;
+    }
+
+    public boolean hasPayload() {
+        return payload != null;
+    }
+
+    public static class ConnectorMessageBuilder {
+        public ConnectorMessageBuilder payload(byte[] payload) {
+            this.payload = MessagePayload.of(payload);
+            return this;
+        }
+
+        public ConnectorMessageBuilder payload(ByteBuffer payload) {
+            this.payload = MessagePayload.of(payload);
+            return this;
+        }
+    }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.core.callback;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.dashjoin.jsonata.json.Json;
+
+/**
+ * Payload of a received {@link ConnectorMessage}.
+ *
+ * <p>Connectors hand over the payload as received, a {@link ByteBuffer} is kept
+ * as a read-only view and is not copied. The byte array, the UTF-8 text and the
+ * parsed JSON are created on first access and cached, so a message resolved to
+ * several mappings is copied, decoded and parsed at most once.</p>
+ *
+ * <p>The parsed JSON is shared between all readers of the message, readers that
+ * change it have to work on a copy.</p>
+ */
+public final class MessagePayload {
+
+    private final ByteBuffer buffer;
+
+    private volatile byte[] bytes;
+
+    private volatile String text;
+
+    private volatile Object json;
+
+    private volatile IOException jsonError;
+
+    private MessagePayload(ByteBuffer buffer, byte[] bytes) {
+        this.buffer = buffer;
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return the payload, or {@code null} when there are no bytes
+     */
+    public static MessagePayload of(byte[] bytes) {
+        return bytes != null ? new MessagePayload(null, bytes) : null;
+    }
+
+    /**
+     * Wraps the remaining bytes of the buffer without copying them. The buffer
+     * must not be changed by the caller afterwards.
+     *
+     * @return the payload, or {@code null} when there is no buffer
+     */
+    public static MessagePayload of(ByteBuffer buffer) {
+        return buffer != null ? new MessagePayload(buffer.asReadOnlyBuffer(), null) : null;
+    }
+
+    public int size() {
+        byte[] current = bytes;
+        return current != null ? current.length : buffer.remaining();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return the payload as byte array, the array is shared and must not be
+     *         changed
+     */
+    public byte[] getBytes() {
+        byte[] current = bytes;
+        if (current == null) {
+            synchronized (this) {
+                current = bytes;
+                if (current == null) {
+                    current = new byte[buffer.remaining()];
+                    buffer.duplicate().get(current);
+                    bytes = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @return the payload decoded as UTF-8
+     */
+    public String getText() {
+        String current = text;
+        if (current == null) {
+            synchronized (this) {
+                current = text;
+                if (current == null) {
+                    byte[] array = bytes;
+                    current = array != null ? new String(array, StandardCharsets.UTF_8)
+                            : StandardCharsets.UTF_8.decode(buffer.duplicate()).toString();
+                    text = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Parses the UTF-8 text as JSON. A payload that is not valid JSON fails
+     * with the same exception on every call without being parsed again.
+     *
+     * @return the parsed JSON, shared between all callers
+     */
+    public Object getJson() throws IOException {
+        Object current = json;
+        if (current == null) {
+            synchronized (this) {
+                current = json;
+                if (current == null) {
+                    if (jsonError != null) {
+                        throw jsonError;
+                    }
+                    try {
+                        current = Json.parseJson(getText());
+                    } catch (Exception e) {
+                        jsonError = new IOException("Failed to parse JSON payload: " + e.getMessage(), e);
+                        throw jsonError;
+                    }
+                    json = current;
+                }
+            }
+        }
+        return current;
+    }
+}
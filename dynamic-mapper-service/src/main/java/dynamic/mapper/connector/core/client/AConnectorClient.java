@@ -145,6 +145,10 @@ public abstract class AConnectorClient {
     protected MappingSubscriptionManager mappingSubscriptionManager;
     @Getter
     protected ConnectionStateManager connectionStateManager;
+    @Getter
+    protected InboundFlowControl inboundFlowControl;
+    @Getter
+    protected InboundOrderedLanes inboundOrderedLanes;
 
     // Synchronization primitives for connection management
     protected final Object connectionLock = new Object();
@@ -410,6 +414,10 @@ public abstract class AConnectorClient {
                 connectorIdentifier,
                 this::sendConnectorLifecycle, connectorRegistry);
 
+        this.inboundFlowControl = new InboundFlowControl(tenant, connectorIdentifier);
+        this.inboundOrderedLanes = new InboundOrderedLanes(tenant, connectorIdentifier,
+                configurationRegistry.getVirtualThreadPool());
+
         this.housekeepingExecutor = new ScheduledThreadPoolExecutor(1, r -> {
             Thread t = new Thread(r, "housekeeping-" + connectorIdentifier);
             t.setDaemon(true);
@@ -1059,6 +1067,12 @@ public abstract class AConnectorClient {
             log.info("{} - Stopped {} housekeeping tasks", tenant, stoppedTasks.size());
         }
         close();
+        if (inboundFlowControl != null) {
+            inboundFlowControl.close();
+        }
+        if (inboundOrderedLanes != null) {
+            inboundOrderedLanes.close();
+        }
     }
 
     /**
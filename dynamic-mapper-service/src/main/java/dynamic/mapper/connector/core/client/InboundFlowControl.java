@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.core.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dynamic.mapper.configuration.InboundBackpressurePolicy;
+import dynamic.mapper.model.Qos;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounds the number of inbound messages of one connector that are handed off
+ * for processing but not yet finished.
+ *
+ * <p>The limit and policy are passed on every call, so that changes of the
+ * service configuration apply without recreating the connector. A limit of 0
+ * disables the bound, the in-flight count is tracked anyway for the
+ * metrics.</p>
+ */
+@Slf4j
+public class InboundFlowControl {
+
+    // waiting threads re-check the limit at least this often, in case the limit was raised
+    private static final long WAIT_RECHECK_MS = 100;
+
+    private final String tenant;
+    private final String connectorIdentifier;
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final AtomicInteger waiting = new AtomicInteger(0);
+    private final Object releaseMonitor = new Object();
+
+    private final Gauge inFlightGauge;
+    private final Counter rejectedCounter;
+    private final Timer waitTimer;
+
+    public InboundFlowControl(String tenant, String connectorIdentifier) {
+        this.tenant = tenant;
+        this.connectorIdentifier = connectorIdentifier;
+        Tags tags = Tags.of("tenant", tenant, "connector", connectorIdentifier);
+        this.inFlightGauge = Gauge.builder("dynmapper_inbound_inflight", inFlight, AtomicInteger::get)
+                .description("Number of inbound messages handed off for processing and not yet finished")
+                .tags(tags)
+                .register(Metrics.globalRegistry);
+        this.rejectedCounter = Counter.builder("dynmapper_inbound_rejected_total")
+                .description("Number of inbound messages dropped because the in-flight limit was reached")
+                .tags(tags)
+                .register(Metrics.globalRegistry);
+        this.waitTimer = Timer.builder("dynmapper_inbound_backpressure_wait_time")
+                .description("Time transport threads were blocked because the in-flight limit was reached")
+                .tags(tags)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Admits a message for processing. Every admitted message must be released
+     * with {@link #release()} once processing has finished.
+     *
+     * @param qos consolidated QoS of the mappings resolved for the message
+     * @return {@code false} if the message was dropped
+     */
+    public boolean acquire(int maxInFlight, InboundBackpressurePolicy policy, Qos qos) throws InterruptedException {
+        if (tryAcquire(maxInFlight)) {
+            return true;
+        }
+        if (policy == InboundBackpressurePolicy.SHED_QOS0 && qos == Qos.AT_MOST_ONCE) {
+            rejectedCounter.increment();
+            return false;
+        }
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            synchronized (releaseMonitor) {
+                while (!tryAcquire(maxInFlight)) {
+                    releaseMonitor.wait(WAIT_RECHECK_MS);
+                }
+            }
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return true;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+        if (waiting.get() > 0) {
+            synchronized (releaseMonitor) {
+                releaseMonitor.notify();
+            }
+        }
+    }
+
+    /**
+     * Counts a message that was dropped by the connector itself.
+     */
+    public void recordRejected() {
+        rejectedCounter.increment();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return {@code true} if no further message is admitted without waiting
+     */
+    public boolean isSaturated(int maxInFlight) {
+        return maxInFlight > 0 && inFlight.get() >= maxInFlight;
+    }
+
+    /**
+     * Low-water mark for resuming a paused consumption, so that it does not
+     * flip between paused and resumed for every message.
+     */
+    public boolean canResume(int maxInFlight) {
+        return maxInFlight <= 0 || inFlight.get() <= maxInFlight / 2;
+    }
+
+    public void close() {
+        Metrics.globalRegistry.remove(inFlightGauge);
+        Metrics.globalRegistry.remove(rejectedCounter);
+        Metrics.globalRegistry.remove(waitTimer);
+        log.debug("{} - Closed inbound flow control for connector {}", tenant, connectorIdentifier);
+    }
+
+    private boolean tryAcquire(int maxInFlight) {
+        while (true) {
+            int current = inFlight.get();
+            if (maxInFlight > 0 && current >= maxInFlight) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+}
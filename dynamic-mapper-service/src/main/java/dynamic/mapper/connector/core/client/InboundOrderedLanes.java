@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.core.client;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serial execution lanes for the inbound messages of one connector.
+ *
+ * <p>A message is assigned to a lane by the hash of its ordering key, e.g. the
+ * topic or the external ID of the device. The messages of one lane are
+ * processed one after the other on the executor, different lanes run in
+ * parallel. A lane holds no thread while it is empty.</p>
+ *
+ * <p>The number of lanes is passed on every call, so that changes of the
+ * service configuration apply without recreating the connector. Messages
+ * already queued when the number changes may be processed out of order with
+ * the following messages of the same key.</p>
+ *
+ * <p>A key that makes up most of the messages of a lane while the lane has a
+ * backlog is reported as hot key, as it limits the throughput of the lane to
+ * the processing time of a single message. The counts are estimated with a
+ * bounded number of candidate keys and can be too low, so a key is reported as
+ * soon as its count plus the maximum estimation error exceeds half the window.
+ * Such a key may make up slightly less than half of the messages.</p>
+ */
+@Slf4j
+public class InboundOrderedLanes {
+
+    public static final int MAX_LANES = 1024;
+
+    // a lane hands its thread back to the executor after this many messages, so hot lanes do not hold a thread forever
+    private static final int MAX_BATCH = 64;
+    // hot keys are evaluated for every window of this many messages of a lane
+    private static final int HOT_KEY_WINDOW = 1000;
+    // minimum backlog of a lane in the window for its top key to be reported
+    private static final int HOT_KEY_MIN_DEPTH = 100;
+    // number of candidate keys tracked per lane
+    private static final int HOT_KEY_CANDIDATES = 8;
+    // Misra-Gries undercounts a key by at most window / (candidates + 1) messages
+    private static final int HOT_KEY_MAX_UNDERCOUNT = HOT_KEY_WINDOW / (HOT_KEY_CANDIDATES + 1);
+
+    private final String tenant;
+    private final String connectorIdentifier;
+    private final Executor executor;
+    private final ConcurrentHashMap<Integer, Lane> lanes = new ConcurrentHashMap<>();
+    private final Counter hotKeyCounter;
+
+    public InboundOrderedLanes(String tenant, String connectorIdentifier, Executor executor) {
+        this.tenant = tenant;
+        this.connectorIdentifier = connectorIdentifier;
+        this.executor = executor;
+        this.hotKeyCounter = Counter.builder("dynmapper_inbound_lane_hot_key_total")
+                .description("Number of times a single ordering key made up most of the messages of a backed up lane")
+                .tags(Tags.of("tenant", tenant, "connector", connectorIdentifier))
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Queues a task behind all tasks submitted before with a key of the same
+     * lane.
+     *
+     * @param key       ordering key, {@code null} is treated like an empty key
+     * @param laneCount number of lanes, limited to 1 to {@link #MAX_LANES}
+     */
+    public <T> CompletableFuture<T> submit(String key, int laneCount, Callable<T> task) {
+        String laneKey = key != null ? key : "";
+        int index = laneIndex(laneKey, laneCount);
+        Lane lane = lanes.computeIfAbsent(index, Lane::new);
+        LaneTask<T> laneTask = new LaneTask<>(task);
+        lane.add(laneKey, laneTask);
+        return laneTask.future;
+    }
+
+    static int laneIndex(String key, int laneCount) {
+        int count = Math.max(1, Math.min(laneCount, MAX_LANES));
+        int h = key.hashCode();
+        // spread the high bits, topics and IDs often differ only in their last characters
+        return Math.floorMod(h ^ (h >>> 16), count);
+    }
+
+    public int getQueueDepth(int index) {
+        Lane lane = lanes.get(index);
+        return lane != null ? lane.depth.get() : 0;
+    }
+
+    public double getHotKeyCount() {
+        return hotKeyCounter.count();
+    }
+
+    public void close() {
+        lanes.values().forEach(lane -> Metrics.globalRegistry.remove(lane.depthGauge));
+        Metrics.globalRegistry.remove(hotKeyCounter);
+        log.debug("{} - Closed inbound ordered lanes for connector {}", tenant, connectorIdentifier);
+    }
+
+    private static final class LaneTask<T> {
+        private final Callable<T> task;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        LaneTask(Callable<T> task) {
+            this.task = task;
+        }
+
+        void run() {
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private final class Lane {
+        private final int index;
+        private final ConcurrentLinkedQueue<LaneTask<?>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final Gauge depthGauge;
+
+        // Hot key detection, guarded by this: Misra-Gries counters of the current window
+        private final Map<String, Integer> candidates = new HashMap<>();
+        private int windowCount;
+        private int windowMaxDepth;
+
+        Lane(int index) {
+            this.index = index;
+            this.depthGauge = Gauge.builder("dynmapper_inbound_lane_queue_depth", depth, AtomicInteger::get)
+                    .description("Number of inbound messages queued or in processing in an ordered lane")
+                    .tags(Tags.of("tenant", tenant, "connector", connectorIdentifier, "lane", String.valueOf(index)))
+                    .register(Metrics.globalRegistry);
+        }
+
+        void add(String key, LaneTask<?> task) {
+            int currentDepth = depth.incrementAndGet();
+            queue.add(task);
+            track(key, currentDepth);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                failQueued(e);
+            }
+        }
+
+        private void drain() {
+            int processed = 0;
+            LaneTask<?> task;
+            while (processed < MAX_BATCH && (task = queue.poll()) != null) {
+                task.run();
+                depth.decrementAndGet();
+                processed++;
+            }
+            scheduled.set(false);
+            // a task added after the last poll found the lane still scheduled
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void failQueued(RejectedExecutionException e) {
+            log.warn("{} - Inbound lane {} of connector {} rejected, executor shut down", tenant, index,
+                    connectorIdentifier);
+            LaneTask<?> task;
+            while ((task = queue.poll()) != null) {
+                depth.decrementAndGet();
+                task.future.completeExceptionally(e);
+            }
+        }
+
+        private synchronized void track(String key, int currentDepth) {
+            windowCount++;
+            windowMaxDepth = Math.max(windowMaxDepth, currentDepth);
+            Integer count = candidates.get(key);
+            if (count != null) {
+                candidates.put(key, count + 1);
+            } else if (candidates.size() < HOT_KEY_CANDIDATES) {
+                candidates.put(key, 1);
+            } else {
+                candidates.replaceAll((k, c) -> c - 1);
+                candidates.values().removeIf(c -> c <= 0);
+            }
+            if (windowCount < HOT_KEY_WINDOW) {
+                return;
+            }
+            if (windowMaxDepth >= HOT_KEY_MIN_DEPTH) {
+                candidates.entrySet().stream()
+                        .filter(e -> e.getValue() + HOT_KEY_MAX_UNDERCOUNT > windowCount / 2)
+                        .findFirst()
+                        .ifPresent(e -> {
+                            hotKeyCounter.increment();
+                            log.warn("{} - Hot key {} in inbound lane {} of connector {}: {} to {} of {} messages, "
+                                    + "backlog up to {}", tenant, e.getKey(), index, connectorIdentifier,
+                                    e.getValue(), e.getValue() + HOT_KEY_MAX_UNDERCOUNT, windowCount,
+                                    windowMaxDepth);
+                        });
+            }
+            candidates.clear();
+            windowCount = 0;
+            windowMaxDepth = 0;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.http;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Result of one item of a batch sent to the HTTP connector
+ */
+@Getter
+@Builder
+public class HttpBatchItemResult {
+
+    public enum Status {
+        PROCESSED, FAILED
+    }
+
+    private int index;
+
+    private String topic;
+
+    private Status status;
+
+    // Number of mappings the item was processed with
+    private int mappings;
+
+    // HTTP status of a failed request to Cumulocity, 504 if processing timed out, null if unknown
+    private Integer httpStatus;
+
+    private List<String> errors;
+}
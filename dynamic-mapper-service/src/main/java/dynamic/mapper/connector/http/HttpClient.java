@@ -36,12 +36,22 @@ import dynamic.mapper.model.ConnectorStatus;
 import dynamic.mapper.model.Direction;
 import dynamic.mapper.model.Mapping;
 import dynamic.mapper.model.Qos;
+import dynamic.mapper.processor.ProcessingException;
 import dynamic.mapper.processor.inbound.CamelDispatcherInbound;
 import dynamic.mapper.processor.model.ProcessingContext;
+import dynamic.mapper.processor.model.ProcessingResultWrapper;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.http.HttpStatus;
+
+import com.cumulocity.sdk.client.SDKException;
 
 /**
  * HTTP Connector Client.
@@ -279,6 +289,103 @@ public class HttpClient extends AConnectorClient {
         }
     }
 
+    /**
+     * Processes a batch of messages. At most {@code maxParallel} messages are
+     * dispatched without their processing being completed, the messages are
+     * consumed from the iterator only as fast as they are processed.
+     *
+     * @return the result for every message, in the order of the messages
+     */
+    public List<HttpBatchItemResult> onMessages(Iterator<ConnectorMessage> messages, int maxParallel) {
+        List<HttpBatchItemResult> results = new ArrayList<>();
+        if (dispatcher == null) {
+            log.error("{} - Dispatcher is not initialized, cannot process batch", tenant);
+            return results;
+        }
+
+        Deque<PendingMessage> pending = new ArrayDeque<>();
+        int index = 0;
+        while (messages.hasNext()) {
+            if (pending.size() >= Math.max(1, maxParallel)) {
+                results.add(awaitResult(pending.poll()));
+            }
+            ConnectorMessage message = messages.next();
+            ProcessingResultWrapper<?> wrapper = null;
+            Exception error = null;
+            try {
+                wrapper = dispatcher.onMessage(message);
+            } catch (Exception e) {
+                error = e;
+            }
+            pending.add(new PendingMessage(index++, message.getTopic(), wrapper, error));
+        }
+        while (!pending.isEmpty()) {
+            results.add(awaitResult(pending.poll()));
+        }
+
+        log.debug("{} - Processed HTTP batch with {} messages", tenant, results.size());
+        return results;
+    }
+
+    private HttpBatchItemResult awaitResult(PendingMessage message) {
+        HttpBatchItemResult.HttpBatchItemResultBuilder result = HttpBatchItemResult.builder()
+                .index(message.getIndex())
+                .topic(message.getTopic());
+        List<String> errors = new ArrayList<>();
+        int mappings = 0;
+        Integer httpStatus = null;
+
+        if (message.getError() != null) {
+            errors.add(message.getError().getMessage());
+        } else if (message.getWrapper() != null && message.getWrapper().getProcessingResult() != null) {
+            int timeout = message.getWrapper().getResultTimeoutMS();
+            try {
+                List<? extends ProcessingContext<?>> contexts = message.getWrapper().getProcessingResult()
+                        .get(timeout, TimeUnit.MILLISECONDS);
+                mappings = contexts.size();
+                for (ProcessingContext<?> context : contexts) {
+                    if (!context.hasError()) {
+                        continue;
+                    }
+                    for (Exception e : context.getErrors()) {
+                        errors.add(e.getMessage());
+                        if (e instanceof ProcessingException processingException
+                                && processingException.getOriginException() instanceof SDKException sdkException
+                                && (httpStatus == null || sdkException.getHttpStatus() > httpStatus)) {
+                            httpStatus = sdkException.getHttpStatus();
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                errors.add("Interrupted while waiting for processing");
+            } catch (ExecutionException e) {
+                errors.add(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            } catch (TimeoutException e) {
+                // Processing continues in the background, the request is not held any longer
+                log.warn("{} - Processing of HTTP message on topic: [{}] timed out after {} milliseconds", tenant,
+                        message.getTopic(), timeout);
+                errors.add("Processing timed out after " + timeout + " milliseconds");
+                httpStatus = HttpStatus.GATEWAY_TIMEOUT.value();
+            }
+        }
+
+        return result.mappings(mappings)
+                .httpStatus(httpStatus)
+                .errors(errors)
+                .status(errors.isEmpty() ? HttpBatchItemResult.Status.PROCESSED : HttpBatchItemResult.Status.FAILED)
+                .build();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class PendingMessage {
+        private final int index;
+        private final String topic;
+        private final ProcessingResultWrapper<?> wrapper;
+        private final Exception error;
+    }
+
     /**
      * Get the HTTP endpoint path from configuration
      */
@@ -24,6 +24,8 @@ package dynamic.mapper.connector.kafka;
 import com.cumulocity.sdk.client.SDKException;
 import dynamic.mapper.configuration.ConnectorConfiguration;
 import dynamic.mapper.configuration.ConnectorId;
+import dynamic.mapper.configuration.InboundBackpressurePolicy;
+import dynamic.mapper.configuration.ServiceConfiguration;
 import dynamic.mapper.connector.core.ConnectorPropertyBuilder;
 import dynamic.mapper.connector.core.ConnectorPropertyType;
 import dynamic.mapper.connector.core.ConnectorSpecification;
@@ -42,6 +44,10 @@ import dynamic.mapper.processor.inbound.CamelDispatcherInbound;
 import dynamic.mapper.processor.model.DynamicMapperRequest;
 import dynamic.mapper.processor.model.ProcessingContext;
 import dynamic.mapper.processor.model.ProcessingResultWrapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.mutable.MutableInt;
@@ -54,6 +60,7 @@ import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.KafkaException;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.core.io.ClassPathResource;
@@ -80,6 +87,9 @@ public class KafkaClientV2 extends AConnectorClient {
     private static final int MAX_CONSECUTIVE_FAILURES = 5;
     private static final int MAX_RETRY_ATTEMPTS = 3;
     private static final long CONSUMER_RESTART_DELAY_MS = 5000;
+    private static final int DEFAULT_COMMIT_BATCH_SIZE = 500;
+    private static final long DEFAULT_COMMIT_INTERVAL_MS = 1000;
+    private static final long FINAL_COMMIT_TIMEOUT_MS = 5000;
 
     private static final String KAFKA_CONSUMER_PROPERTIES = "/kafka-consumer.properties";
     private static final String KAFKA_PRODUCER_PROPERTIES = "/kafka-producer.properties";
@@ -284,7 +294,7 @@ public class KafkaClientV2 extends AConnectorClient {
 
         // Add serializers/deserializers
         consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
         producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
         producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
 
@@ -368,10 +378,15 @@ public class KafkaClientV2 extends AConnectorClient {
         log.debug("{} - Subscribing to Kafka topic: [{}]", tenant, topic);
 
         try {
-            KafkaConsumer<String, String> consumer = new KafkaConsumer<>(kafkaConsumerProperties);
-            consumer.subscribe(Collections.singletonList(topic));
-
-            KafkaConsumerWrapper wrapper = new KafkaConsumerWrapper(consumer, topic);
+            // Deserializer instances take precedence over custom deserializer properties, the payload is
+            // passed on as received and only decoded by mappings that need text
+            KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(kafkaConsumerProperties,
+                    new StringDeserializer(), new ByteArrayDeserializer());
+            KafkaOffsetTracker offsetTracker = isAutoCommit() ? null
+                    : new KafkaOffsetTracker(getCommitBatchSize(), getCommitIntervalMs());
+            KafkaConsumerWrapper wrapper = new KafkaConsumerWrapper(consumer, topic, offsetTracker,
+                    Tags.of("tenant", tenant, "connector", connectorIdentifier, "topic", topic));
+            consumer.subscribe(Collections.singletonList(topic), new OffsetCommittingRebalanceListener(wrapper));
             topicConsumers.put(topic, wrapper);
 
             // Start consumer task
@@ -399,6 +414,7 @@ public class KafkaClientV2 extends AConnectorClient {
         // Close consumer
         KafkaConsumerWrapper wrapper = topicConsumers.remove(topic);
         if (wrapper != null) {
+            wrapper.removeMetrics();
             try {
                 wrapper.getConsumer().close(Duration.ofSeconds(5));
                 log.info("{} - Successfully unsubscribed from Kafka topic: [{}]", tenant, topic);
@@ -413,18 +429,28 @@ public class KafkaClientV2 extends AConnectorClient {
      * Consume messages from Kafka topic
      */
     private void consumeMessages(KafkaConsumerWrapper wrapper) {
-        KafkaConsumer<String, String> consumer = wrapper.getConsumer();
+        KafkaConsumer<String, byte[]> consumer = wrapper.getConsumer();
         String topic = wrapper.getTopic();
 
         log.debug("{} - Starting message consumption for topic: [{}]", tenant, topic);
 
         while (!Thread.currentThread().isInterrupted()) {
             try {
-                ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(CONSUMER_POLL_TIMEOUT_MS));
-
-                for (ConsumerRecord<String, String> record : records) {
-                    processKafkaMessage(record);
+                ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(CONSUMER_POLL_TIMEOUT_MS));
+
+                int maxInFlight = getMaxInFlightForPause();
+                for (TopicPartition partition : records.partitions()) {
+                    for (ConsumerRecord<String, byte[]> record : records.records(partition)) {
+                        if (inboundFlowControl.isSaturated(maxInFlight)) {
+                            // the remaining records are fetched again once the partitions are resumed
+                            consumer.seek(partition, record.offset());
+                            break;
+                        }
+                        processKafkaMessage(wrapper, record);
+                    }
                 }
+                applyBackpressure(wrapper, maxInFlight);
+                commitOffsets(wrapper, false);
 
                 // Reset failed count on successful poll
                 failedSubscriptions.remove(topic);
@@ -450,17 +476,107 @@ public class KafkaClientV2 extends AConnectorClient {
             }
         }
 
+        commitOffsetsOnExit(wrapper);
         log.debug("{} - Stopped message consumption for topic: [{}]", tenant, topic);
     }
 
+    /**
+     * In-flight limit when the backpressure policy is PAUSE, 0 otherwise. With
+     * the other policies the polling thread is blocked by the dispatcher.
+     */
+    private int getMaxInFlightForPause() {
+        ServiceConfiguration currentConfiguration = configurationRegistry.getServiceConfiguration(tenant);
+        if (currentConfiguration == null || currentConfiguration.getInboundMaxInFlight() == null
+                || currentConfiguration.getInboundBackpressurePolicy() != InboundBackpressurePolicy.PAUSE) {
+            return 0;
+        }
+        return currentConfiguration.getInboundMaxInFlight();
+    }
+
+    /**
+     * Pauses all assigned partitions while the in-flight limit of the connector
+     * is reached and resumes them once half of the messages are processed. The
+     * consumer keeps polling while paused, so it stays in the consumer group.
+     */
+    private void applyBackpressure(KafkaConsumerWrapper wrapper, int maxInFlight) {
+        KafkaConsumer<String, byte[]> consumer = wrapper.getConsumer();
+        Set<TopicPartition> paused = consumer.paused();
+        if (paused.isEmpty() && inboundFlowControl.isSaturated(maxInFlight)) {
+            consumer.pause(consumer.assignment());
+            log.debug("{} - Paused consumption of topic: [{}], {} messages in flight", tenant, wrapper.getTopic(),
+                    inboundFlowControl.getInFlight());
+        } else if (!paused.isEmpty() && inboundFlowControl.canResume(maxInFlight)) {
+            consumer.resume(paused);
+            log.debug("{} - Resumed consumption of topic: [{}]", tenant, wrapper.getTopic());
+        }
+    }
+
+    /**
+     * Commits the offsets completed since the last commit, asynchronously and
+     * only once the commit batch size or interval is reached, unless forced.
+     * Must be called from the polling thread.
+     */
+    private void commitOffsets(KafkaConsumerWrapper wrapper, boolean force) {
+        KafkaOffsetTracker offsetTracker = wrapper.getOffsetTracker();
+        if (offsetTracker == null || (!force && !offsetTracker.isCommitDue())) {
+            return;
+        }
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.collectOffsets();
+        if (offsets.isEmpty()) {
+            return;
+        }
+        wrapper.getConsumer().commitAsync(offsets, (committed, exception) -> {
+            if (exception == null) {
+                offsetTracker.markCommitted(committed);
+                wrapper.getCommitSuccessCounter().increment();
+                if (serviceConfiguration.getLogPayload()) {
+                    log.debug("{} - Committed offsets for topic: [{}]: {}", tenant, wrapper.getTopic(), committed);
+                }
+            } else {
+                // offsets are committed again with the next batch
+                wrapper.getCommitFailureCounter().increment();
+                log.warn("{} - Error committing offsets for topic: [{}]: {}",
+                        tenant, wrapper.getTopic(), exception.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Commits the offsets still pending synchronously, when the polling loop ends.
+     */
+    private void commitOffsetsOnExit(KafkaConsumerWrapper wrapper) {
+        KafkaOffsetTracker offsetTracker = wrapper.getOffsetTracker();
+        if (offsetTracker == null) {
+            return;
+        }
+        // clear the interrupt flag, otherwise commitSync fails immediately
+        boolean interrupted = Thread.interrupted();
+        try {
+            Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.collectOffsets();
+            if (!offsets.isEmpty()) {
+                wrapper.getConsumer().commitSync(offsets, Duration.ofMillis(FINAL_COMMIT_TIMEOUT_MS));
+                offsetTracker.markCommitted(offsets);
+                wrapper.getCommitSuccessCounter().increment();
+            }
+        } catch (Exception e) {
+            // the consumer may already be closed by unsubscribe
+            wrapper.getCommitFailureCounter().increment();
+            log.debug("{} - Could not commit final offsets for topic: [{}]: {}",
+                    tenant, wrapper.getTopic(), e.getMessage());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
      * Process individual Kafka message
      */
-    private void processKafkaMessage(ConsumerRecord<String, String> record) {
+    private void processKafkaMessage(KafkaConsumerWrapper wrapper, ConsumerRecord<String, byte[]> record) {
         String topic = record.topic();
-        String value = record.value();
         String key = record.key();
-        byte[] payloadBytes = value != null ? value.getBytes() : null;
+        byte[] payloadBytes = record.value();
 
         ConnectorMessage connectorMessage = ConnectorMessage.builder()
                 .tenant(tenant)
@@ -481,17 +597,21 @@ public class KafkaClientV2 extends AConnectorClient {
         int mappingQos = processedResults.getConsolidatedQos().ordinal();
         int timeout = processedResults.getMaxCPUTimeMS();
 
+        if (wrapper.getOffsetTracker() != null) {
+            wrapper.getOffsetTracker().register(new TopicPartition(topic, record.partition()), record.offset());
+        }
+
         if (mappingQos > 0) {
-            virtualThreadPool.submit(() -> processMessageWithQos(record, processedResults, timeout));
+            virtualThreadPool.submit(() -> processMessageWithQos(wrapper, record, processedResults, timeout));
         } else {
-            handleSuccessfulProcessing(record);
+            handleSuccessfulProcessing(wrapper, record);
         }
     }
 
     /**
      * Process message with QoS handling
      */
-    private Void processMessageWithQos(ConsumerRecord<String, String> record,
+    private Void processMessageWithQos(KafkaConsumerWrapper wrapper, ConsumerRecord<String, byte[]> record,
             ProcessingResultWrapper<?> processedResults,
             int timeout) {
         String topic = record.topic();
@@ -528,58 +648,48 @@ public class KafkaClientV2 extends AConnectorClient {
             }
 
             if (!hasErrors || httpStatusCode < 500) {
-                handleSuccessfulProcessing(record);
+                handleSuccessfulProcessing(wrapper, record);
             } else {
-                handleProcessingError(record, httpStatusCode);
+                handleProcessingError(wrapper, record, httpStatusCode);
             }
 
         } catch (InterruptedException | ExecutionException e) {
             log.warn("{} - Processing interrupted for topic: [{}], offset: {}",
                     tenant, topic, record.offset(), e);
-            handleProcessingError(record, 0);
+            handleProcessingError(wrapper, record, 0);
         } catch (TimeoutException e) {
             processedResults.getProcessingResult().cancel(true);
             log.warn("{} - Processing timed out for topic: [{}], offset: {}",
                     tenant, topic, record.offset());
-            handleProcessingTimeout(record);
+            handleProcessingTimeout(wrapper, record);
         }
 
         return null;
     }
 
     /**
-     * Handle successful message processing
+     * Handle successful message processing. With auto-commit disabled the
+     * offset is only marked as processed; it is committed in batches by the
+     * polling thread, as the consumer must not be used from other threads.
      */
-    private void handleSuccessfulProcessing(ConsumerRecord<String, String> record) {
-        // Manual commit if auto-commit is disabled
-        Boolean autoCommit = (Boolean) kafkaConsumerProperties
-                .getOrDefault("enable.auto.commit", "true").equals("true");
-
-        if (!autoCommit) {
-            KafkaConsumerWrapper wrapper = topicConsumers.get(record.topic());
-            if (wrapper != null) {
-                try {
-                    Map<TopicPartition, OffsetAndMetadata> offsetsToCommit = Collections.singletonMap(
-                            new TopicPartition(record.topic(), record.partition()),
-                            new OffsetAndMetadata(record.offset() + 1));
-                    wrapper.getConsumer().commitSync(offsetsToCommit);
-
-                    if (serviceConfiguration.getLogPayload()) {
-                        log.debug("{} - Committed offset for topic: [{}], partition: {}, offset: {}",
-                                tenant, record.topic(), record.partition(), record.offset() + 1);
-                    }
-                } catch (Exception e) {
-                    log.error("{} - Error committing offset for topic: [{}]",
-                            tenant, record.topic(), e);
-                }
-            }
+    private void handleSuccessfulProcessing(KafkaConsumerWrapper wrapper, ConsumerRecord<String, byte[]> record) {
+        completeRecord(wrapper, record);
+    }
+
+    private void completeRecord(KafkaConsumerWrapper wrapper, ConsumerRecord<String, byte[]> record) {
+        if (wrapper.getOffsetTracker() != null) {
+            wrapper.getOffsetTracker().complete(new TopicPartition(record.topic(), record.partition()),
+                    record.offset());
         }
     }
 
     /**
      * Handle processing error
      */
-    private void handleProcessingError(ConsumerRecord<String, String> record, int httpStatusCode) {
+    private void handleProcessingError(KafkaConsumerWrapper wrapper, ConsumerRecord<String, byte[]> record,
+            int httpStatusCode) {
+        // failed records are not retried, so they must not hold back the commit of later offsets
+        completeRecord(wrapper, record);
         log.error("{} - Processing error for topic: [{}], partition: {}, offset: {}, HTTP status: {}",
                 tenant, record.topic(), record.partition(), record.offset(), httpStatusCode);
 
@@ -605,10 +715,10 @@ public class KafkaClientV2 extends AConnectorClient {
     /**
      * Handle processing timeout
      */
-    private void handleProcessingTimeout(ConsumerRecord<String, String> record) {
+    private void handleProcessingTimeout(KafkaConsumerWrapper wrapper, ConsumerRecord<String, byte[]> record) {
         log.warn("{} - Processing timeout for topic: [{}], partition: {}, offset: {}",
                 tenant, record.topic(), record.partition(), record.offset());
-        handleProcessingError(record, 0);
+        handleProcessingError(wrapper, record, 0);
     }
 
     /**
@@ -655,6 +765,7 @@ public class KafkaClientV2 extends AConnectorClient {
 
             // Close consumers
             topicConsumers.values().forEach(wrapper -> {
+                wrapper.removeMetrics();
                 try {
                     wrapper.getConsumer().close(Duration.ofSeconds(10));
                 } catch (Exception e) {
@@ -850,18 +961,116 @@ public class KafkaClientV2 extends AConnectorClient {
         return connectorName;
     }
 
+    private boolean isAutoCommit() {
+        return kafkaConsumerProperties.getOrDefault("enable.auto.commit", "true").equals("true");
+    }
+
+    private int getCommitBatchSize() {
+        Object value = connectorConfiguration.getProperties().get("commitBatchSize");
+        return value instanceof Number ? ((Number) value).intValue() : DEFAULT_COMMIT_BATCH_SIZE;
+    }
+
+    private long getCommitIntervalMs() {
+        Object value = connectorConfiguration.getProperties().get("commitIntervalMs");
+        return value instanceof Number ? ((Number) value).longValue() : DEFAULT_COMMIT_INTERVAL_MS;
+    }
+
     /**
      * Helper class to manage Kafka consumers
      */
     private static class KafkaConsumerWrapper {
         @Getter
-        private final KafkaConsumer<String, String> consumer;
+        private final KafkaConsumer<String, byte[]> consumer;
         @Getter
         private final String topic;
+        // null when offsets are committed automatically by the consumer
+        @Getter
+        private final KafkaOffsetTracker offsetTracker;
+        @Getter
+        private final Counter commitSuccessCounter;
+        @Getter
+        private final Counter commitFailureCounter;
+        private final List<Gauge> gauges = new ArrayList<>();
 
-        public KafkaConsumerWrapper(KafkaConsumer<String, String> consumer, String topic) {
+        public KafkaConsumerWrapper(KafkaConsumer<String, byte[]> consumer, String topic,
+                KafkaOffsetTracker offsetTracker, Tags tags) {
             this.consumer = consumer;
             this.topic = topic;
+            this.offsetTracker = offsetTracker;
+            this.commitSuccessCounter = Counter.builder("dynmapper_kafka_offset_commits_total")
+                    .description("Number of offset commits")
+                    .tags(tags).tag("result", "success")
+                    .register(Metrics.globalRegistry);
+            this.commitFailureCounter = Counter.builder("dynmapper_kafka_offset_commits_total")
+                    .description("Number of offset commits")
+                    .tags(tags).tag("result", "failure")
+                    .register(Metrics.globalRegistry);
+            if (offsetTracker != null) {
+                gauges.add(Gauge.builder("dynmapper_kafka_pending_acks", offsetTracker,
+                        KafkaOffsetTracker::getPendingAcks)
+                        .description("Number of records in processing whose offsets are not yet committable")
+                        .tags(tags)
+                        .register(Metrics.globalRegistry));
+                gauges.add(Gauge.builder("dynmapper_kafka_commit_lag", offsetTracker,
+                        KafkaOffsetTracker::getCommitLag)
+                        .description("Number of polled records not yet covered by a committed offset")
+                        .tags(tags)
+                        .register(Metrics.globalRegistry));
+            }
+        }
+
+        public void removeMetrics() {
+            gauges.forEach(Metrics.globalRegistry::remove);
+            gauges.clear();
+        }
+    }
+
+    /**
+     * Commits completed offsets before partitions are handed to another
+     * consumer of the group, so that they are not processed twice.
+     */
+    private class OffsetCommittingRebalanceListener implements ConsumerRebalanceListener {
+        private final KafkaConsumerWrapper wrapper;
+
+        OffsetCommittingRebalanceListener(KafkaConsumerWrapper wrapper) {
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            KafkaOffsetTracker offsetTracker = wrapper.getOffsetTracker();
+            if (offsetTracker == null || partitions.isEmpty()) {
+                return;
+            }
+            Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.revoke(partitions);
+            if (offsets.isEmpty()) {
+                return;
+            }
+            try {
+                wrapper.getConsumer().commitSync(offsets);
+                wrapper.getCommitSuccessCounter().increment();
+                log.debug("{} - Committed offsets for revoked partitions of topic: [{}]: {}",
+                        tenant, wrapper.getTopic(), offsets);
+            } catch (Exception e) {
+                wrapper.getCommitFailureCounter().increment();
+                log.warn("{} - Error committing offsets for revoked partitions of topic: [{}]: {}",
+                        tenant, wrapper.getTopic(), e.getMessage());
+            }
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            if (wrapper.getOffsetTracker() != null) {
+                wrapper.getOffsetTracker().assign(partitions);
+            }
+        }
+
+        @Override
+        public void onPartitionsLost(Collection<TopicPartition> partitions) {
+            // partitions already belong to another consumer, committing would fail
+            if (wrapper.getOffsetTracker() != null) {
+                wrapper.getOffsetTracker().revoke(partitions);
+            }
         }
     }
 
@@ -913,7 +1122,22 @@ public class KafkaClientV2 extends AConnectorClient {
                         .order(7)
                         .description("Consumer properties")
                         .required(false)
-                        .defaultValue(new HashMap<String, String>()));
+                        .defaultValue(new HashMap<String, String>()))
+
+                // Offset commits, only used when 'enable.auto.commit' is set to false
+                .property("commitBatchSize", ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                        .order(9)
+                        .description("Number of processed records after which offsets are committed, "
+                                + "only used when 'enable.auto.commit' is false")
+                        .required(false)
+                        .defaultValue(DEFAULT_COMMIT_BATCH_SIZE))
+
+                .property("commitIntervalMs", ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                        .order(10)
+                        .description("Maximum time in milliseconds between offset commits, "
+                                + "only used when 'enable.auto.commit' is false")
+                        .required(false)
+                        .defaultValue((int) DEFAULT_COMMIT_INTERVAL_MS));
 
         // Add predefined properties as read-only text
         try {
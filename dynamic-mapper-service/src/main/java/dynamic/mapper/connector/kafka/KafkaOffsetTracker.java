@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.kafka;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Tracks processed offsets per partition for one Kafka consumer, so that
+ * offsets can be committed in batches instead of once per record.
+ *
+ * <p>Records are registered by the polling thread before they are handed off
+ * and completed by whichever thread finishes processing them. The committable
+ * offset of a partition is the lowest offset still in flight, or the highest
+ * completed offset + 1 when nothing is in flight, so an offset is never
+ * committed before all records below it have been processed.</p>
+ *
+ * <p>{@link #register}, {@link #collectOffsets}, {@link #assign} and
+ * {@link #revoke} must only be called from the polling thread, since they run
+ * alongside calls on the consumer, which is not thread-safe.
+ * {@link #complete} may be called from any thread.</p>
+ */
+class KafkaOffsetTracker {
+
+    private static class PartitionState {
+        private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+        private final AtomicLong highestCompleted = new AtomicLong(-1);
+        private volatile long highestRegistered = -1;
+        // next offset to consume as known to the broker, -1 until the first record is seen
+        private volatile long committed = -1;
+
+        long committable() {
+            Long lowestInFlight = inFlight.ceiling(Long.MIN_VALUE);
+            if (lowestInFlight != null) {
+                return lowestInFlight;
+            }
+            return highestCompleted.get() + 1;
+        }
+    }
+
+    private final Map<TopicPartition, PartitionState> partitions = new ConcurrentHashMap<>();
+    private final LongAdder completedSinceCommit = new LongAdder();
+    private final int commitBatchSize;
+    private final long commitIntervalMs;
+    private volatile long lastCommitTime = System.currentTimeMillis();
+
+    KafkaOffsetTracker(int commitBatchSize, long commitIntervalMs) {
+        this.commitBatchSize = commitBatchSize;
+        this.commitIntervalMs = commitIntervalMs;
+    }
+
+    void register(TopicPartition partition, long offset) {
+        PartitionState state = partitions.computeIfAbsent(partition, p -> new PartitionState());
+        if (state.committed < 0) {
+            // the consumer resumes at the committed position
+            state.committed = offset;
+        }
+        state.inFlight.add(offset);
+        state.highestRegistered = offset;
+    }
+
+    /**
+     * Marks a record as processed. Records of partitions that were revoked in
+     * the meantime are ignored.
+     */
+    void complete(TopicPartition partition, long offset) {
+        PartitionState state = partitions.get(partition);
+        if (state == null || !state.inFlight.contains(offset)) {
+            return;
+        }
+        state.highestCompleted.accumulateAndGet(offset, Math::max);
+        state.inFlight.remove(offset);
+        completedSinceCommit.increment();
+    }
+
+    /**
+     * A commit is due when {@code commitBatchSize} records were completed or
+     * {@code commitIntervalMs} elapsed since the last commit.
+     */
+    boolean isCommitDue() {
+        return completedSinceCommit.sum() >= commitBatchSize
+                || System.currentTimeMillis() - lastCommitTime >= commitIntervalMs;
+    }
+
+    /**
+     * Returns the offsets that advanced since the last commit and resets the
+     * batch counters.
+     */
+    Map<TopicPartition, OffsetAndMetadata> collectOffsets() {
+        completedSinceCommit.reset();
+        lastCommitTime = System.currentTimeMillis();
+        return collectOffsets(partitions.keySet());
+    }
+
+    /**
+     * Records offsets acknowledged by the broker.
+     */
+    void markCommitted(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        offsets.forEach((partition, offset) -> {
+            PartitionState state = partitions.get(partition);
+            if (state != null && offset.offset() > state.committed) {
+                state.committed = offset.offset();
+            }
+        });
+    }
+
+    /**
+     * Starts with a clean state for newly assigned partitions.
+     */
+    void assign(Collection<TopicPartition> assigned) {
+        assigned.forEach(partitions::remove);
+    }
+
+    /**
+     * Returns the offsets to commit for the revoked partitions and drops their
+     * state. Records of these partitions that are still in flight are
+     * redelivered to the new owner.
+     */
+    Map<TopicPartition, OffsetAndMetadata> revoke(Collection<TopicPartition> revoked) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = collectOffsets(revoked);
+        revoked.forEach(partitions::remove);
+        return offsets;
+    }
+
+    /**
+     * Number of records handed off for processing but not yet completed.
+     */
+    long getPendingAcks() {
+        return partitions.values().stream().mapToLong(s -> s.inFlight.size()).sum();
+    }
+
+    /**
+     * Number of records polled but not yet covered by a committed offset.
+     */
+    long getCommitLag() {
+        return partitions.values().stream()
+                .filter(s -> s.committed >= 0)
+                .mapToLong(s -> Math.max(0, s.highestRegistered + 1 - s.committed))
+                .sum();
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> collectOffsets(Collection<TopicPartition> selected) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : selected) {
+            PartitionState state = partitions.get(partition);
+            if (state == null) {
+                continue;
+            }
+            long committable = state.committable();
+            if (committable > state.committed) {
+                offsets.put(partition, new OffsetAndMetadata(committable));
+            }
+        }
+        return offsets;
+    }
+}
@@ -21,6 +21,7 @@
 
 package dynamic.mapper.connector.mqtt;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -65,19 +66,14 @@ public class MQTT3Callback implements Consumer<Mqtt3Publish> {
     @Override
     public void accept(Mqtt3Publish mqttMessage) {
         String topic = String.join(TOPIC_LEVEL_SEPARATOR, mqttMessage.getTopic().getLevels());
-        byte[] payloadBytes = mqttMessage.getPayload()
-                .map(byteBuffer -> {
-                    byte[] bytes = new byte[byteBuffer.remaining()];
-                    byteBuffer.get(bytes);
-                    return bytes;
-                })
-                .orElse(null);
+        // The payload buffer is handed over as is, it is only copied by mappings that need the bytes
+        ByteBuffer payloadBuffer = mqttMessage.getPayload().orElse(null);
         ConnectorMessage connectorMessage = ConnectorMessage.builder()
                 .tenant(tenant)
                 .topic(topic)
                 .sendPayload(true)
                 .connectorIdentifier(connectorIdentifier)
-                .payload(payloadBytes)
+                .payload(payloadBuffer)
                 .build();
         if (serviceConfiguration.getLogPayload()) {
             log.info(
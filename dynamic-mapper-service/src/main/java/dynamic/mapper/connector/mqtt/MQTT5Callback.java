@@ -21,6 +21,7 @@
 
 package dynamic.mapper.connector.mqtt;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -64,13 +65,8 @@ public class MQTT5Callback implements Consumer<Mqtt5Publish> {
     @Override
     public void accept(Mqtt5Publish mqttMessage) {
         String topic = String.join(TOPIC_LEVEL_SEPARATOR, mqttMessage.getTopic().getLevels());
-        byte[] payloadBytes = mqttMessage.getPayload()
-                .map(byteBuffer -> {
-                    byte[] bytes = new byte[byteBuffer.remaining()];
-                    byteBuffer.get(bytes);
-                    return bytes;
-                })
-                .orElse(null);
+        // The payload buffer is handed over as is, it is only copied by mappings that need the bytes
+        ByteBuffer payloadBuffer = mqttMessage.getPayload().orElse(null);
 
         // Extract client ID from MQTT 5 user properties
         String publisherClientId = mqttMessage.getUserProperties().asList().stream()
@@ -89,7 +85,7 @@ public class MQTT5Callback implements Consumer<Mqtt5Publish> {
                 .clientId(publisherClientId)
                 .sendPayload(true)
                 .connectorIdentifier(connectorIdentifier)
-                .payload(payloadBytes)
+                .payload(payloadBuffer)
                 .build();
         if (serviceConfiguration.getLogPayload()) {
             log.info(
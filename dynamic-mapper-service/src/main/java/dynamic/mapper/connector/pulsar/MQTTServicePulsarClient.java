@@ -50,6 +50,7 @@ import org.apache.pulsar.client.api.PulsarClientException.UnsupportedAuthenticat
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -57,6 +58,8 @@ import java.util.concurrent.TimeUnit;
  * Connects to Cumulocity MQTT Service using Pulsar protocol with device
  * isolation.
  * Uses two topics: to-device (outbound) and from-device (inbound).
+ * Inbound messages are received in batches and processed in parallel per
+ * device topic. With more than one consumer the subscription is Key_Shared.
  */
 @Slf4j
 public class MQTTServicePulsarClient extends PulsarConnectorClient {
@@ -74,10 +77,16 @@ public class MQTTServicePulsarClient extends PulsarConnectorClient {
     private static final int DEFAULT_CONNECTION_TIMEOUT = 30;
     private static final int DEFAULT_OPERATION_TIMEOUT = 30;
     private static final int DEFAULT_KEEP_ALIVE = 30;
+    private static final int DEFAULT_CONSUMER_COUNT = 1;
+    private static final int DEFAULT_RECEIVER_QUEUE_SIZE = 1000;
+    private static final int DEFAULT_BATCH_RECEIVE_MAX_MESSAGES = 100;
+    private static final int DEFAULT_BATCH_RECEIVE_TIMEOUT_MS = 10;
 
     // Cumulocity-specific consumer and producer
     private Consumer<byte[]> platformConsumer;
     private Producer<byte[]> deviceProducer;
+    // Receivers of all consumers of the platform topic, the first one uses platformConsumer
+    private final List<PulsarBatchReceiver> platformReceivers = new CopyOnWriteArrayList<>();
 
     private String towardsDeviceTopic;
     private String towardsPlatformTopic;
@@ -339,14 +348,7 @@ public class MQTTServicePulsarClient extends PulsarConnectorClient {
     }
 
     private void cleanupOnConnectionFailure() {
-        if (platformConsumer != null) {
-            try {
-                platformConsumer.close();
-            } catch (Exception e) {
-                log.debug("{} - Error closing consumer during cleanup", tenant);
-            }
-            platformConsumer = null;
-        }
+        closePlatformConsumers();
 
         if (deviceProducer != null) {
             try {
@@ -362,69 +364,92 @@ public class MQTTServicePulsarClient extends PulsarConnectorClient {
      * Subscribe to platform topic for inbound messages
      */
     private void subscribeToTowardsPlatformTopic() throws PulsarClientException {
-        if (platformConsumer != null) {
+        if (platformConsumer != null || !platformReceivers.isEmpty()) {
             log.warn("{} - Platform consumer already exists, closing existing", tenant);
-            platformConsumer.close();
+            closePlatformConsumers();
         }
 
         String subscriptionName = getSubscriptionName(connectorIdentifier, additionalSubscriptionIdTest);
+        int consumerCount = getConsumerCount();
+        // Failover prevents a default exclusive consumer blocking other instances during restart,
+        // Key_Shared distributes the devices over several consumers and keeps their order
+        SubscriptionType subscriptionType = consumerCount > 1 ? SubscriptionType.Key_Shared
+                : SubscriptionType.Failover;
+
+        try {
+            for (int i = 0; i < consumerCount; i++) {
+                Consumer<byte[]> consumer = subscribePlatformConsumer(subscriptionName, subscriptionType);
+                platformReceivers.add(new PulsarBatchReceiver(tenant, connectorIdentifier, consumer,
+                        mqttServiceCallback, Qos.AT_LEAST_ONCE, supportsCumulativeAck(subscriptionType),
+                        virtualThreadPool));
+            }
+        } catch (PulsarClientException e) {
+            closePlatformConsumers();
+            throw e;
+        }
 
-        Exception lastException = null;
+        platformConsumer = platformReceivers.get(0).getConsumer();
+        platformReceivers.forEach(PulsarBatchReceiver::start);
+        log.info("{} - Started {} consumer(s) for platform topic: [{}], subscription type: {}",
+                tenant, consumerCount, towardsPlatformTopic, subscriptionType);
+    }
+
+    /**
+     * Create one consumer of the platform topic
+     */
+    private Consumer<byte[]> subscribePlatformConsumer(String subscriptionName, SubscriptionType subscriptionType)
+            throws PulsarClientException {
+        Consumer<byte[]> consumer;
 
         // Try multiple subscription strategies
 
         // Strategy 1: Standard subscription
         try {
-            platformConsumer = pulsarClient.newConsumer()
+            consumer = configureBatchReceive(pulsarClient.newConsumer())
                     .topic(towardsPlatformTopic)
                     .subscriptionName(subscriptionName)
                     .autoUpdatePartitions(false)
-                    // Prevents a default exclusive consumer blocking other instances during restart
-                    .subscriptionType(SubscriptionType.Failover)
-                    .messageListener(mqttServiceCallback)
+                    .subscriptionType(subscriptionType)
                     .subscribe();
 
             log.info("{} - Subscribed to platform topic: [{}], subscription: [{}]",
                     tenant, towardsPlatformTopic, subscriptionName);
-            return;
+            return consumer;
 
         } catch (PulsarClientException e) {
-            lastException = e;
             log.warn("{} - Standard subscription failed (PIP-344), trying async", tenant);
         }
 
         // Strategy 2: Async subscription
         try {
-            platformConsumer = pulsarClient.newConsumer()
+            consumer = configureBatchReceive(pulsarClient.newConsumer())
                     .topic(towardsPlatformTopic)
                     .subscriptionName(subscriptionName)
                     .autoUpdatePartitions(false)
-                    .messageListener(mqttServiceCallback)
-                    .subscriptionType(SubscriptionType.Failover)
+                    .subscriptionType(subscriptionType)
                     .subscribeAsync()
                     .get(30, TimeUnit.SECONDS);
 
             log.info("{} - Subscribed to platform topic via async: [{}], subscription: [{}]",
                     tenant, towardsPlatformTopic, subscriptionName);
-            return;
+            return consumer;
 
         } catch (Exception e) {
-            lastException = e;
             log.warn("{} - Async subscription failed, trying basic", tenant);
         }
 
         // Strategy 3: Basic subscription
         try {
-            platformConsumer = pulsarClient.newConsumer()
+            consumer = configureBatchReceive(pulsarClient.newConsumer())
                     .topic(towardsPlatformTopic)
                     .subscriptionName(subscriptionName)
-                    .messageListener(mqttServiceCallback)
-                    .subscriptionType(SubscriptionType.Failover)
+                    .subscriptionType(subscriptionType)
                     .subscribeAsync()
                     .get(30, TimeUnit.SECONDS);
 
             log.info("{} - Subscribed to platform topic via basic async: [{}], subscription: [{}]",
                     tenant, towardsPlatformTopic, subscriptionName);
+            return consumer;
 
         } catch (Exception e) {
             log.error("{} - All subscription strategies failed for platform topic", tenant);
@@ -433,6 +458,22 @@ public class MQTTServicePulsarClient extends PulsarConnectorClient {
         }
     }
 
+    /**
+     * Stop the batch receivers and close all consumers of the platform topic
+     */
+    private void closePlatformConsumers() {
+        if (platformReceivers.isEmpty() && platformConsumer != null) {
+            try {
+                platformConsumer.close();
+            } catch (PulsarClientException e) {
+                log.warn("{} - Error closing platform consumer: {}", tenant, e.getMessage());
+            }
+        }
+        platformReceivers.forEach(PulsarBatchReceiver::close);
+        platformReceivers.clear();
+        platformConsumer = null;
+    }
+
     /**
      * Create producer for device topic
      */
@@ -480,15 +521,10 @@ public class MQTTServicePulsarClient extends PulsarConnectorClient {
         connectionStateManager.updateStatus(ConnectorStatus.DISCONNECTING, true, true);
 
         try {
-            // Close platform consumer
-            if (platformConsumer != null) {
-                try {
-                    platformConsumer.close();
-                    log.info("{} - Closed platform consumer", tenant);
-                } catch (PulsarClientException e) {
-                    log.error("{} - Error closing platform consumer: {}", tenant, e.getMessage());
-                }
-                platformConsumer = null;
+            // Close platform consumers
+            if (platformConsumer != null || !platformReceivers.isEmpty()) {
+                closePlatformConsumers();
+                log.info("{} - Closed platform consumer", tenant);
             }
 
             // Close device producer
@@ -594,6 +630,10 @@ public class MQTTServicePulsarClient extends PulsarConnectorClient {
         try {
             // Check if we can use the existing consumer
             if (platformConsumer != null && platformConsumer.isConnected()) {
+                // Only the last connected consumer of a subscription can delete it
+                platformReceivers.stream()
+                        .filter(receiver -> receiver.getConsumer() != platformConsumer)
+                        .forEach(PulsarBatchReceiver::close);
                 tempConsumer = platformConsumer;
                 log.debug("{} - Using existing connected consumer to unsubscribe", tenant);
             } else {
@@ -912,6 +952,35 @@ public class MQTTServicePulsarClient extends PulsarConnectorClient {
                         .hidden(true)
                         .defaultValue(PULSAR_NAMESPACE))
 
+                // Consumer settings
+                .property("consumerCount", ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                        .order(16)
+                        .description("Number of consumers of the platform topic. With more than one consumer the "
+                                + "subscription type is 'Key_Shared', all instances of the mapper must use the same "
+                                + "setting")
+                        .required(false)
+                        .defaultValue(DEFAULT_CONSUMER_COUNT))
+
+                .property("receiverQueueSize", ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                        .order(17)
+                        .description("Number of messages a consumer prefetches from the broker")
+                        .required(false)
+                        .defaultValue(DEFAULT_RECEIVER_QUEUE_SIZE))
+
+                .property("batchReceiveMaxMessages",
+                        ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                                .order(18)
+                                .description("Maximum number of messages received and acknowledged as one batch")
+                                .required(false)
+                                .defaultValue(DEFAULT_BATCH_RECEIVE_MAX_MESSAGES))
+
+                .property("batchReceiveTimeoutMs",
+                        ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                                .order(19)
+                                .description("Maximum time in milliseconds to wait for a batch to fill up")
+                                .required(false)
+                                .defaultValue(DEFAULT_BATCH_RECEIVE_TIMEOUT_MS))
+
                 .build();
     }
 }
\ No newline at end of file
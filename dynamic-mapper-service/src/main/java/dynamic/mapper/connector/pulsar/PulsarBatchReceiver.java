@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.pulsar;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.Messages;
+import org.apache.pulsar.client.api.PulsarClientException;
+
+import dynamic.mapper.model.Qos;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Receives the messages of one Pulsar consumer in batches instead of one
+ * message listener call per message.
+ *
+ * <p>The messages of a batch are grouped by the ordering key of the
+ * {@link PulsarMessageHandler}, i.e. by device topic. Each group is processed
+ * sequentially on its own virtual thread while different groups are processed
+ * in parallel. The next batch is received after the whole batch completed, so
+ * the messages of a device are processed in order across batches.</p>
+ *
+ * <p>Batches are acknowledged with one cumulative ack per topic when all
+ * messages succeeded and the subscription type allows it (Exclusive,
+ * Failover). Otherwise the successful messages are acknowledged as a list. A
+ * group stops at its first failed message. The failed message, the rest of its
+ * group and all messages already received for the next batches are then
+ * redelivered with {@code redeliverUnacknowledgedMessages()}, and receiving
+ * pauses for {@link #REDELIVERY_PAUSE_MS}. The broker redelivers them in
+ * order, so later messages of a device never overtake the failed message,
+ * and no cumulative ack covers it before it was processed. With a Shared
+ * subscription this holds per consumer only. AT_MOST_ONCE batches are
+ * acknowledged before they are processed.</p>
+ */
+@Slf4j
+class PulsarBatchReceiver {
+
+    static final long REDELIVERY_PAUSE_MS = 1000;
+
+    private final String tenant;
+    @Getter
+    private final Consumer<byte[]> consumer;
+    private final PulsarMessageHandler handler;
+    private final Qos qos;
+    private final boolean cumulativeAck;
+    private final ExecutorService virtualThreadPool;
+    private final DistributionSummary batchSizeSummary;
+
+    private volatile boolean running;
+    private Future<?> receiveTask;
+
+    PulsarBatchReceiver(String tenant, String connectorIdentifier, Consumer<byte[]> consumer,
+            PulsarMessageHandler handler, Qos qos, boolean cumulativeAck, ExecutorService virtualThreadPool) {
+        this.tenant = tenant;
+        this.consumer = consumer;
+        this.handler = handler;
+        this.qos = qos;
+        this.cumulativeAck = cumulativeAck;
+        this.virtualThreadPool = virtualThreadPool;
+        this.batchSizeSummary = DistributionSummary.builder("dynmapper_pulsar_batch_size")
+                .description("Number of messages received per Pulsar batch")
+                .tags(Tags.of("tenant", tenant, "connector", connectorIdentifier))
+                .register(Metrics.globalRegistry);
+    }
+
+    void start() {
+        running = true;
+        receiveTask = virtualThreadPool.submit(this::receiveLoop);
+    }
+
+    /**
+     * Stops receiving and closes the consumer. Messages of a batch in
+     * processing that cannot be acknowledged anymore are redelivered.
+     */
+    void close() {
+        running = false;
+        try {
+            consumer.close();
+        } catch (PulsarClientException e) {
+            log.warn("{} - Error closing Pulsar consumer: {}", tenant, e.getMessage());
+        }
+        if (receiveTask != null) {
+            receiveTask.cancel(false);
+        }
+    }
+
+    private void receiveLoop() {
+        log.debug("{} - Starting batch receive for Pulsar topic: [{}]", tenant, consumer.getTopic());
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                Messages<byte[]> messages = consumer.batchReceive();
+                if (messages != null && messages.size() > 0 && !processBatch(messages)) {
+                    // Give the failure time to clear before the redelivered messages are processed
+                    Thread.sleep(REDELIVERY_PAUSE_MS);
+                }
+            } catch (PulsarClientException.AlreadyClosedException e) {
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (PulsarClientException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("{} - Error receiving from Pulsar topic: [{}]: {}", tenant, consumer.getTopic(),
+                        e.getMessage());
+            } catch (Exception e) {
+                log.error("{} - Error processing batch from Pulsar topic: [{}]", tenant, consumer.getTopic(), e);
+            }
+        }
+        log.debug("{} - Stopped batch receive for Pulsar topic: [{}]", tenant, consumer.getTopic());
+    }
+
+    /**
+     * Processes and acknowledges a batch.
+     *
+     * @return false if messages failed and were handed back for redelivery
+     */
+    boolean processBatch(Messages<byte[]> messages) throws PulsarClientException {
+        batchSizeSummary.record(messages.size());
+
+        if (qos == Qos.AT_MOST_ONCE) {
+            consumer.acknowledge(messages);
+            processGroups(groupByOrderingKey(messages));
+            return true;
+        }
+
+        List<Message<byte[]>> failed = processGroups(groupByOrderingKey(messages));
+        if (failed.isEmpty() && cumulativeAck) {
+            // Structure: < topicName, last messageId >, a cumulative ack only covers its own topic partition
+            Map<String, MessageId> lastMessageIds = new LinkedHashMap<>();
+            for (Message<byte[]> message : messages) {
+                lastMessageIds.put(message.getTopicName(), message.getMessageId());
+            }
+            for (MessageId messageId : lastMessageIds.values()) {
+                consumer.acknowledgeCumulative(messageId);
+            }
+            return true;
+        }
+
+        Set<MessageId> failedIds = new HashSet<>();
+        failed.forEach(message -> failedIds.add(message.getMessageId()));
+        List<MessageId> processed = new ArrayList<>(messages.size());
+        for (Message<byte[]> message : messages) {
+            if (!failedIds.contains(message.getMessageId())) {
+                processed.add(message.getMessageId());
+            }
+        }
+        if (!processed.isEmpty()) {
+            consumer.acknowledge(processed);
+        }
+        if (failed.isEmpty()) {
+            return true;
+        }
+        // Unlike a negative ack, this also takes back the messages received after the failed ones, so they cannot
+        // be processed and acknowledged cumulatively before the failed messages are redelivered
+        log.warn("{} - {} Pulsar messages failed on topic: [{}], redelivering unacknowledged messages", tenant,
+                failed.size(), consumer.getTopic());
+        consumer.redeliverUnacknowledgedMessages();
+        return false;
+    }
+
+    private Map<String, List<Message<byte[]>>> groupByOrderingKey(Messages<byte[]> messages) {
+        Map<String, List<Message<byte[]>>> groups = new LinkedHashMap<>();
+        for (Message<byte[]> message : messages) {
+            groups.computeIfAbsent(handler.getOrderingKey(message), k -> new ArrayList<>()).add(message);
+        }
+        return groups;
+    }
+
+    /**
+     * Processes the groups in parallel and waits for all of them.
+     *
+     * @return the messages that must be redelivered
+     */
+    private List<Message<byte[]>> processGroups(Map<String, List<Message<byte[]>>> groups) {
+        List<Message<byte[]>> failed = new ArrayList<>();
+        if (groups.size() == 1) {
+            failed.addAll(processGroup(groups.values().iterator().next()));
+            return failed;
+        }
+
+        List<List<Message<byte[]>>> groupList = new ArrayList<>(groups.values());
+        List<Future<List<Message<byte[]>>>> results = new ArrayList<>(groupList.size());
+        for (List<Message<byte[]>> group : groupList) {
+            results.add(virtualThreadPool.submit(() -> processGroup(group)));
+        }
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                failed.addAll(results.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.addAll(groupList.get(i));
+            } catch (ExecutionException e) {
+                log.error("{} - Error processing Pulsar messages", tenant, e.getCause());
+                failed.addAll(groupList.get(i));
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * @return the first failed message and all messages after it in the group
+     */
+    private List<Message<byte[]>> processGroup(List<Message<byte[]>> group) {
+        for (int i = 0; i < group.size(); i++) {
+            Message<byte[]> message = group.get(i);
+            boolean processed;
+            try {
+                processed = handler.process(message);
+            } catch (RuntimeException e) {
+                log.error("{} - Error processing Pulsar message: [{}]", tenant, message.getMessageId(), e);
+                processed = false;
+            }
+            // AT_MOST_ONCE messages are not redelivered, the rest of the group is processed anyway
+            if (!processed && qos != Qos.AT_MOST_ONCE) {
+                return new ArrayList<>(group.subList(i, group.size()));
+            }
+        }
+        return new ArrayList<>();
+    }
+}
@@ -44,7 +44,7 @@ import dynamic.mapper.processor.model.ProcessingResultWrapper;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
-public class PulsarCallback implements MessageListener<byte[]> {
+public class PulsarCallback implements MessageListener<byte[]>, PulsarMessageHandler {
     private GenericMessageCallback genericMessageCallback;
     private String tenant;
     private String connectorIdentifier;
@@ -64,6 +64,43 @@ public class PulsarCallback implements MessageListener<byte[]> {
 
     @Override
     public void received(Consumer<byte[]> consumer, Message<byte[]> message) {
+        ProcessingResultWrapper<?> processedResults = dispatch(message);
+
+        // Use the provided virtualThreadPool instead of creating a new thread
+        virtualThreadPool.submit(() -> {
+            try {
+                if (awaitResult(message, processedResults)) {
+                    consumer.acknowledge(message);
+                } else {
+                    consumer.negativeAcknowledge(message);
+                }
+            } catch (PulsarClientException e) {
+                log.error("{} - Error acknowledging Pulsar message: topic: [{}], connector: {}",
+                        tenant, message.getProperty(MQTTServicePulsarClient.PULSAR_PROPERTY_CHANNEL), connectorIdentifier, e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Orders by message key, which producers set to the device, and falls back
+     * to the channel of the message.
+     */
+    @Override
+    public String getOrderingKey(Message<byte[]> message) {
+        if (message.hasKey()) {
+            return message.getKey();
+        }
+        String channel = message.getProperty(MQTTServicePulsarClient.PULSAR_PROPERTY_CHANNEL);
+        return channel != null ? channel : message.getTopicName();
+    }
+
+    @Override
+    public boolean process(Message<byte[]> message) {
+        return awaitResult(message, dispatch(message));
+    }
+
+    private ProcessingResultWrapper<?> dispatch(Message<byte[]> message) {
         String topic = message.getProperty(MQTTServicePulsarClient.PULSAR_PROPERTY_CHANNEL);
         String client = message.getProperty(MQTTServicePulsarClient.PULSAR_PROPERTY_CLIENT_ID);
         byte[] payloadBytes = message.getData();
@@ -80,90 +117,95 @@ public class PulsarCallback implements MessageListener<byte[]> {
         if (serviceConfiguration.getLogPayload()) {
             log.info(
                     "{} - INITIAL: message on topic: [{}], connector: {}, {}",
-                    tenant, topic, connectorName, connectorIdentifier);
+                    tenant, message.getProperty(MQTTServicePulsarClient.PULSAR_PROPERTY_CHANNEL), connectorName, connectorIdentifier);
         }
 
         // Process the message
         ProcessingResultWrapper<?> processedResults = genericMessageCallback.onMessage(connectorMessage);
 
-        int timeout = processedResults.getMaxCPUTimeMS();
-
         if (serviceConfiguration.getLogPayload()) {
             log.info(
                     "{} - PREPARING_RESULTS: message on topic: [{}], connector {}",
-                    tenant, topic, connectorIdentifier);
+                    tenant, message.getProperty(MQTTServicePulsarClient.PULSAR_PROPERTY_CHANNEL), connectorIdentifier);
         }
+        return processedResults;
+    }
 
-        // Use the provided virtualThreadPool instead of creating a new thread
-        virtualThreadPool.submit(() -> {
-            try {
-                // Wait for the future to complete
-                List<? extends ProcessingContext<?>> results;
-                if (timeout > 0) {
-                    results = processedResults.getProcessingResult().get(timeout, TimeUnit.MILLISECONDS);
-                } else {
-                    results = processedResults.getProcessingResult().get();
-                }
+    /**
+     * Waits for the processing result of a message.
+     *
+     * @return true if the message is acknowledged, false if it is negatively
+     *         acknowledged to trigger a redelivery
+     */
+    private boolean awaitResult(Message<byte[]> message, ProcessingResultWrapper<?> processedResults) {
+        String topic = message.getProperty(MQTTServicePulsarClient.PULSAR_PROPERTY_CHANNEL);
+        int timeout = processedResults.getMaxCPUTimeMS();
+        try {
+            // Wait for the future to complete
+            List<? extends ProcessingContext<?>> results;
+            if (timeout > 0) {
+                results = processedResults.getProcessingResult().get(timeout, TimeUnit.MILLISECONDS);
+            } else {
+                results = processedResults.getProcessingResult().get();
+            }
 
-                // Check for errors in results
-                boolean hasErrors = false;
-                int httpStatusCode = 0;
-                if (results != null) {
-                    for (ProcessingContext<?> context : results) {
-                        if (context.hasError()) {
-                            for (Exception error : context.getErrors()) {
-                                if (error instanceof ProcessingException) {
-                                    if (((ProcessingException) error).getOriginException() instanceof SDKException) {
-                                        if (((SDKException) ((ProcessingException) error).getOriginException())
-                                                .getHttpStatus() > httpStatusCode) {
-                                            httpStatusCode = ((SDKException) ((ProcessingException) error)
-                                                    .getOriginException()).getHttpStatus();
-                                        }
+            // Check for errors in results
+            boolean hasErrors = false;
+            int httpStatusCode = 0;
+            if (results != null) {
+                for (ProcessingContext<?> context : results) {
+                    if (context.hasError()) {
+                        for (Exception error : context.getErrors()) {
+                            if (error instanceof ProcessingException) {
+                                if (((ProcessingException) error).getOriginException() instanceof SDKException) {
+                                    if (((SDKException) ((ProcessingException) error).getOriginException())
+                                            .getHttpStatus() > httpStatusCode) {
+                                        httpStatusCode = ((SDKException) ((ProcessingException) error)
+                                                .getOriginException()).getHttpStatus();
                                     }
                                 }
                             }
-                            hasErrors = true;
-                            log.error("{} - Error in processing context for topic: [{}]", tenant, topic);
-                            break;
                         }
+                        hasErrors = true;
+                        log.error("{} - Error in processing context for topic: [{}]", tenant, topic);
+                        break;
                     }
                 }
+            }
 
-                if (!hasErrors) {
-                    // No errors found, acknowledge based on original QoS requirements
-                    if (serviceConfiguration.getLogPayload()) {
-                        log.debug("{} - END: Sending ack for Pulsar message: topic: [{}], connector: {}",
-                                tenant, topic, connectorIdentifier);
-                    }
-                    consumer.acknowledge(message);
-                } else if (httpStatusCode < 500) {
-                    // Client errors - acknowledge to prevent redelivery
-                    log.warn("{} - END: Sending ack due to client error for Pulsar message: topic: [{}], connector: {}",
+            if (!hasErrors) {
+                // No errors found, acknowledge based on original QoS requirements
+                if (serviceConfiguration.getLogPayload()) {
+                    log.debug("{} - END: Sending ack for Pulsar message: topic: [{}], connector: {}",
                             tenant, topic, connectorIdentifier);
-                    consumer.acknowledge(message);
-                } else {
-                    // Server error, negative acknowledge to trigger redelivery
-                    // But only if QoS requires reliability
-                    log.warn(
-                            "{} - END: Sending negative ack due to server error for Pulsar message: topic: [{}], connector: {}",
-                            tenant, topic, connectorIdentifier);
-                    consumer.negativeAcknowledge(message);
                 }
-            } catch (InterruptedException | ExecutionException e) {
-                // Processing failed, negative acknowledge to allow redelivery
-                log.warn("{} - END: Was interrupted for Pulsar message: topic: [{}], connector: {}",
+                return true;
+            } else if (httpStatusCode < 500) {
+                // Client errors - acknowledge to prevent redelivery
+                log.warn("{} - END: Sending ack due to client error for Pulsar message: topic: [{}], connector: {}",
                         tenant, topic, connectorIdentifier);
-                consumer.negativeAcknowledge(message);
-            } catch (TimeoutException e) {
-                var cancelResult = processedResults.getProcessingResult().cancel(true);
-                log.warn("{} - END: Processing timed out with: {} milliseconds, connector {}, result of cancelling: {}",
-                        tenant, timeout, connectorIdentifier, cancelResult);
-                consumer.negativeAcknowledge(message);
-            } catch (PulsarClientException e) {
-                log.error("{} - Error acknowledging Pulsar message: topic: [{}], connector: {}",
-                        tenant, topic, connectorIdentifier, e);
+                return true;
+            } else {
+                // Server error, negative acknowledge to trigger redelivery
+                // But only if QoS requires reliability
+                log.warn(
+                        "{} - END: Sending negative ack due to server error for Pulsar message: topic: [{}], connector: {}",
+                        tenant, topic, connectorIdentifier);
+                return false;
             }
-            return null;
-        });
+        } catch (InterruptedException | ExecutionException e) {
+            // Processing failed, negative acknowledge to allow redelivery
+            log.warn("{} - END: Was interrupted for Pulsar message: topic: [{}], connector: {}",
+                    tenant, topic, connectorIdentifier);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        } catch (TimeoutException e) {
+            var cancelResult = processedResults.getProcessingResult().cancel(true);
+            log.warn("{} - END: Processing timed out with: {} milliseconds, connector {}, result of cancelling: {}",
+                    tenant, timeout, connectorIdentifier, cancelResult);
+            return false;
+        }
     }
-}
\ No newline at end of file
+}
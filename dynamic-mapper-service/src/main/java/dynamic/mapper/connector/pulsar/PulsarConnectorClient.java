@@ -25,6 +25,7 @@ import dynamic.mapper.configuration.ConnectorConfiguration;
 import dynamic.mapper.configuration.ConnectorId;
 import dynamic.mapper.connector.core.ConnectorProperty;
 import dynamic.mapper.connector.core.ConnectorPropertyBuilder;
+import dynamic.mapper.connector.core.ConnectorPropertyType;
 import dynamic.mapper.connector.core.ConnectorSpecification;
 import dynamic.mapper.connector.core.ConnectorSpecificationBuilder;
 import dynamic.mapper.connector.core.client.AConnectorClient;
@@ -61,6 +62,11 @@ import java.util.regex.Pattern;
  * - AT_MOST_ONCE: Immediate ack, fire-and-forget
  * - AT_LEAST_ONCE: Ack after processing, Shared subscription
  * - EXACTLY_ONCE: Ack after processing, Exclusive subscription
+ *
+ * Messages are received in batches and processed in parallel per device
+ * topic, see {@link PulsarBatchReceiver}. With a Key_Shared subscription
+ * several consumers share a topic, the broker routes all messages with the
+ * same key to the same consumer.
  */
 @Slf4j
 public class PulsarConnectorClient extends AConnectorClient {
@@ -70,12 +76,17 @@ public class PulsarConnectorClient extends AConnectorClient {
     private static final int DEFAULT_KEEP_ALIVE = 30;
     private static final int MAX_PRODUCER_CREATE_RETRIES = 3;
     private static final int PRODUCER_CREATE_RETRY_DELAY_MS = 1000;
+    private static final int DEFAULT_CONSUMER_COUNT = 1;
+    private static final int DEFAULT_RECEIVER_QUEUE_SIZE = 1000;
+    private static final int DEFAULT_BATCH_RECEIVE_MAX_MESSAGES = 100;
+    private static final int DEFAULT_BATCH_RECEIVE_TIMEOUT_MS = 10;
 
     protected PulsarClient pulsarClient;
     protected PulsarCallback pulsarCallback;
 
     // Consumer and producer management
-    protected final Map<String, Consumer<byte[]>> consumers = new ConcurrentHashMap<>();
+    // Structure: < MQTT topic, receivers of the consumers subscribed to the topic >
+    protected final Map<String, List<PulsarBatchReceiver>> receivers = new ConcurrentHashMap<>();
     protected final Map<String, Producer<byte[]>> producers = new ConcurrentHashMap<>();
 
     @Getter
@@ -322,62 +333,57 @@ public class PulsarConnectorClient extends AConnectorClient {
 
     @Override
     protected void subscribe(String topic, Qos qos) throws ConnectorException {
-        if (!isConnected() || consumers.containsKey(topic)) {
+        if (!isConnected() || receivers.containsKey(topic)) {
             return;
         }
 
         log.debug("{} - Subscribing to topic: [{}], QoS: {}", tenant, topic, qos);
 
-        try {
-            String subscriptionName = buildSubscriptionName(topic);
-            SubscriptionType subscriptionType = determineSubscriptionType(qos);
-
-            Consumer<byte[]> consumer;
+        String subscriptionName = buildSubscriptionName(topic);
+        SubscriptionType subscriptionType = determineSubscriptionType(qos);
+        // Only Key_Shared keeps the order per device across several consumers
+        int consumerCount = subscriptionType == SubscriptionType.Key_Shared ? getConsumerCount() : 1;
+        Boolean wildcard = containsMqttWildcards(topic);
+        String pulsarTopic = wildcard ? translateMqttTopicToPulsarRegex(topic) : ensurePulsarTopicFormat(topic);
 
-            if (containsMqttWildcards(topic)) {
-                // Handle wildcard subscription
-                String pulsarPattern = translateMqttTopicToPulsarRegex(topic);
-                consumer = pulsarClient.newConsumer()
-                        .topicsPattern(Pattern.compile(pulsarPattern))
-                        .subscriptionName(subscriptionName)
-                        .subscriptionType(subscriptionType)
-                        .messageListener(new QoSAwarePulsarCallback(pulsarCallback, qos))
-                        .acknowledgmentGroupTime(requiresAcknowledgment(qos) ? 100 : 0, TimeUnit.MILLISECONDS)
-                        .subscribe();
-                log.info("{} - Subscribed to pattern: [{}] (MQTT: [{}])", tenant, pulsarPattern, topic);
-            } else {
-                // Handle regular subscription
-                String pulsarTopic = ensurePulsarTopicFormat(topic);
-                consumer = pulsarClient.newConsumer()
-                        .topic(pulsarTopic)
+        List<PulsarBatchReceiver> topicReceivers = new ArrayList<>(consumerCount);
+        try {
+            for (int i = 0; i < consumerCount; i++) {
+                ConsumerBuilder<byte[]> consumerBuilder = wildcard
+                        ? pulsarClient.newConsumer().topicsPattern(Pattern.compile(pulsarTopic))
+                        : pulsarClient.newConsumer().topic(pulsarTopic);
+                Consumer<byte[]> consumer = configureBatchReceive(consumerBuilder)
                         .subscriptionName(subscriptionName)
                         .subscriptionType(subscriptionType)
-                        .messageListener(new QoSAwarePulsarCallback(pulsarCallback, qos))
                         .acknowledgmentGroupTime(requiresAcknowledgment(qos) ? 100 : 0, TimeUnit.MILLISECONDS)
                         .subscribe();
-                log.info("{} - Subscribed to topic: [{}] (MQTT: [{}])", tenant, pulsarTopic, topic);
+                topicReceivers.add(new PulsarBatchReceiver(tenant, connectorIdentifier, consumer, pulsarCallback,
+                        qos, supportsCumulativeAck(subscriptionType), virtualThreadPool));
             }
-
-            consumers.put(topic, consumer);
-            sendSubscriptionEvents(topic, "Subscribed");
-
         } catch (PulsarClientException e) {
+            topicReceivers.forEach(PulsarBatchReceiver::close);
             throw new ConnectorException("Failed to subscribe to topic: " + topic, e);
         }
+
+        topicReceivers.forEach(PulsarBatchReceiver::start);
+        receivers.put(topic, topicReceivers);
+        if (wildcard) {
+            log.info("{} - Subscribed to pattern: [{}] (MQTT: [{}]), consumers: {}", tenant, pulsarTopic, topic,
+                    consumerCount);
+        } else {
+            log.info("{} - Subscribed to topic: [{}] (MQTT: [{}]), consumers: {}", tenant, pulsarTopic, topic,
+                    consumerCount);
+        }
+        sendSubscriptionEvents(topic, "Subscribed");
     }
 
     @Override
     protected void unsubscribe(String topic) throws ConnectorException {
         log.debug("{} - Unsubscribing from topic: [{}]", tenant, topic);
 
-        Consumer<byte[]> consumer = consumers.remove(topic);
-        if (consumer != null) {
-            try {
-                consumer.close();
-            } catch (PulsarClientException e) {
-                throw new ConnectorException(
-                        String.format("%s - Failed to unsubscribe from topic: %s", tenant, topic), e);
-            }
+        List<PulsarBatchReceiver> topicReceivers = receivers.remove(topic);
+        if (topicReceivers != null) {
+            topicReceivers.forEach(PulsarBatchReceiver::close);
             log.info("{} - Unsubscribed from topic: [{}]", tenant, topic);
             sendSubscriptionEvents(topic, "Unsubscribed");
         }
@@ -394,14 +400,8 @@ public class PulsarConnectorClient extends AConnectorClient {
             connectionStateManager.updateStatus(ConnectorStatus.DISCONNECTING, true, true);
 
             // Close consumers
-            consumers.values().forEach(consumer -> {
-                try {
-                    consumer.close();
-                } catch (PulsarClientException e) {
-                    log.warn("{} - Error closing consumer: {}", tenant, e.getMessage());
-                }
-            });
-            consumers.clear();
+            receivers.values().forEach(topicReceivers -> topicReceivers.forEach(PulsarBatchReceiver::close));
+            receivers.clear();
 
             // Close producers
             producers.values().forEach(producer -> {
@@ -629,14 +629,10 @@ public class PulsarConnectorClient extends AConnectorClient {
     @Override
     public void monitorSubscriptions() {
         // Monitor consumers and remove disconnected ones
-        consumers.entrySet().removeIf(entry -> {
-            if (!entry.getValue().isConnected()) {
+        receivers.entrySet().removeIf(entry -> {
+            if (entry.getValue().stream().anyMatch(receiver -> !receiver.getConsumer().isConnected())) {
                 log.warn("{} - Consumer for topic {} disconnected, removing", tenant, entry.getKey());
-                try {
-                    entry.getValue().close();
-                } catch (PulsarClientException e) {
-                    log.error("{} - Error closing disconnected consumer: {}", tenant, e.getMessage());
-                }
+                entry.getValue().forEach(PulsarBatchReceiver::close);
                 return true;
             }
             return false;
@@ -717,6 +713,46 @@ public class PulsarConnectorClient extends AConnectorClient {
         }
     }
 
+    /**
+     * Cumulative acks are rejected by the broker for Shared and Key_Shared
+     * subscriptions
+     */
+    protected static boolean supportsCumulativeAck(SubscriptionType subscriptionType) {
+        return subscriptionType == SubscriptionType.Exclusive || subscriptionType == SubscriptionType.Failover;
+    }
+
+    /**
+     * Apply receiver queue size and batch receive policy of the connector
+     */
+    protected ConsumerBuilder<byte[]> configureBatchReceive(ConsumerBuilder<byte[]> consumerBuilder) {
+        return consumerBuilder
+                .receiverQueueSize(getReceiverQueueSize())
+                .batchReceivePolicy(BatchReceivePolicy.builder()
+                        .maxNumMessages(getBatchReceiveMaxMessages())
+                        .timeout(getBatchReceiveTimeoutMs(), TimeUnit.MILLISECONDS)
+                        .build());
+    }
+
+    protected int getConsumerCount() {
+        Object value = connectorConfiguration.getProperties().get("consumerCount");
+        return value instanceof Number ? Math.max(1, ((Number) value).intValue()) : DEFAULT_CONSUMER_COUNT;
+    }
+
+    protected int getReceiverQueueSize() {
+        Object value = connectorConfiguration.getProperties().get("receiverQueueSize");
+        return value instanceof Number ? ((Number) value).intValue() : DEFAULT_RECEIVER_QUEUE_SIZE;
+    }
+
+    protected int getBatchReceiveMaxMessages() {
+        Object value = connectorConfiguration.getProperties().get("batchReceiveMaxMessages");
+        return value instanceof Number ? ((Number) value).intValue() : DEFAULT_BATCH_RECEIVE_MAX_MESSAGES;
+    }
+
+    protected int getBatchReceiveTimeoutMs() {
+        Object value = connectorConfiguration.getProperties().get("batchReceiveTimeoutMs");
+        return value instanceof Number ? ((Number) value).intValue() : DEFAULT_BATCH_RECEIVE_TIMEOUT_MS;
+    }
+
     /**
      * Check if acknowledgment is required
      */
@@ -917,32 +953,34 @@ public class PulsarConnectorClient extends AConnectorClient {
                         .order(15)
                         .defaultValue("default"))
 
-                .build();
-    }
-
-    /**
-     * QoS-aware message listener wrapper
-     */
-    protected static class QoSAwarePulsarCallback implements MessageListener<byte[]> {
-        private final PulsarCallback delegate;
-        private final Qos qos;
+                // Consumer settings
+                .property("consumerCount", ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                        .order(16)
+                        .description("Number of consumers per subscribed topic, only used for subscription type "
+                                + "'Key_Shared'. Messages with the same key are always received by the same consumer")
+                        .required(false)
+                        .defaultValue(DEFAULT_CONSUMER_COUNT))
+
+                .property("receiverQueueSize", ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                        .order(17)
+                        .description("Number of messages a consumer prefetches from the broker")
+                        .required(false)
+                        .defaultValue(DEFAULT_RECEIVER_QUEUE_SIZE))
+
+                .property("batchReceiveMaxMessages",
+                        ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                                .order(18)
+                                .description("Maximum number of messages received and acknowledged as one batch")
+                                .required(false)
+                                .defaultValue(DEFAULT_BATCH_RECEIVE_MAX_MESSAGES))
+
+                .property("batchReceiveTimeoutMs",
+                        ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                                .order(19)
+                                .description("Maximum time in milliseconds to wait for a batch to fill up")
+                                .required(false)
+                                .defaultValue(DEFAULT_BATCH_RECEIVE_TIMEOUT_MS))
 
-        public QoSAwarePulsarCallback(PulsarCallback delegate, Qos qos) {
-            this.delegate = delegate;
-            this.qos = qos;
-        }
-
-        @Override
-        public void received(Consumer<byte[]> consumer, Message<byte[]> message) {
-            if (qos == Qos.AT_MOST_ONCE) {
-                try {
-                    consumer.acknowledge(message);
-                } catch (PulsarClientException e) {
-                    log.warn("Failed to acknowledge AT_MOST_ONCE message: {}", e.getMessage());
-                }
-            }
-
-            delegate.received(consumer, message);
-        }
+                .build();
     }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.pulsar;
+
+import org.apache.pulsar.client.api.Message;
+
+/**
+ * Processes Pulsar messages received by a {@link PulsarBatchReceiver}.
+ */
+interface PulsarMessageHandler {
+
+    /**
+     * Key of the device a message belongs to. Messages with the same key are
+     * processed in the order they were received.
+     */
+    String getOrderingKey(Message<byte[]> message);
+
+    /**
+     * Processes the message and waits for the result.
+     *
+     * @return true if the message can be acknowledged, false if it must be
+     *         redelivered
+     */
+    boolean process(Message<byte[]> message);
+}
@@ -46,21 +46,33 @@ import dynamic.mapper.processor.inbound.CamelDispatcherInbound;
 import dynamic.mapper.processor.model.DynamicMapperRequest;
 import dynamic.mapper.processor.model.ProcessingContext;
 import dynamic.mapper.processor.util.APITopicUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.ws.rs.NotSupportedException;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * WebHook Connector Client.
@@ -79,7 +91,17 @@ public class WebHook extends AConnectorClient {
         "deviceParents", "assetParents", "additionParents"
     };
 
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 16;
+    private static final int DEFAULT_MAX_RETRIES = 0;
+    private static final long DEFAULT_RETRY_BACKOFF_MS = 500;
+    private static final String PUBLISH_RESULT_SUCCESS = "success";
+    private static final String PUBLISH_RESULT_FAILURE = "failure";
+
     protected WebClient webhookClient;
+    // Keep-alive connections to the endpoint, bounds the concurrent requests of the connector
+    private ConnectionProvider connectionProvider;
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private Gauge inFlightGauge;
     protected String baseUrl;
     protected Boolean baseUrlEndsWithSlash;
 
@@ -226,7 +248,16 @@ public class WebHook extends AConnectorClient {
             connectionStateManager.updateStatus(ConnectorStatus.CONNECTING, true, true);
 
             // Build WebClient
+            disposeConnections();
             webhookClient = buildWebClient();
+            if (inFlightGauge == null) {
+                inFlightGauge = Gauge.builder("dynmapper_webhook_requests_in_flight", inFlightRequests,
+                        AtomicInteger::get)
+                        .description("Number of requests of the webhook connector waiting for a response")
+                        .tag("tenant", tenant)
+                        .tag("connector", connectorIdentifier)
+                        .register(Metrics.globalRegistry);
+            }
 
             // Test health endpoint if configured
             String healthEndpoint = (String) connectorConfiguration.getProperties()
@@ -273,7 +304,15 @@ public class WebHook extends AConnectorClient {
         @SuppressWarnings("unchecked")
         Map<String, String> headers = (Map<String, String>) connectorConfiguration.getProperties().get("headers");
 
+        connectionProvider = ConnectionProvider.builder("webhook-" + tenant + "-" + connectorIdentifier)
+                .maxConnections(getMaxConcurrentRequests())
+                // Requests wait for a free connection instead of failing
+                .pendingAcquireMaxCount(-1)
+                .maxIdleTime(Duration.ofSeconds(60))
+                .build();
+
         WebClient.Builder builder = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
                 .baseUrl(baseUrl)
                 .defaultHeader("Accept", headerAccept);
 
@@ -301,6 +340,21 @@ public class WebHook extends AConnectorClient {
         return builder.build();
     }
 
+    private void disposeConnections() {
+        if (connectionProvider != null) {
+            connectionProvider.disposeLater().subscribe();
+            connectionProvider = null;
+        }
+        if (inFlightGauge != null) {
+            Metrics.globalRegistry.remove(inFlightGauge);
+            inFlightGauge = null;
+        }
+        Metrics.globalRegistry.find("dynmapper_webhook_publish_time")
+                .tags("tenant", tenant, "connector", connectorIdentifier)
+                .timers()
+                .forEach(Metrics.globalRegistry::remove);
+    }
+
     /**
      * Check health of the webhook endpoint
      */
@@ -347,6 +401,7 @@ public class WebHook extends AConnectorClient {
         try {
             connectionStateManager.setConnected(false);
             connectionStateManager.updateStatus(ConnectorStatus.DISCONNECTED, true, true);
+            disposeConnections();
 
             // Rebuild caches
             mappingService.rebuildMappingCaches(tenant, connectorId);
@@ -375,13 +430,43 @@ public class WebHook extends AConnectorClient {
             return;
         }
 
+        List<PreparedRequest> prepared = prepareRequests(context, requests);
+        if (prepared.isEmpty()) {
+            return;
+        }
+
+        // Requests are sent concurrently, the connection pool bounds the concurrency across all contexts
+        List<PublishOutcome> outcomes = Flux.fromIterable(prepared)
+                .flatMap(request -> publish(request, context, requests.size()), getMaxConcurrentRequests())
+                .collectList()
+                .block();
+
+        // Errors are reported on the calling thread, the context is not thread-safe
+        if (outcomes != null) {
+            for (PublishOutcome outcome : outcomes) {
+                if (outcome.getError() != null) {
+                    outcome.getRequest().getRequest().setError(outcome.getError());
+                    context.addError(outcome.getError() instanceof ProcessingException
+                            ? (ProcessingException) outcome.getError()
+                            : new ProcessingException(outcome.getError().getMessage(), outcome.getError()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolves method, path and payload of the requests. Requests that cannot
+     * be sent are marked with an error and skipped.
+     */
+    private List<PreparedRequest> prepareRequests(ProcessingContext<?> context,
+            List<DynamicMapperRequest> requests) {
         boolean cumulocityInternal = isCumulocityInternal();
+        List<PreparedRequest> prepared = new ArrayList<>(requests.size());
 
-        // Process each request
         for (int i = 0; i < requests.size(); i++) {
             DynamicMapperRequest request = requests.get(i);
 
-            log.info("{} - Processing request ({}/{}): method={}, api={}, hasRequest={}, hasRequestCumulocity={}",
+            log.debug("{} - Processing request ({}/{}): method={}, api={}, hasRequest={}, hasRequestCumulocity={}",
                     tenant, i + 1, requests.size(),
                     request != null ? request.getMethod() : "null",
                     request != null && request.getApi() != null ? request.getApi().name : "null",
@@ -435,38 +520,120 @@ public class WebHook extends AConnectorClient {
             log.debug("{} - Publishing ({}/{}): path={}, method={}, API={}",
                     tenant, i + 1, requests.size(), fullPath, method, request.getApi());
 
-            try {
-                Mono<ResponseEntity<String>> responseEntity = executeHttpRequest(method, fullPath, payload, context);
-
-                ResponseEntity<String> response = responseEntity.block();
+            prepared.add(new PreparedRequest(i + 1, request, method, fullPath, payload));
+        }
+        return prepared;
+    }
 
-                if (response != null && response.getStatusCode().is2xxSuccessful()) {
-                    // Always log success with method info to verify correct build is deployed
-                    log.info("{} - Published successfully ({}/{}): method={}, status={}, API={}, path={}",
-                            tenant, i + 1, requests.size(), method, response.getStatusCode(),
-                            request.getApi() != null ? request.getApi().name : "EXTERNAL", fullPath);
+    /**
+     * Sends one request, retrying server errors and failed connections with
+     * backoff if configured. Never completes with an error, the error is
+     * returned in the outcome.
+     */
+    private Mono<PublishOutcome> publish(PreparedRequest prepared, ProcessingContext<?> context, int total) {
+        int maxRetries = getMaxRetries();
+        Mono<ResponseEntity<String>> response = Mono.defer(() -> {
+            inFlightRequests.incrementAndGet();
+            Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+            return executeHttpRequest(prepared.getMethod(), prepared.getFullPath(), prepared.getPayload(), context)
+                    .doOnSuccess(r -> sample.stop(publishTimer(PUBLISH_RESULT_SUCCESS)))
+                    .doOnError(e -> sample.stop(publishTimer(PUBLISH_RESULT_FAILURE)))
+                    .doFinally(signal -> inFlightRequests.decrementAndGet());
+        });
+        if (maxRetries > 0) {
+            response = response.retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(getRetryBackoffMs()))
+                    .filter(WebHook::isRetryable)
+                    .doBeforeRetry(signal -> log.debug("{} - Retrying ({}/{}) after: {}", tenant,
+                            prepared.getIndex(), total, signal.failure().getMessage()))
+                    .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+        }
 
-                    if (context.getMapping().getDebug() || context.getServiceConfiguration().getLogPayload()) {
-                        log.info("{} - Request details ({}/{}): mapping={}, payload={}",
-                                tenant, i + 1, requests.size(), context.getMapping().getName(), payload);
+        return response
+                .map(r -> {
+                    if (r.getStatusCode().is2xxSuccessful()) {
+                        log.debug("{} - Published successfully ({}/{}): method={}, status={}, API={}, path={}",
+                                tenant, prepared.getIndex(), total, prepared.getMethod(), r.getStatusCode(),
+                                prepared.getRequest().getApi() != null ? prepared.getRequest().getApi().name
+                                        : "EXTERNAL",
+                                prepared.getFullPath());
+                        if (context.getMapping().getDebug() || context.getServiceConfiguration().getLogPayload()) {
+                            log.info("{} - Request details ({}/{}): mapping={}, payload={}",
+                                    tenant, prepared.getIndex(), total, context.getMapping().getName(),
+                                    prepared.getPayload());
+                        }
+                        log.debug("{} - Response body ({}/{}): {}", tenant, prepared.getIndex(), total,
+                                r.getBody() != null ? r.getBody() : "<empty>");
+                        return new PublishOutcome(prepared, null);
                     }
-                    log.debug("{} - Response body ({}/{}): {}", tenant, i + 1, requests.size(),
-                            response.getBody() != null ? response.getBody() : "<empty>");
-                } else {
                     String error = String.format("Failed to publish (%d/%d): status %s",
-                            i + 1, requests.size(), response != null ? response.getStatusCode() : "unknown");
-                    log.error("{} - {} - Payload: {}", tenant, error, payload);
-                    request.setError(new Exception(error));
-                    context.addError(new ProcessingException(error));
-                }
+                            prepared.getIndex(), total, r.getStatusCode());
+                    log.error("{} - {} - Payload: {}", tenant, error, prepared.getPayload());
+                    return new PublishOutcome(prepared, new ProcessingException(error));
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> new PublishOutcome(prepared, new ProcessingException(
+                        String.format("Failed to publish (%d/%d): status unknown", prepared.getIndex(), total)))))
+                .onErrorResume(e -> {
+                    String error = String.format("Error publishing to %s (%d/%d): %s", prepared.getFullPath(),
+                            prepared.getIndex(), total, e.getMessage());
+                    log.error("{} - {} - Payload: {}", tenant, error, prepared.getPayload(), e);
+                    return Mono.just(new PublishOutcome(prepared, new ProcessingException(error, e)));
+                });
+    }
 
-            } catch (Exception e) {
-                String error = String.format("Error publishing to %s (%d/%d): %s", fullPath, i + 1, requests.size(), e.getMessage());
-                log.error("{} - {} - Payload: {}", tenant, error, payload, e);
-                request.setError(e);
-                context.addError(new ProcessingException(error, e));
-            }
+    /**
+     * Server errors, rate limiting and failed connections are retried, other
+     * client errors are not
+     */
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof ProcessingException) {
+            int status = ((ProcessingException) error).getHttpStatusCode();
+            return status >= 500 || status == 429;
         }
+        return error instanceof WebClientRequestException;
+    }
+
+    private Timer publishTimer(String result) {
+        return Timer.builder("dynmapper_webhook_publish_time")
+                .description("Time to publish a request of the webhook connector")
+                .tag("tenant", tenant)
+                .tag("connector", connectorIdentifier)
+                .tag("result", result)
+                .register(Metrics.globalRegistry);
+    }
+
+    private int getMaxConcurrentRequests() {
+        Object value = connectorConfiguration.getProperties().get("maxConcurrentRequests");
+        return value instanceof Number && ((Number) value).intValue() > 0 ? ((Number) value).intValue()
+                : DEFAULT_MAX_CONCURRENT_REQUESTS;
+    }
+
+    private int getMaxRetries() {
+        Object value = connectorConfiguration.getProperties().get("maxRetries");
+        return value instanceof Number ? Math.max(0, ((Number) value).intValue()) : DEFAULT_MAX_RETRIES;
+    }
+
+    private long getRetryBackoffMs() {
+        Object value = connectorConfiguration.getProperties().get("retryBackoffMs");
+        return value instanceof Number && ((Number) value).longValue() > 0 ? ((Number) value).longValue()
+                : DEFAULT_RETRY_BACKOFF_MS;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class PreparedRequest {
+        // 1-based position of the request in the context, used for logging
+        private final int index;
+        private final DynamicMapperRequest request;
+        private final RequestMethod method;
+        private final String fullPath;
+        private final String payload;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class PublishOutcome {
+        private final PreparedRequest request;
+        private final Exception error;
     }
 
     /**
@@ -480,15 +647,15 @@ public class WebHook extends AConnectorClient {
             API topicApi = APITopicUtil.deriveAPIFromTopic(publishTopic);
             if (topicApi != null) {
                 if (currentApi != null && currentApi != topicApi) {
-                    log.info("{} - publishTopic '{}' → API {} overrides pre-set API {} ({}/{})",
+                    log.debug("{} - publishTopic '{}' → API {} overrides pre-set API {} ({}/{})",
                             tenant, publishTopic, topicApi.name, currentApi.name, idx, total);
                 } else {
-                    log.info("{} - Topic '{}' → API {} ({}/{})", tenant, publishTopic, topicApi.name, idx, total);
+                    log.debug("{} - Topic '{}' → API {} ({}/{})", tenant, publishTopic, topicApi.name, idx, total);
                 }
                 request.setApi(topicApi);
                 return topicApi;
             } else if (currentApi != null) {
-                log.info("{} - Cannot derive API from topic '{}', keeping pre-set API {} ({}/{})",
+                log.debug("{} - Cannot derive API from topic '{}', keeping pre-set API {} ({}/{})",
                         tenant, publishTopic, currentApi.name, idx, total);
                 return currentApi;
             } else {
@@ -608,7 +775,7 @@ public class WebHook extends AConnectorClient {
         final boolean enableDetailedLogging = context != null &&
                 (context.getMapping().getDebug() || context.getServiceConfiguration().getLogPayload());
 
-        log.info("{} - PATCH: Starting GET+merge+PUT for path: {}", tenant, path);
+        log.debug("{} - PATCH: Starting GET+merge+PUT for path: {}", tenant, path);
 
         if (enableDetailedLogging) {
             log.info("{} - PATCH: Update payload: {}", tenant, payload);
@@ -861,7 +1028,7 @@ public class WebHook extends AConnectorClient {
      * Create WebHook connector specification
      */
     private ConnectorSpecification createConnectorSpecification() {
-        return ConnectorSpecificationBuilder
+        ConnectorSpecificationBuilder builder = ConnectorSpecificationBuilder
                 .create("Webhook", ConnectorType.WEB_HOOK)
                 .description("Webhook to send outbound messages to the configured REST endpoint as POST in JSON format. " +
                         "The publishTopic is appended to the REST endpoint. " +
@@ -925,9 +1092,35 @@ public class WebHook extends AConnectorClient {
                 .property("supportsWildcardInTopicOutbound", ConnectorPropertyBuilder.optionalBoolean()
                         .order(10)
                         .readonly(true)
-                        .defaultValue(true))
+                        .defaultValue(true));
 
-                .build();
+        return addPublishProperties(builder, 11).build();
+    }
+
+    /**
+     * Adds the properties controlling concurrency and retries of publishing
+     */
+    protected static ConnectorSpecificationBuilder addPublishProperties(ConnectorSpecificationBuilder builder,
+            int order) {
+        return builder
+                .property("maxConcurrentRequests", ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                        .order(order)
+                        .description("Maximum number of concurrent requests to the endpoint")
+                        .required(false)
+                        .defaultValue(DEFAULT_MAX_CONCURRENT_REQUESTS))
+
+                .property("maxRetries", ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                        .order(order + 1)
+                        .description("Number of retries of a request failing with a server error, 429 or a "
+                                + "connection error, 0 disables retries")
+                        .required(false)
+                        .defaultValue(DEFAULT_MAX_RETRIES))
+
+                .property("retryBackoffMs", ConnectorPropertyBuilder.create(ConnectorPropertyType.NUMERIC_PROPERTY)
+                        .order(order + 2)
+                        .description("Initial backoff in milliseconds before a retry, doubled with every retry")
+                        .required(false)
+                        .defaultValue((int) DEFAULT_RETRY_BACKOFF_MS));
     }
 
 }
\ No newline at end of file
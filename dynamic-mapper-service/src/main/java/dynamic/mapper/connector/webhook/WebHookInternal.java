@@ -100,7 +100,7 @@ public class WebHookInternal extends WebHook {
      * This connector is pre-configured for internal Cumulocity communication
      */
     private ConnectorSpecification createConnectorSpecification() {
-        return ConnectorSpecificationBuilder
+        ConnectorSpecificationBuilder builder = ConnectorSpecificationBuilder
                 .create("Cumulocity API", ConnectorType.WEB_HOOK_INTERNAL)
                 .description("Internal connector to use the Cumulocity REST API. " +
                         "Automatically configured with microservice credentials and internal endpoints. " +
@@ -129,9 +129,9 @@ public class WebHookInternal extends WebHook {
                         .order(2)
                         .readonly(true)
                         .hidden(true)
-                        .defaultValue(true))
+                        .defaultValue(true));
 
-                .build();
+        return addPublishProperties(builder, 3).build();
     }
 
     @Override
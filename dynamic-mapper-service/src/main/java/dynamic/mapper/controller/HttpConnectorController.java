@@ -24,12 +24,20 @@ package dynamic.mapper.controller;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import dynamic.mapper.service.ConnectorConfigurationService;
 import dynamic.mapper.service.MappingService;
 import dynamic.mapper.service.ServiceConfigurationService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -46,9 +54,14 @@ import org.springframework.web.server.ResponseStatusException;
 import com.cumulocity.microservice.context.ContextService;
 import com.cumulocity.microservice.context.credentials.UserCredentials;
 import com.cumulocity.microservice.security.service.SecurityUserDetails;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import dynamic.mapper.connector.core.callback.ConnectorMessage;
 import dynamic.mapper.connector.core.registry.ConnectorRegistry;
+import dynamic.mapper.connector.http.HttpBatchItemResult;
 import dynamic.mapper.connector.http.HttpClient;
 import dynamic.mapper.core.BootstrapService;
 import dynamic.mapper.core.C8YAgent;
@@ -92,6 +105,25 @@ public class HttpConnectorController {
     @Autowired
     private ContextService<UserCredentials> contextService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("virtualThreadPool")
+    private ExecutorService virtualThreadPool;
+
+    @Value("${APP.httpConnectorBatchMaxParallel:16}")
+    private int batchMaxParallel;
+
+    @Value("${APP.httpConnectorBatchMaxItems:10000}")
+    private int batchMaxItems;
+
+    private static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
+    private static final String PARAMETER_BATCH = "batch";
+    private static final String PARAMETER_ASYNC = "async";
+    private static final String BATCH_ITEM_TOPIC = "topic";
+    private static final String BATCH_ITEM_PAYLOAD = "payload";
+
     @Operation(
         summary = "Process HTTP connector message",
         description = """
@@ -103,6 +135,12 @@ public class HttpConnectorController {
             - POST /httpConnector/sensors/temperature → topic: 'sensors/temperature'
             - PUT /httpConnector/devices/device001/data → topic: 'devices/device001/data'
             - POST /httpConnector → topic: '' (empty, root level)
+
+            **Batch mode:** With content type 'application/x-ndjson' or the query parameter 'batch=true' the body
+            is a JSON array or newline delimited JSON of items. An item is either the payload itself or an object
+            '{"topic": "...", "payload": ...}' overriding the topic of the path. The items are processed in parallel
+            and a result is returned per item. With 'async=true' the batch is accepted with 202 and processed
+            in the background.
             
             **Security:** Requires ROLE_DYNAMIC_MAPPER_HTTP_CONNECTOR_CREATE role.
             """,
@@ -177,7 +215,12 @@ public class HttpConnectorController {
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200",
-            description = "Message processed successfully",
+            description = "Message processed successfully, in batch mode with a result per item",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "202",
+            description = "Batch accepted for asynchronous processing",
             content = @Content(mediaType = "application/json")
         ),
         @ApiResponse(
@@ -205,6 +248,11 @@ public class HttpConnectorController {
                 )
             )
         ),
+        @ApiResponse(
+            responseCode = "413",
+            description = "Batch exceeds the maximum number of items",
+            content = @Content
+        ),
         @ApiResponse(
             responseCode = "500",
             description = "Internal server error",
@@ -232,6 +280,9 @@ public class HttpConnectorController {
             // Get the path
             String subPath = fullPath.equals(HttpClient.HTTP_CONNECTOR_ABSOLUTE_PATH) ? ""
                     : fullPath.substring(HttpClient.HTTP_CONNECTOR_ABSOLUTE_PATH.length() + cutOffLength);
+            if (isBatch(request)) {
+                return processBatch(request, tenant, subPath, connectorClient);
+            }
             // Read the body manually
             byte[] payload = readBody(request);
             // build connectorMessage
@@ -246,12 +297,88 @@ public class HttpConnectorController {
             connectorClient.onMessage(connectorMessage);
 
             return ResponseEntity.ok().build();
+        } catch (ResponseStatusException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("{} - Error transforming payload: {}", tenant, ex);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getLocalizedMessage());
         }
     }
 
+    private boolean isBatch(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return Boolean.parseBoolean(request.getParameter(PARAMETER_BATCH))
+                || (contentType != null && contentType.startsWith(MEDIA_TYPE_NDJSON));
+    }
+
+    private ResponseEntity<?> processBatch(HttpServletRequest request, String tenant, String subPath,
+            HttpClient connectorClient) throws IOException {
+        boolean async = Boolean.parseBoolean(request.getParameter(PARAMETER_ASYNC));
+        MappingIterator<JsonNode> items = objectMapper.readerFor(JsonNode.class)
+                .readValues(request.getInputStream());
+        // Read the whole batch first, so an oversized batch is rejected before any item is processed
+        List<ConnectorMessage> messages = new ArrayList<>();
+        while (items.hasNext()) {
+            if (messages.size() >= batchMaxItems) {
+                throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                        "Batch exceeds the maximum of " + batchMaxItems + " items");
+            }
+            messages.add(toConnectorMessage(tenant, subPath, items.next()));
+        }
+
+        if (async) {
+            virtualThreadPool.submit(() -> {
+                try {
+                    List<HttpBatchItemResult> results = connectorClient.onMessages(messages.iterator(),
+                            batchMaxParallel);
+                    long failed = results.stream()
+                            .filter(r -> r.getStatus() == HttpBatchItemResult.Status.FAILED).count();
+                    if (failed > 0) {
+                        log.warn("{} - {} of {} items of HTTP batch failed", tenant, failed, results.size());
+                    }
+                } catch (Exception e) {
+                    log.error("{} - Error processing HTTP batch: {}", tenant, e.getMessage(), e);
+                }
+            });
+            return ResponseEntity.accepted().body(Map.of("accepted", messages.size()));
+        }
+
+        List<HttpBatchItemResult> results = connectorClient.onMessages(messages.iterator(), batchMaxParallel);
+        long failed = results.stream().filter(r -> r.getStatus() == HttpBatchItemResult.Status.FAILED).count();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("total", results.size());
+        response.put("processed", results.size() - failed);
+        response.put("failed", failed);
+        response.put("items", results);
+        return ResponseEntity.ok(response);
+    }
+
+    private ConnectorMessage toConnectorMessage(String tenant, String subPath, JsonNode item) {
+        String topic = subPath;
+        JsonNode payload = item;
+        if (item.isObject() && item.has(BATCH_ITEM_PAYLOAD)) {
+            payload = item.get(BATCH_ITEM_PAYLOAD);
+            if (item.hasNonNull(BATCH_ITEM_TOPIC)) {
+                topic = item.get(BATCH_ITEM_TOPIC).asText();
+            }
+        }
+        byte[] bytes;
+        try {
+            // Text items are passed on unquoted, e.g. for CSV or hex payloads
+            bytes = payload.isTextual() ? payload.asText().getBytes(StandardCharsets.UTF_8)
+                    : objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getLocalizedMessage());
+        }
+        return ConnectorMessage.builder()
+                .tenant(tenant)
+                .topic(topic)
+                .sendPayload(true)
+                .connectorIdentifier(HttpClient.HTTP_CONNECTOR_IDENTIFIER)
+                .payload(bytes)
+                .build();
+    }
+
     @ExceptionHandler(value = { AccessDeniedException.class })
     public void handleAccessDeniedException(HttpServletRequest request, HttpServletResponse response,
             AccessDeniedException accessDeniedException) throws IOException {
@@ -513,13 +513,13 @@ public class OperationController {
     }
 
     private ResponseEntity<?> handleRefreshStatusMapping(String tenant) throws Exception {
-        mappingService.sendMappingStatus(tenant);
+        mappingService.forceSendMappingStatus(tenant);
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
     private ResponseEntity<?> handleResetStatusMapping(String tenant) throws Exception {
         mappingStatusService.initializeTenantStatus(tenant, true);
-        mappingService.sendMappingStatus(tenant);
+        mappingService.forceSendMappingStatus(tenant);
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
@@ -24,7 +24,6 @@ package dynamic.mapper.core;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Base64;
-import java.util.concurrent.Semaphore;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ContentDisposition;
@@ -57,8 +56,11 @@ public class BinaryAttachmentService {
     @Autowired
     private CumulocityClientProperties clientProperties;
 
+    @Autowired
+    private C8YRequestScheduler c8yRequestScheduler;
+
    
-    public int uploadEventAttachment(final BinaryInfo binaryInfo, final String eventId, boolean overwrites, Semaphore c8ySemaphore)
+    public int uploadEventAttachment(final BinaryInfo binaryInfo, final String eventId, boolean overwrites)
             throws ProcessingException {
         try {
             HttpHeaders headers = createHeaders();
@@ -78,7 +80,7 @@ public class BinaryAttachmentService {
             if (overwrites) {
                 response = uploadWithPut(restTemplate, serverUrl, headers, binaryInfo, attDataBytes);
             } else {
-                response = uploadWithPost(restTemplate, serverUrl, headers, binaryInfo, attDataBytes, tenant, eventId, c8ySemaphore);
+                response = uploadWithPost(restTemplate, serverUrl, headers, binaryInfo, attDataBytes, tenant, eventId);
             }
 
             if (response.getStatusCode().value() >= 300) {
@@ -153,7 +155,7 @@ public class BinaryAttachmentService {
     }
 
     private ResponseEntity<EventBinary> uploadWithPost(RestTemplate restTemplate, String serverUrl,
-            HttpHeaders headers, BinaryInfo binaryInfo, byte[] attDataBytes, String tenant, String eventId, Semaphore c8ySemaphore) {
+            HttpHeaders headers, BinaryInfo binaryInfo, byte[] attDataBytes, String tenant, String eventId) {
         headers.setContentType(MediaType.MULTIPART_FORM_DATA);
         MultipartBodyBuilder multipartBodyBuilder = new MultipartBodyBuilder();
         multipartBodyBuilder.part("object", binaryInfo, MediaType.APPLICATION_JSON);
@@ -162,15 +164,12 @@ public class BinaryAttachmentService {
         MultiValueMap<String, HttpEntity<?>> body = multipartBodyBuilder.build();
         HttpEntity<MultiValueMap<String, HttpEntity<?>>> requestEntity = new HttpEntity<>(body, headers);
 
-        try {
-            c8ySemaphore.acquire();
+        try (C8YRequestScheduler.Permit permit = c8yRequestScheduler.acquire(tenant)) {
             return restTemplate.postForEntity(serverUrl, requestEntity, EventBinary.class);
         } catch (InterruptedException e) {
-            log.error("{} - Failed to acquire semaphore for uploading attachment to event {}: ", 
+            log.error("{} - Interrupted while waiting for a C8Y connection for uploading attachment to event {}: ",
                     tenant, eventId, e);
             throw new RuntimeException(e);
-        } finally {
-            c8ySemaphore.release();
         }
     }
 }
\ No newline at end of file
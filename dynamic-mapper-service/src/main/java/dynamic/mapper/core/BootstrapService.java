@@ -255,6 +255,13 @@ public class BootstrapService {
             log.error("{} - Error removing C8Y agent caches: {}", tenant, e.getMessage(), e);
         }
 
+        try {
+            c8YAgent.getC8yRequestScheduler().removeTenant(tenant);
+            log.debug("{} - Removed C8Y request scheduler state", tenant);
+        } catch (Exception e) {
+            log.error("{} - Error removing C8Y request scheduler state: {}", tenant, e.getMessage(), e);
+        }
+
         log.info("{} - Completed tenant resource cleanup", tenant);
     }
 
@@ -25,14 +25,17 @@ import static java.util.Map.entry;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import com.cumulocity.rest.representation.user.UserRepresentation;
 import com.cumulocity.sdk.client.user.UserApi;
@@ -56,6 +59,7 @@ import com.cumulocity.rest.representation.alarm.AlarmRepresentation;
 import com.cumulocity.rest.representation.event.EventRepresentation;
 import com.cumulocity.rest.representation.identity.ExternalIDRepresentation;
 import com.cumulocity.rest.representation.inventory.ManagedObjectRepresentation;
+import com.cumulocity.rest.representation.measurement.MeasurementCollectionRepresentation;
 import com.cumulocity.rest.representation.measurement.MeasurementRepresentation;
 import com.cumulocity.rest.representation.operation.OperationRepresentation;
 import com.cumulocity.sdk.client.ProcessingMode;
@@ -92,6 +96,7 @@ import jakarta.annotation.PostConstruct;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import static com.cumulocity.rest.representation.measurement.MeasurementMediaType.MEASUREMENT;
+import static com.cumulocity.rest.representation.measurement.MeasurementMediaType.MEASUREMENT_COLLECTION;
 import static com.cumulocity.rest.representation.event.EventMediaType.EVENT;
 import static com.cumulocity.rest.representation.alarm.AlarmMediaType.ALARM;;
 
@@ -119,6 +124,9 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
     @Autowired
     private UserApi userApi;
 
+    @Autowired
+    private DeviceCreationCoordinator deviceCreationCoordinator;
+
     @Autowired
     private DeviceControlApi deviceControlApi;
 
@@ -141,7 +149,8 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
     @Autowired
     CumulocityClientProperties clientProperties;
 
-    private Semaphore c8ySemaphore;
+    @Autowired
+    private C8YRequestScheduler c8yRequestScheduler;
 
     @Autowired
     private ExtensionManager extensionManager;
@@ -173,24 +182,18 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
     @Value("${application.version}")
     private String version;
 
-    private Integer maxConnections = 100;
-
     private Timer c8yRequestTimer = Timer.builder("dynmapper_c8y_request_processing_time")
             .description("C8Y Request Processing time").register(Metrics.globalRegistry);
 
-    public C8YAgent(@Value("#{new Integer('${C8Y.httpClient.pool.perHost}')}") Integer maxConnections) {
-        this.maxConnections = maxConnections;
-        this.c8ySemaphore = new Semaphore(maxConnections, false);
-    }
-
     @PostConstruct
     private void init() {
-        Gauge.builder("dynmapper_available_c8y_connections", this.c8ySemaphore, Semaphore::availablePermits)
+        Gauge.builder("dynmapper_available_c8y_connections", this.c8yRequestScheduler,
+                C8YRequestScheduler::getAvailablePermits)
                 .register(Metrics.globalRegistry);
     }
 
-    public Semaphore getC8ySemaphore() {
-        return c8ySemaphore;
+    public C8YRequestScheduler getC8yRequestScheduler() {
+        return c8yRequestScheduler;
     }
 
     public void createExtensibleProcessor(String tenant) {
@@ -209,7 +212,7 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                 Counter.builder("dynmapper_inbound_identity_requests_total").tag("tenant", tenant)
                         .register(Metrics.globalRegistry).increment();
                 if (resultInner == null) {
-                    resultInner = identityApi.resolveExternalId2GlobalId(identity, testing, c8ySemaphore);
+                    resultInner = identityApi.resolveExternalId2GlobalId(identity, testing);
                     if (!testing) {
                         cacheManager.getInboundExternalIdCache(tenant).putIdForExternalId(identity,
                                 resultInner);
@@ -239,7 +242,7 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
         final String idt = idType;
         ExternalIDRepresentation result = subscriptionsService.callForTenant(tenant, () -> {
             try {
-                return identityApi.resolveGlobalId2ExternalId(gid, idt, testing, c8ySemaphore);
+                return identityApi.resolveGlobalId2ExternalId(gid, idt, testing);
             } catch (SDKException e) {
                 log.warn("{} - External ID type {} for {} not found", tenant, idt, gid.getValue());
             }
@@ -261,14 +264,11 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                     measurementRepresentation.setDateTime(dateTime);
                     log.debug("{} - Creating Measurement {}", tenant, measurementRepresentation);
                     MeasurementRepresentation mrn = null;
-                    try {
-                        c8ySemaphore.acquire();
+                    try (C8YRequestScheduler.Permit permit = c8yRequestScheduler.acquire(tenant)) {
                         mrn = measurementApi.create(measurementRepresentation);
                         measurementRepresentation.setId(mrn.getId());
                     } catch (InterruptedException e) {
-                        log.error("{} - Failed to acquire semaphore for creating Measurement", tenant, e);
-                    } finally {
-                        c8ySemaphore.release();
+                        log.error("{} - Interrupted while waiting for a C8Y connection for creating Measurement", tenant, e);
                     }
                 } catch (SDKException e) {
                     log.error("{} - Error creating Measurement", tenant, e);
@@ -290,13 +290,10 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                 ar.setDateTime(alarmTime);
                 ar.setStatus("ACTIVE");
                 ar.setType(type);
-                try {
-                    c8ySemaphore.acquire();
+                try (C8YRequestScheduler.Permit permit = c8yRequestScheduler.acquire(tenant)) {
                     ar = this.alarmApi.create(ar);
                 } catch (InterruptedException e) {
-                    log.error("{} - Failed to acquire semaphore for creating Alarm", tenant, e);
-                } finally {
-                    c8ySemaphore.release();
+                    log.error("{} - Interrupted while waiting for a C8Y connection for creating Alarm", tenant, e);
                 }
                 return ar;
             });
@@ -330,8 +327,7 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                 );
                 er.setProperty("d11r_metadata", metadata);
 
-                try {
-                    c8ySemaphore.acquire();
+                try (C8YRequestScheduler.Permit permit = c8yRequestScheduler.acquire(tenant)) {
                     // this.initializeMapperServiceObject(tenant), add the new mo to the
                     // configuration registry and retry the API call
                     Future result = this.eventApi.createAsync(er);
@@ -357,9 +353,7 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
 
                     // });
                 } catch (InterruptedException e) {
-                    log.error("{} - Failed to acquire semaphore for creating Event", tenant, e);
-                } finally {
-                    c8ySemaphore.release();
+                    log.error("{} - Interrupted while waiting for a C8Y connection for creating Event", tenant, e);
                 }
             });
         });
@@ -386,9 +380,8 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                     AbstractExtensibleRepresentation rt = null;
                     try {
                         if (targetAPI.equals(API.EVENT)) {
-                            EventRepresentation eventRepresentation = configurationRegistry.getObjectMapper().readValue(
-                                    payload,
-                                    EventRepresentation.class);
+                            EventRepresentation eventRepresentation = currentRequest.readRequest(
+                                    configurationRegistry.getObjectMapper(), EventRepresentation.class);
                             // Set processing mode for events
                             if (context.getProcessingMode() != null &&
                                     ProcessingMode.TRANSIENT.equals(context.getProcessingMode())) {
@@ -408,9 +401,8 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                             }
                             log.info("{} - SEND: event posted: {}", tenant, rt);
                         } else if (targetAPI.equals(API.ALARM)) {
-                            AlarmRepresentation alarmRepresentation = configurationRegistry.getObjectMapper().readValue(
-                                    payload,
-                                    AlarmRepresentation.class);
+                            AlarmRepresentation alarmRepresentation = currentRequest.readRequest(
+                                    configurationRegistry.getObjectMapper(), AlarmRepresentation.class);
                             // Set processing mode for alarms
                             if (context.getProcessingMode() != null &&
                                     ProcessingMode.TRANSIENT.equals(context.getProcessingMode())) {
@@ -454,9 +446,8 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                             }
                             log.info("{} - SEND: measurement posted: {}", tenant, rt);
                         } else if (targetAPI.equals(API.OPERATION)) {
-                            OperationRepresentation operationRepresentation = configurationRegistry.getObjectMapper()
-                                    .readValue(
-                                            payload, OperationRepresentation.class);
+                            OperationRepresentation operationRepresentation = currentRequest.readRequest(
+                                    configurationRegistry.getObjectMapper(), OperationRepresentation.class);
                             rt = deviceControlApi.create(operationRepresentation);
                             log.info("{} - SEND: operation posted: {}", tenant, rt);
                         } else {
@@ -484,7 +475,7 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
             throws ProcessingException {
         // initializeTransientApis();
         // log.info("{} - C8Y Connections available: {}",
-        // context.getTenant(),c8ySemaphore.availablePermits());
+        // context.getTenant(),c8yRequestScheduler.getAvailablePermits());
         String tenant = context.getTenant();
         // this.c8yRequestTimerMap.get(tenant);
         Timer.Sample timer = Timer.start(Metrics.globalRegistry);
@@ -500,11 +491,9 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                 AbstractExtensibleRepresentation rt = null;
                 try {
                     if (targetAPI.equals(API.EVENT)) {
-                        EventRepresentation eventRepresentation = configurationRegistry.getObjectMapper().readValue(
-                                payload,
-                                EventRepresentation.class);
-                        try {
-                            c8ySemaphore.acquire();
+                        EventRepresentation eventRepresentation = currentRequest.readRequest(
+                                configurationRegistry.getObjectMapper(), EventRepresentation.class);
+                        try (C8YRequestScheduler.Permit permit = c8yRequestScheduler.acquire(tenant)) {
                             // Set processing mode for events
                             if (context.getProcessingMode() != null &&
                                     ProcessingMode.TRANSIENT.equals(context.getProcessingMode())) {
@@ -523,9 +512,7 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                                 log.debug("{} - Using PERSISTENT processing mode for event", tenant);
                             }
                         } catch (InterruptedException e) {
-                            log.error("{} - Failed to acquire semaphore for creating event", tenant, e);
-                        } finally {
-                            c8ySemaphore.release();
+                            log.error("{} - Interrupted while waiting for a C8Y connection for creating event", tenant, e);
                         }
                         GId eventId = ((EventRepresentation) rt).getId();
                         if (context.getMapping().getEventWithAttachment()) {
@@ -539,11 +526,9 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                                     ((EventRepresentation) rt).getId().getValue());
 
                     } else if (targetAPI.equals(API.ALARM)) {
-                        AlarmRepresentation alarmRepresentation = configurationRegistry.getObjectMapper().readValue(
-                                payload,
-                                AlarmRepresentation.class);
-                        try {
-                            c8ySemaphore.acquire();
+                        AlarmRepresentation alarmRepresentation = currentRequest.readRequest(
+                                configurationRegistry.getObjectMapper(), AlarmRepresentation.class);
+                        try (C8YRequestScheduler.Permit permit = c8yRequestScheduler.acquire(tenant)) {
                             // Set processing mode for alarms
                             if (context.getProcessingMode() != null &&
                                     ProcessingMode.TRANSIENT.equals(context.getProcessingMode())) {
@@ -562,9 +547,7 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                                 log.debug("{} - Using PERSISTENT processing mode for alarm", tenant);
                             }
                         } catch (InterruptedException e) {
-                            log.error("{} - Failed to acquire semaphore for creating alarm", tenant, e);
-                        } finally {
-                            c8ySemaphore.release();
+                            log.error("{} - Interrupted while waiting for a C8Y connection for creating alarm", tenant, e);
                         }
                         if (serviceConfiguration.getLogPayload())
                             log.info("{} - SEND: alarm posted: {}", tenant, rt);
@@ -572,19 +555,16 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                             log.info("{} - SEND: alarm posted with Id {}", tenant,
                                     ((AlarmRepresentation) rt).getId().getValue());
                     } else if (targetAPI.equals(API.MEASUREMENT)) {
-                        MeasurementRepresentation measurementRepresentation = configurationRegistry.getObjectMapper()
-                                .readValue(
-                                        payload, MeasurementRepresentation.class);
-                        try {
-                            c8ySemaphore.acquire();
+                        MeasurementRepresentation measurementRepresentation = currentRequest.readRequest(
+                                configurationRegistry.getObjectMapper(), MeasurementRepresentation.class);
+                        try (C8YRequestScheduler.Permit permit = c8yRequestScheduler.acquire(tenant)) {
                             if (context.getProcessingMode() != null &&
                                     ProcessingMode.TRANSIENT.equals(context.getProcessingMode())) {
                                 // rt = measurementApiTransient.create(measurementRepresentation);
                                 rt = processingModeService.callWithProcessingMode("TRANSIENT", (connector) -> {
                                     if (targetAPI.equals(API.MEASUREMENT)) {
-                                        MeasurementRepresentation mr = configurationRegistry.getObjectMapper()
-                                                .readValue(
-                                                        payload, MeasurementRepresentation.class);
+                                        MeasurementRepresentation mr = currentRequest.readRequest(
+                                                configurationRegistry.getObjectMapper(), MeasurementRepresentation.class);
 
                                         // Now use the connector with the processing mode header
                                         return (MeasurementRepresentation) connector.post("/measurement/measurements",
@@ -599,9 +579,7 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                                 log.debug("{} - Using PERSISTENT processing mode for measurement", tenant);
                             }
                         } catch (InterruptedException e) {
-                            log.error("{} - Failed to acquire semaphore for creating measurement", tenant, e);
-                        } finally {
-                            c8ySemaphore.release();
+                            log.error("{} - Interrupted while waiting for a C8Y connection for creating measurement", tenant, e);
                         }
                         if (serviceConfiguration.getLogPayload())
                             log.info("{} - SEND: measurement posted: {}", tenant, rt);
@@ -609,16 +587,12 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                             log.info("{} - SEND: measurement posted with Id {}", tenant,
                                     ((MeasurementRepresentation) rt).getId().getValue());
                     } else if (targetAPI.equals(API.OPERATION)) {
-                        OperationRepresentation operationRepresentation = configurationRegistry.getObjectMapper()
-                                .readValue(
-                                        payload, OperationRepresentation.class);
-                        try {
-                            c8ySemaphore.acquire();
+                        OperationRepresentation operationRepresentation = currentRequest.readRequest(
+                                configurationRegistry.getObjectMapper(), OperationRepresentation.class);
+                        try (C8YRequestScheduler.Permit permit = c8yRequestScheduler.acquire(tenant)) {
                             rt = deviceControlApi.create(operationRepresentation);
                         } catch (InterruptedException e) {
-                            log.error("{} - Failed to acquire semaphore for creating Alarm", tenant, e);
-                        } finally {
-                            c8ySemaphore.release();
+                            log.error("{} - Interrupted while waiting for a C8Y connection for creating Alarm", tenant, e);
                         }
                         log.info("{} - SEND: operation posted: {}", tenant, rt);
                     } else {
@@ -649,6 +623,66 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
         return result;
     }
 
+    /**
+     * Creates measurements in one request. A single measurement is posted
+     * individually, several measurements as a measurement collection. The
+     * returned list is aligned with the input, elements are {@code null} if
+     * Cumulocity did not return the created measurement.
+     *
+     * @throws SDKException if the request was rejected, no measurement of the
+     *                      collection is created in that case
+     */
+    public List<MeasurementRepresentation> createMeasurements(String tenant,
+            List<MeasurementRepresentation> measurements, ProcessingMode processingMode) {
+        Timer.Sample timer = Timer.start(Metrics.globalRegistry);
+        boolean isTransient = ProcessingMode.TRANSIENT.equals(processingMode);
+        List<MeasurementRepresentation> result = subscriptionsService.callForTenant(tenant, () -> {
+            MicroserviceCredentials contextCredentials = removeAppKeyHeaderFromContext(contextService.getContext());
+            return contextService.callWithinContext(contextCredentials, () -> {
+                C8YRequestScheduler.Permit permit;
+                try {
+                    permit = c8yRequestScheduler.acquire(tenant);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SDKException("Interrupted while waiting for a C8Y connection");
+                }
+                try (permit) {
+                    if (measurements.size() == 1) {
+                        MeasurementRepresentation created = isTransient
+                                ? processingModeService.callWithProcessingMode("TRANSIENT",
+                                        connector -> (MeasurementRepresentation) connector.post(
+                                                MEASUREMENT_COLLECTION_PATH, MEASUREMENT, measurements.get(0)))
+                                : measurementApi.create(measurements.get(0));
+                        return Collections.singletonList(created);
+                    }
+                    MeasurementCollectionRepresentation collection = new MeasurementCollectionRepresentation();
+                    collection.setMeasurements(measurements);
+                    MeasurementCollectionRepresentation created = isTransient
+                            ? processingModeService.callWithProcessingMode("TRANSIENT",
+                                    connector -> (MeasurementCollectionRepresentation) connector.post(
+                                            MEASUREMENT_COLLECTION_PATH, MEASUREMENT_COLLECTION, collection))
+                            : measurementApi.createBulk(collection);
+                    List<MeasurementRepresentation> aligned = new ArrayList<>(
+                            Collections.nCopies(measurements.size(), (MeasurementRepresentation) null));
+                    if (created != null && created.getMeasurements() != null
+                            && created.getMeasurements().size() == measurements.size()) {
+                        for (int i = 0; i < measurements.size(); i++) {
+                            aligned.set(i, created.getMeasurements().get(i));
+                        }
+                    }
+                    return aligned;
+                } catch (SDKException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new SDKException("Could not send measurements to c8y: " + e.getMessage(), e);
+                }
+            });
+        });
+        timer.stop(this.c8yRequestTimer);
+        log.debug("{} - SEND: {} measurement(s) posted", tenant, measurements.size());
+        return result;
+    }
+
     public static final String MAPPING_TEST_DEVICE_TYPE = "d11r_testDevice";
 
     /**
@@ -678,19 +712,11 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                 mor.setName(deviceName);
                 mor.set(new IsDevice());
                 mor.set(new HashMap<String, String>(), MAPPING_TEST_DEVICE_TYPE);
-                try {
-                    c8ySemaphore.acquire();
-                    mor = inventoryApi.create(mor, false);
-                    log.info("{} - Test device created: id={}, name={}", tenant, mor.getId().getValue(), deviceName);
-                    identityApi.create(mor, id, false);
-                    return mor.getId().getValue();
-                } catch (InterruptedException e) {
-                    log.error("{} - Failed to acquire semaphore for creating test device", tenant, e);
-                    Thread.currentThread().interrupt();
-                    return null;
-                } finally {
-                    c8ySemaphore.release();
-                }
+                // The facades wait for a connection of the tenant
+                mor = inventoryApi.create(mor, false);
+                log.info("{} - Test device created: id={}, name={}", tenant, mor.getId().getValue(), deviceName);
+                identityApi.create(mor, id, false);
+                return mor.getId().getValue();
             });
         });
     }
@@ -709,9 +735,8 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
         ManagedObjectRepresentation device = subscriptionsService.callForTenant(tenant, () -> {
             MicroserviceCredentials contextCredentials = removeAppKeyHeaderFromContext(contextService.getContext());
             return contextService.callWithinContext(contextCredentials, () -> {
-                ManagedObjectRepresentation mor = configurationRegistry.getObjectMapper().readValue(
-                        currentRequest.getRequest(),
-                        ManagedObjectRepresentation.class);
+                ManagedObjectRepresentation mor = currentRequest.readRequest(
+                        configurationRegistry.getObjectMapper(), ManagedObjectRepresentation.class);
                 try {
                     // ExternalIDRepresentation extId = resolveExternalId2GlobalId(tenant, identity,
                     // context);
@@ -720,7 +745,9 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                         // append external id to name
                         mor.setName(mor.getName());
                         mor.set(new Agent());
-                        if(clientId != null && !clientId.isEmpty() && userExists(tenant, "device_"+clientId))
+                        if (clientId != null && !clientId.isEmpty()
+                                && deviceCreationCoordinator.userExists(tenant, "device_" + clientId,
+                                        username -> userExists(tenant, username)))
                             mor.setOwner("device_"+clientId);
                         HashMap<String, String> agentFragments = new HashMap<>();
                         agentFragments.put("name", "Dynamic Mapper");
@@ -740,31 +767,14 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                             // when creating a mock inventory object for testing set a predefined source id
                             mor.setId(new GId(context.getSourceId()));
                         }
-                        try {
-                            c8ySemaphore.acquire();
-                            mor = inventoryApi.create(mor, testing);
-                            // TODO Add/Update new managed object to IdentityCache
-                            if (serviceConfiguration.getLogPayload())
-                                log.info("{} - New device created: {}", tenant, mor);
-                            else
-                                log.info("{} - New device created with Id {}", tenant, mor.getId().getValue());
-                            identityApi.create(mor, identity, testing);
-                        } catch (InterruptedException e) {
-                            log.error("{} - Failed to acquire semaphore for creating Device", tenant, e);
-                        } finally {
-                            c8ySemaphore.release();
-                        }
+                        // Concurrent first messages of the device wait for one creation
+                        ManagedObjectRepresentation newDevice = mor;
+                        mor = deviceCreationCoordinator.create(tenant, identity, testing,
+                                () -> createDevice(tenant, identity, newDevice, testing, serviceConfiguration));
                     } else {
                         // Device exists - update needed
                         mor.setId(new GId(currentRequest.getSourceId()));
-                        try {
-                            c8ySemaphore.acquire();
-                            mor = inventoryApi.update(mor, testing);
-                        } catch (InterruptedException e) {
-                            log.error("{} - Failed to acquire semaphore for updating Device", tenant, e);
-                        } finally {
-                            c8ySemaphore.release();
-                        }
+                        mor = inventoryApi.update(mor, testing);
                         if (serviceConfiguration.getLogPayload())
                             log.info("{} - Device updated: {}", tenant, mor);
                         else
@@ -790,6 +800,49 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
         return device;
     }
 
+    /**
+     * Creates a device and its external ID and puts the identity into the
+     * identity cache right away. A device created for the identity since the
+     * identity was resolved is returned instead.
+     */
+    private ManagedObjectRepresentation createDevice(String tenant, ID identity, ManagedObjectRepresentation mor,
+            Boolean testing, ServiceConfiguration serviceConfiguration) {
+        InboundExternalIdCache identityCache = cacheManager.getInboundExternalIdCache(tenant);
+        if (!testing && identityCache != null) {
+            ExternalIDRepresentation existing = identityCache.getIdByExternalId(identity);
+            if (existing != null) {
+                log.info("{} - Device with external ID {} was created meanwhile: {}", tenant, identity.getValue(),
+                        existing.getManagedObject().getId().getValue());
+                return inventoryApi.get(existing.getManagedObject().getId(), testing);
+            }
+        }
+        // The facades wait for a connection of the tenant
+        ManagedObjectRepresentation device = inventoryApi.create(mor, testing);
+        if (serviceConfiguration.getLogPayload())
+            log.info("{} - New device created: {}", tenant, device);
+        else
+            log.info("{} - New device created with Id {}", tenant, device.getId().getValue());
+        ExternalIDRepresentation externalId = identityApi.create(device, identity, testing);
+        if (!testing && identityCache != null && externalId != null) {
+            if (externalId.getManagedObject() == null || externalId.getManagedObject().getId() == null) {
+                externalId.setManagedObject(device);
+            }
+            identityCache.putIdForExternalId(identity, externalId);
+        }
+        return device;
+    }
+
+    /**
+     * Updates an existing device, e.g. with the fragments merged by the
+     * {@link InventoryUpdateCoalescer}. Errors are thrown to the caller.
+     */
+    public ManagedObjectRepresentation updateDevice(String tenant, ManagedObjectRepresentation mor) {
+        return subscriptionsService.callForTenant(tenant, () -> {
+            MicroserviceCredentials contextCredentials = removeAppKeyHeaderFromContext(contextService.getContext());
+            return contextService.callWithinContext(contextCredentials, () -> inventoryApi.update(mor, false));
+        });
+    }
+
     /**
      * Assigns a newly created device to one or more named device groups.
      * Groups that do not exist yet are created automatically.
@@ -845,6 +898,26 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
         return device;
     }
 
+    /**
+     * Reads several managed objects with one inventory request per page of ids.
+     * Ids of managed objects that do not exist are missing in the result. A
+     * failed request is rethrown, so callers cannot mistake it for missing
+     * managed objects.
+     */
+    public List<ManagedObjectRepresentation> getManagedObjectsForIds(String tenant, Collection<String> deviceIds,
+            Boolean testing, boolean withParents) {
+        List<GId> ids = deviceIds.stream().map(GId::asGId).collect(Collectors.toList());
+        List<ManagedObjectRepresentation> devices = subscriptionsService.callForTenant(tenant, () -> {
+            try {
+                return inventoryApi.getByIds(ids, testing, withParents);
+            } catch (SDKException exception) {
+                log.warn("{} - Devices could not be read in bulk: {}", tenant, exception.getMessage());
+                throw exception;
+            }
+        });
+        return devices != null ? devices : new ArrayList<>();
+    }
+
     public void updateOperationStatus(String tenant, OperationRepresentation op, OperationStatus status,
             String failureReason) {
         subscriptionsService.runForTenant(tenant, () -> {
@@ -907,7 +980,9 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
     }
 
     public void initializeInventoryCache(String tenant, int size) {
-        cacheManager.initializeInventoryCache(tenant, size, configurationRegistry);
+        cacheManager.initializeInventoryCache(tenant, size, configurationRegistry,
+                sourceId -> inventoryCacheEnrichmentService.loadMOFragments(tenant, sourceId, false, this,
+                        configurationRegistry));
     }
 
     public InboundExternalIdCache removeInboundExternalIdCache(String tenant) {
@@ -959,6 +1034,16 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
                 configurationRegistry);
     }
 
+    public void applyUpdateToInventoryCache(String tenant, String sourceId, Map<String, Object> updates) {
+        inventoryCacheEnrichmentService.applyUpdateToInventoryCache(tenant, sourceId, updates,
+                configurationRegistry);
+    }
+
+    public void prefetchMOsIntoInventoryCache(String tenant, Collection<String> sourceIds, Boolean testing) {
+        inventoryCacheEnrichmentService.prefetchMOsIntoInventoryCache(tenant, sourceIds, testing, this,
+                configurationRegistry);
+    }
+
     public Map<String, Object> getMOFromInventoryCache(String tenant, String sourceId, Boolean testing) {
 
         return inventoryCacheEnrichmentService.getMOFromInventoryCache(tenant, sourceId, testing, this,
@@ -975,7 +1060,7 @@ public class C8YAgent implements ImportBeanDefinitionRegistrar, InventoryEnrichm
      */
     public int uploadEventAttachment(final BinaryInfo binaryInfo, final String eventId,
             boolean overwrites) throws ProcessingException {
-        return binaryAttachmentService.uploadEventAttachment(binaryInfo, eventId, overwrites, c8ySemaphore);
+        return binaryAttachmentService.uploadEventAttachment(binaryInfo, eventId, overwrites);
     }
 
     public boolean userExists(String tenant, String username) {
@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.cumulocity.microservice.context.ContextService;
+import com.cumulocity.microservice.context.credentials.MicroserviceCredentials;
+import com.cumulocity.sdk.client.SDKException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Schedules the requests to Cumulocity of all tenants on the connections of
+ * the HTTP client pool ({@code C8Y.httpClient.pool.perHost}).
+ * <p>
+ * Every tenant holding or waiting for permits gets a share of the permits
+ * proportional to its weight ({@code APP.c8yTenantWeights}, e.g.
+ * {@code t100=2,t200=4}, default weight 1), but at least
+ * {@code APP.c8yMinPermitsPerTenant}. A tenant may borrow permits beyond its
+ * share while they are not needed by tenants waiting below their share. A
+ * released permit is handed to the waiting tenant using the smallest part of
+ * its share, so a tenant with slow requests cannot starve the others.
+ */
+@Slf4j
+@Component
+public class C8YRequestScheduler {
+
+    private static final String UNKNOWN_TENANT = "unknown";
+
+    private final int totalPermits;
+    private final int minPermitsPerTenant;
+    private final Map<String, Integer> weights;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Structure: < Tenant, TenantState >, modified while holding the lock
+    private final Map<String, TenantState> tenants = new ConcurrentHashMap<>();
+    private volatile int availablePermits;
+
+    @Autowired
+    private ContextService<MicroserviceCredentials> contextService;
+
+    public C8YRequestScheduler(@Value("#{new Integer('${C8Y.httpClient.pool.perHost}')}") Integer maxConnections,
+            @Value("${APP.c8yMinPermitsPerTenant:2}") int minPermitsPerTenant,
+            @Value("${APP.c8yTenantWeights:}") String tenantWeights) {
+        this.totalPermits = maxConnections;
+        this.availablePermits = maxConnections;
+        this.minPermitsPerTenant = Math.max(1, Math.min(minPermitsPerTenant, maxConnections));
+        this.weights = parseWeights(tenantWeights);
+    }
+
+    /**
+     * Waits for a permit of the tenant. The permit has to be closed when the
+     * request is completed.
+     */
+    public Permit acquire(String tenant) throws InterruptedException {
+        long start = System.nanoTime();
+        TenantState state;
+        lock.lock();
+        try {
+            state = tenants.computeIfAbsent(tenant, TenantState::new);
+            state.waiting++;
+            try {
+                while (!canAcquire(state)) {
+                    state.condition.await();
+                }
+            } catch (InterruptedException e) {
+                // Pass the chance to acquire on to another waiting tenant
+                state.waiting--;
+                removeIfIdle(state);
+                signalNext();
+                throw e;
+            }
+            state.waiting--;
+            state.inUse++;
+            availablePermits--;
+            if (availablePermits > 0) {
+                signalNext();
+            }
+        } finally {
+            lock.unlock();
+        }
+        state.waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Permit(state);
+    }
+
+    /**
+     * Waits for a permit of the tenant of the current context.
+     */
+    public Permit acquire() throws InterruptedException {
+        return acquire(currentTenant());
+    }
+
+    /**
+     * Runs the request with a permit of the tenant of the current context.
+     *
+     * @throws SDKException if interrupted while waiting for a permit
+     */
+    public <T> T call(Supplier<T> request) {
+        Permit permit;
+        try {
+            permit = acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SDKException("Interrupted while waiting for a C8Y connection");
+        }
+        try (permit) {
+            return request.get();
+        }
+    }
+
+    public void run(Runnable request) {
+        call(() -> {
+            request.run();
+            return null;
+        });
+    }
+
+    /**
+     * Removes the state and the meters of a tenant, e.g. when the microservice
+     * is unsubscribed. If requests of the tenant are still running or waiting,
+     * the state is removed when the last of them completes.
+     */
+    public void removeTenant(String tenant) {
+        lock.lock();
+        try {
+            TenantState state = tenants.get(tenant);
+            if (state != null) {
+                state.removed = true;
+                removeIfIdle(state);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getAvailablePermits() {
+        return availablePermits;
+    }
+
+    public int getPermitsInUse(String tenant) {
+        TenantState state = tenants.get(tenant);
+        return state != null ? state.inUse : 0;
+    }
+
+    public int getQueueLength(String tenant) {
+        TenantState state = tenants.get(tenant);
+        return state != null ? state.waiting : 0;
+    }
+
+    private void release(TenantState state) {
+        lock.lock();
+        try {
+            state.inUse--;
+            availablePermits++;
+            removeIfIdle(state);
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeIfIdle(TenantState state) {
+        if (state.removed && state.inUse == 0 && state.waiting == 0 && tenants.remove(state.tenant, state)) {
+            Metrics.globalRegistry.remove(state.waitTimer);
+            Metrics.globalRegistry.remove(state.queueLengthGauge);
+            Metrics.globalRegistry.remove(state.inUseGauge);
+        }
+    }
+
+    private boolean canAcquire(TenantState state) {
+        int activeWeight = activeWeight();
+        return canAcquire(state, activeWeight, reservedPermits(activeWeight));
+    }
+
+    /**
+     * @param state a tenant waiting for a permit
+     */
+    private boolean canAcquire(TenantState state, int activeWeight, int reservedPermits) {
+        if (availablePermits == 0) {
+            return false;
+        }
+        if (state.inUse < share(state, activeWeight)) {
+            return true;
+        }
+        // Borrow idle permits, but keep the permits needed by tenants waiting below their share
+        return availablePermits > reservedPermits - reserved(state, activeWeight);
+    }
+
+    private int activeWeight() {
+        int activeWeight = 0;
+        for (TenantState state : tenants.values()) {
+            if (state.inUse > 0 || state.waiting > 0) {
+                activeWeight += state.weight;
+            }
+        }
+        return activeWeight;
+    }
+
+    private int reservedPermits(int activeWeight) {
+        int reservedPermits = 0;
+        for (TenantState state : tenants.values()) {
+            reservedPermits += reserved(state, activeWeight);
+        }
+        return reservedPermits;
+    }
+
+    private int reserved(TenantState state, int activeWeight) {
+        return state.waiting > 0 ? Math.max(0, Math.min(state.waiting, share(state, activeWeight) - state.inUse))
+                : 0;
+    }
+
+    private int share(TenantState state, int activeWeight) {
+        return Math.max(minPermitsPerTenant, totalPermits * state.weight / Math.max(1, activeWeight));
+    }
+
+    /**
+     * Wakes up the waiting tenant that uses the smallest part of its share and
+     * may acquire a permit
+     */
+    private void signalNext() {
+        int activeWeight = activeWeight();
+        int reservedPermits = reservedPermits(activeWeight);
+        TenantState next = null;
+        for (TenantState state : tenants.values()) {
+            if (state.waiting > 0 && canAcquire(state, activeWeight, reservedPermits)
+                    && (next == null || state.inUse * next.weight < next.inUse * state.weight)) {
+                next = state;
+            }
+        }
+        if (next != null) {
+            next.condition.signal();
+        }
+    }
+
+    private String currentTenant() {
+        if (contextService != null && contextService.isInContext()) {
+            return contextService.getContext().getTenant();
+        }
+        return UNKNOWN_TENANT;
+    }
+
+    private static Map<String, Integer> parseWeights(String tenantWeights) {
+        Map<String, Integer> result = new HashMap<>();
+        if (tenantWeights == null || tenantWeights.isBlank()) {
+            return result;
+        }
+        for (String entry : tenantWeights.split(",")) {
+            String[] parts = entry.split("=");
+            try {
+                if (parts.length == 2 && Integer.parseInt(parts[1].trim()) > 0) {
+                    result.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+                    continue;
+                }
+            } catch (NumberFormatException e) {
+                // logged below
+            }
+            log.warn("Ignoring invalid tenant weight: {}", entry);
+        }
+        return result;
+    }
+
+    /**
+     * Permit for one request to Cumulocity, released when closed
+     */
+    public class Permit implements AutoCloseable {
+        private final TenantState state;
+        private boolean released = false;
+
+        private Permit(TenantState state) {
+            this.state = state;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(state);
+            }
+        }
+    }
+
+    private class TenantState {
+        private final String tenant;
+        private final int weight;
+        private final Condition condition = lock.newCondition();
+        private final Timer waitTimer;
+        private final Gauge queueLengthGauge;
+        private final Gauge inUseGauge;
+        private volatile int inUse;
+        private volatile int waiting;
+        // Set when the tenant is removed while requests are still running or waiting
+        private boolean removed;
+
+        TenantState(String tenant) {
+            this.tenant = tenant;
+            this.weight = weights.getOrDefault(tenant, 1);
+            this.waitTimer = Timer.builder("dynmapper_c8y_permit_wait_time")
+                    .description("Time waited for a connection to C8Y")
+                    .tag("tenant", tenant)
+                    .register(Metrics.globalRegistry);
+            this.queueLengthGauge = Gauge.builder("dynmapper_c8y_permit_queue_length", this, s -> s.waiting)
+                    .description("Number of requests waiting for a connection to C8Y")
+                    .tag("tenant", tenant)
+                    .register(Metrics.globalRegistry);
+            this.inUseGauge = Gauge.builder("dynmapper_c8y_permits_in_use", this, s -> s.inUse)
+                    .description("Number of connections to C8Y in use")
+                    .tag("tenant", tenant)
+                    .register(Metrics.globalRegistry);
+        }
+    }
+}
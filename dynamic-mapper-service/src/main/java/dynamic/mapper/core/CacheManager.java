@@ -23,7 +23,9 @@ package dynamic.mapper.core;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.cumulocity.model.ID;
@@ -42,22 +44,56 @@ public class CacheManager {
     private Map<String, InboundExternalIdCache> inboundExternalIdCaches = new ConcurrentHashMap<>();
     private Map<String, InventoryCache> inventoryCaches = new ConcurrentHashMap<>();
 
+    // 0 disables expiry
+    @Value("${APP.inboundExternalIdCacheExpireAfterWriteSeconds:0}")
+    private long inboundExternalIdCacheExpireAfterWriteSeconds;
+
+    // 0 disables expiry
+    @Value("${APP.inventoryCacheExpireAfterWriteSeconds:0}")
+    private long inventoryCacheExpireAfterWriteSeconds;
+
+    // 0 disables refresh
+    @Value("${APP.inventoryCacheRefreshAfterWriteSeconds:0}")
+    private long inventoryCacheRefreshAfterWriteSeconds;
+
+    // 0 bounds the inventory cache by entry count instead of fragment size
+    @Value("${APP.inventoryCacheMaxWeight:0}")
+    private long inventoryCacheMaxWeight;
+
     public void initializeInboundExternalIdCache(String tenant, int inboundExternalIdCacheSize) {
         log.info("{} - Initialize inboundExternalIdCache {}", tenant, inboundExternalIdCacheSize);
-        inboundExternalIdCaches.put(tenant, new InboundExternalIdCache(inboundExternalIdCacheSize, tenant));
+        InboundExternalIdCache previous = inboundExternalIdCaches.put(tenant,
+                createInboundExternalIdCache(tenant, inboundExternalIdCacheSize));
+        if (previous != null) {
+            previous.close();
+        }
     }
 
-    public void initializeInventoryCache(String tenant, int inventoryCacheSize, 
-            ConfigurationRegistry configurationRegistry) {
+    public void initializeInventoryCache(String tenant, int inventoryCacheSize,
+            ConfigurationRegistry configurationRegistry, Function<String, Map<String, Object>> refreshLoader) {
         log.info("{} - Initialize inventoryCache {}", tenant, inventoryCacheSize);
-        InventoryCache inventoryCache = new InventoryCache(inventoryCacheSize, tenant);
+        InventoryCache inventoryCache = createInventoryCache(tenant, inventoryCacheSize);
         // Set up eviction listener
         inventoryCache.setEvictionListener(evictedSourceId -> {
             ManagedObjectRepresentation moRep = new ManagedObjectRepresentation();
             moRep.setId(new GId(evictedSourceId));
             configurationRegistry.getNotificationSubscriber().unsubscribeMOForInventoryCacheUpdates(tenant, moRep);
         });
-        inventoryCaches.put(tenant, inventoryCache);
+        inventoryCache.setRefreshLoader(refreshLoader);
+        InventoryCache previous = inventoryCaches.put(tenant, inventoryCache);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    private InboundExternalIdCache createInboundExternalIdCache(String tenant, int inboundExternalIdCacheSize) {
+        return new InboundExternalIdCache(inboundExternalIdCacheSize, tenant,
+                inboundExternalIdCacheExpireAfterWriteSeconds);
+    }
+
+    private InventoryCache createInventoryCache(String tenant, int inventoryCacheSize) {
+        return new InventoryCache(inventoryCacheSize, tenant, inventoryCacheExpireAfterWriteSeconds,
+                inventoryCacheRefreshAfterWriteSeconds, inventoryCacheMaxWeight);
     }
 
     public InboundExternalIdCache getInboundExternalIdCache(String tenant) {
@@ -65,7 +101,11 @@ public class CacheManager {
     }
 
     public InboundExternalIdCache removeInboundExternalIdCache(String tenant) {
-        return inboundExternalIdCaches.remove(tenant);
+        InboundExternalIdCache inboundExternalIdCache = inboundExternalIdCaches.remove(tenant);
+        if (inboundExternalIdCache != null) {
+            inboundExternalIdCache.close();
+        }
+        return inboundExternalIdCache;
     }
 
     public Integer getInboundExternalIdCacheSize(String tenant) {
@@ -74,7 +114,11 @@ public class CacheManager {
     }
 
     public InventoryCache removeInventoryCache(String tenant) {
-        return inventoryCaches.remove(tenant);
+        InventoryCache inventoryCache = inventoryCaches.remove(tenant);
+        if (inventoryCache != null) {
+            inventoryCache.close();
+        }
+        return inventoryCache;
     }
 
     public InventoryCache getInventoryCache(String tenant) {
@@ -90,7 +134,8 @@ public class CacheManager {
             int previousSize = inboundExternalIdCache.getCacheSize();
 
             if (recreate) {
-                inboundExternalIdCaches.put(tenant, new InboundExternalIdCache(inboundExternalIdCacheSize, tenant));
+                inboundExternalIdCache.close();
+                inboundExternalIdCaches.put(tenant, createInboundExternalIdCache(tenant, inboundExternalIdCacheSize));
             } else {
                 inboundExternalIdCache.clearCache();
             }
@@ -136,7 +181,12 @@ public class CacheManager {
 
             if (recreate) {
                 configurationRegistry.getNotificationSubscriber().unsubscribeAllMOForInventoryCacheUpdates(tenant);
-                inventoryCaches.put(tenant, new InventoryCache(inventoryCacheSize, tenant));
+                inventoryCache.close();
+                InventoryCache newInventoryCache = createInventoryCache(tenant, inventoryCacheSize);
+                // Keep eviction listener and refresh loader of the replaced cache
+                newInventoryCache.setEvictionListener(inventoryCache.getEvictionListener());
+                newInventoryCache.setRefreshLoader(inventoryCache.getRefreshLoader());
+                inventoryCaches.put(tenant, newInventoryCache);
             } else {
                 configurationRegistry.getNotificationSubscriber().unsubscribeAllMOForInventoryCacheUpdates(tenant);
                 inventoryCache.clearCache();
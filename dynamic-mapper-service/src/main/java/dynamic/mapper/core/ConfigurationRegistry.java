@@ -28,7 +28,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.stream.Collectors;
 
 import org.apache.camel.CamelContext;
 import org.graalvm.polyglot.Context;
@@ -63,11 +62,13 @@ import dynamic.mapper.connector.pulsar.PulsarConnectorClient;
 import dynamic.mapper.connector.test.TestClient;
 import dynamic.mapper.connector.webhook.WebHook;
 import dynamic.mapper.connector.webhook.WebHookInternal;
+import dynamic.mapper.core.cache.DeviceToClientIndex;
 import dynamic.mapper.model.DeviceToClientMapRepresentation;
 import dynamic.mapper.model.Direction;
 import dynamic.mapper.model.Mapping;
 import dynamic.mapper.model.MapperServiceRepresentation;
 import dynamic.mapper.notification.NotificationSubscriber;
+import dynamic.mapper.processor.flow.GraalContextPool;
 import dynamic.mapper.processor.outbound.CamelDispatcherOutbound;
 import dynamic.mapper.processor.util.JavaScriptModuleStripper;
 import dynamic.mapper.service.ConnectorConfigurationService;
@@ -96,6 +97,9 @@ public class ConfigurationRegistry {
     // methods can build Sources with the correct file extension (.mjs vs .js).
     private Map<String, Boolean> tenantESMFlags = new ConcurrentHashMap<>();
 
+    // Structure: < Tenant, < Mapping identifier, GraalContextPool > >
+    private Map<String, Map<String, GraalContextPool>> graalContextPools = new ConcurrentHashMap<>();
+
     private Map<String, MicroserviceCredentials> microserviceCredentials = new ConcurrentHashMap<>();
 
     // Structure: < Tenant, < MappingType, < MapperServiceRepresentation > >
@@ -104,8 +108,8 @@ public class ConfigurationRegistry {
     // Structure: < Tenant, < ServiceConfiguration > >
     private Map<String, ServiceConfiguration> serviceConfigurations = new ConcurrentHashMap<>();
 
-    // Structure: < Tenant, < Device, Client > >
-    private Map<String, Map<String, String>> deviceToClientPerTenant = new ConcurrentHashMap<>();
+    // Structure: < Tenant, < Device, Client > and < Client, < Device > > >
+    private Map<String, DeviceToClientIndex> deviceToClientPerTenant = new ConcurrentHashMap<>();
 
     // Structure: < Tenant, Id ManagedObject Map >
     private Map<String, String> deviceToClientMapRepresentations = new ConcurrentHashMap<>();
@@ -408,6 +412,7 @@ public class ConfigurationRegistry {
                 .cached(true)  // Engine-level caching
                 .buildLiteral();
         graalSourceShared.put(tenant, sharedSource);
+        closeGraalContextPools(tenant);
         log.info("{} - Updated cached shared code source", tenant);
     }
 
@@ -422,6 +427,7 @@ public class ConfigurationRegistry {
                 .cached(true)  // Engine-level caching
                 .buildLiteral();
         graalSourceSystem.put(tenant, systemSource);
+        closeGraalContextPools(tenant);
         log.info("{} - Updated cached system code source", tenant);
     }
 
@@ -476,7 +482,52 @@ public class ConfigurationRegistry {
         }
     }
 
+    /**
+     * Returns the context pool for a mapping. The pool is replaced when the
+     * mapping code, the ESM setting or the pool size changed since it was
+     * created; contexts of the replaced pool are closed.
+     */
+    public GraalContextPool getGraalContextPool(String tenant, Mapping mapping, int poolSize, boolean supportESM,
+            GraalContextPool.ContextFactory factory) {
+        String version = mapping.getLastUpdate() + "/" + (mapping.getCode() != null ? mapping.getCode().hashCode() : 0)
+                + "/" + supportESM + "/" + poolSize;
+        Map<String, GraalContextPool> pools = graalContextPools.computeIfAbsent(tenant,
+                k -> new ConcurrentHashMap<>());
+        return pools.compute(mapping.getIdentifier(), (id, existing) -> {
+            if (existing != null && existing.getVersion().equals(version)) {
+                return existing;
+            }
+            if (existing != null) {
+                // Close first, the new pool registers its meters under the same tags
+                existing.close();
+            }
+            return new GraalContextPool(tenant, id, version, poolSize, factory);
+        });
+    }
+
+    public void removeGraalContextPool(String tenant, String mappingIdentifier) {
+        Map<String, GraalContextPool> pools = graalContextPools.get(tenant);
+        if (pools != null) {
+            GraalContextPool pool = pools.remove(mappingIdentifier);
+            if (pool != null) {
+                pool.close();
+            }
+        }
+    }
+
+    /**
+     * Closes all context pools of a tenant, e.g. because shared or system code
+     * changed. Pools are recreated lazily on the next message.
+     */
+    public void closeGraalContextPools(String tenant) {
+        Map<String, GraalContextPool> pools = graalContextPools.remove(tenant);
+        if (pools != null) {
+            pools.values().forEach(GraalContextPool::close);
+        }
+    }
+
     public void removeGraalsResources(String tenant) {
+        closeGraalContextPools(tenant);
         graalEngines.remove(tenant);
         graalSourceShared.remove(tenant);
         graalSourceSystem.remove(tenant);
@@ -511,7 +562,7 @@ public class ConfigurationRegistry {
     private void addDeviceToClientMapRepresentation(String tenant,
             DeviceToClientMapRepresentation deviceToClientMapRepresentation) {
         deviceToClientMapRepresentations.put(tenant, deviceToClientMapRepresentation.getId());
-        Map<String, String> clientToDeviceMap = new ConcurrentHashMap<>();
+        Map<String, String> clientToDeviceMap = null;
         if (deviceToClientMapRepresentation.getDeviceToClientMap() != null) {
             log.debug("{} - Initializing Device To Client Map: {}, {} ", tenant,
                     deviceToClientMapRepresentation.getDeviceToClientMap(),
@@ -520,7 +571,7 @@ public class ConfigurationRegistry {
                                     : deviceToClientMapRepresentation.getDeviceToClientMap().size()));
             clientToDeviceMap = deviceToClientMapRepresentation.getDeviceToClientMap();
         }
-        deviceToClientPerTenant.put(tenant, clientToDeviceMap);
+        deviceToClientPerTenant.put(tenant, new DeviceToClientIndex(clientToDeviceMap));
     }
 
     public String getDeviceToClientMapId(String tenant) {
@@ -585,8 +636,7 @@ public class ConfigurationRegistry {
     }
 
     public void addOrUpdateClientRelation(String tenant, String clientId, String deviceId) {
-        deviceToClientPerTenant.computeIfAbsent(tenant, k -> new ConcurrentHashMap<>())
-                .put(deviceId, clientId);
+        getOrCreateDeviceToClientIndex(tenant).put(deviceId, clientId);
         log.debug("Added client mapping for tenant {}: device {} -> client {}", tenant, deviceId, clientId);
     }
 
@@ -596,19 +646,16 @@ public class ConfigurationRegistry {
             return;
         }
 
-        Map<String, String> tenantMappings = deviceToClientPerTenant.computeIfAbsent(tenant,
-                k -> new ConcurrentHashMap<>());
-
-        deviceIds.forEach(deviceId -> tenantMappings.put(deviceId, clientId));
+        getOrCreateDeviceToClientIndex(tenant).putAll(clientId, deviceIds);
 
         log.debug("Added {} client mappings for tenant {}: devices {} -> client {}",
                 deviceIds.size(), tenant, deviceIds, clientId);
     }
 
     public void removeClientRelation(String tenant, String deviceId) {
-        Map<String, String> tenantMappings = deviceToClientPerTenant.get(tenant);
-        if (tenantMappings != null) {
-            String removedClientId = tenantMappings.remove(deviceId);
+        DeviceToClientIndex index = deviceToClientPerTenant.get(tenant);
+        if (index != null) {
+            String removedClientId = index.remove(deviceId);
             if (removedClientId != null) {
                 log.debug("Removed client mapping for tenant {}: device {} (was mapped to client {})",
                         tenant, deviceId, removedClientId);
@@ -617,72 +664,58 @@ public class ConfigurationRegistry {
     }
 
     public void removeClientById(String tenant, String clientId) {
-        Map<String, String> tenantMappings = deviceToClientPerTenant.get(tenant);
-        if (tenantMappings != null) {
-            List<String> devicesToRemove = tenantMappings.entrySet().stream()
-                    .filter(entry -> clientId.equals(entry.getValue()))
-                    .map(Map.Entry::getKey)
-                    .collect(Collectors.toList());
-
-            devicesToRemove.forEach(tenantMappings::remove);
+        DeviceToClientIndex index = deviceToClientPerTenant.get(tenant);
+        if (index != null) {
+            List<String> removedDevices = index.removeClient(clientId);
             log.debug("Removed {} device mappings for client {} in tenant {}",
-                    devicesToRemove.size(), clientId, tenant);
+                    removedDevices.size(), clientId, tenant);
         }
     }
 
     public void clearCacheDeviceToClient(String tenant) {
-        deviceToClientPerTenant.put(tenant, new ConcurrentHashMap<>());
+        // Clear instead of replacing the index, so the cleared state is still persisted
+        getOrCreateDeviceToClientIndex(tenant).clear();
         log.debug("Cleared all client mappings for tenant {}", tenant);
     }
 
     public String resolveDeviceToClient(String tenant, String deviceId) {
-        Map<String, String> tenantMappings = deviceToClientPerTenant.get(tenant);
-        if (tenantMappings != null && tenantMappings.containsKey(deviceId)) {
-            return tenantMappings.get(deviceId);
-        } else {
-            // Return null if no mapping exists (instead of returning deviceId)
-            // This allows proper 404 handling in the controller
-            return null;
-        }
+        DeviceToClientIndex index = deviceToClientPerTenant.get(tenant);
+        // Return null if no mapping exists (instead of returning deviceId)
+        // This allows proper 404 handling in the controller
+        return index != null ? index.getClient(deviceId) : null;
     }
 
     public Map<String, String> getAllClientRelations(String tenant) {
-        Map<String, String> tenantMappings = deviceToClientPerTenant.get(tenant);
-        return tenantMappings != null ? new HashMap<>(tenantMappings) : new HashMap<>();
+        DeviceToClientIndex index = deviceToClientPerTenant.get(tenant);
+        return index != null ? index.snapshot() : new HashMap<>();
     }
 
     public List<String> getDevicesForClient(String tenant, String clientId) {
-        Map<String, String> tenantMappings = deviceToClientPerTenant.get(tenant);
-        if (tenantMappings == null) {
-            return new ArrayList<>();
-        }
-
-        return tenantMappings.entrySet().stream()
-                .filter(entry -> clientId.equals(entry.getValue()))
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+        DeviceToClientIndex index = deviceToClientPerTenant.get(tenant);
+        return index != null ? index.getDevices(clientId) : new ArrayList<>();
     }
 
     public List<String> getAllClients(String tenant) {
-        Map<String, String> tenantMappings = deviceToClientPerTenant.get(tenant);
-        if (tenantMappings == null) {
-            return new ArrayList<>();
-        }
-
-        return tenantMappings.values().stream()
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        DeviceToClientIndex index = deviceToClientPerTenant.get(tenant);
+        return index != null ? index.getClients() : new ArrayList<>();
     }
 
     public int getClientRelationCount(String tenant) {
-        Map<String, String> tenantMappings = deviceToClientPerTenant.get(tenant);
-        return tenantMappings != null ? tenantMappings.size() : 0;
+        DeviceToClientIndex index = deviceToClientPerTenant.get(tenant);
+        return index != null ? index.size() : 0;
     }
 
     public boolean hasClientRelation(String tenant, String deviceId) {
-        Map<String, String> tenantMappings = deviceToClientPerTenant.get(tenant);
-        return tenantMappings != null && tenantMappings.containsKey(deviceId);
+        DeviceToClientIndex index = deviceToClientPerTenant.get(tenant);
+        return index != null && index.containsDevice(deviceId);
+    }
+
+    public DeviceToClientIndex getDeviceToClientIndex(String tenant) {
+        return deviceToClientPerTenant.get(tenant);
+    }
+
+    private DeviceToClientIndex getOrCreateDeviceToClientIndex(String tenant) {
+        return deviceToClientPerTenant.computeIfAbsent(tenant, k -> new DeviceToClientIndex());
     }
 
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.core;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.cumulocity.model.ID;
+import com.cumulocity.rest.representation.inventory.ManagedObjectRepresentation;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Makes sure a device for an external ID is created only once, when several
+ * messages of a new device arrive at the same time and all miss the identity
+ * cache.
+ *
+ * <p>The first caller for a tenant and external ID creates the device, all
+ * callers arriving while the creation runs wait for it and receive the same
+ * managed object, or the same exception. The creation is expected to put the
+ * new identity into the identity cache before it returns, so that messages
+ * arriving afterwards resolve the device without coming here.</p>
+ *
+ * <p>Also caches the existing device users that become the owners of new
+ * devices, so that onboarding many devices does not look up the same users
+ * again and again.</p>
+ */
+@Slf4j
+@Component
+public class DeviceCreationCoordinator {
+
+    private static final Duration OWNER_CACHE_EXPIRY = Duration.ofMinutes(10);
+    private static final int OWNER_CACHE_SIZE = 100000;
+
+    private record CreationKey(String tenant, String type, String value, boolean testing) {
+    }
+
+    private record OwnerKey(String tenant, String username) {
+    }
+
+    private final Map<CreationKey, CompletableFuture<ManagedObjectRepresentation>> creations =
+            new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> joinedCounters = new ConcurrentHashMap<>();
+
+    private final Cache<OwnerKey, Boolean> owners = Caffeine.newBuilder()
+            .maximumSize(OWNER_CACHE_SIZE)
+            .expireAfterWrite(OWNER_CACHE_EXPIRY)
+            .build();
+
+    /**
+     * Creates the device for an identity, or waits for the creation already
+     * running for it.
+     *
+     * @param creation creates the managed object and its external ID, runs only
+     *                 for the first caller
+     * @return the created device
+     */
+    public ManagedObjectRepresentation create(String tenant, ID identity, boolean testing,
+            Supplier<ManagedObjectRepresentation> creation) {
+        CreationKey key = new CreationKey(tenant, identity.getType(), identity.getValue(), testing);
+        CompletableFuture<ManagedObjectRepresentation> own = new CompletableFuture<>();
+        CompletableFuture<ManagedObjectRepresentation> running = creations.putIfAbsent(key, own);
+        if (running != null) {
+            log.debug("{} - Waiting for creation of device with external ID {}", tenant, identity.getValue());
+            joinedCounters.computeIfAbsent(tenant, DeviceCreationCoordinator::registerJoinedCounter).increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        try {
+            ManagedObjectRepresentation device = creation.get();
+            own.complete(device);
+            return device;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            creations.remove(key, own);
+        }
+    }
+
+    /**
+     * Returns whether a user exists, looking it up only when it is not cached.
+     * Only existing users are cached, a missing user is looked up again next
+     * time, as it may have been created meanwhile.
+     */
+    public boolean userExists(String tenant, String username, Predicate<String> lookup) {
+        OwnerKey key = new OwnerKey(tenant, username);
+        if (owners.getIfPresent(key) != null) {
+            return true;
+        }
+        boolean exists = lookup.test(username);
+        if (exists) {
+            owners.put(key, Boolean.TRUE);
+        }
+        return exists;
+    }
+
+    private static Counter registerJoinedCounter(String tenant) {
+        return Counter.builder("dynmapper_inbound_device_creation_joined_total")
+                .tag("tenant", tenant)
+                .description("Number of implicit device creations that waited for a running creation")
+                .register(Metrics.globalRegistry);
+    }
+
+    int getRunningCreations() {
+        return creations.size();
+    }
+}
@@ -22,9 +22,11 @@
 package dynamic.mapper.core;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -64,26 +66,46 @@ public class InventoryCacheEnrichmentService {
             Boolean testing, IdentityResolver identityResolver, ConfigurationRegistry configurationRegistry) {
         InventoryCache inventoryCache = cacheManager.getInventoryCache(tenant);
 
-        final Map<String, Object> newMO = new HashMap<>();
+        final Map<String, Object> newMO = loadMOFragments(tenant, sourceId, testing, identityResolver,
+                configurationRegistry);
         inventoryCache.putMO(sourceId, newMO);
 
-        ServiceConfiguration serviceConfiguration = configurationRegistry.getServiceConfiguration(tenant);
-        // Check if assetParents is requested in fragments to cache
-        boolean withParents = serviceConfiguration.getInventoryFragmentsToCache().stream()
-                .anyMatch(frag -> "assetParents".equals(frag.trim()));
-
-        // Use the identityResolver to get managed object
-        ManagedObjectRepresentation device = getManagedObjectFromResolver(tenant, sourceId, testing, identityResolver, withParents);
-        if (device != null) {
-            Map<String, Object> attrs = device.getAttrs();
+        return newMO;
+    }
 
-            serviceConfiguration.getInventoryFragmentsToCache().forEach(frag -> {
-                frag = frag.trim();
-                processFragment(frag, sourceId, device, attrs, newMO);
-            });
+    /**
+     * Applies the top-level fragments of an update sent by the mapper to the
+     * cached fragments of the managed object. Managed objects that are not
+     * cached are left alone, they are loaded on the next lookup.
+     */
+    public void applyUpdateToInventoryCache(String tenant, String sourceId, Map<String, Object> updates,
+            ConfigurationRegistry configurationRegistry) {
+        InventoryCache inventoryCache = cacheManager.getInventoryCache(tenant);
+        if (inventoryCache == null || sourceId == null) {
+            return;
         }
-
-        return newMO;
+        Map<String, Object> cached = inventoryCache.getMOBySource(sourceId);
+        if (cached == null) {
+            return;
+        }
+        ServiceConfiguration serviceConfiguration = configurationRegistry.getServiceConfiguration(tenant);
+        final Map<String, Object> newMO = new HashMap<>(cached);
+        serviceConfiguration.getInventoryFragmentsToCache().forEach(frag -> {
+            frag = frag.trim();
+            // assetParents are not part of an update, id never changes
+            if ("id".equals(frag) || "assetParents".equals(frag)
+                    || !updates.containsKey(frag.split("\\.")[0])) {
+                return;
+            }
+            // An update replaces the whole top-level fragment
+            Object value = resolveNestedAttribute(updates, frag);
+            if (value != null) {
+                newMO.put(frag, value);
+            } else {
+                newMO.remove(frag);
+            }
+        });
+        inventoryCache.putMO(sourceId, newMO);
     }
 
     public Map<String, Object> getMOFromInventoryCache(String tenant, String sourceId, Boolean testing,
@@ -93,24 +115,91 @@ public class InventoryCacheEnrichmentService {
         }
 
         InventoryCache inventoryCache = cacheManager.getInventoryCache(tenant);
-        Map<String, Object> result = inventoryCache.getMOBySource(sourceId);
-        if (result != null) {
-            return result;
-        }
+        return inventoryCache.getMO(sourceId, id -> {
+            ManagedObjectRepresentation mor = new ManagedObjectRepresentation();
+            mor.setId(new GId(id));
 
-        final Map<String, Object> newMO = new HashMap<>();
-        inventoryCache.putMO(sourceId, newMO);
-        ManagedObjectRepresentation mor = new ManagedObjectRepresentation();
-        mor.setId(new GId(sourceId));
+            configurationRegistry.getNotificationSubscriber().subscribeMOForInventoryCacheUpdates(tenant, mor);
+
+            return loadMOFragments(tenant, id, testing, identityResolver, configurationRegistry);
+        });
+    }
 
-        configurationRegistry.getNotificationSubscriber().subscribeMOForInventoryCacheUpdates(tenant, mor);
+    /**
+     * Loads the fragments of many managed objects into the inventory cache,
+     * e.g. for the devices of a new subscription. Managed objects that are not
+     * cached yet are read with one inventory query per page instead of one
+     * request per managed object.
+     */
+    public void prefetchMOsIntoInventoryCache(String tenant, Collection<String> sourceIds, Boolean testing,
+            IdentityResolver identityResolver, ConfigurationRegistry configurationRegistry) {
+        InventoryCache inventoryCache = cacheManager.getInventoryCache(tenant);
+        if (inventoryCache == null || sourceIds == null || sourceIds.isEmpty()) {
+            return;
+        }
+        try {
+            inventoryCache.prefetchMOs(sourceIds, missing -> {
+                Map<String, Map<String, Object>> loaded = loadMOFragments(tenant, missing, testing,
+                        identityResolver, configurationRegistry);
+                // subscribe only after the bulk load succeeded, nothing is cached otherwise
+                for (String id : loaded.keySet()) {
+                    ManagedObjectRepresentation mor = new ManagedObjectRepresentation();
+                    mor.setId(new GId(id));
+                    configurationRegistry.getNotificationSubscriber().subscribeMOForInventoryCacheUpdates(tenant, mor);
+                }
+                return loaded;
+            });
+            log.debug("{} - Prefetched {} managed objects into inventory cache", tenant, sourceIds.size());
+        } catch (RuntimeException e) {
+            // Nothing is cached, the managed objects are loaded on the first lookup instead
+            log.warn("{} - Failed to prefetch {} managed objects into inventory cache: {}", tenant,
+                    sourceIds.size(), e.getMessage());
+        }
+    }
 
+    /**
+     * Reads the managed object and builds the map of the fragments configured in
+     * {@code inventoryFragmentsToCache}. The map is complete before it is
+     * stored in the cache.
+     */
+    public Map<String, Object> loadMOFragments(String tenant, String sourceId, Boolean testing,
+            IdentityResolver identityResolver, ConfigurationRegistry configurationRegistry) {
         ServiceConfiguration serviceConfiguration = configurationRegistry.getServiceConfiguration(tenant);
-        // Check if assetParents is requested in fragments to cache
-        boolean withParents = serviceConfiguration.getInventoryFragmentsToCache().stream()
-                .anyMatch(frag -> "assetParents".equals(frag.trim()));
+        boolean withParents = isWithParents(serviceConfiguration);
 
+        // Use the identityResolver to get managed object
         ManagedObjectRepresentation device = getManagedObjectFromResolver(tenant, sourceId, testing, identityResolver, withParents);
+        return buildMOFragments(serviceConfiguration, sourceId, device);
+    }
+
+    /**
+     * Reads the managed objects in bulk and builds the fragment maps. Source ids
+     * of managed objects that do not exist are mapped to an empty map, as in
+     * {@link #loadMOFragments(String, String, Boolean, IdentityResolver, ConfigurationRegistry)}.
+     * A failed inventory request is rethrown, so no empty maps are cached for it.
+     */
+    public Map<String, Map<String, Object>> loadMOFragments(String tenant, Set<String> sourceIds, Boolean testing,
+            IdentityResolver identityResolver, ConfigurationRegistry configurationRegistry) {
+        ServiceConfiguration serviceConfiguration = configurationRegistry.getServiceConfiguration(tenant);
+        boolean withParents = isWithParents(serviceConfiguration);
+
+        Map<String, ManagedObjectRepresentation> devices = new HashMap<>();
+        if (identityResolver instanceof C8YAgent) {
+            for (ManagedObjectRepresentation device : ((C8YAgent) identityResolver).getManagedObjectsForIds(tenant,
+                    sourceIds, testing, withParents)) {
+                devices.put(device.getId().getValue(), device);
+            }
+        }
+        Map<String, Map<String, Object>> result = new HashMap<>();
+        for (String sourceId : sourceIds) {
+            result.put(sourceId, buildMOFragments(serviceConfiguration, sourceId, devices.get(sourceId)));
+        }
+        return result;
+    }
+
+    private Map<String, Object> buildMOFragments(ServiceConfiguration serviceConfiguration, String sourceId,
+            ManagedObjectRepresentation device) {
+        final Map<String, Object> newMO = new HashMap<>();
         if (device != null) {
             Map<String, Object> attrs = device.getAttrs();
 
@@ -119,10 +208,15 @@ public class InventoryCacheEnrichmentService {
                 processFragment(frag, sourceId, device, attrs, newMO);
             });
         }
-
         return newMO;
     }
 
+    // Check if assetParents is requested in fragments to cache
+    private boolean isWithParents(ServiceConfiguration serviceConfiguration) {
+        return serviceConfiguration.getInventoryFragmentsToCache().stream()
+                .anyMatch(frag -> "assetParents".equals(frag.trim()));
+    }
+
     private ManagedObjectRepresentation getManagedObjectFromResolver(String tenant, String deviceId,
             Boolean testing, IdentityResolver identityResolver, boolean withParents) {
         // Since IdentityResolver is implemented by C8YAgent, we can cast it
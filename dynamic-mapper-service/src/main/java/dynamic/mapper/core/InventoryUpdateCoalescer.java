@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.cumulocity.model.idtype.GId;
+import com.cumulocity.rest.representation.inventory.ManagedObjectRepresentation;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Merges the inventory updates of one managed object that arrive within a
+ * short window into a single update request. Fragments are merged top-level,
+ * the last message wins per fragment, as in the managed object itself.
+ *
+ * <p>Every submitted update gets its own future. If Cumulocity rejects the
+ * merged update as invalid (400 or 422), the updates are sent again one by
+ * one, so that only the invalid updates fail. Any other error fails all
+ * updates of the window. After a successful update the cached fragments of the
+ * managed object are updated from the sent fragments, without waiting for the
+ * inventory notification.</p>
+ */
+@Slf4j
+@Component
+public class InventoryUpdateCoalescer {
+
+    @Autowired
+    private C8YAgent c8yAgent;
+
+    @Autowired
+    private ConfigurationRegistry configurationRegistry;
+
+    @Autowired
+    @Qualifier("virtualThreadPool")
+    private ExecutorService virtualThreadPool;
+
+    private final ScheduledExecutorService lingerScheduler = Executors.newScheduledThreadPool(1, r -> {
+        Thread t = new Thread(r, "inventory-update-linger");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Structure: < UpdateKey(tenant, sourceId), PendingUpdates >
+    private final Map<UpdateKey, PendingUpdates> updates = new ConcurrentHashMap<>();
+
+    private final DistributionSummary coalescedSummary = DistributionSummary
+            .builder("dynmapper_c8y_inventory_update_coalesced")
+            .description("Number of inventory updates merged into one inventory update request")
+            .register(Metrics.globalRegistry);
+
+    private record UpdateKey(String tenant, String sourceId) {
+    }
+
+    private record PendingUpdate(Map<String, Object> fragments,
+            CompletableFuture<ManagedObjectRepresentation> result) {
+    }
+
+    private static class PendingUpdates {
+        private final List<PendingUpdate> pending = new ArrayList<>();
+        private boolean flushed;
+    }
+
+    /**
+     * Adds the fragments to the pending update of the managed object.
+     *
+     * @param fragments top-level fragments of the update, an {@code id} is
+     *                  ignored
+     * @param windowMs  time the first update of a managed object waits for
+     *                  further updates
+     * @return future completed with the updated managed object, or
+     *         exceptionally with the error returned for this update
+     */
+    public CompletableFuture<ManagedObjectRepresentation> submit(String tenant, String sourceId,
+            Map<String, Object> fragments, long windowMs) {
+        UpdateKey key = new UpdateKey(tenant, sourceId);
+        PendingUpdate pendingUpdate = new PendingUpdate(fragments, new CompletableFuture<>());
+        while (true) {
+            PendingUpdates pendingUpdates = updates.computeIfAbsent(key, k -> new PendingUpdates());
+            synchronized (pendingUpdates) {
+                if (pendingUpdates.flushed) {
+                    // Raced with a flush, start a new window
+                    continue;
+                }
+                if (pendingUpdates.pending.isEmpty()) {
+                    lingerScheduler.schedule(() -> flush(key, pendingUpdates), windowMs, TimeUnit.MILLISECONDS);
+                }
+                pendingUpdates.pending.add(pendingUpdate);
+            }
+            return pendingUpdate.result();
+        }
+    }
+
+    /**
+     * Sends all pending updates of all tenants, e.g. on shutdown. If the
+     * virtual thread pool is already shut down, the updates are sent by the
+     * calling thread.
+     */
+    public void flushAll() {
+        updates.forEach(this::flush);
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        flushAll();
+        lingerScheduler.shutdownNow();
+    }
+
+    private void flush(UpdateKey key, PendingUpdates pendingUpdates) {
+        updates.remove(key, pendingUpdates);
+        List<PendingUpdate> toSend;
+        synchronized (pendingUpdates) {
+            if (pendingUpdates.flushed) {
+                return;
+            }
+            pendingUpdates.flushed = true;
+            toSend = pendingUpdates.pending;
+        }
+        if (toSend.isEmpty()) {
+            return;
+        }
+        try {
+            virtualThreadPool.submit(() -> send(key.tenant(), key.sourceId(), toSend));
+        } catch (RejectedExecutionException e) {
+            send(key.tenant(), key.sourceId(), toSend);
+        }
+    }
+
+    private void send(String tenant, String sourceId, List<PendingUpdate> toSend) {
+        coalescedSummary.record(toSend.size());
+        Map<String, Object> merged = new LinkedHashMap<>();
+        toSend.forEach(p -> merged.putAll(p.fragments()));
+        try {
+            ManagedObjectRepresentation updated = update(tenant, sourceId, merged);
+            log.debug("{} - Device {} updated with {} coalesced inventory updates", tenant, sourceId,
+                    toSend.size());
+            toSend.forEach(p -> p.result().complete(updated));
+        } catch (Exception e) {
+            if (toSend.size() == 1 || !MeasurementBatcher.isRejected(e)) {
+                toSend.forEach(p -> p.result().completeExceptionally(e));
+                return;
+            }
+            log.warn("{} - Coalesced update of device {} rejected, sending {} updates individually: {}", tenant,
+                    sourceId, toSend.size(), e.getMessage());
+            for (PendingUpdate p : toSend) {
+                try {
+                    p.result().complete(update(tenant, sourceId, p.fragments()));
+                } catch (Exception single) {
+                    p.result().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private ManagedObjectRepresentation update(String tenant, String sourceId, Map<String, Object> fragments) {
+        Map<String, Object> body = new LinkedHashMap<>(fragments);
+        body.remove("id");
+        ManagedObjectRepresentation mor = configurationRegistry.getObjectMapper().convertValue(body,
+                ManagedObjectRepresentation.class);
+        mor.setId(new GId(sourceId));
+        ManagedObjectRepresentation updated = c8yAgent.updateDevice(tenant, mor);
+        c8yAgent.applyUpdateToInventoryCache(tenant, sourceId, body);
+        return updated;
+    }
+}
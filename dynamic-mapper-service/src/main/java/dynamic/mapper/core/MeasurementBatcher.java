@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.cumulocity.rest.representation.measurement.MeasurementRepresentation;
+import com.cumulocity.sdk.client.ProcessingMode;
+import com.cumulocity.sdk.client.SDKException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects inbound measurements per tenant and processing mode and sends them
+ * to Cumulocity as one measurement collection request. A batch is sent when it
+ * reaches the configured size or when its oldest measurement has waited for
+ * the linger time, whichever comes first.
+ *
+ * <p>Every submitted measurement gets its own future. If Cumulocity rejects a
+ * collection as invalid (400 or 422), the measurements of the batch are sent
+ * again one by one, so that only the invalid measurements fail and each caller
+ * receives its own result. Any other error, e.g. a 5xx or a timeout, fails all
+ * measurements of the batch, since resending them would multiply the load on
+ * an unavailable platform and could duplicate measurements that were stored.</p>
+ */
+@Slf4j
+@Component
+public class MeasurementBatcher {
+
+    @Autowired
+    private C8YAgent c8yAgent;
+
+    @Autowired
+    @Qualifier("virtualThreadPool")
+    private ExecutorService virtualThreadPool;
+
+    private final ScheduledExecutorService lingerScheduler = Executors.newScheduledThreadPool(1, r -> {
+        Thread t = new Thread(r, "measurement-batch-linger");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Structure: < BatchKey(tenant, processingMode), Batch >
+    private final Map<BatchKey, Batch> batches = new ConcurrentHashMap<>();
+
+    private final DistributionSummary batchSizeSummary = DistributionSummary
+            .builder("dynmapper_c8y_measurement_batch_size")
+            .description("Number of measurements sent in one measurement collection request")
+            .register(Metrics.globalRegistry);
+
+    private record BatchKey(String tenant, ProcessingMode processingMode) {
+    }
+
+    private record PendingMeasurement(MeasurementRepresentation measurement,
+            CompletableFuture<MeasurementRepresentation> result) {
+    }
+
+    private static class Batch {
+        private List<PendingMeasurement> pending = new ArrayList<>();
+        private ScheduledFuture<?> lingerTask;
+    }
+
+    /**
+     * Adds a measurement to the current batch of the tenant.
+     *
+     * @param batchSize maximum number of measurements per request
+     * @param lingerMs  maximum time the first measurement of a batch waits
+     * @return future completed with the created measurement, or exceptionally
+     *         with the {@link SDKException} returned for this measurement
+     */
+    public CompletableFuture<MeasurementRepresentation> submit(String tenant, ProcessingMode processingMode,
+            MeasurementRepresentation measurement, int batchSize, long lingerMs) {
+        BatchKey key = new BatchKey(tenant, processingMode);
+        PendingMeasurement pendingMeasurement = new PendingMeasurement(measurement, new CompletableFuture<>());
+        List<PendingMeasurement> full = null;
+
+        Batch batch = batches.computeIfAbsent(key, k -> new Batch());
+        synchronized (batch) {
+            batch.pending.add(pendingMeasurement);
+            if (batch.pending.size() >= batchSize) {
+                full = drain(batch);
+            } else if (batch.lingerTask == null) {
+                batch.lingerTask = lingerScheduler.schedule(() -> flush(key), lingerMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (full != null) {
+            // Send in the submitting thread, it waits for the result anyway
+            send(tenant, processingMode, full);
+        }
+        return pendingMeasurement.result();
+    }
+
+    /**
+     * Sends all pending measurements of all tenants, e.g. on shutdown
+     */
+    public void flushAll() {
+        batches.keySet().forEach(this::flush);
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        flushAll();
+        lingerScheduler.shutdownNow();
+    }
+
+    private void flush(BatchKey key) {
+        Batch batch = batches.get(key);
+        if (batch == null) {
+            return;
+        }
+        List<PendingMeasurement> toSend;
+        synchronized (batch) {
+            toSend = drain(batch);
+        }
+        if (!toSend.isEmpty()) {
+            virtualThreadPool.submit(() -> send(key.tenant(), key.processingMode(), toSend));
+        }
+    }
+
+    private List<PendingMeasurement> drain(Batch batch) {
+        if (batch.lingerTask != null) {
+            batch.lingerTask.cancel(false);
+            batch.lingerTask = null;
+        }
+        List<PendingMeasurement> drained = batch.pending;
+        batch.pending = new ArrayList<>();
+        return drained;
+    }
+
+    private void send(String tenant, ProcessingMode processingMode, List<PendingMeasurement> toSend) {
+        batchSizeSummary.record(toSend.size());
+        List<MeasurementRepresentation> measurements = new ArrayList<>(toSend.size());
+        toSend.forEach(p -> measurements.add(p.measurement()));
+        try {
+            List<MeasurementRepresentation> created = c8yAgent.createMeasurements(tenant, measurements,
+                    processingMode);
+            for (int i = 0; i < toSend.size(); i++) {
+                toSend.get(i).result().complete(created.get(i));
+            }
+        } catch (Exception e) {
+            if (toSend.size() == 1 || !isRejected(e)) {
+                toSend.forEach(p -> p.result().completeExceptionally(e));
+                return;
+            }
+            log.warn("{} - Measurement collection of {} measurements rejected, sending individually: {}", tenant,
+                    toSend.size(), e.getMessage());
+            for (PendingMeasurement p : toSend) {
+                try {
+                    List<MeasurementRepresentation> created = c8yAgent.createMeasurements(tenant,
+                            Collections.singletonList(p.measurement()), processingMode);
+                    p.result().complete(created.get(0));
+                } catch (Exception single) {
+                    p.result().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} when Cumulocity rejected the request because of its
+     *         content, which only some of the measurements may have caused
+     */
+    static boolean isRejected(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SDKException sdkException) {
+                return sdkException.getHttpStatus() == 400 || sdkException.getHttpStatus() == 422;
+            }
+        }
+        return false;
+    }
+}
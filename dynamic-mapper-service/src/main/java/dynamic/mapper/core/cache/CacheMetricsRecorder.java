@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.core.cache;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Caffeine {@link StatsCounter} that publishes cache statistics per tenant to
+ * Micrometer: lookups by result, hit ratio, load latency and evictions by
+ * cause. All meters are named {@code <prefix>_...}.
+ */
+public class CacheMetricsRecorder implements StatsCounter {
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder evictionWeight = new LongAdder();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Timer loadSuccessTimer;
+    private final Timer loadFailureTimer;
+    private final Map<RemovalCause, Counter> evictionCounters = new EnumMap<>(RemovalCause.class);
+    private final Gauge hitRatioGauge;
+
+    public CacheMetricsRecorder(String prefix, String tenant) {
+        Tags tag = Tags.of("tenant", tenant);
+        this.hitCounter = Counter.builder(prefix + "_lookups_total")
+                .description("Number of cache lookups")
+                .tags(tag).tag("result", "hit")
+                .register(Metrics.globalRegistry);
+        this.missCounter = Counter.builder(prefix + "_lookups_total")
+                .description("Number of cache lookups")
+                .tags(tag).tag("result", "miss")
+                .register(Metrics.globalRegistry);
+        this.loadSuccessTimer = Timer.builder(prefix + "_load_time")
+                .description("Time to load a cache entry")
+                .tags(tag).tag("result", "success")
+                .register(Metrics.globalRegistry);
+        this.loadFailureTimer = Timer.builder(prefix + "_load_time")
+                .description("Time to load a cache entry")
+                .tags(tag).tag("result", "failure")
+                .register(Metrics.globalRegistry);
+        for (RemovalCause cause : RemovalCause.values()) {
+            if (cause.wasEvicted()) {
+                evictionCounters.put(cause, Counter.builder(prefix + "_evictions_total")
+                        .description("Number of cache entries evicted, by cause")
+                        .tags(tag).tag("cause", cause.name())
+                        .register(Metrics.globalRegistry));
+            }
+        }
+        this.hitRatioGauge = Gauge.builder(prefix + "_hit_ratio", this, r -> r.snapshot().hitRate())
+                .description("Ratio of cache lookups that were hits")
+                .tags(tag)
+                .register(Metrics.globalRegistry);
+    }
+
+    @Override
+    public void recordHits(int count) {
+        hitCount.add(count);
+        hitCounter.increment(count);
+    }
+
+    @Override
+    public void recordMisses(int count) {
+        missCount.add(count);
+        missCounter.increment(count);
+    }
+
+    @Override
+    public void recordLoadSuccess(long loadTime) {
+        loadSuccessCount.increment();
+        totalLoadTime.add(loadTime);
+        loadSuccessTimer.record(loadTime, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordLoadFailure(long loadTime) {
+        loadFailureCount.increment();
+        totalLoadTime.add(loadTime);
+        loadFailureTimer.record(loadTime, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordEviction(int weight, RemovalCause cause) {
+        evictionCount.increment();
+        evictionWeight.add(weight);
+        Counter counter = evictionCounters.get(cause);
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    @Override
+    public CacheStats snapshot() {
+        return CacheStats.of(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(),
+                totalLoadTime.sum(), evictionCount.sum(), evictionWeight.sum());
+    }
+
+    /**
+     * Removes the gauge bound to this recorder, so that a recreated cache can
+     * register its own. Counters and timers are shared and kept.
+     */
+    public void close() {
+        Metrics.globalRegistry.remove(hitRatioGauge);
+    }
+}
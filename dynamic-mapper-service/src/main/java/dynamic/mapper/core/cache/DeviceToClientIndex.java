@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.core.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Device to client relations of one tenant, used by the device isolation
+ * feature of the MQTT service.
+ * <p>
+ * Next to the device → client map a client → devices index is maintained, so
+ * that looking up the devices or the clients does not scan all relations.
+ * Reads are lock free, modifications are serialized to keep both maps
+ * consistent. Every modification increments a version, which is used to
+ * persist the relations only when they changed since the last write to the
+ * inventory.
+ */
+public class DeviceToClientIndex {
+
+    // Structure: < Device, Client >
+    private final Map<String, String> deviceToClient = new ConcurrentHashMap<>();
+
+    // Structure: < Client, < Device > >
+    private final Map<String, Set<String>> clientToDevices = new ConcurrentHashMap<>();
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile long persistedVersion;
+
+    public DeviceToClientIndex() {
+    }
+
+    /**
+     * Creates an index from relations read from the inventory, these are
+     * considered persisted.
+     */
+    public DeviceToClientIndex(Map<String, String> relations) {
+        if (relations != null) {
+            relations.forEach(this::link);
+        }
+    }
+
+    public synchronized void put(String deviceId, String clientId) {
+        String previousClientId = deviceToClient.get(deviceId);
+        if (clientId.equals(previousClientId)) {
+            return;
+        }
+        if (previousClientId != null) {
+            detach(deviceId, previousClientId);
+        }
+        link(deviceId, clientId);
+        version.incrementAndGet();
+    }
+
+    public synchronized void putAll(String clientId, List<String> deviceIds) {
+        deviceIds.forEach(deviceId -> put(deviceId, clientId));
+    }
+
+    /**
+     * @return the client the device was related to, or {@code null}
+     */
+    public synchronized String remove(String deviceId) {
+        String clientId = deviceToClient.get(deviceId);
+        if (clientId != null) {
+            unlink(deviceId, clientId);
+            version.incrementAndGet();
+        }
+        return clientId;
+    }
+
+    /**
+     * @return the devices that were related to the client
+     */
+    public synchronized List<String> removeClient(String clientId) {
+        Set<String> devices = clientToDevices.remove(clientId);
+        if (devices == null) {
+            return new ArrayList<>();
+        }
+        devices.forEach(deviceToClient::remove);
+        version.incrementAndGet();
+        return new ArrayList<>(devices);
+    }
+
+    public synchronized void clear() {
+        if (!deviceToClient.isEmpty()) {
+            deviceToClient.clear();
+            clientToDevices.clear();
+            version.incrementAndGet();
+        }
+    }
+
+    public String getClient(String deviceId) {
+        return deviceToClient.get(deviceId);
+    }
+
+    public boolean containsDevice(String deviceId) {
+        return deviceToClient.containsKey(deviceId);
+    }
+
+    public List<String> getDevices(String clientId) {
+        Set<String> devices = clientToDevices.get(clientId);
+        return devices != null ? new ArrayList<>(devices) : new ArrayList<>();
+    }
+
+    public List<String> getClients() {
+        List<String> clients = new ArrayList<>(clientToDevices.keySet());
+        clients.sort(null);
+        return clients;
+    }
+
+    public int size() {
+        return deviceToClient.size();
+    }
+
+    public Map<String, String> snapshot() {
+        return new HashMap<>(deviceToClient);
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public boolean hasUnpersistedChanges() {
+        return persistedVersion != version.get();
+    }
+
+    /**
+     * Marks the relations up to the given version as written to the inventory.
+     * The version has to be read before the relations were copied.
+     */
+    public void markPersisted(long persistedVersion) {
+        this.persistedVersion = persistedVersion;
+    }
+
+    private void link(String deviceId, String clientId) {
+        deviceToClient.put(deviceId, clientId);
+        clientToDevices.computeIfAbsent(clientId, k -> ConcurrentHashMap.newKeySet()).add(deviceId);
+    }
+
+    private void unlink(String deviceId, String clientId) {
+        deviceToClient.remove(deviceId);
+        detach(deviceId, clientId);
+    }
+
+    private void detach(String deviceId, String clientId) {
+        clientToDevices.computeIfPresent(clientId, (k, devices) -> {
+            devices.remove(deviceId);
+            return devices.isEmpty() ? null : devices;
+        });
+    }
+}
@@ -27,15 +27,19 @@ import io.micrometer.core.instrument.Tags;
 
 import com.cumulocity.model.ID;
 import com.cumulocity.rest.representation.identity.ExternalIDRepresentation;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.time.Duration;
 
+/**
+ * Per-tenant cache of external id to global id resolutions. Backed by Caffeine
+ * with W-TinyLFU size-based eviction, lock-free reads and optional expiry.
+ */
 public class InboundExternalIdCache {
 
-	//private final LRUMap<ID, ExternalIDRepresentation> cache;
-	private final Map<ID, ExternalIDRepresentation> cache;
+	private final Cache<ID, ExternalIDRepresentation> cache;
+	private final CacheMetricsRecorder metricsRecorder;
 
 	private Gauge cacheSizeGauge = null;
 
@@ -45,17 +49,22 @@ public class InboundExternalIdCache {
 	}
 
 	// Constructor with custom cache size
-	public InboundExternalIdCache(int cacheSize,  String tenant) {
-		//Making it thread-safe
-		this.cache = Collections.synchronizedMap(new LinkedHashMap<ID, ExternalIDRepresentation>() {
-			//Removing oldest entries
-			@Override
-			protected boolean removeEldestEntry(Map.Entry<ID, ExternalIDRepresentation> eldest) {
-				return size() > cacheSize;
-			}
-		});
+	public InboundExternalIdCache(int cacheSize, String tenant) {
+		this(cacheSize, tenant, 0);
+	}
+
+	// Constructor with custom cache size and expiry, 0 disables expiry
+	public InboundExternalIdCache(int cacheSize, String tenant, long expireAfterWriteSeconds) {
+		this.metricsRecorder = new CacheMetricsRecorder("dynmapper_inbound_identity_cache", tenant);
+		Caffeine<Object, Object> builder = Caffeine.newBuilder()
+				.maximumSize(cacheSize)
+				.recordStats(() -> metricsRecorder);
+		if (expireAfterWriteSeconds > 0) {
+			builder.expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds));
+		}
+		this.cache = builder.build();
 		Tags tag = Tags.of("tenant", tenant);
-		this.cacheSizeGauge = Gauge.builder("dynmapper_inbound_identity_cache_size", this.cache, Map::size)
+		this.cacheSizeGauge = Gauge.builder("dynmapper_inbound_identity_cache_size", this.cache, Cache::estimatedSize)
 				.tags(tag)
 				.register(Metrics.globalRegistry);
 	}
@@ -66,26 +75,34 @@ public class InboundExternalIdCache {
 
 	// Method to get ID by external ID
 	public ExternalIDRepresentation getIdByExternalId(ID key) {
-		return cache.get(key);
+		return cache.getIfPresent(key);
 	}
 
 	// Method to put a new entry in the cache
 	public void putIdForExternalId(ID key, ExternalIDRepresentation id) {
-		cache.put(key, id);
+		if (id != null) {
+			cache.put(key, id);
+		}
 	}
 
 	// Method to remove an entry from the cache
 	public void removeIdForExternalId(ID key) {
-		cache.remove(key);
+		cache.invalidate(key);
 	}
 
 	// Method to clear the entire cache
 	public void clearCache() {
-		cache.clear();
+		cache.invalidateAll();
 	}
 
 	// Method to get the current size of the cache
 	public int getCacheSize() {
-		return cache.size();
+		return (int) cache.estimatedSize();
+	}
+
+	// Method to unregister the gauges of this cache, e.g. before it is replaced
+	public void close() {
+		Metrics.globalRegistry.remove(cacheSizeGauge);
+		metricsRecorder.close();
 	}
-}
\ No newline at end of file
+}
@@ -25,66 +25,233 @@ import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tags;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 
+/**
+ * Per-tenant cache of the inventory fragments of managed objects, keyed by
+ * source id. Backed by Caffeine: reads are lock-free, eviction uses W-TinyLFU
+ * admission either by entry count or by the estimated size of the cached
+ * fragments, and entries can expire or be refreshed after write.
+ *
+ * <p>Loads are single-flight: the cache holds one future per source id while
+ * it is loaded, concurrent lookups for the same source id wait for it instead
+ * of loading the managed object again. The load runs on the thread of the
+ * first lookup. Cached fragment maps are read-only.</p>
+ */
 public class InventoryCache {
 
-    private final Map<String, Map<String, Object>> cache;
+    private final AsyncLoadingCache<String, Map<String, Object>> cache;
+    private final CacheMetricsRecorder metricsRecorder;
     private Gauge cacheSizeGauge = null;
-    
+
     // Listener for eviction events
-    private Consumer<String> evictionListener;
+    private volatile Consumer<String> evictionListener;
+
+    // Reloads an entry when refreshAfterWrite is configured
+    private volatile Function<String, Map<String, Object>> refreshLoader;
 
     public InventoryCache(int cacheSize, String tenant) {
-        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, Map<String, Object>>() {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<String, Map<String, Object>> eldest) {
-                boolean shouldRemove = size() > cacheSize;
-                if (shouldRemove && evictionListener != null) {
-                    // Notify listener about eviction
-                    evictionListener.accept(eldest.getKey());
-                }
-                return shouldRemove;
-            }
-        });
-        
+        this(cacheSize, tenant, 0, 0, 0);
+    }
+
+    /**
+     * @param cacheSize                maximum number of entries, used when maxWeight is 0
+     * @param expireAfterWriteSeconds  entries expire this long after they were written, 0 disables expiry
+     * @param refreshAfterWriteSeconds entries are reloaded asynchronously on access this long after they were
+     *                                 written, 0 disables refresh. Requires a refresh loader.
+     * @param maxWeight                maximum total size of the cached fragments in characters, 0 bounds the
+     *                                 cache by entry count instead
+     */
+    public InventoryCache(int cacheSize, String tenant, long expireAfterWriteSeconds, long refreshAfterWriteSeconds,
+            long maxWeight) {
+        this.metricsRecorder = new CacheMetricsRecorder("dynmapper_inbound_inventory_cache", tenant);
+        Caffeine<String, Map<String, Object>> builder = Caffeine.newBuilder()
+                .recordStats(() -> metricsRecorder)
+                .removalListener((String key, Map<String, Object> value, RemovalCause cause) -> {
+                    Consumer<String> listener = evictionListener;
+                    if (cause.wasEvicted() && listener != null && key != null) {
+                        // Notify listener about eviction
+                        listener.accept(key);
+                    }
+                });
+        if (maxWeight > 0) {
+            builder.maximumWeight(maxWeight)
+                    .weigher((String key, Map<String, Object> value) -> estimateWeight(key, value));
+        } else {
+            builder.maximumSize(cacheSize);
+        }
+        if (expireAfterWriteSeconds > 0) {
+            builder.expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds));
+        }
+        if (refreshAfterWriteSeconds > 0) {
+            builder.refreshAfterWrite(Duration.ofSeconds(refreshAfterWriteSeconds));
+        }
+        this.cache = builder.buildAsync(this::reload);
+
         Tags tag = Tags.of("tenant", tenant);
-        this.cacheSizeGauge = Gauge.builder("dynmapper_inbound_inventory_cache_size", this.cache, Map::size)
+        this.cacheSizeGauge = Gauge.builder("dynmapper_inbound_inventory_cache_size", this.cache,
+                c -> c.synchronous().estimatedSize())
                 .tags(tag)
                 .register(Metrics.globalRegistry);
     }
 
     /**
-     * Set a listener to be notified when entries are evicted
+     * Set a listener to be notified when entries are evicted because of size or expiry
      */
     public void setEvictionListener(Consumer<String> listener) {
         this.evictionListener = listener;
     }
 
+    public Consumer<String> getEvictionListener() {
+        return evictionListener;
+    }
+
+    /**
+     * Set the loader used to refresh entries after write
+     */
+    public void setRefreshLoader(Function<String, Map<String, Object>> refreshLoader) {
+        this.refreshLoader = refreshLoader;
+    }
+
+    public Function<String, Map<String, Object>> getRefreshLoader() {
+        return refreshLoader;
+    }
+
+    /**
+     * Stores a fully built fragment map. The map must not be modified
+     * afterwards, its size is only estimated once when it is stored.
+     */
     public void putMO(String sourceId, Map<String, Object> mo) {
-        cache.put(sourceId, mo);
+        cache.put(sourceId, CompletableFuture.completedFuture(readOnly(mo)));
     }
 
     public Gauge getCacheSizeGauge() {
         return cacheSizeGauge;
     }
 
+    /**
+     * Returns the cached fragments, or null if they are not cached or still
+     * being loaded. Does not wait for a load in progress.
+     */
     public Map<String, Object> getMOBySource(String key) {
-        return cache.get(key);
+        CompletableFuture<Map<String, Object>> future = cache.getIfPresent(key);
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        return future.join();
     }
+
+    /**
+     * Returns the cached fragments or loads them with the given function on a
+     * miss. Concurrent lookups for the same source id wait for a single load.
+     */
+    public Map<String, Object> getMO(String sourceId, Function<String, Map<String, Object>> loader) {
+        CompletableFuture<Map<String, Object>> load = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> future = cache.get(sourceId, (id, executor) -> load);
+        if (future == load) {
+            try {
+                load.complete(readOnly(loader.apply(sourceId)));
+            } catch (Throwable e) {
+                // The failed future is removed, the next lookup loads again
+                load.completeExceptionally(e);
+            }
+        }
+        return join(future);
+    }
+
+    /**
+     * Loads the fragments of all source ids that are not cached yet with one
+     * call of the bulk loader. Lookups for these source ids that arrive during
+     * the load wait for it. Source ids missing in the result of the loader are
+     * not cached.
+     */
+    public void prefetchMOs(Collection<String> sourceIds,
+            Function<Set<String>, Map<String, Map<String, Object>>> bulkLoader) {
+        if (sourceIds == null || sourceIds.isEmpty()) {
+            return;
+        }
+        join(cache.getAll(sourceIds, (missing, executor) -> {
+            Map<String, Map<String, Object>> result = new HashMap<>();
+            try {
+                Map<String, Map<String, Object>> loaded = bulkLoader.apply(Set.copyOf(missing));
+                if (loaded != null) {
+                    loaded.forEach((sourceId, mo) -> result.put(sourceId, readOnly(mo)));
+                }
+            } catch (Throwable e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            return CompletableFuture.completedFuture(result);
+        }));
+    }
+
     public void removeMO(String sourceId) {
-        cache.remove(sourceId);
+        cache.synchronous().invalidate(sourceId);
     }
 
     public void clearCache() {
-        cache.clear();
+        cache.synchronous().invalidateAll();
     }
 
     public int getCacheSize() {
-        return cache.size();
+        return (int) cache.synchronous().estimatedSize();
+    }
+
+    /**
+     * Performs pending maintenance such as size-based eviction
+     */
+    public void cleanUp() {
+        cache.synchronous().cleanUp();
+    }
+
+    /**
+     * Unregisters the gauges of this cache, e.g. before it is replaced
+     */
+    public void close() {
+        Metrics.globalRegistry.remove(cacheSizeGauge);
+        metricsRecorder.close();
+    }
+
+    private Map<String, Object> reload(String sourceId) {
+        Function<String, Map<String, Object>> loader = refreshLoader;
+        // Returning null removes the entry, it is then loaded again on the next lookup
+        return loader != null ? readOnly(loader.apply(sourceId)) : null;
+    }
+
+    private static Map<String, Object> readOnly(Map<String, Object> mo) {
+        return mo != null ? Collections.unmodifiableMap(mo) : null;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    static int estimateWeight(String key, Map<String, Object> mo) {
+        int weight = key.length();
+        if (mo != null) {
+            for (Map.Entry<String, Object> entry : mo.entrySet()) {
+                weight += entry.getKey().length() + String.valueOf(entry.getValue()).length();
+            }
+        }
+        return Math.max(weight, 1);
     }
-}
\ No newline at end of file
+}
@@ -33,10 +33,9 @@ import com.cumulocity.rest.representation.inventory.ManagedObjectRepresentation;
 import com.cumulocity.sdk.client.identity.ExternalIDCollection;
 import com.cumulocity.sdk.client.identity.IdentityApi;
 
+import dynamic.mapper.core.C8YRequestScheduler;
 import dynamic.mapper.core.mock.MockIdentity;
 
-import java.util.concurrent.Semaphore;
-
 @Service
 @Slf4j
 public class IdentityFacade {
@@ -49,40 +48,40 @@ public class IdentityFacade {
     @Autowired
     private IdentityApi identityApi;
 
+    @Autowired
+    private C8YRequestScheduler c8yRequestScheduler;
+
     public ExternalIDRepresentation create(ManagedObjectRepresentation mor, ID id, Boolean testing) {
         ExternalIDRepresentation externalIDRepresentation = new ExternalIDRepresentation();
         externalIDRepresentation.setType(id.getType());
         externalIDRepresentation.setExternalId(id.getValue());
         externalIDRepresentation.setManagedObject(mor);
         if (testing == null || !testing) {
-            return identityApi.create(externalIDRepresentation);
+            return c8yRequestScheduler.call(() -> identityApi.create(externalIDRepresentation));
         } else {
             return identityMock.create(externalIDRepresentation);
         }
     }
 
-    public ExternalIDRepresentation resolveExternalId2GlobalId(ID externalID, Boolean testing, Semaphore c8ySemaphore) {
+    public ExternalIDRepresentation resolveExternalId2GlobalId(ID externalID, Boolean testing) {
         if (!testing) {
-            try {
-                c8ySemaphore.acquire();
+            try (C8YRequestScheduler.Permit permit = c8yRequestScheduler.acquire()) {
                 return identityApi.getExternalId(externalID);
             } catch (InterruptedException e) {
-                log.error("Failed to acquire semaphore for resolving external ID to global ID", e);
-            } finally {
-                c8ySemaphore.release();
+                Thread.currentThread().interrupt();
+                log.error("Interrupted while waiting for a C8Y connection for resolving external ID to global ID", e);
+                return null;
             }
         } else {
             return identityMock.getExternalId(externalID);
         }
-        return null;
     }
 
     public ExternalIDRepresentation resolveGlobalId2ExternalId(GId gid, String externalIdType,
-            Boolean testing, Semaphore c8ySemaphore) {
+            Boolean testing) {
         if (!testing) {
             MutableObject<ExternalIDRepresentation> result = new MutableObject<ExternalIDRepresentation>(null);
-            try {
-                c8ySemaphore.acquire();
+            try (C8YRequestScheduler.Permit permit = c8yRequestScheduler.acquire()) {
                 ExternalIDCollection collection = identityApi.getExternalIdsOfGlobalId(gid);
                 for (ExternalIDRepresentation externalId : collection.get(PAGE_SIZE).allPages()) {
                     if (externalId.getType().equals(externalIdType)) {
@@ -91,9 +90,8 @@ public class IdentityFacade {
                     }
                 }
             } catch (InterruptedException e) {
-                log.error("Failed to acquire semaphore for resolving external ID to global ID", e);
-            } finally {
-                c8ySemaphore.release();
+                Thread.currentThread().interrupt();
+                log.error("Interrupted while waiting for a C8Y connection for resolving global ID to external ID", e);
             }
             return result.getValue();
         } else {
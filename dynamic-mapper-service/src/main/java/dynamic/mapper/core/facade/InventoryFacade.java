@@ -21,13 +21,17 @@
 
 package dynamic.mapper.core.facade;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.cumulocity.model.idtype.GId;
 import com.cumulocity.rest.representation.CumulocityMediaType;
+import com.cumulocity.rest.representation.inventory.ManagedObjectCollectionRepresentation;
 import com.cumulocity.rest.representation.inventory.ManagedObjectReferenceRepresentation;
 import com.cumulocity.rest.representation.inventory.ManagedObjectRepresentation;
 import com.cumulocity.sdk.client.Platform;
@@ -36,6 +40,7 @@ import com.cumulocity.sdk.client.inventory.InventoryApi;
 import com.cumulocity.sdk.client.inventory.InventoryFilter;
 import com.cumulocity.sdk.client.inventory.ManagedObjectCollection;
 
+import dynamic.mapper.core.C8YRequestScheduler;
 import dynamic.mapper.core.mock.MockInventory;
 import lombok.extern.slf4j.Slf4j;
 
@@ -52,6 +57,9 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 public class InventoryFacade {
 
+    // Bounds the length of the request URL when managed objects are read by ID
+    private static final int MAX_IDS_PER_REQUEST = 100;
+
     @Autowired
     private MockInventory inventoryMock;
 
@@ -61,6 +69,9 @@ public class InventoryFacade {
     @Autowired
     private Platform platform;
 
+    @Autowired
+    private C8YRequestScheduler c8yRequestScheduler;
+
 
     /**
      * Create a managed object with boolean flag.
@@ -73,7 +84,7 @@ public class InventoryFacade {
     public ManagedObjectRepresentation create(ManagedObjectRepresentation mor, Boolean testing) {
         if (testing == null || Boolean.FALSE.equals(testing)) {
             log.debug("Creating managed object via real C8Y API (testing mode): {}", mor.getName());
-            return inventoryApi.create(mor);
+            return c8yRequestScheduler.call(() -> inventoryApi.create(mor));
         } else {
             log.debug("Creating managed object via mock: {}", mor.getName());
             return inventoryMock.create(mor);
@@ -110,15 +121,15 @@ public class InventoryFacade {
                 RestOperations restOperations = platform.rest();
                 String url = "/inventory/managedObjects/" + id.getValue() + "?withParents=true";
                 try {
-                    return restOperations.get(url,
+                    return c8yRequestScheduler.call(() -> restOperations.get(url,
                         com.cumulocity.rest.representation.CumulocityMediaType.APPLICATION_JSON_TYPE,
-                        ManagedObjectRepresentation.class);
+                        ManagedObjectRepresentation.class));
                 } catch (Exception e) {
                     log.warn("Failed to get managed object with parents: {}", id, e);
                     return null;
                 }
             } else {
-                return inventoryApi.get(id);
+                return c8yRequestScheduler.call(() -> inventoryApi.get(id));
             }
         } else {
             log.debug("Getting managed object via mock: {}", id);
@@ -127,6 +138,46 @@ public class InventoryFacade {
     }
 
 
+    /**
+     * Get several managed objects by ID with one request per page of IDs.
+     * Routes to real API if testing is false, otherwise uses mock.
+     *
+     * @param ids The IDs of the managed objects
+     * @param testing Flag indicating if this is a test scenario
+     * @param withParents If true, includes parent device information in the response
+     * @return The managed objects that exist, in no particular order
+     */
+    public List<ManagedObjectRepresentation> getByIds(List<GId> ids, Boolean testing, boolean withParents) {
+        List<ManagedObjectRepresentation> result = new ArrayList<>(ids.size());
+        if (Boolean.FALSE.equals(testing)) {
+            log.debug("Getting {} managed objects via real C8Y API, withParents: {}", ids.size(), withParents);
+            for (int start = 0; start < ids.size(); start += MAX_IDS_PER_REQUEST) {
+                List<GId> page = ids.subList(start, Math.min(start + MAX_IDS_PER_REQUEST, ids.size()));
+                if (withParents) {
+                    String url = "/inventory/managedObjects?withParents=true&pageSize=" + page.size() + "&ids="
+                            + page.stream().map(GId::getValue).collect(Collectors.joining(","));
+                    ManagedObjectCollectionRepresentation collection = c8yRequestScheduler.call(() -> platform.rest()
+                            .get(url, CumulocityMediaType.APPLICATION_JSON_TYPE,
+                                    ManagedObjectCollectionRepresentation.class));
+                    result.addAll(collection.getManagedObjects());
+                } else {
+                    result.addAll(c8yRequestScheduler.call(() -> inventoryApi
+                            .getManagedObjectsByFilter(new InventoryFilter().byIds(page))
+                            .get(page.size()).getManagedObjects()));
+                }
+            }
+        } else {
+            log.debug("Getting {} managed objects via mock", ids.size());
+            for (GId id : ids) {
+                ManagedObjectRepresentation mor = inventoryMock.get(id);
+                if (mor != null) {
+                    result.add(mor);
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Delete a managed object by ID with boolean flag.
      * Routes to real API if testing is true, otherwise uses mock.
@@ -137,7 +188,7 @@ public class InventoryFacade {
     public void delete(GId id, Boolean testing) {
         if (Boolean.FALSE.equals(testing)) {
             log.debug("Deleting managed object via real C8Y API (testing mode): {}", id);
-            inventoryApi.delete(id);
+            c8yRequestScheduler.run(() -> inventoryApi.delete(id));
         } else {
             log.debug("Deleting managed object via mock: {}", id);
             inventoryMock.delete(id);
@@ -155,7 +206,7 @@ public class InventoryFacade {
     public ManagedObjectRepresentation update(ManagedObjectRepresentation mor, Boolean testing) {
         if (Boolean.FALSE.equals(testing)) {
             log.debug("Updating managed object via real C8Y API (testing mode): {}", mor.getId());
-            return inventoryApi.update(mor);
+            return c8yRequestScheduler.call(() -> inventoryApi.update(mor));
         } else {
             log.debug("Updating managed object via mock: {}", mor.getId());
             return inventoryMock.update(mor);
@@ -300,6 +351,6 @@ public class InventoryFacade {
         deviceMO.setId(deviceId);
         ref.setManagedObject(deviceMO);
         RestOperations rest = platform.rest();
-        rest.post(url, CumulocityMediaType.APPLICATION_JSON_TYPE, ref);
+        c8yRequestScheduler.run(() -> rest.post(url, CumulocityMediaType.APPLICATION_JSON_TYPE, ref));
     }
 }
\ No newline at end of file
@@ -202,6 +202,11 @@ public class Mapping implements Serializable {
     @JsonSetter(nulls = Nulls.SKIP)
     private Boolean updateExistingDevice = false;
 
+    @Builder.Default
+    @Schema(description = "Window in milliseconds in which inventory updates of an existing device are merged into one update request, 0 sends every update. Not used when inbound messages are processed in order per key", example = "0")
+    @JsonSetter(nulls = Nulls.SKIP)
+    private Integer inventoryUpdateCoalesceMs = 0;
+
     @Builder.Default
     @Schema(description = "Whether to automatically acknowledge operations", example = "false")
     @JsonSetter(nulls = Nulls.SKIP)
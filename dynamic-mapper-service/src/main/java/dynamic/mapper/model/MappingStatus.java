@@ -21,7 +21,7 @@
 
 package dynamic.mapper.model;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -29,25 +29,28 @@ import lombok.ToString;
 
 import jakarta.validation.constraints.NotNull;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
+/**
+ * Execution statistics of a mapping.
+ *
+ * <p>The counters are updated by processors running in parallel on virtual
+ * threads. They are striped {@link LongAdder}s, so that concurrent updates are
+ * neither lost nor contended. The getters return the current sum and are used
+ * for serialization.</p>
+ */
 @Getter
 @NoArgsConstructor
-@AllArgsConstructor
 @ToString(exclude = {})
 @Schema(description = "Mapping execution statistics and status information")
 public class MappingStatus implements Serializable {
 
-    public static MappingStatus UNSPECIFIED_MAPPING_STATUS;
     public static final String IDENT_UNSPECIFIED_MAPPING = "UNSPECIFIED";
 
-    static {
-        UNSPECIFIED_MAPPING_STATUS = new MappingStatus(IDENT_UNSPECIFIED_MAPPING, IDENT_UNSPECIFIED_MAPPING,
-                IDENT_UNSPECIFIED_MAPPING, null, "#", "#", 0, 0, 0,0,
-                0, null);
-    }
-
     @Schema(requiredMode = Schema.RequiredMode.REQUIRED, description = "Unique identifier for the mapping generated by Cumulocity Core", example = "34573838974")
     @NotNull
     public String id;
@@ -74,39 +77,150 @@ public class MappingStatus implements Serializable {
 
     @Schema(requiredMode = Schema.RequiredMode.REQUIRED, description = "Total number of messages processed by this mapping", example = "1247")
     @NotNull
-    public long messagesReceived;
+    @Getter(AccessLevel.NONE)
+    private final LongAdder messagesReceived = new LongAdder();
 
     @Schema(requiredMode = Schema.RequiredMode.REQUIRED, description = "Total number of processing errors", example = "3")
     @NotNull
-    public long errors = 0;
+    @Getter(AccessLevel.NONE)
+    private final LongAdder errors = new LongAdder();
 
     @Schema(requiredMode = Schema.RequiredMode.REQUIRED, description = "Current consecutive failure count", example = "0")
     @NotNull
-    public long currentFailureCount = 0;
+    @Getter(AccessLevel.NONE)
+    private final LongAdder currentFailureCount = new LongAdder();
 
     @Schema(requiredMode = Schema.RequiredMode.REQUIRED, description = "Number of currently active snooped templates", example = "5")
     @NotNull
-    public long snoopedTemplatesActive;
+    @Getter(AccessLevel.NONE)
+    private final LongAdder snoopedTemplatesActive = new LongAdder();
 
     @Schema(requiredMode = Schema.RequiredMode.REQUIRED, description = "Total number of snooped templates collected", example = "10")
     @NotNull
-    public long snoopedTemplatesTotal;
+    @Getter(AccessLevel.NONE)
+    private final LongAdder snoopedTemplatesTotal = new LongAdder();
 
     @Schema(requiredMode = Schema.RequiredMode.REQUIRED, description = "Error message if mapping failed to load", example = "Invalid JSON template")
     @NotNull
     @Setter
     public String loadingError;
 
+    public MappingStatus(String id, String name, String identifier, Direction direction, String mappingTopic,
+            String publishTopic, long messagesReceived, long errors, long currentFailureCount,
+            long snoopedTemplatesActive, long snoopedTemplatesTotal, String loadingError) {
+        this.id = id;
+        this.name = name;
+        this.identifier = identifier;
+        this.direction = direction;
+        this.mappingTopic = mappingTopic;
+        this.publishTopic = publishTopic;
+        this.messagesReceived.add(messagesReceived);
+        this.errors.add(errors);
+        this.currentFailureCount.add(currentFailureCount);
+        this.snoopedTemplatesActive.add(snoopedTemplatesActive);
+        this.snoopedTemplatesTotal.add(snoopedTemplatesTotal);
+        this.loadingError = loadingError;
+    }
+
+    /**
+     * Creates an empty status for messages that could not be assigned to a
+     * mapping. Every tenant uses its own instance.
+     */
+    public static MappingStatus createUnspecified() {
+        return new MappingStatus(IDENT_UNSPECIFIED_MAPPING, IDENT_UNSPECIFIED_MAPPING,
+                IDENT_UNSPECIFIED_MAPPING, null, "#", "#", 0, 0, 0, 0,
+                0, null);
+    }
+
+    public long getMessagesReceived() {
+        return messagesReceived.sum();
+    }
+
+    public void setMessagesReceived(long value) {
+        set(messagesReceived, value);
+    }
+
+    public void incrementMessagesReceived() {
+        messagesReceived.increment();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public void setErrors(long value) {
+        set(errors, value);
+    }
+
+    public void incrementErrors() {
+        errors.increment();
+    }
+
+    public long getCurrentFailureCount() {
+        return currentFailureCount.sum();
+    }
+
+    public void setCurrentFailureCount(long value) {
+        set(currentFailureCount, value);
+    }
+
+    /**
+     * @return the failure count after the increment
+     */
+    public long incrementCurrentFailureCount() {
+        currentFailureCount.increment();
+        return currentFailureCount.sum();
+    }
+
+    public long getSnoopedTemplatesActive() {
+        return snoopedTemplatesActive.sum();
+    }
+
+    public void setSnoopedTemplatesActive(long value) {
+        set(snoopedTemplatesActive, value);
+    }
+
+    public void incrementSnoopedTemplatesActive() {
+        snoopedTemplatesActive.increment();
+    }
+
+    public long getSnoopedTemplatesTotal() {
+        return snoopedTemplatesTotal.sum();
+    }
+
+    public void setSnoopedTemplatesTotal(long value) {
+        set(snoopedTemplatesTotal, value);
+    }
+
+    /**
+     * Returns the values that are reported to the inventory, used to detect if
+     * the status changed since it was last sent.
+     */
+    public List<Object> snapshot() {
+        return Arrays.asList(name, mappingTopic, publishTopic, getMessagesReceived(), getErrors(),
+                getCurrentFailureCount(), getSnoopedTemplatesActive(), getSnoopedTemplatesTotal(), loadingError);
+    }
+
     @Override
     public boolean equals(Object m) {
         return (m instanceof MappingStatus) && id == ((MappingStatus) m).id;
     }
 
+    /**
+     * Resets the counters. The Micrometer counters of the mapping keep counting
+     * from their last value, see {@code MappingStatusMeters}.
+     */
     public void reset() {
-        messagesReceived = 0;
-        errors = 0;
+        messagesReceived.reset();
+        errors.reset();
         loadingError = "";
-        snoopedTemplatesActive = 0;
-        snoopedTemplatesTotal = 0;
+        snoopedTemplatesActive.reset();
+        snoopedTemplatesTotal.reset();
+    }
+
+    // Setting a value is only used for initialization and resets, it is not atomic with concurrent increments
+    private static void set(LongAdder adder, long value) {
+        adder.reset();
+        adder.add(value);
     }
-}
\ No newline at end of file
+}
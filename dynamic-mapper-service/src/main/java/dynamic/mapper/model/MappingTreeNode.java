@@ -21,6 +21,7 @@
 
 package dynamic.mapper.model;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -30,6 +31,8 @@ import org.apache.commons.lang3.mutable.MutableBoolean;
 import org.apache.commons.lang3.mutable.MutableInt;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -39,14 +42,24 @@ import java.util.stream.Collectors;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import dynamic.mapper.util.Utils;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 /**
  * Represents a node in the mapping tree structure.
  * Each node can either be a mapping node or an inner node.
+ *
+ * <p>Topics are resolved against an immutable snapshot of the tree that is
+ * built on the first lookup after a change, so lookups take no lock. Each
+ * snapshot carries a bounded cache of concrete topic to resolved mappings,
+ * which is discarded with the snapshot on {@link #addMapping(Mapping)} and
+ * {@link #deleteMapping(Mapping)}.</p>
  */
 @Slf4j
 @Getter
@@ -57,6 +70,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 public class MappingTreeNode {
     // Constants
     private static final String TENANT_LOG_PREFIX = "{} - ";
+    public static final int DEFAULT_TOPIC_CACHE_SIZE = 10000;
 
     // Core properties
     @Builder.Default
@@ -76,6 +90,12 @@ public class MappingTreeNode {
     private final ReadWriteLock treeLock = new ReentrantReadWriteLock();
     private final Lock readLock = treeLock.readLock();
     private final Lock writeLock = treeLock.writeLock();
+    // Number of resolved topics cached per snapshot, 0 disables the cache
+    @Builder.Default
+    private int topicCacheSize = DEFAULT_TOPIC_CACHE_SIZE;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final AtomicReference<ResolverSnapshot> resolverSnapshot = new AtomicReference<>();
 
     // Helper class for context; children list is mutable (nodes are added during tree building)
     @AllArgsConstructor
@@ -90,6 +110,10 @@ public class MappingTreeNode {
 
     // Factory methods
     public static MappingTreeNode createRootNode(String tenant) {
+        return createRootNode(tenant, DEFAULT_TOPIC_CACHE_SIZE);
+    }
+
+    public static MappingTreeNode createRootNode(String tenant, int topicCacheSize) {
         return MappingTreeNode.builder()
                 .depthIndex(0)
                 .level("root")
@@ -97,6 +121,7 @@ public class MappingTreeNode {
                 .parentNode(null)
                 .absolutePath("")
                 .mappingNode(false)
+                .topicCacheSize(topicCacheSize)
                 .build();
     }
 
@@ -125,18 +150,16 @@ public class MappingTreeNode {
 
     // Public API methods
 
+    /**
+     * Resolves the mappings registered for a concrete topic. The returned list
+     * is shared between lookups of the same topic and must not be modified.
+     */
     public List<Mapping> resolveMapping(String topic) throws ResolveException {
-        readLock.lock();
-        try {
-            List<MappingTreeNode> resolvedMappings = resolveTopicPath(
-                    Mapping.splitTopicIncludingSeparatorAsList(topic), 0);
-            return resolvedMappings.stream()
-                    .filter(MappingTreeNode::getMappingNode)
-                    .map(MappingTreeNode::getMapping)
-                    .collect(Collectors.toList());
-        } finally {
-            readLock.unlock();
+        ResolverSnapshot snapshot = resolverSnapshot.get();
+        if (snapshot == null) {
+            snapshot = buildResolverSnapshot();
         }
+        return snapshot.resolve(topic);
     }
 
     public void addMapping(Mapping mapping) throws ResolveException {
@@ -147,6 +170,7 @@ public class MappingTreeNode {
         try {
             List<String> levels = Mapping.splitTopicIncludingSeparatorAsList(mapping.getMappingTopic());
             addMapping(mapping, levels, 0);
+            resolverSnapshot.set(null);
         } finally {
             writeLock.unlock();
         }
@@ -161,6 +185,7 @@ public class MappingTreeNode {
             List<String> levels = Mapping.splitTopicIncludingSeparatorAsList(mapping.getMappingTopic());
             MutableInt branchingLevel = new MutableInt(0);
             deleteMapping(mapping, levels, 0, branchingLevel);
+            resolverSnapshot.set(null);
         } finally {
             writeLock.unlock();
         }
@@ -180,36 +205,37 @@ public class MappingTreeNode {
     }
 
     // Private implementation methods
-    private List<MappingTreeNode> resolveTopicPath(List<String> topicLevels, Integer currentTopicLevelIndex) {
-        List<MappingTreeNode> results = new ArrayList<>();
-
-        if (currentTopicLevelIndex < topicLevels.size()) {
-            String currentLevel = topicLevels.get(currentTopicLevelIndex);
-
-            // Process exact matches
-            getChildrenOptional(currentLevel)
-                    .ifPresent(nodes -> nodes.forEach(node ->
-                            results.addAll(node.resolveTopicPath(topicLevels, currentTopicLevelIndex + 1))));
-
-            // Process single wildcard matches
-            getChildrenOptional(Mapping.TOPIC_WILDCARD_SINGLE)
-                    .ifPresent(nodes -> nodes.forEach(node ->
-                            results.addAll(node.resolveTopicPath(topicLevels, currentTopicLevelIndex + 1))));
-
-            // Process multi wildcard matches
-            getChildrenOptional(Mapping.TOPIC_WILDCARD_MULTI)
-                    .ifPresent(nodes -> nodes.forEach(results::add));
-        } else if (topicLevels.size() == currentTopicLevelIndex) {
-            if (getMappingNode()) {
-                results.add(this);
-            } else {
-                String remaining = String.join("", topicLevels);
-                log.info("Sibling path mapping registered for this path [{}], remaining {}!", this.getAbsolutePath(),
-                        remaining);
+    private ResolverSnapshot buildResolverSnapshot() {
+        // Writers clear the snapshot while holding the write lock, so a snapshot
+        // published under the read lock always reflects the latest tree
+        readLock.lock();
+        try {
+            ResolverSnapshot snapshot = resolverSnapshot.get();
+            if (snapshot == null) {
+                snapshot = new ResolverSnapshot(tenant, toSnapshotNode(), topicCacheSize);
+                resolverSnapshot.set(snapshot);
+                log.debug(TENANT_LOG_PREFIX + "Rebuilt topic resolver snapshot", tenant);
             }
+            return snapshot;
+        } finally {
+            readLock.unlock();
         }
+    }
 
-        return results;
+    private SnapshotNode toSnapshotNode() {
+        if (childNodes.isEmpty()) {
+            return new SnapshotNode(Boolean.TRUE.equals(mappingNode) ? mapping : null, absolutePath,
+                    Collections.emptyMap());
+        }
+        Map<String, SnapshotNode[]> children = new HashMap<>();
+        childNodes.forEach((level, nodes) -> {
+            SnapshotNode[] snapshotNodes = new SnapshotNode[nodes.size()];
+            for (int i = 0; i < snapshotNodes.length; i++) {
+                snapshotNodes[i] = nodes.get(i).toSnapshotNode();
+            }
+            children.put(level, snapshotNodes);
+        });
+        return new SnapshotNode(Boolean.TRUE.equals(mappingNode) ? mapping : null, absolutePath, children);
     }
 
     private void addMapping(Mapping mapping, List<String> levels, int currentLevel) throws ResolveException {
@@ -446,4 +472,79 @@ public class MappingTreeNode {
         }
         return pathBuilder.toString();
     }
+
+    // Immutable copy of a tree node, only used for resolving topics
+    private static final class SnapshotNode {
+        final Mapping mapping;
+        final String absolutePath;
+        final Map<String, SnapshotNode[]> children;
+
+        SnapshotNode(Mapping mapping, String absolutePath, Map<String, SnapshotNode[]> children) {
+            this.mapping = mapping;
+            this.absolutePath = absolutePath;
+            this.children = children;
+        }
+    }
+
+    private static final class ResolverSnapshot {
+        private final String tenant;
+        private final SnapshotNode root;
+        private final Cache<String, List<Mapping>> topicCache;
+
+        ResolverSnapshot(String tenant, SnapshotNode root, int topicCacheSize) {
+            this.tenant = tenant;
+            this.root = root;
+            this.topicCache = topicCacheSize > 0
+                    ? Caffeine.newBuilder().maximumSize(topicCacheSize).build()
+                    : null;
+        }
+
+        List<Mapping> resolve(String topic) {
+            return topicCache == null ? resolveUncached(topic) : topicCache.get(topic, this::resolveUncached);
+        }
+
+        private List<Mapping> resolveUncached(String topic) {
+            String[] topicLevels = Mapping.splitTopicIncludingSeparatorAsArray(topic);
+            List<Mapping> results = new ArrayList<>();
+            resolveTopicPath(root, topicLevels, 0, results);
+            return results.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(results);
+        }
+
+        private void resolveTopicPath(SnapshotNode node, String[] topicLevels, int currentTopicLevelIndex,
+                List<Mapping> results) {
+            if (currentTopicLevelIndex < topicLevels.length) {
+                // Process exact matches
+                resolveChildren(node.children.get(topicLevels[currentTopicLevelIndex]), topicLevels,
+                        currentTopicLevelIndex + 1, results);
+
+                // Process single wildcard matches
+                resolveChildren(node.children.get(Mapping.TOPIC_WILDCARD_SINGLE), topicLevels,
+                        currentTopicLevelIndex + 1, results);
+
+                // Process multi wildcard matches
+                SnapshotNode[] multiWildcardNodes = node.children.get(Mapping.TOPIC_WILDCARD_MULTI);
+                if (multiWildcardNodes != null) {
+                    for (SnapshotNode child : multiWildcardNodes) {
+                        if (child.mapping != null) {
+                            results.add(child.mapping);
+                        }
+                    }
+                }
+            } else if (node.mapping != null) {
+                results.add(node.mapping);
+            } else {
+                log.info(TENANT_LOG_PREFIX + "Sibling path mapping registered for this path [{}], remaining {}!",
+                        tenant, node.absolutePath, String.join("", topicLevels));
+            }
+        }
+
+        private void resolveChildren(SnapshotNode[] nodes, String[] topicLevels, int nextTopicLevelIndex,
+                List<Mapping> results) {
+            if (nodes != null) {
+                for (SnapshotNode child : nodes) {
+                    resolveTopicPath(child, topicLevels, nextTopicLevelIndex, results);
+                }
+            }
+        }
+    }
 }
@@ -21,8 +21,6 @@
 
 package dynamic.mapper.notification;
 
-import static com.dashjoin.jsonata.Jsonata.jsonata;
-
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +30,7 @@ import com.dashjoin.jsonata.json.Json;
 import dynamic.mapper.model.API;
 import dynamic.mapper.notification.websocket.Notification;
 import dynamic.mapper.processor.model.C8YMessage;
+import dynamic.mapper.service.cache.JsonataExpressionCache;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -67,7 +66,7 @@ public class NotificationHelper {
 
     public static String extractSourceId(Map<String, Object> parsedPayload, API api) {
         try {
-            var expression = jsonata(api.identifier);
+            var expression = JsonataExpressionCache.getSystemExpression(api.identifier);
             Object result = expression.evaluate(parsedPayload);
             return result instanceof String ? (String) result : null;
         } catch (Exception e) {
@@ -192,6 +192,7 @@ public class UpdateSubscriptionDeviceGroupTask implements Callable<SubscriptionU
         SubscriptionUpdateResult.Builder resultBuilder = SubscriptionUpdateResult.builder();
 
         // Process additions
+        Set<String> subscribedIds = new HashSet<>();
         for (String childId : toAdd) {
             try {
                 ManagedObjectRepresentation childMO = configurationRegistry.getC8yAgent()
@@ -207,10 +208,7 @@ public class UpdateSubscriptionDeviceGroupTask implements Callable<SubscriptionU
                         .getNotificationSubscriber()
                         .subscribeDeviceAndConnect(tenant, childMO, c8yMessage.getApi(), Utils.DYNAMIC_DEVICE_SUBSCRIPTION);
 
-                // Pre-populate inventory cache for this device to ensure inventory filters work correctly
-                log.debug("{} - Pre-populating inventory cache for child device {} in group {}",
-                        tenant, childId, groupId);
-                configurationRegistry.getC8yAgent().getMOFromInventoryCache(tenant, childId, false);
+                subscribedIds.add(childId);
 
                 resultBuilder.addSubscription(childId, future);
                 log.debug("{} - Subscribed child device {} to group {}", tenant, childId, groupId);
@@ -221,6 +219,18 @@ public class UpdateSubscriptionDeviceGroupTask implements Callable<SubscriptionU
             }
         }
 
+        // Pre-populate inventory cache for the devices to ensure inventory filters work correctly
+        if (!subscribedIds.isEmpty()) {
+            log.debug("{} - Pre-populating inventory cache for {} child devices in group {}",
+                    tenant, subscribedIds.size(), groupId);
+            try {
+                configurationRegistry.getC8yAgent().prefetchMOsIntoInventoryCache(tenant, subscribedIds, false);
+            } catch (Exception e) {
+                log.warn("{} - Failed to pre-populate inventory cache for group {}: {}", tenant, groupId,
+                        e.getMessage());
+            }
+        }
+
         // Process removals
         for (String childId : toRemove) {
             try {
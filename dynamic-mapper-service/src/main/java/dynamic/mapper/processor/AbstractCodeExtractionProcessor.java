@@ -24,7 +24,6 @@ package dynamic.mapper.processor;
 import static dynamic.mapper.model.Substitution.toPrettyJsonString;
 
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 
@@ -46,8 +45,9 @@ import dynamic.mapper.processor.model.SubstituteValue;
 import dynamic.mapper.processor.model.SubstitutionContext;
 import dynamic.mapper.processor.model.SubstitutionResult;
 import dynamic.mapper.processor.flow.JavaScriptConsole;
-import dynamic.mapper.processor.util.JavaScriptModuleStripper;
+import dynamic.mapper.processor.flow.PooledGraalContext;
 import dynamic.mapper.processor.util.JavaScriptInteropHelper;
+import dynamic.mapper.processor.util.JavaScriptSourceFactory;
 import dynamic.mapper.service.MappingService;
 import lombok.extern.slf4j.Slf4j;
 
@@ -154,51 +154,31 @@ public abstract class AbstractCodeExtractionProcessor extends CommonProcessor {
                 bindings.putMember("console",
                         new JavaScriptConsole(context.getLogs()::add, tenant, mapping));
 
-                byte[] decodedBytes = Base64.getDecoder().decode(mapping.getCode());
-                String decodedCode = new String(decodedBytes);
-
-                boolean supportESM = Boolean.TRUE.equals(serviceConfiguration.getSupportESM());
-                String identifier = Mapping.EXTRACT_FROM_SOURCE + "_" + mapping.getIdentifier();
-                Source source;
-                if (supportESM) {
-                    // ESM mode: load shared/system globals first, then evaluate the mapping
-                    // module and retrieve the exported function from the module namespace.
-                    if (context.getSharedSource() != null) {
-                        graalContext.eval(context.getSharedSource());
-                    }
-                    if (context.getSystemSource() != null) {
-                        graalContext.eval(context.getSystemSource());
-                    }
-                    source = Source.newBuilder("js", decodedCode, identifier + ".mjs")
-                            .cached(true)
-                            .buildLiteral();
-                    Value exports = graalContext.eval(source);
-                    sourceValue = exports.getMember(Mapping.EXTRACT_FROM_SOURCE);
+                PooledGraalContext pooled = context.getPooledGraalContext();
+                if (pooled != null) {
+                    // Pre-warmed context: shared, system and mapping code are already evaluated
+                    sourceValue = pooled.getFunction();
                 } else {
-                    // Flat-script mode: strip ESM export/import declarations, then wrap in
-                    // an IIFE to scope top-level declarations (e.g. `const globalConfig`).
-                    // No rename needed: each message gets a fresh GraalVM context.
-                    decodedCode = JavaScriptModuleStripper.toPlainScript(decodedCode);
-                    String wrappedCode = "(function() {\n"
-                            + decodedCode + "\n"
-                            + "globalThis['" + Mapping.EXTRACT_FROM_SOURCE + "'] = " + Mapping.EXTRACT_FROM_SOURCE + ";\n"
-                            + "})();";
-                    source = Source.newBuilder("js", wrappedCode, identifier + ".js")
-                            .cached(true)
-                            .buildLiteral();
-                    graalContext.eval(source);
-
-                    sourceValue = bindings.getMember(Mapping.EXTRACT_FROM_SOURCE);
-
-                    // Load shared code using cached Source - OPTIMIZED!
+                    boolean supportESM = Boolean.TRUE.equals(serviceConfiguration.getSupportESM());
+                    // No rename needed in flat-script mode: the context is used for one mapping only.
+                    Source source = JavaScriptSourceFactory.createMappingSource(mapping,
+                            Mapping.EXTRACT_FROM_SOURCE, supportESM);
+                    // Load shared and system code first, as in a pooled context, so the mapping
+                    // code sees the same globals with and without context pooling
                     if (context.getSharedSource() != null) {
                         graalContext.eval(context.getSharedSource());
                     }
-
-                    // Load system code using cached Source - OPTIMIZED!
                     if (context.getSystemSource() != null) {
                         graalContext.eval(context.getSystemSource());
                     }
+                    if (supportESM) {
+                        // ESM mode: retrieve the exported function from the module namespace.
+                        Value exports = graalContext.eval(source);
+                        sourceValue = exports.getMember(Mapping.EXTRACT_FROM_SOURCE);
+                    } else {
+                        graalContext.eval(source);
+                        sourceValue = bindings.getMember(Mapping.EXTRACT_FROM_SOURCE);
+                    }
                 }
 
                 // Prepare payload - subclass-specific (pass focused contexts)
@@ -224,6 +204,10 @@ public abstract class AbstractCodeExtractionProcessor extends CommonProcessor {
             }
 
         } catch (Exception e) {
+            // Global state of the script may be inconsistent, do not reuse a pooled context
+            if (context.getPooledGraalContext() != null) {
+                context.getPooledGraalContext().invalidate();
+            }
             throw new ProcessingException("Extraction failed: " + e.getMessage(), e);
         } finally {
             // Explicitly null out GraalVM Value references
@@ -358,7 +342,13 @@ public abstract class AbstractCodeExtractionProcessor extends CommonProcessor {
      * Clean up GraalVM context resources.
      */
     private void cleanupGraalContext(ProcessingContext<?> context, String tenant) {
-        if (context != null && context.getGraalContext() != null) {
+        if (context != null && context.getPooledGraalContext() != null) {
+            // Return the pre-warmed context to its pool instead of closing it
+            context.getPooledGraalContext().release();
+            context.setPooledGraalContext(null);
+            context.setGraalContext(null);
+            log.debug("{} - GraalVM Context returned to pool", tenant);
+        } else if (context != null && context.getGraalContext() != null) {
             try {
                 Context graalContext = context.getGraalContext();
                 graalContext.close();
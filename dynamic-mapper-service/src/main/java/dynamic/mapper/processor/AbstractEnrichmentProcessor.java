@@ -30,6 +30,7 @@ import java.util.Map;
 import org.apache.camel.Exchange;
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
 import org.graalvm.polyglot.io.IOAccess;
 
@@ -40,11 +41,14 @@ import dynamic.mapper.core.ConfigurationRegistry;
 import dynamic.mapper.core.InventoryEnrichmentClient;
 import dynamic.mapper.model.Mapping;
 import dynamic.mapper.model.MappingStatus;
+import dynamic.mapper.processor.flow.GraalContextPool;
+import dynamic.mapper.processor.flow.PooledGraalContext;
 import dynamic.mapper.processor.model.DataPrepContext;
 import dynamic.mapper.processor.model.ProcessingContext;
 import dynamic.mapper.processor.model.RoutingContext;
 import dynamic.mapper.processor.model.SmartFunctionContext;
 import dynamic.mapper.processor.model.TransformationType;
+import dynamic.mapper.processor.util.JavaScriptSourceFactory;
 import dynamic.mapper.service.MappingService;
 import dynamic.mapper.service.cache.FlowStateStore;
 import lombok.extern.slf4j.Slf4j;
@@ -97,8 +101,8 @@ public abstract class AbstractEnrichmentProcessor extends CommonProcessor {
         if (mapping.getCode() != null
                 && mapping.isSubstitutionAsCode()) {
             try {
-                var graalEngine = configurationRegistry.getGraalEngine(tenant);
-                var graalContext = createGraalContext(graalEngine, supportESM);
+                var graalContext = acquireGraalContext(context, serviceConfiguration, supportESM,
+                        Mapping.EXTRACT_FROM_SOURCE);
                 context.setGraalContext(graalContext);
 
                 // Set cached Source objects for performance
@@ -124,8 +128,8 @@ public abstract class AbstractEnrichmentProcessor extends CommonProcessor {
         } else if (mapping.getCode() != null &&
                 TransformationType.SMART_FUNCTION.equals(mapping.getTransformationType())) {
             try {
-                var graalEngine = configurationRegistry.getGraalEngine(tenant);
-                var graalContext = createGraalContext(graalEngine, supportESM);
+                var graalContext = acquireGraalContext(context, serviceConfiguration, supportESM,
+                        Mapping.SMART_FUNCTION_NAME);
 
                 // Set cached Source objects for performance
                 context.setSharedSource(configurationRegistry.getGraalsSourceShared(tenant));
@@ -146,17 +150,16 @@ public abstract class AbstractEnrichmentProcessor extends CommonProcessor {
 
                 context.setGraalContext(graalContext);
                 context.setFlowState(new HashMap<String, Object>());
-                Map<String, Object> initialState = flowStateStore.loadState(tenant, mapping.getIdentifier());
                 context.setFlowContext(new SmartFunctionContext(graalContext, tenant,
                         (InventoryEnrichmentClient) configurationRegistry.getC8yAgent(),
-                        context.getTesting(), flowStateStore, mapping.getIdentifier(), initialState));
+                        context.getTesting(), flowStateStore, mapping.getIdentifier()));
             } catch (Exception e) {
                 handleGraalVMError(tenant, mapping, e, context);
                 return;
             }
         }
 
-        mappingStatus.messagesReceived++;
+        mappingStatus.incrementMessagesReceived();
         logMessageReceived(tenant, mapping, connectorIdentifier, context, serviceConfiguration);
 
         // Now call the enrichment logic
@@ -167,6 +170,66 @@ public abstract class AbstractEnrichmentProcessor extends CommonProcessor {
         }
     }
 
+    /**
+     * Returns the GraalVM context for this message. When context pooling is
+     * enabled a pre-warmed context is borrowed from the mapping's pool and
+     * registered on the processing context, so it is released instead of
+     * closed after processing. Test runs always use a fresh context.
+     */
+    protected Context acquireGraalContext(ProcessingContext<?> context, ServiceConfiguration serviceConfiguration,
+            boolean supportESM, String functionName) throws Exception {
+        String tenant = context.getTenant();
+        Mapping mapping = context.getMapping();
+        Engine graalEngine = configurationRegistry.getGraalEngine(tenant);
+        int poolSize = serviceConfiguration.getGraalContextPoolSize() != null
+                ? serviceConfiguration.getGraalContextPoolSize()
+                : 0;
+        if (poolSize <= 0 || Boolean.TRUE.equals(context.getTesting())) {
+            return createGraalContext(graalEngine, supportESM);
+        }
+        GraalContextPool pool = configurationRegistry.getGraalContextPool(tenant, mapping, poolSize, supportESM,
+                p -> createPooledGraalContext(p, graalEngine, tenant, mapping, supportESM, functionName));
+        PooledGraalContext pooled = pool.borrow();
+        context.setPooledGraalContext(pooled);
+        return pooled.getContext();
+    }
+
+    /**
+     * Creates a context for a {@link GraalContextPool}: evaluates shared, system
+     * and mapping code once and resolves the mapping function.
+     */
+    private PooledGraalContext createPooledGraalContext(GraalContextPool pool, Engine graalEngine, String tenant,
+            Mapping mapping, boolean supportESM, String functionName) throws Exception {
+        Context graalContext = createGraalContext(graalEngine, supportESM);
+        try {
+            Source sharedSource = configurationRegistry.getGraalsSourceShared(tenant);
+            Source systemSource = configurationRegistry.getGraalsSourceSystem(tenant);
+            if (sharedSource != null) {
+                graalContext.eval(sharedSource);
+            }
+            if (systemSource != null) {
+                graalContext.eval(systemSource);
+            }
+            Source mappingSource = JavaScriptSourceFactory.createMappingSource(mapping, functionName, supportESM);
+            Value function;
+            if (supportESM) {
+                function = graalContext.eval(mappingSource).getMember(functionName);
+            } else {
+                graalContext.eval(mappingSource);
+                function = graalContext.getBindings("js").getMember(functionName);
+            }
+            if (function == null || function.isNull() || !function.canExecute()) {
+                throw new ProcessingException(String.format(
+                        "Function '%s' not found in mapping code. Ensure the script defines and exports a function named '%s'.",
+                        functionName, functionName));
+            }
+            return new PooledGraalContext(pool, graalContext, function);
+        } catch (Exception e) {
+            graalContext.close();
+            throw e;
+        }
+    }
+
     /**
      * Create GraalVM context with appropriate security settings.
      *
@@ -238,7 +301,7 @@ public abstract class AbstractEnrichmentProcessor extends CommonProcessor {
                 tenant, e.getMessage());
         log.error(errorMessage, e);
         context.addError(new ProcessingException(errorMessage, e));
-        mappingStatus.errors++;
+        mappingStatus.incrementErrors();
         mappingService.increaseAndHandleFailureCount(tenant, mapping, mappingStatus);
     }
 
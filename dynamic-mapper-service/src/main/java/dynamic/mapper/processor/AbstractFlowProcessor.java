@@ -23,7 +23,6 @@ package dynamic.mapper.processor;
 
 import static dynamic.mapper.model.Substitution.toPrettyJsonString;
 
-import java.util.Base64;
 import org.apache.camel.Exchange;
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Source;
@@ -32,11 +31,11 @@ import org.graalvm.polyglot.Value;
 import dynamic.mapper.configuration.ServiceConfiguration;
 import dynamic.mapper.model.Mapping;
 import dynamic.mapper.processor.flow.JavaScriptConsole;
-import dynamic.mapper.processor.util.JavaScriptModuleStripper;
+import dynamic.mapper.processor.flow.PooledGraalContext;
 import dynamic.mapper.processor.model.DataPrepContext;
-import dynamic.mapper.processor.util.JavaScriptModuleStripper;
 import dynamic.mapper.processor.model.OutputCollector;
 import dynamic.mapper.processor.model.ProcessingContext;
+import dynamic.mapper.processor.util.JavaScriptSourceFactory;
 import dynamic.mapper.service.MappingService;
 import lombok.extern.slf4j.Slf4j;
 
@@ -119,7 +118,6 @@ public abstract class AbstractFlowProcessor extends CommonProcessor {
 
             try {
                 // Task 1: Invoking JavaScript function
-                String identifier = Mapping.SMART_FUNCTION_NAME + "_" + mapping.getIdentifier();
                 bindings = graalContext.getBindings("js");
 
                 // Always provide console for JavaScript code
@@ -128,43 +126,30 @@ public abstract class AbstractFlowProcessor extends CommonProcessor {
                     bindings.putMember("console", console);
                 }
 
-                // Load shared/system code first — populates globalThis with helpers/libraries
-                loadSharedCode(graalContext, context);
-
-                byte[] decodedBytes = Base64.getDecoder().decode(mapping.getCode());
-                String decodedCode = new String(decodedBytes);
-
-                boolean supportESM = Boolean.TRUE.equals(serviceConfiguration.getSupportESM());
-                Source source;
-                if (supportESM) {
-                    // ESM mode: keep export keywords, evaluate as ES module.
-                    // The function is retrieved from the module namespace via
-                    // js.esm-eval-returns-exports (enabled in createGraalContext).
-                    source = Source.newBuilder("js", decodedCode, identifier + ".mjs")
-                            .cached(true)
-                            .buildLiteral();
+                PooledGraalContext pooled = context.getPooledGraalContext();
+                if (pooled != null) {
+                    // Pre-warmed context: shared, system and mapping code are already evaluated
+                    onMessageFunction = pooled.getFunction();
                 } else {
-                    // Flat-script mode: strip ES module export/import statements so the code
-                    // runs without SyntaxErrors, then wrap in an IIFE to scope any top-level
-                    // declarations (e.g. `const globalConfig` from bundled libraries).
-                    // No rename needed: each message gets a fresh GraalVM context, so there
-                    // is no risk of onMessage() colliding with another mapping's function.
-                    decodedCode = JavaScriptModuleStripper.toPlainScript(decodedCode);
-                    String wrappedCode = "(function() {\n"
-                            + decodedCode + "\n"
-                            + "globalThis['" + Mapping.SMART_FUNCTION_NAME + "'] = " + Mapping.SMART_FUNCTION_NAME + ";\n"
-                            + "})();";
-                    source = Source.newBuilder("js", wrappedCode, identifier + ".js")
-                            .cached(true)
-                            .buildLiteral();
-                }
-
-                if (supportESM) {
-                    Value exports = graalContext.eval(source);
-                    onMessageFunction = exports.getMember(Mapping.SMART_FUNCTION_NAME);
-                } else {
-                    graalContext.eval(source);
-                    onMessageFunction = bindings.getMember(Mapping.SMART_FUNCTION_NAME);
+                    // Load shared/system code first — populates globalThis with helpers/libraries
+                    loadSharedCode(graalContext, context);
+
+                    boolean supportESM = Boolean.TRUE.equals(serviceConfiguration.getSupportESM());
+                    // In flat-script mode the code is wrapped in an IIFE to scope top-level
+                    // declarations. No rename needed: the context is used for one mapping only,
+                    // so there is no risk of onMessage() colliding with another mapping's function.
+                    Source source = JavaScriptSourceFactory.createMappingSource(mapping,
+                            Mapping.SMART_FUNCTION_NAME, supportESM);
+
+                    if (supportESM) {
+                        // The function is retrieved from the module namespace via
+                        // js.esm-eval-returns-exports (enabled in createGraalContext).
+                        Value exports = graalContext.eval(source);
+                        onMessageFunction = exports.getMember(Mapping.SMART_FUNCTION_NAME);
+                    } else {
+                        graalContext.eval(source);
+                        onMessageFunction = bindings.getMember(Mapping.SMART_FUNCTION_NAME);
+                    }
                 }
 
                 if (onMessageFunction == null || onMessageFunction.isNull()) {
@@ -181,6 +166,12 @@ public abstract class AbstractFlowProcessor extends CommonProcessor {
                 // Task 2: Extracting the result
                 processResult(result, context, tenant);
 
+            } catch (RuntimeException | ProcessingException e) {
+                // Global state of the script may be inconsistent, do not reuse a pooled context
+                if (context.getPooledGraalContext() != null) {
+                    context.getPooledGraalContext().invalidate();
+                }
+                throw e;
             } finally {
                 // Explicitly null out GraalVM Value references
                 onMessageFunction = null;
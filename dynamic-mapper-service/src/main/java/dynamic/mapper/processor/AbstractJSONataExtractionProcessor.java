@@ -39,6 +39,7 @@ import dynamic.mapper.processor.model.RoutingContext;
 import dynamic.mapper.processor.model.SubstituteValue;
 import dynamic.mapper.processor.model.SubstitutionEvaluation;
 import dynamic.mapper.service.MappingService;
+import dynamic.mapper.service.cache.MappingCacheManager;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -53,8 +54,12 @@ public abstract class AbstractJSONataExtractionProcessor extends CommonProcessor
 
     protected final MappingService mappingService;
 
-    protected AbstractJSONataExtractionProcessor(MappingService mappingService) {
+    protected final MappingCacheManager mappingCacheManager;
+
+    protected AbstractJSONataExtractionProcessor(MappingService mappingService,
+            MappingCacheManager mappingCacheManager) {
         this.mappingService = mappingService;
+        this.mappingCacheManager = mappingCacheManager;
     }
 
     /**
@@ -85,8 +85,8 @@ public abstract class AbstractSnoopingProcessor extends CommonProcessor {
             String serializedPayload = objectMapper.writeValueAsString(context.getPayload());
             if (serializedPayload != null) {
                 mapping.addSnoopedTemplate(serializedPayload);
-                mappingStatus.snoopedTemplatesTotal = mapping.getSnoopedTemplates().size();
-                mappingStatus.snoopedTemplatesActive++;
+                mappingStatus.setSnoopedTemplatesTotal(mapping.getSnoopedTemplates().size());
+                mappingStatus.incrementSnoopedTemplatesActive();
 
                 log.debug("{} - Adding snoopedTemplate to map: {},{},{}",
                         tenant, mapping.getMappingTopic(), mapping.getSnoopedTemplates().size(),
@@ -1,7 +1,5 @@
 package dynamic.mapper.processor;
 
-import static com.dashjoin.jsonata.Jsonata.jsonata;
-
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -15,12 +13,14 @@ import com.cumulocity.model.idtype.GId;
 
 import dynamic.mapper.core.C8YAgent;
 import dynamic.mapper.core.ConfigurationRegistry;
+import dynamic.mapper.model.Mapping;
 import dynamic.mapper.processor.model.CumulocityObject;
 import dynamic.mapper.processor.model.DeviceMessage;
 import dynamic.mapper.processor.model.ExternalId;
 import dynamic.mapper.processor.model.ProcessingContext;
 import dynamic.mapper.processor.util.JavaScriptInteropHelper;
 import dynamic.mapper.processor.util.ProcessingResultHelper;
+import dynamic.mapper.service.cache.MappingCacheManager;
 import dynamic.mapper.util.Utils;
 import lombok.extern.slf4j.Slf4j;
 
@@ -33,13 +33,16 @@ public abstract class CommonProcessor implements Processor {
     @Autowired
     private C8YAgent c8yAgent;
 
+    @Autowired
+    private MappingCacheManager mappingCacheManager;
+
     public abstract void process(Exchange exchange) throws Exception;
 
     /**
      * Evaluates an inventory filter against cached inventory data
      */
-    protected boolean evaluateInventoryFilter(String tenant, String filterExpression, String sourceId,
-            Boolean testing) {
+    protected boolean evaluateInventoryFilter(String tenant, Mapping mapping, String filterExpression,
+            String sourceId, Boolean testing) {
         if (filterExpression == null || filterExpression.trim().isEmpty()) {
             return true;
         }
@@ -49,7 +52,7 @@ public abstract class CommonProcessor implements Processor {
             List<String> keyList = new ArrayList<>(cachedInventoryContent.keySet());
             log.info("{} - For object {} found following fragments in inventory cache {}",
                     tenant, sourceId, keyList);
-            var expression = jsonata(filterExpression);
+            var expression = mappingCacheManager.getCompiledExpression(tenant, mapping, filterExpression);
             Object result = expression.evaluate(cachedInventoryContent);
 
             if (result != null && Utils.isNodeTrue(result)) {
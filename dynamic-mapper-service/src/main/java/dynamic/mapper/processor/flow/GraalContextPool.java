@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.processor.flow;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pool of pre-warmed GraalVM contexts for one mapping.
+ *
+ * <p>Borrowing never blocks on other messages: if no idle context is available
+ * a new one is created, so the pool only bounds how many warm contexts are
+ * retained between messages. Contexts that are never released (e.g. when a
+ * route stops after enrichment) are simply not returned to the pool.</p>
+ *
+ * <p>A pool is bound to one version of the mapping code and of the shared and
+ * system code. When any of them changes the pool is closed and replaced, and
+ * contexts still in use are closed when they are released.</p>
+ */
+@Slf4j
+public class GraalContextPool implements AutoCloseable {
+
+    // Contexts older than this are closed on release to bound heap growth of long-lived contexts
+    public static final long MAX_CONTEXT_AGE_MS = 30 * 60 * 1000L;
+
+    @FunctionalInterface
+    public interface ContextFactory {
+        PooledGraalContext create(GraalContextPool pool) throws Exception;
+    }
+
+    @Getter
+    private final String tenant;
+
+    @Getter
+    private final String mappingIdentifier;
+
+    @Getter
+    private final String version;
+
+    @Getter
+    private final int maxIdle;
+
+    private final ContextFactory factory;
+    private final BlockingQueue<PooledGraalContext> idle;
+    private final AtomicInteger activeContexts = new AtomicInteger(0);
+    private volatile boolean closed = false;
+
+    private final Gauge idleGauge;
+    private final Gauge sizeGauge;
+    private final Timer borrowTimer;
+    private final Timer contextAgeTimer;
+
+    public GraalContextPool(String tenant, String mappingIdentifier, String version, int maxIdle,
+            ContextFactory factory) {
+        this.tenant = tenant;
+        this.mappingIdentifier = mappingIdentifier;
+        this.version = version;
+        this.maxIdle = maxIdle;
+        this.factory = factory;
+        this.idle = new ArrayBlockingQueue<>(maxIdle);
+
+        Tags tags = Tags.of("tenant", tenant, "mapping", mappingIdentifier);
+        this.idleGauge = Gauge.builder("dynmapper_graal_context_pool_idle", idle, BlockingQueue::size)
+                .description("Number of idle pre-warmed GraalVM contexts")
+                .tags(tags)
+                .register(Metrics.globalRegistry);
+        this.sizeGauge = Gauge.builder("dynmapper_graal_context_pool_size", activeContexts, AtomicInteger::get)
+                .description("Number of open GraalVM contexts created by the pool, idle and in use")
+                .tags(tags)
+                .register(Metrics.globalRegistry);
+        this.borrowTimer = Timer.builder("dynmapper_graal_context_pool_borrow_time")
+                .description("Time to obtain a GraalVM context from the pool, including creation on a miss")
+                .tags(tags)
+                .register(Metrics.globalRegistry);
+        this.contextAgeTimer = Timer.builder("dynmapper_graal_context_age")
+                .description("Age of pooled GraalVM contexts when they are borrowed")
+                .tags(tags)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Takes an idle context or creates a new one if none is available.
+     */
+    public PooledGraalContext borrow() throws Exception {
+        long start = System.nanoTime();
+        PooledGraalContext pooled = idle.poll();
+        if (pooled == null) {
+            pooled = factory.create(this);
+            activeContexts.incrementAndGet();
+            log.debug("{} - Created pooled GraalVM context for mapping {}", tenant, mappingIdentifier);
+        }
+        pooled.lease();
+        borrowTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        contextAgeTimer.record(pooled.getAgeMillis(), TimeUnit.MILLISECONDS);
+        return pooled;
+    }
+
+    void release(PooledGraalContext pooled) {
+        if (closed || pooled.isInvalid() || pooled.getAgeMillis() > MAX_CONTEXT_AGE_MS || !idle.offer(pooled)) {
+            discard(pooled);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        PooledGraalContext pooled;
+        while ((pooled = idle.poll()) != null) {
+            discard(pooled);
+        }
+        Metrics.globalRegistry.remove(idleGauge);
+        Metrics.globalRegistry.remove(sizeGauge);
+        Metrics.globalRegistry.remove(borrowTimer);
+        Metrics.globalRegistry.remove(contextAgeTimer);
+        log.debug("{} - Closed GraalVM context pool for mapping {}", tenant, mappingIdentifier);
+    }
+
+    private void discard(PooledGraalContext pooled) {
+        activeContexts.decrementAndGet();
+        pooled.closeContext();
+    }
+}
@@ -54,7 +54,7 @@ public class JavaExtensionContextImpl implements JavaExtensionContext {
     private final Mapping mapping;
     private final ProcessingContext<?> processingContext;
 
-    // Native (non-GraalVM) state for Java Extensions
+    // Native (non-GraalVM) state for Java Extensions, only used without a FlowStateStore
     private final Map<String, Object> nativeState;
     private final FlowStateStore flowStateStore;
     private final String mappingIdentifier;
@@ -71,8 +71,7 @@ public class JavaExtensionContextImpl implements JavaExtensionContext {
      * @param testing           Whether this is a test execution
      * @param mapping           The mapping configuration
      * @param processingContext The processing context for warnings/logs
-     * @param flowStateStore    Store for persisting native state across invocations (may be null)
-     * @param initialState      Pre-loaded native state from the store (may be null)
+     * @param flowStateStore    Store holding native state across invocations (may be null)
      */
     public JavaExtensionContextImpl(
             DataPrepContext dataPrepContext,
@@ -81,8 +80,7 @@ public class JavaExtensionContextImpl implements JavaExtensionContext {
             Boolean testing,
             Mapping mapping,
             ProcessingContext<?> processingContext,
-            FlowStateStore flowStateStore,
-            Map<String, Object> initialState) {
+            FlowStateStore flowStateStore) {
         this.dataPrepContext = dataPrepContext;
         this.c8yAgent = c8yAgent;
         this.tenant = tenant != null ? tenant : "unknown";
@@ -91,8 +89,7 @@ public class JavaExtensionContextImpl implements JavaExtensionContext {
         this.processingContext = processingContext;
         this.flowStateStore = flowStateStore;
         this.mappingIdentifier = mapping != null ? mapping.getIdentifier() : null;
-        this.nativeState = (initialState != null && !initialState.isEmpty())
-                ? new HashMap<>(initialState) : new HashMap<>();
+        this.nativeState = new HashMap<>();
     }
 
     /**
@@ -112,7 +109,7 @@ public class JavaExtensionContextImpl implements JavaExtensionContext {
             Boolean testing,
             Mapping mapping,
             ProcessingContext<?> processingContext) {
-        this(dataPrepContext, c8yAgent, tenant, testing, mapping, processingContext, null, null);
+        this(dataPrepContext, c8yAgent, tenant, testing, mapping, processingContext, null);
     }
 
     /**
@@ -131,7 +128,7 @@ public class JavaExtensionContextImpl implements JavaExtensionContext {
             Boolean testing,
             Mapping mapping,
             ProcessingContext<?> processingContext) {
-        this(null, c8yAgent, tenant, testing, mapping, processingContext, null, null);
+        this(null, c8yAgent, tenant, testing, mapping, processingContext, null);
     }
 
     // ==================== JavaExtensionContext Methods ====================
@@ -236,6 +233,15 @@ public class JavaExtensionContextImpl implements JavaExtensionContext {
         }
     }
 
+    @Override
+    public void setState(String key, Value value, long ttlSeconds) {
+        if (dataPrepContext != null) {
+            dataPrepContext.setState(key, value, ttlSeconds);
+        } else {
+            log.warn("{} - setState() called but DataPrepContext not available", tenant);
+        }
+    }
+
     @Override
     public Value getState(String key) {
         if (dataPrepContext != null) {
@@ -318,10 +324,7 @@ public class JavaExtensionContextImpl implements JavaExtensionContext {
         if (dataPrepContext != null) {
             dataPrepContext.clearState();
         }
-        // Persist native state to FlowStateStore
-        if (flowStateStore != null && mappingIdentifier != null) {
-            flowStateStore.saveState(tenant, mappingIdentifier, new HashMap<>(nativeState));
-        }
+        // Native state kept in the FlowStateStore is written through on each call
         nativeState.clear();
     }
 
@@ -333,7 +336,11 @@ public class JavaExtensionContextImpl implements JavaExtensionContext {
             log.warn("{} - Cannot set native state with null key", tenant);
             return;
         }
-        if (value == null) {
+        if (hasStateStore()) {
+            if (!flowStateStore.setState(tenant, mappingIdentifier, key, value)) {
+                addWarning(String.format("Flow state key rejected, mapping holds too many keys: %s", key));
+            }
+        } else if (value == null) {
             nativeState.remove(key);
         } else {
             nativeState.put(key, value);
@@ -343,11 +350,21 @@ public class JavaExtensionContextImpl implements JavaExtensionContext {
 
     @Override
     public Object getNativeState(String key) {
+        if (hasStateStore()) {
+            return flowStateStore.getState(tenant, mappingIdentifier, key);
+        }
         return nativeState.get(key);
     }
 
     @Override
     public Map<String, Object> getNativeStateAll() {
+        if (hasStateStore()) {
+            return Collections.unmodifiableMap(flowStateStore.getStateAll(tenant, mappingIdentifier));
+        }
         return Collections.unmodifiableMap(nativeState);
     }
+
+    private boolean hasStateStore() {
+        return flowStateStore != null && mappingIdentifier != null;
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.processor.flow;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A GraalVM context taken from a {@link GraalContextPool}. The shared, system
+ * and mapping code are already evaluated and the mapping function is resolved.
+ * A pooled context is used by exactly one message at a time and must be handed
+ * back with {@link #release()} once processing has finished.
+ */
+@Slf4j
+public class PooledGraalContext {
+
+    private final GraalContextPool pool;
+
+    @Getter
+    private final Context context;
+
+    /**
+     * The resolved mapping function, {@code onMessage} or {@code extractFromSource}
+     */
+    @Getter
+    private final Value function;
+
+    @Getter
+    private final long createdAt;
+
+    private final AtomicBoolean leased = new AtomicBoolean(false);
+
+    private volatile boolean invalid = false;
+
+    public PooledGraalContext(GraalContextPool pool, Context context, Value function) {
+        this.pool = pool;
+        this.context = context;
+        this.function = function;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public long getAgeMillis() {
+        return System.currentTimeMillis() - createdAt;
+    }
+
+    /**
+     * Marks the context as unusable, e.g. after the mapping code threw an
+     * exception. It is closed instead of being returned to the pool.
+     */
+    public void invalidate() {
+        invalid = true;
+    }
+
+    public boolean isInvalid() {
+        return invalid;
+    }
+
+    /**
+     * Returns the context to its pool. Calling this more than once per lease has
+     * no effect.
+     */
+    public void release() {
+        if (leased.compareAndSet(true, false)) {
+            pool.release(this);
+        }
+    }
+
+    void lease() {
+        leased.set(true);
+    }
+
+    void closeContext() {
+        try {
+            context.close();
+        } catch (Exception e) {
+            log.warn("{} - Error closing pooled GraalVM context: {}", pool.getTenant(), e.getMessage());
+        }
+    }
+}
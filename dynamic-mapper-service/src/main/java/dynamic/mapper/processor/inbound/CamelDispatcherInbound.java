@@ -2,6 +2,9 @@ package dynamic.mapper.processor.inbound;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
@@ -17,13 +20,19 @@ import org.apache.camel.Message;
 import org.apache.camel.ProducerTemplate;
 import org.apache.camel.support.DefaultExchange;
 
+import dynamic.mapper.configuration.InboundBackpressurePolicy;
+import dynamic.mapper.configuration.InboundOrderingKey;
 import dynamic.mapper.configuration.ServiceConfiguration;
 import dynamic.mapper.connector.core.callback.ConnectorMessage;
 import dynamic.mapper.connector.core.callback.GenericMessageCallback;
 import dynamic.mapper.connector.core.client.AConnectorClient;
+import dynamic.mapper.connector.core.client.InboundFlowControl;
+import dynamic.mapper.connector.core.client.InboundOrderedLanes;
 import dynamic.mapper.core.ConfigurationRegistry;
 import dynamic.mapper.model.Mapping;
 import dynamic.mapper.model.Qos;
+import dynamic.mapper.model.Substitution;
+import dynamic.mapper.processor.inbound.deserializer.CopyOnWriteJson;
 import dynamic.mapper.processor.model.ProcessingContext;
 import dynamic.mapper.processor.model.ProcessingResultWrapper;
 import dynamic.mapper.service.MappingService;
@@ -98,9 +107,9 @@ public class CamelDispatcherInbound implements GenericMessageCallback {
 
         // Log incoming message if configured
         if (serviceConfiguration.getLogPayload()) {
-            if (connectorMessage.getPayload() != null) {
-                String payload = new String(connectorMessage.getPayload(), java.nio.charset.StandardCharsets.UTF_8);
-                log.info("{} - PROCESSING: message on topic: [{}], payload: {}", tenant, topic, payload);
+            if (connectorMessage.hasPayload()) {
+                log.info("{} - PROCESSING: message on topic: [{}], payload: {}", tenant, topic,
+                        connectorMessage.getMessagePayload().getText());
             }
         }
         this.inboundProcessingCounter.increment();
@@ -111,7 +120,7 @@ public class CamelDispatcherInbound implements GenericMessageCallback {
                 .build();
 
         // Early return for system topics or null payload
-        if (topic == null || topic.startsWith("$SYS") || connectorMessage.getPayload() == null) {
+        if (topic == null || topic.startsWith("$SYS") || !connectorMessage.hasPayload()) {
             return result;
         }
 
@@ -148,8 +157,15 @@ public class CamelDispatcherInbound implements GenericMessageCallback {
             return result;
         }
 
+        // Bound the messages in processing per connector, test messages are not counted
+        InboundFlowControl flowControl = testMapping == null ? connectorClient.getInboundFlowControl() : null;
+        if (flowControl != null && !acquireInFlight(flowControl, serviceConfiguration, result, tenant, topic)) {
+            result.setProcessingResult((Future) CompletableFuture.completedFuture(new ArrayList<>()));
+            return result;
+        }
+
         // Process using Camel routes asynchronously
-        Future<List<ProcessingContext<Object>>> futureProcessingResult = virtualThreadPool.submit(() -> {
+        Callable<List<ProcessingContext<Object>>> processing = () -> {
             try {
                 Exchange exchange = createExchange(connectorMessage, resolvedMappings, testing); // Now can use final variable
                 Exchange resultExchange = producerTemplate.send("direct:processInboundMessage", exchange);
@@ -187,7 +203,8 @@ public class CamelDispatcherInbound implements GenericMessageCallback {
                 }
                 if(resend) {
                     if (serviceConfiguration.getLogPayload())
-                        log.info("{} - Resending message to C8Y due to previous 422 error with payload {}", tenant, connectorMessage.getPayload());
+                        log.info("{} - Resending message to C8Y due to previous 422 error with payload {}", tenant,
+                                connectorMessage.getMessagePayload().getText());
                     else
                         log.info("{} - Resending message to C8Y due to previous 422 error", tenant);
                     exchange = createExchange(connectorMessage, resolvedMappings, testing);
@@ -202,14 +219,120 @@ public class CamelDispatcherInbound implements GenericMessageCallback {
             } catch (Exception e) {
                 log.error("{} - Error processing inbound message through Camel routes: {}", tenant, e.getMessage(), e);
                 throw new RuntimeException("Camel processing failed", e);
+            } finally {
+                if (flowControl != null) {
+                    flowControl.release();
+                }
             }
-        });
+        };
+
+        // Keep messages with the same ordering key in order, test messages are not ordered
+        InboundOrderingKey orderingKey = serviceConfiguration.getInboundOrderingKey();
+        InboundOrderedLanes lanes = connectorClient.getInboundOrderedLanes();
+        Future<List<ProcessingContext<Object>>> futureProcessingResult;
+        if (testMapping == null && lanes != null && orderingKey != null && orderingKey != InboundOrderingKey.NONE) {
+            int laneCount = serviceConfiguration.getInboundOrderingLanes() != null
+                    ? serviceConfiguration.getInboundOrderingLanes()
+                    : 1;
+            String key = resolveOrderingKey(orderingKey, connectorMessage, resolvedMappings);
+            futureProcessingResult = lanes.submit(key, laneCount, processing);
+        } else {
+            futureProcessingResult = virtualThreadPool.submit(processing);
+        }
 
         result.setProcessingResult((Future) futureProcessingResult);
 
         return result;
     }
 
+    /**
+     * Waits for or rejects the message according to the backpressure policy
+     * when the in-flight limit of the connector is reached.
+     *
+     * @return {@code false} if the message is dropped
+     */
+    private boolean acquireInFlight(InboundFlowControl flowControl, ServiceConfiguration serviceConfiguration,
+            ProcessingResultWrapper<?> result, String tenant, String topic) {
+        int maxInFlight = serviceConfiguration.getInboundMaxInFlight() != null
+                ? serviceConfiguration.getInboundMaxInFlight()
+                : 0;
+        InboundBackpressurePolicy policy = serviceConfiguration.getInboundBackpressurePolicy() != null
+                ? serviceConfiguration.getInboundBackpressurePolicy()
+                : InboundBackpressurePolicy.BLOCK;
+        try {
+            if (flowControl.acquire(maxInFlight, policy, result.getConsolidatedQos())) {
+                return true;
+            }
+            if (serviceConfiguration.getLogPayload()) {
+                log.info("{} - Dropping message on topic: [{}], in-flight limit {} reached", tenant, topic,
+                        maxInFlight);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            flowControl.recordRejected();
+            log.warn("{} - Interrupted while waiting for in-flight limit, dropping message on topic: [{}]", tenant,
+                    topic);
+        }
+        return false;
+    }
+
+    /**
+     * Returns the key that orders the message. Falls back to the topic when the
+     * message carries no client ID or no external ID can be extracted.
+     */
+    private String resolveOrderingKey(InboundOrderingKey orderingKey, ConnectorMessage message,
+            List<Mapping> resolvedMappings) {
+        String key = null;
+        if (orderingKey == InboundOrderingKey.CLIENT_ID) {
+            key = message.getClientId();
+        } else if (orderingKey == InboundOrderingKey.EXTERNAL_ID) {
+            key = extractExternalId(message, resolvedMappings);
+        }
+        return key != null ? key : message.getTopic();
+    }
+
+    /**
+     * Evaluates the device identifier substitution of the first mapping with
+     * one. The payload is parsed only once per message, the mappings get the
+     * same parsed payload later on.
+     *
+     * <p>The key has to be known before the message is handed to its lane, so
+     * this runs on the transport thread of the connector (MQTT, Kafka or AMQP
+     * callback). Parsing and the JSONata evaluation are moved to the ingress
+     * thread and limit how fast a single transport thread can receive. Where
+     * the device is part of the topic or the client ID, TOPIC or CLIENT_ID
+     * order the messages without touching the payload.</p>
+     */
+    private String extractExternalId(ConnectorMessage message, List<Mapping> resolvedMappings) {
+        for (Mapping mapping : resolvedMappings) {
+            if (mapping.isTransformationAsCode() || mapping.getSubstitutions() == null) {
+                continue;
+            }
+            List<Substitution> identifiers = Mapping.getDeviceIdentifiers(mapping);
+            if (identifiers.isEmpty()) {
+                continue;
+            }
+            try {
+                Object payload = CopyOnWriteJson.view(message.getMessagePayload().getJson());
+                if (payload instanceof Map) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> payloadMap = (Map<String, Object>) payload;
+                    payloadMap.put(Mapping.TOKEN_TOPIC_LEVEL,
+                            Mapping.splitTopicExcludingSeparatorAsList(message.getTopic(), false));
+                }
+                Object externalId = mappingService
+                        .getCompiledExpression(message.getTenant(), mapping, identifiers.get(0).getPathSource())
+                        .evaluate(payload);
+                return externalId != null ? externalId.toString() : null;
+            } catch (Exception e) {
+                log.debug("{} - Could not extract ordering key with mapping {}: {}", message.getTenant(),
+                        mapping.getIdentifier(), e.getMessage());
+                return null;
+            }
+        }
+        return null;
+    }
+
     /**
      * Create Camel Exchange from ConnectorMessage and resolved mappings
      */
@@ -229,12 +352,8 @@ public class CamelDispatcherInbound implements GenericMessageCallback {
         camelMessage.setHeader("connectorMessage", message);
         camelMessage.setHeader("serviceConfiguration",
                 configurationRegistry.getServiceConfiguration(message.getTenant()));
-
-        // Set payload information
-        camelMessage.setHeader("payloadBytes", message.getPayload());
-        if (message.getPayload() != null) {
-            camelMessage.setHeader("payloadString", new String(message.getPayload()));
-        }
+        // The payload stays on the ConnectorMessage, it is copied, decoded or parsed
+        // once on first use and then shared by all mappings of the message
 
         return exchange;
     }
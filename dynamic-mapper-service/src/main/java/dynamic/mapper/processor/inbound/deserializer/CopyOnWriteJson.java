@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.processor.inbound.deserializer;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Copy-on-write views of a parsed JSON payload that is shared by all mappings
+ * of a message.
+ *
+ * <p>A view reads through to the shared maps and lists. Nested maps and lists
+ * are returned as views as well, so a mapping can change any level of its
+ * payload, e.g. enrichment adding {@code _TOPIC_LEVEL_} or a smart function
+ * changing a nested value. The first change of a map or list copies only that
+ * level, the shared payload itself is never changed.</p>
+ *
+ * <p>A view belongs to the processing of one mapping and is not thread-safe.</p>
+ */
+public final class CopyOnWriteJson {
+
+    private CopyOnWriteJson() {
+    }
+
+    /**
+     * @return a view for a map or list, other values are immutable and returned
+     *         as they are
+     */
+    @SuppressWarnings("unchecked")
+    public static Object view(Object shared) {
+        if (shared instanceof Map) {
+            return new MapView((Map<String, Object>) shared);
+        } else if (shared instanceof List) {
+            return new ListView((List<Object>) shared);
+        }
+        return shared;
+    }
+
+    private static boolean isContainer(Object value) {
+        return value instanceof Map || value instanceof List;
+    }
+
+    static final class MapView extends AbstractMap<String, Object> {
+
+        private final Map<String, Object> shared;
+
+        // Views of nested maps and lists handed out before this level was copied
+        private Map<String, Object> views;
+
+        // Set on the first change, nested maps and lists in it are views
+        private Map<String, Object> copy;
+
+        MapView(Map<String, Object> shared) {
+            this.shared = shared;
+        }
+
+        @Override
+        public Object get(Object key) {
+            if (copy != null) {
+                return copy.get(key);
+            }
+            Object value = shared.get(key);
+            if (!isContainer(value)) {
+                return value;
+            }
+            if (views == null) {
+                views = new HashMap<>();
+            }
+            return views.computeIfAbsent((String) key, k -> view(value));
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return copy != null ? copy.containsKey(key) : shared.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return copy != null ? copy.size() : shared.size();
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            return copy().put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return copy().remove(key);
+        }
+
+        @Override
+        public void clear() {
+            copy().clear();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            if (copy != null) {
+                return copy.entrySet();
+            }
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    Iterator<String> keys = shared.keySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return keys.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            String key = keys.next();
+                            return new SimpleImmutableEntry<>(key, get(key));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return shared.size();
+                }
+            };
+        }
+
+        private Map<String, Object> copy() {
+            if (copy == null) {
+                Map<String, Object> result = new LinkedHashMap<>(shared.size() + 2);
+                shared.forEach((key, value) -> {
+                    Object handedOut = views != null ? views.get(key) : null;
+                    result.put(key, handedOut != null ? handedOut : view(value));
+                });
+                copy = result;
+                views = null;
+            }
+            return copy;
+        }
+    }
+
+    static final class ListView extends AbstractList<Object> {
+
+        private final List<Object> shared;
+
+        private Map<Integer, Object> views;
+
+        private List<Object> copy;
+
+        ListView(List<Object> shared) {
+            this.shared = shared;
+        }
+
+        @Override
+        public Object get(int index) {
+            if (copy != null) {
+                return copy.get(index);
+            }
+            Object value = shared.get(index);
+            if (!isContainer(value)) {
+                return value;
+            }
+            if (views == null) {
+                views = new HashMap<>();
+            }
+            return views.computeIfAbsent(index, i -> view(value));
+        }
+
+        @Override
+        public int size() {
+            return copy != null ? copy.size() : shared.size();
+        }
+
+        @Override
+        public Object set(int index, Object element) {
+            return copy().set(index, element);
+        }
+
+        @Override
+        public void add(int index, Object element) {
+            copy().add(index, element);
+            modCount++;
+        }
+
+        @Override
+        public Object remove(int index) {
+            modCount++;
+            return copy().remove(index);
+        }
+
+        private List<Object> copy() {
+            if (copy == null) {
+                List<Object> result = new ArrayList<>(shared.size() + 2);
+                for (int i = 0; i < shared.size(); i++) {
+                    Object handedOut = views != null ? views.get(i) : null;
+                    result.add(handedOut != null ? handedOut : view(shared.get(i)));
+                }
+                copy = result;
+                views = null;
+            }
+            return copy;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package dynamic.mapper.processor.inbound.deserializer;
 
 import java.io.IOException;
-import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -14,8 +13,8 @@ public class FlatFilePayloadDeserializer implements PayloadDeserializer<Object>
     public Object deserializePayload(Mapping mapping, ConnectorMessage message) throws IOException {
         try {
 
-            String payloadMessage = (message.getPayload() != null
-                    ? new String(message.getPayload(), Charset.defaultCharset())
+            String payloadMessage = (message.hasPayload()
+                    ? message.getMessagePayload().getText()
                     : "");
             
             // Object payloadObjectNode = objectMapper.valueToTree(new PayloadWrapper(payloadMessage));
@@ -2,10 +2,10 @@ package dynamic.mapper.processor.inbound.deserializer;
 
 import java.io.IOException;
 
-import com.dashjoin.jsonata.json.Json;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import dynamic.mapper.connector.core.callback.ConnectorMessage;
+import dynamic.mapper.connector.core.callback.MessagePayload;
 import dynamic.mapper.model.Mapping;
 
 public class JSONPayloadDeserializer implements PayloadDeserializer<Object> {
@@ -21,16 +21,13 @@ public class JSONPayloadDeserializer implements PayloadDeserializer<Object> {
 
     @Override
     public Object deserializePayload(Mapping mapping, ConnectorMessage message) throws IOException {
-        if (message.getPayload() == null || message.getPayload().length == 0) {
+        MessagePayload payload = message.getMessagePayload();
+        if (payload == null || payload.isEmpty()) {
             throw new IOException("Payload is null or empty");
         }
 
-        try {
-            // Convert byte array to string and then parse as JSON
-            Object jsonObject = Json.parseJson(new String(message.getPayload(), "UTF-8"));
-            return jsonObject;
-        } catch (Exception e) {
-            throw new IOException("Failed to deserialize JSON payload: " + e.getMessage(), e);
-        }
+        // The payload is parsed by the first mapping of the message and shared by the
+        // others, every mapping gets a copy-on-write view it is free to change
+        return CopyOnWriteJson.view(payload.getJson());
     }
 }
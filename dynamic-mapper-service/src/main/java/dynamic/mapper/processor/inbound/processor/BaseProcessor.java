@@ -21,8 +21,9 @@ public abstract class BaseProcessor extends CommonProcessor {
 
     protected ProcessingContext<Object> createProcessingContextAsObject(String tenant, Mapping mapping,
             ConnectorMessage connectorMessage, ServiceConfiguration serviceConfiguration, Boolean testing) {
+        // No raw payload, that would copy a buffer handed over by the connector
+        // for mappings that only read the decoded payload
         return ProcessingContext.<Object>builder()
-                .rawPayload(connectorMessage.getPayload())
                 .topic(connectorMessage.getTopic())
                 .clientId(connectorMessage.getClientId())
                 .mappingType(mapping.getMappingType())
@@ -182,7 +182,7 @@ public class CodeExtractionInboundProcessor extends AbstractCodeExtractionProces
 
         if (!context.getTesting()) {
             MappingStatus mappingStatus = mappingService.getMappingStatus(tenant, mapping);
-            mappingStatus.errors++;
+            mappingStatus.incrementErrors();
             mappingService.increaseAndHandleFailureCount(tenant, mapping, mappingStatus);
             context.setIgnoreFurtherProcessing(true);
         }
@@ -126,7 +126,6 @@ public class ExtensibleInboundProcessor extends AbstractExtensibleProcessor {
 
         // 2. Create JavaExtensionContext with persistent native state
         Mapping mapping = context.getMapping();
-        java.util.Map<String, Object> initialState = flowStateStore.loadState(tenant, mapping.getIdentifier());
         JavaExtensionContext prepContext = new JavaExtensionContextImpl(
             context.getFlowContext(),
             c8yAgent,
@@ -134,8 +133,7 @@ public class ExtensibleInboundProcessor extends AbstractExtensibleProcessor {
             context.getTesting(),
             mapping,
             context,
-            flowStateStore,
-            initialState
+            flowStateStore
         );
 
         // 3. Call new pattern method
@@ -200,7 +198,7 @@ public class ExtensibleInboundProcessor extends AbstractExtensibleProcessor {
 
         if (!testing) {
             MappingStatus mappingStatus = mappingService.getMappingStatus(tenant, mapping);
-            mappingStatus.errors++;
+            mappingStatus.incrementErrors();
             mappingService.increaseAndHandleFailureCount(tenant, mapping, mappingStatus);
         }
     }
@@ -147,7 +147,7 @@ public class ExtensibleResultInboundProcessor extends AbstractExtensibleResultPr
 
         // Check inventory filter condition if specified
         if (mapping.getFilterInventory() != null) {
-            boolean filterInventory = evaluateInventoryFilter(tenant, mapping.getFilterInventory(),
+            boolean filterInventory = evaluateInventoryFilter(tenant, mapping, mapping.getFilterInventory(),
                     context.getSourceId(), context.getTesting());
             if (context.getSourceId() == null || !filterInventory) {
                 if (mapping.getDebug()) {
@@ -177,7 +177,7 @@ public class ExtensibleResultInboundProcessor extends AbstractExtensibleResultPr
 
         if (!context.getTesting()) {
             MappingStatus mappingStatus = mappingService.getMappingStatus(tenant, mapping);
-            mappingStatus.errors++;
+            mappingStatus.incrementErrors();
             mappingService.increaseAndHandleFailureCount(tenant, mapping, mappingStatus);
         }
     }
@@ -1,6 +1,5 @@
 package dynamic.mapper.processor.inbound.processor;
 
-import static com.dashjoin.jsonata.Jsonata.jsonata;
 import static dynamic.mapper.model.Substitution.toPrettyJsonString;
 
 import org.apache.camel.Exchange;
@@ -10,6 +9,7 @@ import org.springframework.stereotype.Component;
 import dynamic.mapper.core.ConfigurationRegistry;
 import dynamic.mapper.model.Mapping;
 import dynamic.mapper.processor.model.ProcessingContext;
+import dynamic.mapper.service.cache.MappingCacheManager;
 import dynamic.mapper.util.Utils;
 import lombok.extern.slf4j.Slf4j;
 
@@ -20,6 +20,9 @@ public class FilterInboundProcessor extends BaseProcessor {
     @Autowired
     ConfigurationRegistry configurationRegistry;
 
+    @Autowired
+    MappingCacheManager mappingCacheManager;
+
     @Override
     public void process(Exchange exchange) throws Exception {
         ProcessingContext<Object> context = exchange.getIn().getHeader("processingContext", ProcessingContext.class);
@@ -37,7 +40,7 @@ public class FilterInboundProcessor extends BaseProcessor {
             Object payloadObjectNode = context.getPayload();
             String payload = toPrettyJsonString(payloadObjectNode);
             try {
-                var expr = jsonata(mappingFilter);
+                var expr = mappingCacheManager.getCompiledExpression(tenant, mapping, mappingFilter);
                 Object extractedSourceContent = expr.evaluate(payloadObjectNode);
                 if (!Utils.isNodeTrue(extractedSourceContent)) {
                     log.info("{} - Payload will be ignored due to filter: {}, {}", tenant, mappingFilter,
@@ -129,7 +129,7 @@ public class FlowProcessorInboundProcessor extends AbstractFlowProcessor {
 
         if (!context.getTesting()) {
             MappingStatus mappingStatus = mappingService.getMappingStatus(tenant, mapping);
-            mappingStatus.errors++;
+            mappingStatus.incrementErrors();
             mappingService.increaseAndHandleFailureCount(tenant, mapping, mappingStatus);
         }
     }
@@ -97,7 +97,7 @@ public class FlowResultInboundProcessor extends AbstractFlowResultProcessor {
 
         // Check inventory filter condition if specified
         if (mapping.getFilterInventory() != null) {
-            boolean filterInventory = evaluateInventoryFilter(tenant, mapping.getFilterInventory(),
+            boolean filterInventory = evaluateInventoryFilter(tenant, mapping, mapping.getFilterInventory(),
                     context.getSourceId(), context.getTesting());
             if (context.getSourceId() == null || !filterInventory) {
                 if (mapping.getDebug()) {
@@ -127,7 +127,7 @@ public class FlowResultInboundProcessor extends AbstractFlowResultProcessor {
 
         if (!context.getTesting()) {
             MappingStatus mappingStatus = mappingService.getMappingStatus(tenant, mapping);
-            mappingStatus.errors++;
+            mappingStatus.incrementErrors();
             mappingService.increaseAndHandleFailureCount(tenant, mapping, mappingStatus);
         }
     }
@@ -64,7 +64,7 @@ public class InternalProtobufProcessor extends BaseProcessor {
             else
                 context.addError(new ProcessingException("InternalProtobufProcessor processing failed", e));
 
-            mappingStatus.errors++;
+            mappingStatus.incrementErrors();
             mappingService.increaseAndHandleFailureCount(tenant, mapping, mappingStatus);
         }
 
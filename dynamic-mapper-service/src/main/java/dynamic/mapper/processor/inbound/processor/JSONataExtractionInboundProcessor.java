@@ -1,7 +1,5 @@
 package dynamic.mapper.processor.inbound.processor;
 
-import static com.dashjoin.jsonata.Jsonata.jsonata;
-
 import org.springframework.stereotype.Component;
 
 import dynamic.mapper.model.Mapping;
@@ -11,6 +9,7 @@ import dynamic.mapper.processor.AbstractJSONataExtractionProcessor;
 import dynamic.mapper.processor.ProcessingException;
 import dynamic.mapper.processor.model.ProcessingContext;
 import dynamic.mapper.service.MappingService;
+import dynamic.mapper.service.cache.MappingCacheManager;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -24,8 +23,9 @@ import lombok.extern.slf4j.Slf4j;
 @Component
 public class JSONataExtractionInboundProcessor extends AbstractJSONataExtractionProcessor {
 
-    public JSONataExtractionInboundProcessor(MappingService mappingService) {
-        super(mappingService);
+    public JSONataExtractionInboundProcessor(MappingService mappingService,
+            MappingCacheManager mappingCacheManager) {
+        super(mappingService, mappingCacheManager);
     }
 
     @Override
@@ -35,7 +35,8 @@ public class JSONataExtractionInboundProcessor extends AbstractJSONataExtraction
                                               String payloadAsString) {
         Object extractedSourceContent = null;
         try {
-            var expr = jsonata(substitution.getPathSource());
+            var expr = mappingCacheManager.getCompiledExpression(context.getTenant(), context.getMapping(),
+                    substitution.getPathSource());
             extractedSourceContent = expr.evaluate(payloadObject);
         } catch (Exception e) {
             log.error("{} - Exception for: {}, {}: ", context.getTenant(),
@@ -59,7 +60,7 @@ public class JSONataExtractionInboundProcessor extends AbstractJSONataExtraction
 
         if (!context.getTesting()) {
             MappingStatus mappingStatus = mappingService.getMappingStatus(tenant, mapping);
-            mappingStatus.errors++;
+            mappingStatus.incrementErrors();
             mappingService.increaseAndHandleFailureCount(tenant, mapping, mappingStatus);
         }
     }
@@ -2,6 +2,9 @@ package dynamic.mapper.processor.inbound.processor;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.camel.Exchange;
 import org.joda.time.DateTime;
@@ -13,11 +16,17 @@ import com.cumulocity.model.idtype.GId;
 import com.cumulocity.rest.representation.AbstractExtensibleRepresentation;
 import com.cumulocity.rest.representation.inventory.ManagedObjectRepresentation;
 import com.cumulocity.rest.representation.identity.ExternalIDRepresentation;
+import com.cumulocity.rest.representation.measurement.MeasurementRepresentation;
+import com.cumulocity.sdk.client.SDKException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import dynamic.mapper.configuration.InboundOrderingKey;
+import dynamic.mapper.configuration.ServiceConfiguration;
 import dynamic.mapper.core.C8YAgent;
 import dynamic.mapper.core.ConfigurationRegistry;
+import dynamic.mapper.core.InventoryUpdateCoalescer;
+import dynamic.mapper.core.MeasurementBatcher;
 import dynamic.mapper.model.API;
 import dynamic.mapper.model.Mapping;
 import dynamic.mapper.model.MappingStatus;
@@ -32,6 +41,9 @@ import lombok.extern.slf4j.Slf4j;
 @Component
 public class SendInboundProcessor extends BaseProcessor {
 
+    // Time a message waits for a batched or coalesced request on top of the linger time
+    private static final long C8Y_RESULT_TIMEOUT_MS = 60_000;
+
     @Autowired
     private C8YAgent c8yAgent;
 
@@ -44,6 +56,12 @@ public class SendInboundProcessor extends BaseProcessor {
     @Autowired
     private MappingService mappingService;
 
+    @Autowired
+    private MeasurementBatcher measurementBatcher;
+
+    @Autowired
+    private InventoryUpdateCoalescer inventoryUpdateCoalescer;
+
     @Override
     @SuppressWarnings("unchecked")
     public void process(Exchange exchange) throws Exception {
@@ -77,7 +95,7 @@ public class SendInboundProcessor extends BaseProcessor {
 
             if (!testing) {
                 MappingStatus mappingStatus = mappingService.getMappingStatus(tenant, mapping);
-                mappingStatus.errors++;
+                mappingStatus.incrementErrors();
                 mappingService.increaseAndHandleFailureCount(tenant, mapping, mappingStatus);
             }
             return;
@@ -175,8 +193,14 @@ public class SendInboundProcessor extends BaseProcessor {
                 }
             }
 
-            // Create or update device
-            ManagedObjectRepresentation device = c8yAgent.upsertDevice(tenant, identity, context, requestIndex);
+            ManagedObjectRepresentation device;
+            if (request.getSourceId() != null && isInventoryCoalescingEnabled(context)) {
+                // Merge the update with other updates of the device
+                device = sendCoalesced(context, request);
+            } else {
+                // Create or update device
+                device = c8yAgent.upsertDevice(tenant, identity, context, requestIndex);
+            }
 
             // Set response and update request
             String response = objectMapper.writeValueAsString(device);
@@ -205,13 +229,15 @@ public class SendInboundProcessor extends BaseProcessor {
                 if (sourceId != null) {
                     request.setSourceId(sourceId.getManagedObject().getId().getValue());
 
-                    // Add source field to payload JSON
-                    String payloadJson = request.getRequest();
-                    Map<String, Object> payloadMap = objectMapper.readValue(payloadJson, new TypeReference<Map<String, Object>>() {});
+                    // Add source field to payload JSON, reusing the parsed payload if available
+                    Map<String, Object> payloadMap = request.getRequestTree() != null
+                            ? request.getRequestTree()
+                            : objectMapper.readValue(request.getRequest(), new TypeReference<Map<String, Object>>() {});
                     Map<String, Object> source = new HashMap<>();
                     source.put("id", request.getSourceId());
                     payloadMap.put("source", source);
                     request.setRequest(objectMapper.writeValueAsString(payloadMap));
+                    request.setRequestTree(payloadMap);
 
                     // Cache the mapping of device to client ID
                     if (context.getClientId() != null) {
@@ -221,7 +247,13 @@ public class SendInboundProcessor extends BaseProcessor {
                 }
             }
 
-            if (context.getSendPayload()) {
+            if (context.getSendPayload() && isMeasurementBatchingEnabled(context, request)) {
+                // Send the request as part of a measurement collection
+                MeasurementRepresentation created = sendBatched(context, request);
+                if (created != null) {
+                    request.setResponse(objectMapper.writeValueAsString(created));
+                }
+            } else if (context.getSendPayload()) {
                 // Send the request to C8Y and capture the actual response
                 AbstractExtensibleRepresentation meaoResult = c8yAgent.createMEAO(context, requestIndex);
                 if (meaoResult != null) {
@@ -236,6 +268,103 @@ public class SendInboundProcessor extends BaseProcessor {
         }
     }
 
+    private boolean isMeasurementBatchingEnabled(ProcessingContext<Object> context, DynamicMapperRequest request) {
+        Integer batchSize = context.getServiceConfiguration().getMeasurementBatchSize();
+        return API.MEASUREMENT.equals(request.getApi())
+                && !Boolean.TRUE.equals(context.getTesting())
+                && batchSize != null && batchSize > 1;
+    }
+
+    /**
+     * Hands the measurement to the {@link MeasurementBatcher} and waits for the
+     * result of this measurement, so that errors are reported for the message
+     * that caused them.
+     */
+    private MeasurementRepresentation sendBatched(ProcessingContext<Object> context, DynamicMapperRequest request)
+            throws Exception {
+        String tenant = context.getTenant();
+        ServiceConfiguration serviceConfiguration = context.getServiceConfiguration();
+        MeasurementRepresentation measurement = request.readRequest(configurationRegistry.getObjectMapper(),
+                MeasurementRepresentation.class);
+        long lingerMs = serviceConfiguration.getMeasurementBatchLingerMs() != null
+                ? serviceConfiguration.getMeasurementBatchLingerMs()
+                : 0;
+        try {
+            return measurementBatcher.submit(tenant, context.getProcessingMode(), measurement,
+                    serviceConfiguration.getMeasurementBatchSize(), lingerMs)
+                    .get(lingerMs + C8Y_RESULT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw resultTimeout(tenant, request);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SDKException sdkException && sdkException.getHttpStatus() == 422
+                    && request.getExternalId() != null) {
+                // Remove device from Cache
+                c8yAgent.removeDeviceFromInboundExternalIdCache(tenant,
+                        new ID(request.getExternalIdType(), request.getExternalId()));
+            }
+            log.error("{} - Could not sent payload to c8y: {} {}: ", tenant, request.getApi(), request.getRequest(),
+                    cause.getMessage());
+            throw new ProcessingException(
+                    "Could not sent payload to c8y: " + request.getApi() + "/" + request.getRequest(), cause);
+        }
+    }
+
+    /**
+     * Reported as gateway timeout, so connectors treat it like a server error
+     * of Cumulocity and can redeliver the message.
+     */
+    private ProcessingException resultTimeout(String tenant, DynamicMapperRequest request) {
+        log.error("{} - Timed out sending payload to c8y: {} {}", tenant, request.getApi(), request.getRequest());
+        return new ProcessingException(
+                "Timed out sending payload to c8y: " + request.getApi() + "/" + request.getRequest(),
+                new SDKException(504, "Timed out waiting for the result of the c8y request"));
+    }
+
+    /**
+     * Coalescing is bypassed when inbound messages are processed in ordered
+     * lanes: the messages of a device are then processed one at a time, so
+     * nothing could be merged and every update would only wait for the window.
+     */
+    private boolean isInventoryCoalescingEnabled(ProcessingContext<Object> context) {
+        Integer coalesceMs = context.getMapping().getInventoryUpdateCoalesceMs();
+        InboundOrderingKey orderingKey = context.getServiceConfiguration().getInboundOrderingKey();
+        return !Boolean.TRUE.equals(context.getTesting()) && coalesceMs != null && coalesceMs > 0
+                && (orderingKey == null || orderingKey == InboundOrderingKey.NONE);
+    }
+
+    /**
+     * Hands the update of an existing device to the
+     * {@link InventoryUpdateCoalescer} and waits for the result, so that errors
+     * are reported for the message that caused them.
+     */
+    private ManagedObjectRepresentation sendCoalesced(ProcessingContext<Object> context,
+            DynamicMapperRequest request) throws Exception {
+        String tenant = context.getTenant();
+        // Copy the fragments, the parsed request may be shared
+        Map<String, Object> fragments = request.getRequestTree() != null
+                ? new HashMap<>(request.getRequestTree())
+                : objectMapper.readValue(request.getRequest(), new TypeReference<Map<String, Object>>() {});
+        long windowMs = context.getMapping().getInventoryUpdateCoalesceMs();
+        try {
+            ManagedObjectRepresentation device = inventoryUpdateCoalescer.submit(tenant, request.getSourceId(),
+                    fragments, windowMs).get(windowMs + C8Y_RESULT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            if (context.getServiceConfiguration().getLogPayload())
+                log.info("{} - Device updated: {}", tenant, device);
+            else
+                log.info("{} - Device {} updated.", tenant, request.getSourceId());
+            return device;
+        } catch (TimeoutException e) {
+            throw resultTimeout(tenant, request);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            log.error("{} - Could not sent payload to c8y: {} {}: ", tenant, request.getApi(), request.getRequest(),
+                    cause.getMessage());
+            throw new ProcessingException(
+                    "Could not sent payload to c8y: " + request.getApi() + "/" + request.getRequest(), cause);
+        }
+    }
+
     /**
      * Create alarms for a specific request (used in parallel mode)
      */
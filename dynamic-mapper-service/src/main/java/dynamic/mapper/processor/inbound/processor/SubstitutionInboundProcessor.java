@@ -30,7 +30,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.jayway.jsonpath.DocumentContext;
-import com.jayway.jsonpath.JsonPath;
 
 import dynamic.mapper.core.C8YAgent;
 import dynamic.mapper.core.ConfigurationRegistry;
@@ -38,12 +37,15 @@ import dynamic.mapper.model.API;
 import dynamic.mapper.model.Mapping;
 import dynamic.mapper.model.MappingStatus;
 import dynamic.mapper.processor.ProcessingException;
+import dynamic.mapper.processor.model.CompiledTargetTemplate;
+import dynamic.mapper.processor.model.DynamicMapperRequest;
 import dynamic.mapper.processor.model.ProcessingContext;
 import dynamic.mapper.processor.model.RepairStrategy;
 import dynamic.mapper.processor.model.SubstituteValue;
 import dynamic.mapper.processor.model.SubstituteValue.TYPE;
 import dynamic.mapper.processor.util.ProcessingResultHelper;
 import dynamic.mapper.service.MappingService;
+import dynamic.mapper.service.cache.MappingCacheManager;
 import lombok.extern.slf4j.Slf4j;
 
 import com.cumulocity.model.ID;
@@ -66,6 +68,9 @@ public class SubstitutionInboundProcessor extends BaseProcessor {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MappingCacheManager mappingCacheManager;
+
     @Override
     public void process(Exchange exchange) throws Exception {
         ProcessingContext<Object> context = exchange.getIn().getHeader("processingContext", ProcessingContext.class);
@@ -82,7 +87,7 @@ public class SubstitutionInboundProcessor extends BaseProcessor {
             // if (mapping.getFilterInventory() != null &&
             // !mapping.getCreateNonExistingDevice()) {
             if (mapping.getFilterInventory() != null) {
-                boolean filterInventory = evaluateInventoryFilter(tenant, mapping.getFilterInventory(),
+                boolean filterInventory = evaluateInventoryFilter(tenant, mapping, mapping.getFilterInventory(),
                         context.getSourceId(), context.getTesting());
                 if (context.getSourceId() == null
                         || !filterInventory) {
@@ -103,7 +108,7 @@ public class SubstitutionInboundProcessor extends BaseProcessor {
 
             if (!testing) {
                 MappingStatus mappingStatus = mappingService.getMappingStatus(tenant, mapping);
-                mappingStatus.errors++;
+                mappingStatus.incrementErrors();
                 mappingService.increaseAndHandleFailureCount(tenant, mapping, mappingStatus);
             }
         }
@@ -137,9 +142,12 @@ public class SubstitutionInboundProcessor extends BaseProcessor {
         int cardinality = deviceEntries.size();
         log.debug("Determined cardinality: {} for mapping: {}", cardinality, mapping.getName());
 
+        // Parsed once per mapping version, every request works on a copy
+        CompiledTargetTemplate compiledTemplate = mappingCacheManager.getCompiledTargetTemplate(context.getTenant(),
+                mapping);
         for (int i = 0; i < cardinality; i++) {
             try {
-                getBuildProcessingContext(context, deviceEntries.get(i),
+                getBuildProcessingContext(context, compiledTemplate, deviceEntries.get(i),
                         i, deviceEntries.size());
                 log.debug("Created request {} of {} for mapping: {}", i + 1, cardinality, mapping.getName());
             } catch (Exception e) {
@@ -165,7 +173,8 @@ public class SubstitutionInboundProcessor extends BaseProcessor {
         }
     }
 
-    private void prepareAndSubstituteInPayload(ProcessingContext<Object> context, DocumentContext payloadTarget,
+    private void prepareAndSubstituteInPayload(ProcessingContext<Object> context,
+            CompiledTargetTemplate compiledTemplate, DocumentContext payloadTarget,
             String pathTarget, SubstituteValue substitute) {
         Mapping mapping = context.getMapping();
         String tenant = context.getTenant();
@@ -186,8 +195,8 @@ public class SubstitutionInboundProcessor extends BaseProcessor {
                 } else {
                     sourceId.setValue(resolvedSourceId.getManagedObject().getId().getValue());
                 }
-                SubstituteValue.substituteValueInPayload(sourceId, payloadTarget,
-                        mapping.transformGenericPath2C8YPath(pathTarget));
+                compiledTemplate.getSlot(mapping.transformGenericPath2C8YPath(pathTarget))
+                        .apply(sourceId, payloadTarget);
                 context.setSourceId(sourceId.getValue().toString());
                 // DO NOT REMOVE DeviceIsolationMQTTService feature
                 // cache the mapping of device to client ID
@@ -203,8 +212,8 @@ public class SubstitutionInboundProcessor extends BaseProcessor {
             SubstituteValue sourceId = new SubstituteValue(substitute.getValue(),
                     TYPE.TEXTUAL, RepairStrategy.CREATE_IF_MISSING, false);
             // in this case the device needs to exists beforehand
-            SubstituteValue.substituteValueInPayload(sourceId, payloadTarget,
-                    mapping.transformGenericPath2C8YPath(pathTarget));
+            compiledTemplate.getSlot(mapping.transformGenericPath2C8YPath(pathTarget))
+                    .apply(sourceId, payloadTarget);
             context.setSourceId(sourceId.getValue().toString());
             // DO NOT REMOVE DeviceIsolationMQTTService feature
             // cache the mapping of device to client ID
@@ -285,17 +294,17 @@ public class SubstitutionInboundProcessor extends BaseProcessor {
                 }
             }
         } else {
-            SubstituteValue.substituteValueInPayload(substitute, payloadTarget, pathTarget);
+            compiledTemplate.getSlot(pathTarget).apply(substitute, payloadTarget);
         }
     }
 
     private ProcessingContext<Object> getBuildProcessingContext(ProcessingContext<Object> context,
-            SubstituteValue device, int finalI,
+            CompiledTargetTemplate compiledTemplate, SubstituteValue device, int finalI,
             int size) {
         Set<String> pathTargets = context.getPathTargets();
         Mapping mapping = context.getMapping();
         String tenant = context.getTenant();
-        DocumentContext payloadTarget = JsonPath.parse(mapping.getTargetTemplate());
+        DocumentContext payloadTarget = compiledTemplate.newDocument();
         for (String pathTarget : pathTargets) {
             SubstituteValue substitute = new SubstituteValue(
                     "NOT_DEFINED", TYPE.TEXTUAL,
@@ -319,14 +328,18 @@ public class SubstitutionInboundProcessor extends BaseProcessor {
                         pathTarget, substitute.repairStrategy);
             }
 
-            prepareAndSubstituteInPayload(context, payloadTarget, pathTarget, substitute);
+            prepareAndSubstituteInPayload(context, compiledTemplate, payloadTarget, pathTarget, substitute);
+        }
+        DynamicMapperRequest request = ProcessingResultHelper.createAndAddDynamicMapperRequest(context,
+                payloadTarget.jsonString(), null, mapping);
+        if (payloadTarget.json() instanceof Map) {
+            request.setRequestTree(payloadTarget.json());
         }
-        ProcessingResultHelper.createAndAddDynamicMapperRequest(context, payloadTarget.jsonString(), null, mapping);
         if (context.getMapping().getDebug() || context.getServiceConfiguration().getLogPayload()) {
             log.info("{} - Transformed message sent: API: {}, numberDevices: {}, message: {}", tenant,
                     context.getApi(),
                     size,
-                    payloadTarget.jsonString());
+                    request.getRequest());
         }
         return context;
     }
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.processor.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.json.JSONException;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+
+import dynamic.mapper.model.Direction;
+import dynamic.mapper.model.Mapping;
+import lombok.Getter;
+
+/**
+ * Target template of a mapping, parsed once per mapping version.
+ *
+ * <p>{@link #newDocument()} returns a copy of the parsed template that can be
+ * modified by one request, so the template text is not parsed again for every
+ * message and every expanded array entry. The JSONPath of each substitution
+ * target is compiled once, when it is first applied, and reused for all
+ * following messages.</p>
+ *
+ * <p>Outbound templates that are a JSON array are wrapped as
+ * {@code {"TempArray": [...]}}, array target paths are resolved against this
+ * wrapper.</p>
+ */
+public class CompiledTargetTemplate {
+
+    public static final String TEMP_ARRAY = "TempArray";
+
+    @Getter
+    private final String mappingId;
+
+    @Getter
+    private final long version;
+
+    // Template text this instance was compiled from, as defined in the mapping
+    private final String template;
+
+    private final Object root;
+
+    private final Map<String, TargetSlot> slots = new ConcurrentHashMap<>();
+
+    private CompiledTargetTemplate(String mappingId, long version, String template, Object root) {
+        this.mappingId = mappingId;
+        this.version = version;
+        this.template = template;
+        this.root = root;
+    }
+
+    /**
+     * Parses the target template of the mapping. Invalid templates are reported
+     * with the same exception as {@code JsonPath.parse(String)}.
+     */
+    public static CompiledTargetTemplate compile(Mapping mapping) {
+        String template = mapping.getTargetTemplate();
+        String json = template;
+        if (Direction.OUTBOUND.equals(mapping.getDirection()) && template.startsWith("[")) {
+            json = "{ \"" + TEMP_ARRAY + "\": " + template + "}";
+        }
+        Object root = Configuration.defaultConfiguration().jsonProvider().parse(json);
+        return new CompiledTargetTemplate(mapping.getId(), mapping.getLastUpdate(), template, root);
+    }
+
+    /**
+     * Returns true if this template was compiled from the current version and
+     * target template of the mapping
+     */
+    public boolean isCompiledFrom(Mapping mapping) {
+        return version == mapping.getLastUpdate() && Objects.equals(mappingId, mapping.getId())
+                && template.equals(mapping.getTargetTemplate());
+    }
+
+    /**
+     * Returns a private copy of the template that can be modified
+     */
+    public DocumentContext newDocument() {
+        return JsonPath.parse(copy(root));
+    }
+
+    /**
+     * Returns the compiled target for a substitution path
+     */
+    public TargetSlot getSlot(String pathTarget) {
+        TargetSlot slot = slots.get(pathTarget);
+        if (slot == null) {
+            slot = slots.computeIfAbsent(pathTarget, TargetSlot::new);
+        }
+        return slot;
+    }
+
+    private static Object copy(Object node) {
+        if (node instanceof Map<?, ?> map) {
+            Map<String, Object> result = new LinkedHashMap<>(Math.max(4, map.size() * 4 / 3 + 1));
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                result.put((String) entry.getKey(), copy(entry.getValue()));
+            }
+            return result;
+        } else if (node instanceof List<?> list) {
+            List<Object> result = new ArrayList<>(list.size());
+            for (Object element : list) {
+                result.add(copy(element));
+            }
+            return result;
+        }
+        // Strings, numbers, booleans and null are immutable
+        return node;
+    }
+
+    /**
+     * Substitution target with a pre-compiled JSONPath. Applies a value with
+     * {@link SubstituteValue#substituteValueInPayload}.
+     */
+    public static final class TargetSlot {
+
+        @Getter
+        private final String pathTarget;
+
+        // null for the root "$", which merges the keys of an object value
+        private final JsonPath path;
+
+        private TargetSlot(String pathTarget) {
+            this.pathTarget = pathTarget;
+            this.path = "$".equals(pathTarget) ? null : JsonPath.compile(pathTarget);
+        }
+
+        public void apply(SubstituteValue substitute, DocumentContext payloadTarget) throws JSONException {
+            SubstituteValue.substituteValueInPayload(substitute, payloadTarget, pathTarget, path);
+        }
+    }
+}
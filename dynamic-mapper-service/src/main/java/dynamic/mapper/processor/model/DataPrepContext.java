@@ -38,6 +38,17 @@ public interface DataPrepContext {
      */
     void setState(String key, Value value);
 
+    /**
+     * Sets a value in the context's state that expires after the given time.
+     *
+     * @param key        The key for the state item.
+     * @param value      The value to set for the given key.
+     * @param ttlSeconds Seconds after which the item expires, 0 for no expiry.
+     */
+    default void setState(String key, Value value, long ttlSeconds) {
+        setState(key, value);
+    }
+
     /**
      * Retrieves a value from the context's state.
      * 
@@ -21,15 +21,23 @@
 
 package dynamic.mapper.processor.model;
 
+import java.util.Map;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import dynamic.mapper.model.API;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import org.springframework.web.bind.annotation.RequestMethod;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -63,10 +71,44 @@ public class DynamicMapperRequest {
     private String response;
     @Schema(description = "Error that occurred during request execution, if any")
     private Exception error;
+    // Parsed form of request, set when the request was rendered from a JSON tree,
+    // so that it is not parsed again before it is sent to Cumulocity
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Schema(hidden = true)
+    private Map<String, Object> requestTree;
     // this property documents if a C8Y request was already submitted and is created only for documentation/testing purpose.
     // this happens when a device is created implicitly with mapping.createNonExistingDevice == true
     // private Boolean alreadySubmitted;
     public boolean hasError() {
         return error != null;
     }
+
+    /**
+     * Replaces the request payload, a previously set request tree no longer
+     * matches and is dropped
+     */
+    public void setRequest(String request) {
+        this.request = request;
+        this.requestTree = null;
+    }
+
+    /**
+     * Reads the request payload as the given representation, from the request
+     * tree if available, otherwise by parsing the request
+     */
+    public <T> T readRequest(ObjectMapper objectMapper, Class<T> type) throws JsonProcessingException {
+        if (requestTree != null) {
+            try {
+                return objectMapper.convertValue(requestTree, type);
+            } catch (IllegalArgumentException e) {
+                if (e.getCause() instanceof JsonProcessingException jpe) {
+                    throw jpe;
+                }
+                throw e;
+            }
+        }
+        return objectMapper.readValue(request, type);
+    }
 }
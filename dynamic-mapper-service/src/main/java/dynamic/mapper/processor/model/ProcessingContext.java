@@ -35,6 +35,7 @@ import dynamic.mapper.model.BinaryInfo;
 import dynamic.mapper.model.Mapping;
 import dynamic.mapper.model.Qos;
 import dynamic.mapper.processor.ProcessingException;
+import dynamic.mapper.processor.flow.PooledGraalContext;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -159,6 +160,9 @@ public class ProcessingContext<O> implements AutoCloseable {
 
     private Context graalContext;
 
+    // Set when graalContext was borrowed from a GraalContextPool; it is released instead of closed
+    private PooledGraalContext pooledGraalContext;
+
     private String sharedCode;
 
     private Source sharedSource;
@@ -198,6 +202,11 @@ public class ProcessingContext<O> implements AutoCloseable {
     @Builder.Default
     private BinaryInfo binaryInfo = new BinaryInfo();
 
+    // System.nanoTime() when processing of the message by this mapping started
+    @JsonIgnore
+    @Builder.Default
+    private long processingStartTime = System.nanoTime();
+
     public boolean hasError() {
         return errors != null && errors.size() > 0;
     }
@@ -502,6 +511,13 @@ public class ProcessingContext<O> implements AutoCloseable {
                 flowContext = null;
             }
 
+            // Return a pooled GraalVM Context to its pool instead of closing it
+            if (pooledGraalContext != null) {
+                pooledGraalContext.release();
+                pooledGraalContext = null;
+                graalContext = null;
+            }
+
             // Close GraalVM Context
             if (graalContext != null) {
                 try {
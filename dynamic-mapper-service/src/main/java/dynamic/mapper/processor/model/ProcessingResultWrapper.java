@@ -34,9 +34,20 @@ import lombok.Setter;
 @Builder
 
 public class ProcessingResultWrapper<O> {
+    // Upper bound for waiting for the processing result when no maxCPUTimeMS is set
+    public static final int DEFAULT_RESULT_TIMEOUT_MS = 120_000;
+
     private Future<List<ProcessingContext<O>>> processingResult;
     private Qos consolidatedQos;
     private int maxCPUTimeMS;
     private Exception error;
     private Future future;
+
+    /**
+     * Returns how long to wait for the processing result: maxCPUTimeMS if set,
+     * otherwise {@link #DEFAULT_RESULT_TIMEOUT_MS}
+     */
+    public int getResultTimeoutMS() {
+        return maxCPUTimeMS > 0 ? maxCPUTimeMS : DEFAULT_RESULT_TIMEOUT_MS;
+    }
 }
\ No newline at end of file
@@ -20,10 +20,13 @@
  */
 package dynamic.mapper.processor.model;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Value;
@@ -36,9 +39,11 @@ import lombok.extern.slf4j.Slf4j;
  * Simple implementation of DataPrepContext for JavaScript execution.
  *
  * <p>When constructed with a {@link FlowStateStore} and a mapping identifier,
- * state written via {@code setState} is automatically persisted across message
- * invocations. The store is written back inside {@link #clearState()}, which is
- * called by {@code ProcessingContext.close()} at the end of each message.</p>
+ * {@code setState} and {@code getState} read and write the store key by key, so
+ * state is kept across message invocations. The ephemeral keys
+ * {@code _WARNINGS_} and {@code _LOGS_} always stay local to the invocation and
+ * are dropped by {@link #clearState()}, which is called by
+ * {@code ProcessingContext.close()} at the end of each message.</p>
  */
 @Slf4j
 public class SmartFunctionContext implements DataPrepContext {
@@ -58,7 +63,7 @@ public class SmartFunctionContext implements DataPrepContext {
      */
     public SmartFunctionContext(Context graalContext, String tenant, InventoryEnrichmentClient inventoryEnrichmentClient,
             Boolean testing) {
-        this(graalContext, tenant, inventoryEnrichmentClient, testing, null, null, null);
+        this(graalContext, tenant, inventoryEnrichmentClient, testing, null, null);
     }
 
     /**
@@ -70,11 +75,10 @@ public class SmartFunctionContext implements DataPrepContext {
      * @param testing                    true when running in a test cycle
      * @param stateStore                 store used to persist state across invocations (may be null)
      * @param mappingIdentifier          the mapping's short identifier used as state key (may be null)
-     * @param initialState               pre-loaded state from the store (may be null)
      */
     public SmartFunctionContext(Context graalContext, String tenant, InventoryEnrichmentClient inventoryEnrichmentClient,
-            Boolean testing, FlowStateStore stateStore, String mappingIdentifier, Map<String, Object> initialState) {
-        this.state = (initialState != null && !initialState.isEmpty()) ? new HashMap<>(initialState) : new HashMap<>();
+            Boolean testing, FlowStateStore stateStore, String mappingIdentifier) {
+        this.state = new HashMap<>();
         this.graalContext = graalContext;
         this.tenant = tenant != null ? tenant : "unknown";
         this.inventoryEnrichmentClient = inventoryEnrichmentClient;
@@ -116,6 +120,11 @@ public class SmartFunctionContext implements DataPrepContext {
 
     @Override
     public void setState(String key, Value value) {
+        setState(key, value, 0);
+    }
+
+    @Override
+    public void setState(String key, Value value, long ttlSeconds) {
         if (key == null) {
             log.warn("{} - Cannot set state with null key", tenant);
             return;
@@ -123,7 +132,15 @@ public class SmartFunctionContext implements DataPrepContext {
 
         // Convert Value to Java object for safe storage
         Object javaValue = convertValueToJavaObject(value);
-        state.put(key, javaValue);
+        if (isStored(key)) {
+            Duration ttl = ttlSeconds > 0 ? Duration.ofSeconds(ttlSeconds) : null;
+            if (!stateStore.setState(tenant, mappingIdentifier, key, javaValue, ttl)) {
+                addWarning(String.format("Flow state key rejected, mapping holds too many keys: %s", key));
+                return;
+            }
+        } else {
+            state.put(key, javaValue);
+        }
 
         log.debug("{} - Flow state set: {}={}", tenant, key, javaValue);
     }
@@ -134,7 +151,7 @@ public class SmartFunctionContext implements DataPrepContext {
             return null;
         }
 
-        Object javaValue = state.get(key);
+        Object javaValue = isStored(key) ? stateStore.getState(tenant, mappingIdentifier, key) : state.get(key);
         if (javaValue == null) {
             return null;
         }
@@ -205,13 +222,8 @@ public class SmartFunctionContext implements DataPrepContext {
             return null;
         }
 
-        Object javaValue = state;
-        if (javaValue == null) {
-            return null;
-        }
-
         // Convert back to GraalJS Value
-        return graalContext.asValue(javaValue);
+        return graalContext.asValue(getMergedState());
     }
 
     @Override
@@ -220,13 +232,31 @@ public class SmartFunctionContext implements DataPrepContext {
             return null;
         }
 
-        Object javaValue = state.keySet();
-        if (javaValue == null) {
-            return null;
+        Set<String> keys = new HashSet<>(getMergedState().keySet());
+        // Convert back to GraalJS Value
+        return graalContext.asValue(keys);
+    }
+
+    /**
+     * Returns the stored state together with the ephemeral keys of this
+     * invocation.
+     */
+    private Map<String, Object> getMergedState() {
+        if (stateStore == null || mappingIdentifier == null) {
+            return state;
         }
+        Map<String, Object> merged = new HashMap<>(stateStore.getStateAll(tenant, mappingIdentifier));
+        merged.putAll(state);
+        return merged;
+    }
 
-        // Convert back to GraalJS Value
-        return graalContext.asValue(javaValue);
+    /**
+     * Ephemeral keys ({@code _WARNINGS_}, {@code _LOGS_}) are never written to
+     * the store.
+     */
+    private boolean isStored(String key) {
+        return stateStore != null && mappingIdentifier != null
+                && !DataPrepContext.WARNINGS.equals(key) && !DataPrepContext.LOGS.equals(key);
     }
 
     @Override
@@ -306,23 +336,10 @@ public class SmartFunctionContext implements DataPrepContext {
 
     @Override
     public void clearState() {
-        if (stateStore != null && mappingIdentifier != null) {
-            stateStore.saveState(tenant, mappingIdentifier, getPersistableState());
-        }
+        // Stored keys are written through on each setState, only the local state is dropped
         state.clear();
     }
 
-    /**
-     * Returns a copy of the state map with ephemeral keys ({@code _WARNINGS_},
-     * {@code _LOGS_}) removed. Only this subset is persisted across invocations.
-     */
-    private Map<String, Object> getPersistableState() {
-        Map<String, Object> persistable = new HashMap<>(state);
-        persistable.remove(DataPrepContext.WARNINGS);
-        persistable.remove(DataPrepContext.LOGS);
-        return persistable;
-    }
-
     @Override
     public Boolean getTesting() {
         return testing;
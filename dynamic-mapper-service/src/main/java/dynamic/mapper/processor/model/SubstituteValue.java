@@ -26,6 +26,7 @@ import java.util.Map;
 import org.json.JSONException;
 
 import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
 
 import lombok.Getter;
@@ -69,6 +70,17 @@ public class SubstituteValue implements Cloneable {
     public static void substituteValueInPayload(SubstituteValue substitute,
             DocumentContext payloadTarget, String pathTarget)
             throws JSONException {
+        substituteValueInPayload(substitute, payloadTarget, pathTarget, null);
+    }
+
+    /**
+     * Same as {@link #substituteValueInPayload(SubstituteValue, DocumentContext, String)},
+     * but uses the pre-compiled JSONPath of the target if given, see
+     * {@link CompiledTargetTemplate.TargetSlot}.
+     */
+    static void substituteValueInPayload(SubstituteValue substitute,
+            DocumentContext payloadTarget, String pathTarget, JsonPath compiledTarget)
+            throws JSONException {
         boolean subValueMissingOrNull = substitute == null || substitute.value == null;
         // TODO fix this, we have to differentiate between {"nullField": null } and
         // "nonExisting"
@@ -87,10 +99,16 @@ public class SubstituteValue implements Cloneable {
             } else {
                 if ((substitute.repairStrategy.equals(RepairStrategy.REMOVE_IF_MISSING_OR_NULL)
                         && subValueMissingOrNull)) {
-                    payloadTarget.delete(pathTarget);
+                    if (compiledTarget != null) {
+                        payloadTarget.delete(compiledTarget);
+                    } else {
+                        payloadTarget.delete(pathTarget);
+                    }
                 } else if (substitute.repairStrategy.equals(RepairStrategy.CREATE_IF_MISSING)) {
                     // jsonObject.put("$", keys, sub.value);
                     SubstitutionEvaluation.addNestedValue(payloadTarget, pathTarget, substitute.value);
+                } else if (compiledTarget != null) {
+                    payloadTarget.set(compiledTarget, substitute.value);
                 } else {
                     payloadTarget.set(pathTarget, substitute.value);
                 }
@@ -20,8 +20,6 @@
  */
 package dynamic.mapper.processor.outbound;
 
-import static com.dashjoin.jsonata.Jsonata.jsonata;
-
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
@@ -51,6 +49,7 @@ import dynamic.mapper.processor.model.C8YMessage;
 import dynamic.mapper.processor.model.ProcessingContext;
 import dynamic.mapper.processor.model.ProcessingResultWrapper;
 import dynamic.mapper.service.MappingService;
+import dynamic.mapper.service.cache.JsonataExpressionCache;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -184,7 +183,7 @@ public class CamelDispatcherOutbound implements NotificationCallback {
         
         // Extract source ID
         try {
-            var expression = jsonata(notification.getApi().identifier);
+            var expression = JsonataExpressionCache.getSystemExpression(notification.getApi().identifier);
             Object sourceIdResult = expression.evaluate(parsedPayload);
             String sourceId = (sourceIdResult instanceof String) ? (String) sourceIdResult : null;
             c8yMessage.setSourceId(sourceId);
@@ -264,7 +263,7 @@ public class CamelDispatcherOutbound implements NotificationCallback {
             // Update unspecified mapping status
             MappingStatus mappingStatusUnspecified = mappingService.getMappingStatus(tenant, Mapping.UNSPECIFIED_MAPPING);
             if (mappingStatusUnspecified != null) {
-                mappingStatusUnspecified.errors++;
+                mappingStatusUnspecified.incrementErrors();
             }
             
             return result;
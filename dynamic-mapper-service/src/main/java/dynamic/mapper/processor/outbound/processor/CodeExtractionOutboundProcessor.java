@@ -136,7 +136,7 @@ public class CodeExtractionOutboundProcessor extends AbstractCodeExtractionProce
 
         if (!context.getTesting()) {
             MappingStatus mappingStatus = mappingService.getMappingStatus(tenant, mapping);
-            mappingStatus.errors++;
+            mappingStatus.incrementErrors();
             mappingService.increaseAndHandleFailureCount(tenant, mapping, mappingStatus);
             context.setIgnoreFurtherProcessing(true);
         }
@@ -235,7 +235,7 @@ public class ExtensibleOutboundProcessor extends AbstractExtensibleProcessor {
 
         if (!testing) {
             MappingStatus mappingStatus = mappingService.getMappingStatus(tenant, mapping);
-            mappingStatus.errors++;
+            mappingStatus.incrementErrors();
             mappingService.increaseAndHandleFailureCount(tenant, mapping, mappingStatus);
         }
     }
@@ -20,8 +20,6 @@
  */
 package dynamic.mapper.processor.outbound.processor;
 
-import static com.dashjoin.jsonata.Jsonata.jsonata;
-
 import org.springframework.stereotype.Component;
 
 import dynamic.mapper.model.Mapping;
@@ -31,6 +29,7 @@ import dynamic.mapper.processor.AbstractJSONataExtractionProcessor;
 import dynamic.mapper.processor.ProcessingException;
 import dynamic.mapper.processor.model.ProcessingContext;
 import dynamic.mapper.service.MappingService;
+import dynamic.mapper.service.cache.MappingCacheManager;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -43,8 +42,9 @@ import lombok.extern.slf4j.Slf4j;
 @Component
 public class JSONataExtractionOutboundProcessor extends AbstractJSONataExtractionProcessor {
 
-    public JSONataExtractionOutboundProcessor(MappingService mappingService) {
-        super(mappingService);
+    public JSONataExtractionOutboundProcessor(MappingService mappingService,
+            MappingCacheManager mappingCacheManager) {
+        super(mappingService, mappingCacheManager);
     }
 
     @Override
@@ -54,7 +54,8 @@ public class JSONataExtractionOutboundProcessor extends AbstractJSONataExtractio
                                               String payloadAsString) {
         Object extractedSourceContent = null;
         try {
-            var expr = jsonata(substitution.getPathSource());
+            var expr = mappingCacheManager.getCompiledExpression(context.getTenant(), context.getMapping(),
+                    substitution.getPathSource());
             extractedSourceContent = expr.evaluate(payloadObject);
         } catch (Exception e) {
             log.error("{} - EvaluateRuntimeException for: {}, {}: ", context.getTenant(),
@@ -71,7 +72,7 @@ public class JSONataExtractionOutboundProcessor extends AbstractJSONataExtractio
         log.error(errorMessage, e);
         MappingStatus mappingStatus = mappingService.getMappingStatus(tenant, mapping);
         context.addError(new ProcessingException(errorMessage, e));
-        mappingStatus.errors++;
+        mappingStatus.incrementErrors();
         mappingService.increaseAndHandleFailureCount(tenant, mapping, mappingStatus);
     }
 
@@ -43,6 +43,7 @@ import dynamic.mapper.model.API;
 import dynamic.mapper.model.Mapping;
 import dynamic.mapper.model.MappingStatus;
 import dynamic.mapper.processor.ProcessingException;
+import dynamic.mapper.processor.model.CompiledTargetTemplate;
 import dynamic.mapper.processor.model.DynamicMapperRequest;
 import dynamic.mapper.processor.model.ProcessingContext;
 import dynamic.mapper.processor.model.RepairStrategy;
@@ -50,6 +51,7 @@ import dynamic.mapper.processor.model.SubstituteValue;
 import dynamic.mapper.processor.model.SubstituteValue.TYPE;
 import dynamic.mapper.processor.util.ProcessingResultHelper;
 import dynamic.mapper.service.MappingService;
+import dynamic.mapper.service.cache.MappingCacheManager;
 import dynamic.mapper.util.Utils;
 import lombok.extern.slf4j.Slf4j;
 
@@ -60,12 +62,26 @@ import com.cumulocity.rest.representation.inventory.ManagedObjectRepresentation;
 @Component
 public class SubstitutionOutboundProcessor extends BaseProcessor {
 
+    private static final JsonPath TOPIC_LEVEL_PATH = JsonPath.compile("$." + Mapping.TOKEN_TOPIC_LEVEL);
+    private static final JsonPath CONTEXT_DATA_PATH = JsonPath.compile("$." + Mapping.TOKEN_CONTEXT_DATA);
+    private static final JsonPath CONTEXT_DATA_KEY_PATH = JsonPath
+            .compile(String.format("$.%s.%s", Mapping.TOKEN_CONTEXT_DATA, Mapping.CONTEXT_DATA_KEY_NAME));
+    private static final JsonPath CONTEXT_DATA_METHOD_PATH = JsonPath
+            .compile(String.format("$.%s.%s", Mapping.TOKEN_CONTEXT_DATA, Mapping.CONTEXT_DATA_METHOD_NAME));
+    private static final JsonPath CONTEXT_DATA_PUBLISH_TOPIC_PATH = JsonPath
+            .compile(String.format("$.%s.%s", Mapping.TOKEN_CONTEXT_DATA, "publishTopic"));
+    private static final JsonPath CONTEXT_DATA_RETAIN_PATH = JsonPath
+            .compile(String.format("$.%s.%s", Mapping.TOKEN_CONTEXT_DATA, ProcessingContext.RETAIN));
+
     @Autowired
     private C8YAgent c8yAgent;
 
     @Autowired
     private MappingService mappingService;
 
+    @Autowired
+    private MappingCacheManager mappingCacheManager;
+
     @Override
     public void process(Exchange exchange) throws Exception {
         ProcessingContext<?> context = exchange.getIn().getHeader("processingContext", ProcessingContext.class);
@@ -81,7 +97,7 @@ public class SubstitutionOutboundProcessor extends BaseProcessor {
             log.error(errorMessage, e);
             MappingStatus mappingStatus = mappingService.getMappingStatus(tenant, mapping);
             context.addError(new ProcessingException(errorMessage, e));
-            mappingStatus.errors++;
+            mappingStatus.incrementErrors();
             mappingService.increaseAndHandleFailureCount(tenant, mapping, mappingStatus);
         }
 
@@ -101,11 +117,9 @@ public class SubstitutionOutboundProcessor extends BaseProcessor {
 
         Map<String, List<SubstituteValue>> processingCache = context.getProcessingCache();
         Set<String> pathTargets = processingCache.keySet();
-        String targetTemplate = mapping.getTargetTemplate();
-        if (mapping.getTargetTemplate().startsWith("[")) {
-            targetTemplate = "{ \"TempArray\": " + mapping.getTargetTemplate() + "}";
-        }
-        DocumentContext payloadTarget = JsonPath.parse(targetTemplate);
+        // Parsed once per mapping version, array templates are wrapped in TempArray
+        CompiledTargetTemplate compiledTemplate = mappingCacheManager.getCompiledTargetTemplate(tenant, mapping);
+        DocumentContext payloadTarget = compiledTemplate.newDocument();
         /*
          * step 0 patch payload with dummy property _TOPIC_LEVEL_ in case the content
          * is required in the payload for a substitution
@@ -139,8 +153,8 @@ public class SubstitutionOutboundProcessor extends BaseProcessor {
                 substitute = processingCache.get(pathTarget).get(0).clone();
             }
             if (pathTarget.startsWith("["))
-                pathTarget = "$.TempArray" + pathTarget;
-            SubstituteValue.substituteValueInPayload(substitute, payloadTarget, pathTarget);
+                pathTarget = "$." + CompiledTargetTemplate.TEMP_ARRAY + pathTarget;
+            compiledTemplate.getSlot(pathTarget).apply(substitute, payloadTarget);
         }
 
         /*
@@ -148,7 +162,7 @@ public class SubstitutionOutboundProcessor extends BaseProcessor {
          */
         if (Arrays.stream(API.values()).anyMatch(v -> mapping.getTargetAPI().equals(v))) {
             // if (!mapping.getTargetAPI().equals(API.INVENTORY)) {
-            List<String> topicLevels = payloadTarget.read(Mapping.TOKEN_TOPIC_LEVEL);
+            List<String> topicLevels = payloadTarget.read(TOPIC_LEVEL_PATH);
             if (topicLevels != null && topicLevels.size() > 0) {
                 // now merge the replaced topic levels
                 MutableInt c = new MutableInt(0);
@@ -178,17 +192,14 @@ public class SubstitutionOutboundProcessor extends BaseProcessor {
             }
 
             // remove TOPIC_LEVEL
-            payloadTarget.delete("$." + Mapping.TOKEN_TOPIC_LEVEL);
+            payloadTarget.delete(TOPIC_LEVEL_PATH);
             RequestMethod method = RequestMethod.POST;
-            String key = payloadTarget
-                    .read(String.format("$.%s.%s", Mapping.TOKEN_CONTEXT_DATA, Mapping.CONTEXT_DATA_KEY_NAME));
+            String key = payloadTarget.read(CONTEXT_DATA_KEY_PATH);
             context.setKey(key);
 
             // extract method
             try {
-                String methodString = payloadTarget
-                        .read(String.format("$.%s.%s", Mapping.TOKEN_CONTEXT_DATA,
-                                Mapping.CONTEXT_DATA_METHOD_NAME));
+                String methodString = payloadTarget.read(CONTEXT_DATA_METHOD_PATH);
                 method = RequestMethod.resolve(methodString.toUpperCase());
             } catch (Exception e) {
                 // method is not defined or unknown, so we assume "POST"
@@ -196,8 +207,7 @@ public class SubstitutionOutboundProcessor extends BaseProcessor {
 
             // extract publishTopic
             try {
-                String publishTopic = payloadTarget
-                        .read(String.format("$.%s.%s", Mapping.TOKEN_CONTEXT_DATA, "publishTopic"));
+                String publishTopic = payloadTarget.read(CONTEXT_DATA_PUBLISH_TOPIC_PATH);
                 if (publishTopic != null && !publishTopic.equals(""))
                     context.setResolvedPublishTopic(publishTopic);
             } catch (Exception e) {
@@ -207,15 +217,14 @@ public class SubstitutionOutboundProcessor extends BaseProcessor {
 
             // extract retain
             try {
-                Boolean retain = payloadTarget
-                        .read(String.format("$.%s.%s", Mapping.TOKEN_CONTEXT_DATA, ProcessingContext.RETAIN));
+                Boolean retain = payloadTarget.read(CONTEXT_DATA_RETAIN_PATH);
                 if (retain != null)
                     context.setRetain(retain);
             } catch (Exception e) {
                 // ignore if not defined
             }
             // remove TOKEN_CONTEXT_DATA
-            payloadTarget.delete("$." + Mapping.TOKEN_CONTEXT_DATA);
+            payloadTarget.delete(CONTEXT_DATA_PATH);
             DynamicMapperRequest dynamicMapperRequest = ProcessingResultHelper.createAndAddDynamicMapperRequest(context,
                     payloadTarget.jsonString(), null, mapping);
             dynamicMapperRequest.setMethod(method);
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.processor.util;
+
+import java.util.Base64;
+
+import org.graalvm.polyglot.Source;
+
+import dynamic.mapper.model.Mapping;
+
+/**
+ * Builds the GraalVM {@link Source} for the JavaScript code of a mapping.
+ *
+ * <p>In ESM mode the code is evaluated as an ES module ({@code .mjs}) and the
+ * function is read from the module namespace. In flat-script mode export and
+ * import statements are stripped and the code is wrapped in an IIFE that
+ * publishes the function on {@code globalThis}, so that top-level declarations
+ * of bundled libraries stay scoped to the mapping.</p>
+ */
+public class JavaScriptSourceFactory {
+
+    private JavaScriptSourceFactory() {
+    }
+
+    /**
+     * @param mapping      the mapping holding the Base64 encoded code
+     * @param functionName the function the code has to define, e.g.
+     *                     {@link Mapping#SMART_FUNCTION_NAME} or {@link Mapping#EXTRACT_FROM_SOURCE}
+     * @param supportESM   evaluate the code as ES module
+     */
+    public static Source createMappingSource(Mapping mapping, String functionName, boolean supportESM) {
+        String identifier = functionName + "_" + mapping.getIdentifier();
+        String decodedCode = new String(Base64.getDecoder().decode(mapping.getCode()));
+
+        if (supportESM) {
+            return Source.newBuilder("js", decodedCode, identifier + ".mjs")
+                    .cached(true)
+                    .buildLiteral();
+        }
+        decodedCode = JavaScriptModuleStripper.toPlainScript(decodedCode);
+        String wrappedCode = "(function() {\n"
+                + decodedCode + "\n"
+                + "globalThis['" + functionName + "'] = " + functionName + ";\n"
+                + "})();";
+        return Source.newBuilder("js", wrappedCode, identifier + ".js")
+                .cached(true)
+                .buildLiteral();
+    }
+}
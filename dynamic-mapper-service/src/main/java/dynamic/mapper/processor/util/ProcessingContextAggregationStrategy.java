@@ -25,18 +25,28 @@ import java.util.List;
 
 import org.apache.camel.AggregationStrategy;
 import org.apache.camel.Exchange;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import dynamic.mapper.processor.model.ProcessingContext;
+import dynamic.mapper.service.MappingService;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Component
 public class ProcessingContextAggregationStrategy implements AggregationStrategy {
 
+    @Autowired
+    private MappingService mappingService;
+
     @Override
     public Exchange aggregate(Exchange oldExchange, Exchange newExchange) {
         ProcessingContext<?> newContext = newExchange.getIn().getBody(ProcessingContext.class);
+        if (newContext != null) {
+            // Processing of the message by this mapping is complete
+            mappingService.recordMappingProcessingTime(newContext.getTenant(), newContext.getMapping(),
+                    System.nanoTime() - newContext.getProcessingStartTime());
+        }
 
         if (oldExchange == null) {
             // First result
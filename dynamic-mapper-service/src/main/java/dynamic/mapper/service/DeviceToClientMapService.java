@@ -25,6 +25,7 @@ import com.cumulocity.microservice.subscription.service.MicroserviceSubscription
 import com.cumulocity.model.idtype.GId;
 import com.cumulocity.rest.representation.inventory.ManagedObjectRepresentation;
 import dynamic.mapper.core.ConfigurationRegistry;
+import dynamic.mapper.core.cache.DeviceToClientIndex;
 import dynamic.mapper.core.facade.InventoryFacade;
 import dynamic.mapper.model.DeviceToClientMapRepresentation;
 import lombok.RequiredArgsConstructor;
@@ -47,15 +48,24 @@ public class DeviceToClientMapService {
     private final MicroserviceSubscriptionsService subscriptionsService;
 
     /**
-     * Sends the device-to-client map to inventory
+     * Sends the device-to-client map to inventory, if it changed since the last
+     * time it was sent
      */
     public void sendToInventory(String tenant) {
-        Map<String, String> clientToDeviceMap = configurationRegistry.getAllClientRelations(tenant);
-        
-        if (clientToDeviceMap == null) {
+        DeviceToClientIndex index = configurationRegistry.getDeviceToClientIndex(tenant);
+
+        if (index == null) {
             log.debug("{} - No device-to-client map to send", tenant);
             return;
         }
+        if (!index.hasUnpersistedChanges()) {
+            log.debug("{} - Device-to-client map unchanged, skipping update", tenant);
+            return;
+        }
+
+        // Read the version before copying the relations, changes made meanwhile are sent next time
+        long version = index.getVersion();
+        Map<String, String> clientToDeviceMap = index.snapshot();
 
         subscriptionsService.runForTenant(tenant, () -> {
             String deviceToClientMapId = configurationRegistry.getDeviceToClientMapId(tenant);
@@ -70,6 +80,7 @@ public class DeviceToClientMapService {
             updateMor.setAttrs(fragment);
 
             inventoryApi.update(updateMor, false);
+            index.markPersisted(version);
         });
     }
 }
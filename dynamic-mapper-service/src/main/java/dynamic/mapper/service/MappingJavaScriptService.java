@@ -47,6 +47,7 @@ public class MappingJavaScriptService {
      * Removes JavaScript code from the GraalVM engine
      */
     public void removeCodeFromEngine(String tenant, Mapping mapping) {
+        configurationRegistry.removeGraalContextPool(tenant, mapping.getIdentifier());
         if (mapping.getCode() == null || mapping.getCode().isBlank()) {
             return;
         }
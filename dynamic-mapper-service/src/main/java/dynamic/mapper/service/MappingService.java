@@ -27,6 +27,7 @@ import com.cumulocity.rest.representation.inventory.ManagedObjectRepresentation;
 import com.cumulocity.sdk.client.SDKException;
 import com.cumulocity.sdk.client.inventory.InventoryFilter;
 import com.cumulocity.sdk.client.inventory.ManagedObjectCollection;
+import com.dashjoin.jsonata.Jsonata;
 import dynamic.mapper.configuration.ConnectorId;
 import dynamic.mapper.configuration.ServiceConfiguration;
 import dynamic.mapper.core.ConfigurationRegistry;
@@ -573,6 +574,13 @@ public class MappingService {
         return resolverService.resolveInbound(tenant, topic);
     }
 
+    /**
+     * Returns the compiled JSONata expression of a mapping, compiled on first use
+     */
+    public Jsonata getCompiledExpression(String tenant, Mapping mapping, String expression) {
+        return cacheManager.getCompiledExpression(tenant, mapping, expression);
+    }
+
     /**
      * Resolves which outbound mappings match a C8Y message
      */
@@ -605,12 +613,26 @@ public class MappingService {
     }
 
     /**
-     * Sends mapping status to inventory
+     * Sends mapping status to inventory, if it changed since the last update
      */
     public void sendMappingStatus(String tenant) {
         statusService.sendStatusToInventory(tenant);
     }
 
+    /**
+     * Sends mapping status to inventory, even if it did not change
+     */
+    public void forceSendMappingStatus(String tenant) {
+        statusService.sendStatusToInventory(tenant, true);
+    }
+
+    /**
+     * Records the processing time of a message by a mapping
+     */
+    public void recordMappingProcessingTime(String tenant, Mapping mapping, long nanos) {
+        statusService.recordProcessingTime(tenant, mapping, nanos);
+    }
+
     /**
      * Increments failure count and potentially deactivates mapping
      */
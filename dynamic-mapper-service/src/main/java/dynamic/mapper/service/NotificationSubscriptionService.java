@@ -38,7 +38,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -69,17 +72,19 @@ public class NotificationSubscriptionService {
                             .getManagedObjectForId(tenant, childDevice.getId(), false);
                     configurationRegistry.getNotificationSubscriber()
                             .subscribeDeviceAndConnect(tenant, childMor, request.getApi(), subscription);
-
-                    // Pre-populate inventory cache for this device to ensure inventory filters work correctly
-                    log.debug("{} - Pre-populating inventory cache for device {} from subscription",
-                            tenant, childDevice.getId());
-                    configurationRegistry.getC8yAgent().getMOFromInventoryCache(tenant, childDevice.getId(), false);
                 }
             } else {
                 log.warn("{} - Device with id {} does not exist", tenant, device.getId());
             }
         }
 
+        // Pre-populate inventory cache for the devices to ensure inventory filters work correctly
+        log.debug("{} - Pre-populating inventory cache for {} devices from subscription",
+                tenant, allChildDevices.size());
+        configurationRegistry.getC8yAgent().prefetchMOsIntoInventoryCache(tenant,
+                allChildDevices.stream().map(Device::getId).collect(Collectors.toCollection(LinkedHashSet::new)),
+                false);
+
         return NotificationSubscriptionResponse.builder()
                 .api(request.getApi())
                 .subscriptionName(request.getSubscriptionName())
@@ -169,12 +174,14 @@ public class NotificationSubscriptionService {
                             childDevice.getId(), false);
                     configurationRegistry.getNotificationSubscriber().subscribeDeviceAndConnect(tenant, childDeviceMor,
                             request.getApi(), Utils.DYNAMIC_DEVICE_SUBSCRIPTION);
-
-                    // Pre-populate inventory cache for this device to ensure inventory filters work correctly
-                    log.debug("{} - Pre-populating inventory cache for device {} from group subscription",
-                            tenant, childDevice.getId());
-                    configurationRegistry.getC8yAgent().getMOFromInventoryCache(tenant, childDevice.getId(), false);
                 }
+
+                // Pre-populate inventory cache for the devices to ensure inventory filters work correctly
+                log.debug("{} - Pre-populating inventory cache for {} devices from group subscription",
+                        tenant, allChildDevices.size());
+                c8yAgent.prefetchMOsIntoInventoryCache(tenant,
+                        allChildDevices.stream().map(Device::getId).collect(Collectors.toCollection(LinkedHashSet::new)),
+                        false);
             }
 
             // Unsubscribe from removed groups
@@ -252,19 +259,21 @@ public class NotificationSubscriptionService {
     }
 
     private void processDeviceAdditions(String tenant, List<Device> devices, dynamic.mapper.model.API api) {
+        Set<String> subscribedIds = new LinkedHashSet<>();
         for (Device device : devices) {
             ManagedObjectRepresentation mor = configurationRegistry.getC8yAgent()
                     .getManagedObjectForId(tenant, device.getId(), false);
             if (mor != null) {
                 configurationRegistry.getNotificationSubscriber()
                         .subscribeDeviceAndConnect(tenant, mor, api, Utils.STATIC_DEVICE_SUBSCRIPTION);
-
-                // Pre-populate inventory cache for this device to ensure inventory filters work correctly
-                log.debug("{} - Pre-populating inventory cache for device {} from device addition",
-                        tenant, device.getId());
-                configurationRegistry.getC8yAgent().getMOFromInventoryCache(tenant, device.getId(), false);
+                subscribedIds.add(device.getId());
             }
         }
+
+        // Pre-populate inventory cache for the devices to ensure inventory filters work correctly
+        log.debug("{} - Pre-populating inventory cache for {} devices from device addition",
+                tenant, subscribedIds.size());
+        configurationRegistry.getC8yAgent().prefetchMOsIntoInventoryCache(tenant, subscribedIds, false);
     }
 
     private void processDeviceRemovals(String tenant, List<Device> devices) {
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+package dynamic.mapper.service.cache;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only log of flow state changes on the local disk, so that the state of
+ * Smart Functions survives a restart of the service.
+ *
+ * <p>Every line is a JSON {@link Record}. The log is replayed when the service
+ * starts. When it has grown to several times the size of the state it holds, it
+ * is rewritten with one record per entry and replaces the old log atomically.</p>
+ */
+@Slf4j
+class FlowStateSnapshot {
+
+    static final String FILE_NAME = "flow-state.log";
+
+    enum Operation {
+        PUT, REMOVE, CLEAR_MAPPING, CLEAR_TENANT
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static class Record {
+        private Operation op;
+        private String tenant;
+        private String mapping;
+        private String key;
+        private Object value;
+        private Long updatedAt;
+        private Long expiresAt;
+    }
+
+    // The log is compacted once it is this many times larger than a compacted log
+    private static final int COMPACTION_FACTOR = 4;
+    private static final long MIN_COMPACTION_SIZE = 1024 * 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path file;
+    private long compactedSize;
+    private boolean incomplete;
+
+    FlowStateSnapshot(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.file = directory.resolve(FILE_NAME);
+        this.compactedSize = Files.exists(file) ? Files.size(file) : 0;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return {@code true} when the last replay stopped at a record that could
+     *         not be read. The log has to be compacted before records are
+     *         appended, otherwise they are lost with the next replay.
+     */
+    boolean isIncomplete() {
+        return incomplete;
+    }
+
+    /**
+     * Reads all records in the order they were written. A partly written last
+     * line, e.g. after the pod was killed, ends the replay.
+     *
+     * @return number of records read
+     */
+    int replay(Consumer<Record> consumer) throws IOException {
+        incomplete = false;
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Record record;
+                try {
+                    record = objectMapper.readValue(line, Record.class);
+                } catch (IOException e) {
+                    log.warn("Flow state log {} ends with an incomplete record after {} records", file, count);
+                    incomplete = true;
+                    break;
+                }
+                consumer.accept(record);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    void append(List<Record> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            write(writer, records);
+        }
+    }
+
+    boolean needsCompaction() throws IOException {
+        return Files.exists(file)
+                && Files.size(file) > Math.max(MIN_COMPACTION_SIZE, compactedSize * COMPACTION_FACTOR);
+    }
+
+    /**
+     * Replaces the log with the given records, they describe the complete state.
+     */
+    void compact(List<Record> records) throws IOException {
+        Path tmp = file.resolveSibling(FILE_NAME + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            write(writer, records);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        compactedSize = Files.size(file);
+        incomplete = false;
+    }
+
+    private void write(BufferedWriter writer, List<Record> records) throws IOException {
+        for (Record record : records) {
+            String line;
+            try {
+                line = objectMapper.writeValueAsString(record);
+            } catch (IOException e) {
+                // Native state of Java extensions may hold values that are not JSON
+                log.debug("{} - Flow state key {} of mapping {} is not written to the log: {}",
+                        record.getTenant(), record.getKey(), record.getMapping(), e.getMessage());
+                continue;
+            }
+            writer.write(line);
+            writer.newLine();
+        }
+    }
+}
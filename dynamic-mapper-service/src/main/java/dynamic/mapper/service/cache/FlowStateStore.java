@@ -20,15 +20,29 @@
  */
 package dynamic.mapper.service.cache;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import dynamic.mapper.service.cache.FlowStateSnapshot.Operation;
+import dynamic.mapper.service.cache.FlowStateSnapshot.Record;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -39,82 +53,235 @@ import lombok.extern.slf4j.Slf4j;
  * Smart Function accumulate data across messages (e.g. counters, running
  * averages, min/max tracking).</p>
  *
- * <p><strong>Concurrency note:</strong> When the same mapping processes
- * multiple messages concurrently, state updates follow a last-writer-wins
- * policy. This is acceptable for statistical use cases but callers that require
- * strict consistency should add application-level guards.</p>
+ * <p>Reads and writes go to the store key by key, so messages processed
+ * concurrently for the same mapping only overwrite each other's keys, not the
+ * whole state. A read-modify-write of one key in a Smart Function is not atomic
+ * and follows a last-writer-wins policy.</p>
+ *
+ * <p>Maps and lists are copied when they are written and when they are read.
+ * Changing a value read from the store has no effect until it is written back
+ * with {@link #setState}.</p>
+ *
+ * <p>A key can expire after its own time to live. Entries that were not written
+ * within the flow state retention of the tenant are removed by the cache-cleanup
+ * job. A mapping holds at most {@code APP.flowStateMaxKeysPerMapping} keys,
+ * further keys are rejected.</p>
  *
  * <p>State is cleared automatically when a mapping is deleted
  * ({@link #clearMappingState}) or a tenant is removed
  * ({@link #clearTenantState}).</p>
  *
- * <p>State does <em>not</em> survive a JVM restart.</p>
+ * <p>State survives a restart of the service only when
+ * {@code APP.flowStateSnapshotDirectory} is set. Changed keys are then appended
+ * to a log in this directory every {@code APP.flowStateSnapshotIntervalSeconds}
+ * and the log is replayed on start, values that cannot be written as JSON are
+ * not kept.</p>
  */
 @Service
 @Slf4j
 public class FlowStateStore {
 
-    // Structure: <tenant, <mappingIdentifier, <key, value>>>
-    private final ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<String, Object>>> store =
+    private static final class StateEntry {
+        private final Object value;
+        private final long updatedAt;
+        // 0 when the entry does not expire
+        private final long expiresAt;
+
+        StateEntry(Object value, long updatedAt, long expiresAt) {
+            this.value = value;
+            this.updatedAt = updatedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt > 0 && expiresAt <= now;
+        }
+    }
+
+    private static final class MappingState {
+        private final ConcurrentHashMap<String, StateEntry> entries = new ConcurrentHashMap<>();
+        // Keys changed since the last snapshot
+        private final Set<String> dirtyKeys = ConcurrentHashMap.newKeySet();
+        private volatile boolean limitReported;
+    }
+
+    @Value("${APP.flowStateMaxKeysPerMapping:10000}")
+    private int maxKeysPerMapping = 10000;
+
+    @Value("${APP.flowStateSnapshotDirectory:}")
+    private String snapshotDirectory = "";
+
+    @Value("${APP.flowStateSnapshotIntervalSeconds:10}")
+    private int snapshotIntervalSeconds = 10;
+
+    // Structure: <tenant, <mappingIdentifier, state>>
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, MappingState>> store =
             new ConcurrentHashMap<>();
 
-    // Tracks the last time state was saved per tenant for TTL expiry
-    private final ConcurrentHashMap<String, Instant> lastSavedAt = new ConcurrentHashMap<>();
+    // Clear operations not yet written to the snapshot, guarded by snapshotLock
+    private final ConcurrentLinkedQueue<Record> pendingClears = new ConcurrentLinkedQueue<>();
+    private final Object snapshotLock = new Object();
+
+    private FlowStateSnapshot snapshot;
+    private ScheduledExecutorService snapshotExecutor;
+
+    @PostConstruct
+    public void initSnapshot() {
+        if (snapshotDirectory == null || snapshotDirectory.isBlank()) {
+            return;
+        }
+        try {
+            snapshot = new FlowStateSnapshot(Path.of(snapshotDirectory));
+            int records = snapshot.replay(this::applyRecord);
+            if (snapshot.isIncomplete()) {
+                // Drop the unreadable tail, records appended after it would not be replayed
+                snapshot.compact(allRecords());
+            }
+            log.info("Restored flow state from {} ({} records)", snapshot.getFile(), records);
+        } catch (IOException e) {
+            log.error("Flow state snapshot in {} disabled: {}", snapshotDirectory, e.getMessage(), e);
+            snapshot = null;
+            return;
+        }
+        snapshotExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "flow-state-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        snapshotExecutor.scheduleWithFixedDelay(this::writeSnapshot, snapshotIntervalSeconds,
+                snapshotIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (snapshotExecutor != null) {
+            snapshotExecutor.shutdownNow();
+            writeSnapshot();
+        }
+    }
 
     /**
-     * Loads the persisted state for a mapping.
+     * Returns the value of a key. Maps and lists are returned as copies.
      *
-     * @param tenant            the tenant identifier
-     * @param mappingIdentifier the mapping's short identifier
-     * @return a defensive copy of the stored state (never {@code null})
+     * @return the value, or {@code null} if the key is not set or has expired
      */
-    public Map<String, Object> loadState(String tenant, String mappingIdentifier) {
-        if (tenant == null || mappingIdentifier == null) {
-            return Collections.emptyMap();
+    public Object getState(String tenant, String mappingIdentifier, String key) {
+        MappingState mappingState = getMappingState(tenant, mappingIdentifier);
+        if (mappingState == null || key == null) {
+            return null;
+        }
+        StateEntry entry = mappingState.entries.get(key);
+        if (entry == null) {
+            return null;
         }
-        ConcurrentHashMap<String, Object> mappingState = store
-                .computeIfAbsent(tenant, k -> new ConcurrentHashMap<>())
-                .computeIfAbsent(mappingIdentifier, k -> new ConcurrentHashMap<>());
-        return new HashMap<>(mappingState);
+        if (entry.isExpired(System.currentTimeMillis())) {
+            if (mappingState.entries.remove(key, entry)) {
+                mappingState.dirtyKeys.add(key);
+            }
+            return null;
+        }
+        return mutableCopy(entry.value);
     }
 
     /**
-     * Saves the state for a mapping, replacing any previously stored state.
+     * Sets the value of a key without expiry.
      *
-     * @param tenant            the tenant identifier
-     * @param mappingIdentifier the mapping's short identifier
-     * @param state             the state map to persist (may be empty, not {@code null})
+     * @see #setState(String, String, String, Object, Duration)
      */
-    public void saveState(String tenant, String mappingIdentifier, Map<String, Object> state) {
-        if (tenant == null || mappingIdentifier == null || state == null) {
-            return;
+    public boolean setState(String tenant, String mappingIdentifier, String key, Object value) {
+        return setState(tenant, mappingIdentifier, key, value, null);
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param value {@code null} removes the key
+     * @param ttl   time after which the key expires, {@code null} or zero for no
+     *              expiry
+     * @return {@code false} when a new key is rejected, because the mapping
+     *         already holds the maximum number of keys
+     */
+    public boolean setState(String tenant, String mappingIdentifier, String key, Object value, Duration ttl) {
+        if (tenant == null || mappingIdentifier == null || key == null) {
+            return false;
+        }
+        if (value == null) {
+            removeState(tenant, mappingIdentifier, key);
+            return true;
+        }
+        MappingState mappingState = getOrCreateMappingState(tenant, mappingIdentifier);
+        if (!mappingState.entries.containsKey(key) && mappingState.entries.size() >= maxKeysPerMapping) {
+            removeExpired(mappingState, System.currentTimeMillis(), 0);
+            if (mappingState.entries.size() >= maxKeysPerMapping) {
+                if (!mappingState.limitReported) {
+                    mappingState.limitReported = true;
+                    log.warn("{} - Flow state of mapping {} reached the limit of {} keys, new keys are rejected",
+                            tenant, mappingIdentifier, maxKeysPerMapping);
+                }
+                return false;
+            }
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = ttl != null && !ttl.isZero() && !ttl.isNegative() ? now + ttl.toMillis() : 0;
+        mappingState.entries.put(key, new StateEntry(immutableCopy(value), now, expiresAt));
+        mappingState.dirtyKeys.add(key);
+        return true;
+    }
+
+    public void removeState(String tenant, String mappingIdentifier, String key) {
+        MappingState mappingState = getMappingState(tenant, mappingIdentifier);
+        if (mappingState != null && key != null && mappingState.entries.remove(key) != null) {
+            mappingState.dirtyKeys.add(key);
+            mappingState.limitReported = false;
+        }
+    }
+
+    /**
+     * Returns a copy of all keys of a mapping that have not expired.
+     *
+     * @return the state (never {@code null})
+     */
+    public Map<String, Object> getStateAll(String tenant, String mappingIdentifier) {
+        MappingState mappingState = getMappingState(tenant, mappingIdentifier);
+        if (mappingState == null) {
+            return Collections.emptyMap();
         }
-        ConcurrentHashMap<String, Object> mappingState = store
-                .computeIfAbsent(tenant, k -> new ConcurrentHashMap<>())
-                .computeIfAbsent(mappingIdentifier, k -> new ConcurrentHashMap<>());
-        mappingState.clear();
-        mappingState.putAll(state);
-        lastSavedAt.put(tenant, Instant.now());
-        log.debug("{} - Saved flow state for mapping {}: {} keys", tenant, mappingIdentifier, state.size());
+        long now = System.currentTimeMillis();
+        Map<String, Object> result = new HashMap<>();
+        mappingState.entries.forEach((key, entry) -> {
+            if (!entry.isExpired(now)) {
+                result.put(key, mutableCopy(entry.value));
+            }
+        });
+        return result;
     }
 
     /**
-     * Clears all state for a tenant if it has not been updated within the given retention window.
+     * Removes the keys of a tenant that have expired or were not written within
+     * the given retention window.
      * Called by the scheduled cache-cleanup job.
      *
      * @param tenant           the tenant identifier
-     * @param retentionMinutes number of minutes after the last save before state is expired; 0 disables TTL
+     * @param retentionMinutes number of minutes after the last write before an entry is expired; 0 disables the
+     *                         retention, keys with a time to live still expire
      */
     public void clearExpiredEntries(String tenant, int retentionMinutes) {
-        if (retentionMinutes <= 0 || tenant == null) {
+        if (tenant == null) {
             return;
         }
-        Instant lastSaved = lastSavedAt.get(tenant);
-        if (lastSaved != null &&
-                Duration.between(lastSaved, Instant.now()).compareTo(Duration.ofMinutes(retentionMinutes)) >= 0) {
-            clearTenantState(tenant);
-            lastSavedAt.remove(tenant);
-            log.info("{} - Cleared expired flow state (TTL: {} minutes)", tenant, retentionMinutes);
+        ConcurrentHashMap<String, MappingState> tenantStore = store.get(tenant);
+        if (tenantStore == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long writtenBefore = retentionMinutes > 0 ? now - Duration.ofMinutes(retentionMinutes).toMillis() : 0;
+        int removed = 0;
+        for (MappingState mappingState : tenantStore.values()) {
+            removed += removeExpired(mappingState, now, writtenBefore);
+        }
+        if (removed > 0) {
+            log.info("{} - Removed {} expired flow state entries (retention: {} minutes)", tenant, removed,
+                    retentionMinutes);
         }
     }
 
@@ -129,10 +296,16 @@ public class FlowStateStore {
         if (tenant == null || mappingIdentifier == null) {
             return;
         }
-        ConcurrentHashMap<String, ConcurrentHashMap<String, Object>> tenantStore = store.get(tenant);
-        if (tenantStore != null) {
-            tenantStore.remove(mappingIdentifier);
-            log.debug("{} - Cleared flow state for mapping {}", tenant, mappingIdentifier);
+        synchronized (snapshotLock) {
+            ConcurrentHashMap<String, MappingState> tenantStore = store.get(tenant);
+            if (tenantStore != null) {
+                tenantStore.remove(mappingIdentifier);
+                log.debug("{} - Cleared flow state for mapping {}", tenant, mappingIdentifier);
+            }
+            if (snapshot != null) {
+                pendingClears.add(new Record(Operation.CLEAR_MAPPING, tenant, mappingIdentifier, null, null, null,
+                        null));
+            }
         }
     }
 
@@ -146,7 +319,160 @@ public class FlowStateStore {
         if (tenant == null) {
             return;
         }
-        store.remove(tenant);
+        synchronized (snapshotLock) {
+            store.remove(tenant);
+            if (snapshot != null) {
+                pendingClears.add(new Record(Operation.CLEAR_TENANT, tenant, null, null, null, null, null));
+            }
+        }
         log.debug("{} - Cleared all flow state", tenant);
     }
+
+    /**
+     * Appends the keys changed since the last run to the snapshot log and
+     * compacts the log when it has grown too large.
+     */
+    void writeSnapshot() {
+        if (snapshot == null) {
+            return;
+        }
+        synchronized (snapshotLock) {
+            // Clears are only added under snapshotLock, so none arrive until they are written
+            List<Record> records = new ArrayList<>(pendingClears);
+            Map<MappingState, List<String>> writtenKeys = new HashMap<>();
+            try {
+                store.forEach((tenant, tenantStore) -> tenantStore.forEach((mappingIdentifier, mappingState) -> {
+                    for (String key : mappingState.dirtyKeys) {
+                        // Removed before reading, a concurrent write marks the key again
+                        mappingState.dirtyKeys.remove(key);
+                        writtenKeys.computeIfAbsent(mappingState, k -> new ArrayList<>()).add(key);
+                        StateEntry entry = mappingState.entries.get(key);
+                        records.add(entry != null
+                                ? new Record(Operation.PUT, tenant, mappingIdentifier, key, entry.value,
+                                        entry.updatedAt, entry.expiresAt > 0 ? entry.expiresAt : null)
+                                : new Record(Operation.REMOVE, tenant, mappingIdentifier, key, null, null, null));
+                    }
+                }));
+                snapshot.append(records);
+            } catch (Exception e) {
+                // Mark the keys again, they are written with the next run
+                writtenKeys.forEach((mappingState, keys) -> mappingState.dirtyKeys.addAll(keys));
+                log.warn("Failed to write flow state snapshot {}: {}", snapshot.getFile(), e.getMessage());
+                return;
+            }
+            pendingClears.clear();
+            try {
+                if (snapshot.needsCompaction()) {
+                    snapshot.compact(allRecords());
+                    log.debug("Compacted flow state log {}", snapshot.getFile());
+                }
+            } catch (Exception e) {
+                log.warn("Failed to compact flow state snapshot {}: {}", snapshot.getFile(), e.getMessage());
+            }
+        }
+    }
+
+    private List<Record> allRecords() {
+        long now = System.currentTimeMillis();
+        List<Record> records = new ArrayList<>();
+        store.forEach((tenant, tenantStore) -> tenantStore.forEach((mappingIdentifier, mappingState) -> mappingState.entries
+                .forEach((key, entry) -> {
+                    if (!entry.isExpired(now)) {
+                        records.add(new Record(Operation.PUT, tenant, mappingIdentifier, key, entry.value,
+                                entry.updatedAt, entry.expiresAt > 0 ? entry.expiresAt : null));
+                    }
+                })));
+        return records;
+    }
+
+    private void applyRecord(Record record) {
+        switch (record.getOp()) {
+            case PUT -> {
+                long expiresAt = record.getExpiresAt() != null ? record.getExpiresAt() : 0;
+                long updatedAt = record.getUpdatedAt() != null ? record.getUpdatedAt() : System.currentTimeMillis();
+                getOrCreateMappingState(record.getTenant(), record.getMapping()).entries.put(record.getKey(),
+                        new StateEntry(immutableCopy(record.getValue()), updatedAt, expiresAt));
+            }
+            case REMOVE -> {
+                MappingState mappingState = getMappingState(record.getTenant(), record.getMapping());
+                if (mappingState != null) {
+                    mappingState.entries.remove(record.getKey());
+                }
+            }
+            case CLEAR_MAPPING -> {
+                ConcurrentHashMap<String, MappingState> tenantStore = store.get(record.getTenant());
+                if (tenantStore != null) {
+                    tenantStore.remove(record.getMapping());
+                }
+            }
+            case CLEAR_TENANT -> store.remove(record.getTenant());
+        }
+    }
+
+    /**
+     * @param writtenBefore entries written before this time are removed as well,
+     *                      0 keeps them
+     * @return number of removed entries
+     */
+    private int removeExpired(MappingState mappingState, long now, long writtenBefore) {
+        int removed = 0;
+        for (Map.Entry<String, StateEntry> e : mappingState.entries.entrySet()) {
+            StateEntry entry = e.getValue();
+            if ((entry.isExpired(now) || entry.updatedAt < writtenBefore)
+                    && mappingState.entries.remove(e.getKey(), entry)) {
+                mappingState.dirtyKeys.add(e.getKey());
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            mappingState.limitReported = false;
+        }
+        return removed;
+    }
+
+    /**
+     * Copies maps and lists into unmodifiable collections, so a stored value
+     * cannot change while the snapshot writes it. Other values are kept as they
+     * are.
+     */
+    private static Object immutableCopy(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((k, v) -> copy.put(k, immutableCopy(v)));
+            return Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(v -> copy.add(immutableCopy(v)));
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    private static Object mutableCopy(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((k, v) -> copy.put(k, mutableCopy(v)));
+            return copy;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(v -> copy.add(mutableCopy(v)));
+            return copy;
+        }
+        return value;
+    }
+
+    private MappingState getMappingState(String tenant, String mappingIdentifier) {
+        if (tenant == null || mappingIdentifier == null) {
+            return null;
+        }
+        ConcurrentHashMap<String, MappingState> tenantStore = store.get(tenant);
+        return tenantStore != null ? tenantStore.get(mappingIdentifier) : null;
+    }
+
+    private MappingState getOrCreateMappingState(String tenant, String mappingIdentifier) {
+        return store.computeIfAbsent(tenant, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(mappingIdentifier, k -> new MappingState());
+    }
 }
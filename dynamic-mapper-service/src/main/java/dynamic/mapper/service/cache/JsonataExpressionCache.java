@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.service.cache;
+
+import static com.dashjoin.jsonata.Jsonata.jsonata;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.dashjoin.jsonata.Jsonata;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded cache of compiled JSONata expressions for one tenant.
+ * Entries are keyed by mapping id, mapping version (lastUpdate) and expression
+ * text, so an updated mapping never sees expressions compiled for an older
+ * version. Compiled {@link Jsonata} instances are safe for concurrent
+ * evaluation and can be shared between processing threads.
+ *
+ * <p>Backed by Caffeine, a full cache evicts the expressions used least
+ * recently and least often, so frequently evaluated expressions stay cached.</p>
+ */
+@Slf4j
+public class JsonataExpressionCache {
+
+    public static final int DEFAULT_CACHE_SIZE = 10000;
+
+    // Expressions not bound to a mapping, e.g. the source identifier of an API
+    private static final String NO_MAPPING = "";
+
+    // Structure: < API identifier, compiled expression >, shared by all tenants
+    private static final Map<String, Jsonata> systemExpressions = new ConcurrentHashMap<>();
+
+    private final Cache<ExpressionKey, Jsonata> cache;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+    private Gauge cacheSizeGauge = null;
+
+    private record ExpressionKey(String mappingId, long version, String expression) {
+    }
+
+    public JsonataExpressionCache(String tenant) {
+        this(DEFAULT_CACHE_SIZE, tenant);
+    }
+
+    public JsonataExpressionCache(int cacheSize, String tenant) {
+        Tags tag = Tags.of("tenant", tenant);
+        this.hitCounter = Counter.builder("dynmapper_jsonata_expression_cache_hits_total")
+                .description("Number of compiled JSONata expressions served from cache")
+                .tags(tag).register(Metrics.globalRegistry);
+        this.missCounter = Counter.builder("dynmapper_jsonata_expression_cache_misses_total")
+                .description("Number of JSONata expressions compiled because of a cache miss")
+                .tags(tag).register(Metrics.globalRegistry);
+        this.evictionCounter = Counter.builder("dynmapper_jsonata_expression_cache_evictions_total")
+                .description("Number of compiled JSONata expressions evicted because the cache was full")
+                .tags(tag).register(Metrics.globalRegistry);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize > 0 ? cacheSize : DEFAULT_CACHE_SIZE)
+                .removalListener((ExpressionKey key, Jsonata value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictionCounter.increment();
+                    }
+                })
+                .build();
+        this.cacheSizeGauge = Gauge.builder("dynmapper_jsonata_expression_cache_size", this.cache,
+                Cache::estimatedSize)
+                .tags(tag)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Returns the compiled expression for the given mapping version, compiling
+     * and caching it on first use. Compilation errors are propagated to the
+     * caller and nothing is cached for invalid expressions.
+     */
+    public Jsonata getExpression(String mappingId, long version, String expression) {
+        ExpressionKey key = new ExpressionKey(mappingId != null ? mappingId : NO_MAPPING, version, expression);
+        Jsonata compiled = cache.getIfPresent(key);
+        if (compiled != null) {
+            hitCounter.increment();
+            return compiled;
+        }
+        missCounter.increment();
+        return cache.get(key, k -> jsonata(expression));
+    }
+
+    /**
+     * Removes all expressions compiled for a mapping, regardless of version
+     */
+    public void invalidateMapping(String mappingId) {
+        if (mappingId == null) {
+            return;
+        }
+        cache.asMap().keySet().removeIf(key -> mappingId.equals(key.mappingId()));
+    }
+
+    public void clearCache() {
+        cache.invalidateAll();
+    }
+
+    public int getCacheSize() {
+        return (int) cache.estimatedSize();
+    }
+
+    public Gauge getCacheSizeGauge() {
+        return cacheSizeGauge;
+    }
+
+    /**
+     * Performs pending maintenance such as size-based eviction
+     */
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    /**
+     * Returns the compiled expression for a fixed, mapping independent
+     * expression such as {@code API.identifier}. The number of such
+     * expressions is small and constant, so this cache is not bounded.
+     */
+    public static Jsonata getSystemExpression(String expression) {
+        return systemExpressions.computeIfAbsent(expression, e -> jsonata(e));
+    }
+}
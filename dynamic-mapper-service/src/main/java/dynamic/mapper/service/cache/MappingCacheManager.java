@@ -22,13 +22,18 @@
 package dynamic.mapper.service.cache;
 
 import dynamic.mapper.configuration.ConnectorId;
+import dynamic.mapper.model.API;
 import dynamic.mapper.model.Direction;
 import dynamic.mapper.model.Mapping;
 import dynamic.mapper.model.MappingTreeNode;
 import dynamic.mapper.model.ResolveException;
+import dynamic.mapper.processor.model.CompiledTargetTemplate;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.dashjoin.jsonata.Jsonata;
+
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
@@ -51,6 +56,21 @@ public class MappingCacheManager {
     // Structure: <Tenant, MappingTreeNode>
     private final Map<String, MappingTreeNode> resolverMappingInbound = new ConcurrentHashMap<>();
 
+    // Structure: <Tenant, OutboundMappingIndex>
+    private final Map<String, OutboundMappingIndex> outboundIndexes = new ConcurrentHashMap<>();
+
+    // Structure: <Tenant, JsonataExpressionCache>
+    private final Map<String, JsonataExpressionCache> expressionCaches = new ConcurrentHashMap<>();
+
+    // Structure: <Tenant, <MappingId, CompiledTargetTemplate>>
+    private final Map<String, Map<String, CompiledTargetTemplate>> targetTemplates = new ConcurrentHashMap<>();
+
+    @Value("${APP.jsonataExpressionCacheSize:" + JsonataExpressionCache.DEFAULT_CACHE_SIZE + "}")
+    private int expressionCacheSize = JsonataExpressionCache.DEFAULT_CACHE_SIZE;
+
+    @Value("${APP.inboundTopicCacheSize:" + MappingTreeNode.DEFAULT_TOPIC_CACHE_SIZE + "}")
+    private int inboundTopicCacheSize = MappingTreeNode.DEFAULT_TOPIC_CACHE_SIZE;
+
     /**
      * Initializes cache structures for a tenant
      */
@@ -58,7 +78,10 @@ public class MappingCacheManager {
         cacheMappingInbound.put(tenant, new ConcurrentHashMap<>());
         cacheMappingOutbound.put(tenant, new ConcurrentHashMap<>());
         resolverMappingOutbound.put(tenant, new ConcurrentHashMap<>());
-        resolverMappingInbound.put(tenant, MappingTreeNode.createRootNode(tenant));
+        resolverMappingInbound.put(tenant, MappingTreeNode.createRootNode(tenant, inboundTopicCacheSize));
+        outboundIndexes.put(tenant, new OutboundMappingIndex());
+        expressionCaches.put(tenant, new JsonataExpressionCache(expressionCacheSize, tenant));
+        targetTemplates.put(tenant, new ConcurrentHashMap<>());
         
         log.debug("{} - Cache structures created", tenant);
     }
@@ -71,6 +94,9 @@ public class MappingCacheManager {
         cacheMappingOutbound.remove(tenant);
         resolverMappingInbound.remove(tenant);
         resolverMappingOutbound.remove(tenant);
+        outboundIndexes.remove(tenant);
+        expressionCaches.remove(tenant);
+        targetTemplates.remove(tenant);
         
         log.debug("{} - Cache structures removed", tenant);
     }
@@ -82,7 +108,10 @@ public class MappingCacheManager {
         getCacheInbound(tenant).clear();
         getCacheOutbound(tenant).clear();
         resolverMappingOutbound.get(tenant).clear();
-        resolverMappingInbound.put(tenant, MappingTreeNode.createRootNode(tenant));
+        resolverMappingInbound.put(tenant, MappingTreeNode.createRootNode(tenant, inboundTopicCacheSize));
+        getOutboundIndex(tenant).clear();
+        getExpressionCache(tenant).clearCache();
+        getTargetTemplates(tenant).clear();
         
         log.debug("{} - Cache cleared", tenant);
     }
@@ -99,7 +128,8 @@ public class MappingCacheManager {
         Map<String, Mapping> newCache = mappings.stream()
             .collect(Collectors.toMap(Mapping::getId, Function.identity()));
         
-        cacheMappingInbound.put(tenant, new ConcurrentHashMap<>(newCache));
+        Map<String, Mapping> oldCache = cacheMappingInbound.put(tenant, new ConcurrentHashMap<>(newCache));
+        invalidateExpressions(tenant, oldCache);
 
         // Rebuild resolver tree
         MappingTreeNode newTree = buildMappingTree(tenant, mappings);
@@ -113,6 +143,7 @@ public class MappingCacheManager {
      */
     public void addInboundMapping(String tenant, Mapping mapping) {
         getCacheInbound(tenant).put(mapping.getId(), mapping);
+        invalidateCompiled(tenant, mapping.getId());
         
         try {
             getResolverTreeInbound(tenant).addMapping(mapping);
@@ -127,6 +158,7 @@ public class MappingCacheManager {
      */
     public Optional<Mapping> removeInboundMapping(String tenant, String mappingId) {
         Mapping removed = getCacheInbound(tenant).remove(mappingId);
+        invalidateCompiled(tenant, mappingId);
         
         if (removed != null) {
             try {
@@ -200,7 +232,8 @@ public class MappingCacheManager {
         Map<String, Mapping> newCache = mappings.stream()
             .collect(Collectors.toMap(Mapping::getId, Function.identity()));
         
-        cacheMappingOutbound.put(tenant, new ConcurrentHashMap<>(newCache));
+        Map<String, Mapping> oldCache = cacheMappingOutbound.put(tenant, new ConcurrentHashMap<>(newCache));
+        invalidateExpressions(tenant, oldCache);
 
         // Rebuild resolver map
         Map<String, List<Mapping>> newResolver = mappings.stream()
@@ -208,6 +241,7 @@ public class MappingCacheManager {
             .collect(Collectors.groupingBy(Mapping::getFilterMapping));
         
         resolverMappingOutbound.put(tenant, new ConcurrentHashMap<>(newResolver));
+        outboundIndexes.put(tenant, new OutboundMappingIndex(mappings));
 
         return mappings;
     }
@@ -217,12 +251,14 @@ public class MappingCacheManager {
      */
     public void addOutboundMapping(String tenant, Mapping mapping) {
         getCacheOutbound(tenant).put(mapping.getId(), mapping);
+        invalidateCompiled(tenant, mapping.getId());
         
         if (mapping.getFilterMapping() != null) {
             resolverMappingOutbound.get(tenant)
                 .computeIfAbsent(mapping.getFilterMapping(), k -> new ArrayList<>())
                 .add(mapping);
         }
+        getOutboundIndex(tenant).addMapping(mapping);
         
         log.debug("{} - Added outbound mapping to cache: {}", tenant, mapping.getId());
     }
@@ -232,6 +268,8 @@ public class MappingCacheManager {
      */
     public Optional<Mapping> removeOutboundMapping(String tenant, String mappingId) {
         Mapping removed = getCacheOutbound(tenant).remove(mappingId);
+        invalidateCompiled(tenant, mappingId);
+        getOutboundIndex(tenant).removeMapping(mappingId);
         
         if (removed != null && removed.getFilterMapping() != null) {
             List<Mapping> mappingsForFilter = resolverMappingOutbound.get(tenant)
@@ -295,6 +333,14 @@ public class MappingCacheManager {
         return mappings != null ? new ArrayList<>(mappings) : Collections.emptyList();
     }
 
+    /**
+     * Gets the outbound mappings for an API whose message filter can match the
+     * payload, see {@link OutboundMappingIndex}
+     */
+    public List<Mapping> getOutboundMappingCandidates(String tenant, API api, Map<?, ?> payload) {
+        return getOutboundIndex(tenant).getCandidates(api, payload);
+    }
+
     // ========== Generic Operations ==========
 
     /**
@@ -327,8 +373,67 @@ public class MappingCacheManager {
         return inbound.isPresent() ? inbound : getOutboundMapping(tenant, mappingId);
     }
 
+    // ========== Expression Cache Operations ==========
+
+    /**
+     * Returns the compiled JSONata expression for a mapping, compiling it on first use.
+     * Cached expressions are dropped when the mapping is updated or deleted.
+     */
+    public Jsonata getCompiledExpression(String tenant, Mapping mapping, String expression) {
+        return getExpressionCache(tenant).getExpression(mapping.getId(), mapping.getLastUpdate(), expression);
+    }
+
+    /**
+     * Returns the parsed target template of a mapping, parsing it on first use.
+     * Templates are reparsed when the mapping is updated and dropped when it is
+     * deleted.
+     */
+    public CompiledTargetTemplate getCompiledTargetTemplate(String tenant, Mapping mapping) {
+        if (mapping.getId() == null) {
+            // Mappings that are not stored yet, e.g. when testing a new mapping
+            return CompiledTargetTemplate.compile(mapping);
+        }
+        Map<String, CompiledTargetTemplate> templates = getTargetTemplates(tenant);
+        CompiledTargetTemplate compiled = templates.get(mapping.getId());
+        if (compiled == null || !compiled.isCompiledFrom(mapping)) {
+            compiled = CompiledTargetTemplate.compile(mapping);
+            templates.put(mapping.getId(), compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Gets the size of the compiled expression cache for a tenant
+     */
+    public int getSizeExpressionCache(String tenant) {
+        JsonataExpressionCache expressionCache = expressionCaches.get(tenant);
+        return expressionCache != null ? expressionCache.getCacheSize() : 0;
+    }
+
     // ========== Helper Methods ==========
 
+    private JsonataExpressionCache getExpressionCache(String tenant) {
+        return expressionCaches.computeIfAbsent(tenant,
+                k -> new JsonataExpressionCache(expressionCacheSize, k));
+    }
+
+    private Map<String, CompiledTargetTemplate> getTargetTemplates(String tenant) {
+        return targetTemplates.computeIfAbsent(tenant, k -> new ConcurrentHashMap<>());
+    }
+
+    private void invalidateCompiled(String tenant, String mappingId) {
+        getExpressionCache(tenant).invalidateMapping(mappingId);
+        if (mappingId != null) {
+            getTargetTemplates(tenant).remove(mappingId);
+        }
+    }
+
+    private void invalidateExpressions(String tenant, Map<String, Mapping> previousMappings) {
+        if (previousMappings != null) {
+            previousMappings.keySet().forEach(mappingId -> invalidateCompiled(tenant, mappingId));
+        }
+    }
+
     private Map<String, Mapping> getCacheInbound(String tenant) {
         return cacheMappingInbound.computeIfAbsent(tenant, k -> new ConcurrentHashMap<>());
     }
@@ -337,12 +442,17 @@ public class MappingCacheManager {
         return cacheMappingOutbound.computeIfAbsent(tenant, k -> new ConcurrentHashMap<>());
     }
 
+    private OutboundMappingIndex getOutboundIndex(String tenant) {
+        return outboundIndexes.computeIfAbsent(tenant, k -> new OutboundMappingIndex());
+    }
+
     private MappingTreeNode getResolverTreeInbound(String tenant) {
-        return resolverMappingInbound.computeIfAbsent(tenant, MappingTreeNode::createRootNode);
+        return resolverMappingInbound.computeIfAbsent(tenant,
+                k -> MappingTreeNode.createRootNode(k, inboundTopicCacheSize));
     }
 
     private MappingTreeNode buildMappingTree(String tenant, List<Mapping> mappings) {
-        MappingTreeNode tree = MappingTreeNode.createRootNode(tenant);
+        MappingTreeNode tree = MappingTreeNode.createRootNode(tenant, inboundTopicCacheSize);
         
         for (Mapping mapping : mappings) {
             try {
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.service.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import dynamic.mapper.model.API;
+import dynamic.mapper.model.Mapping;
+
+/**
+ * Index of the outbound mappings of one tenant by target API and by a
+ * condition that can be derived from the message filter without evaluating
+ * it, so that only mappings that can possibly match a notification go through
+ * the full filter evaluation.
+ *
+ * <p>Supported conditions are {@code path = 'value'}, {@code $exists(path)},
+ * a bare {@code path} and comparisons of a path with a literal, also as one
+ * operand of a top-level {@code and}. Mappings with any other filter are
+ * always candidates for their API. The index only narrows the candidates;
+ * whether a mapping is active and its filters hold is still checked by the
+ * resolver.</p>
+ */
+public class OutboundMappingIndex {
+
+    private static final String PATH = "[A-Za-z_][A-Za-z0-9_]*(?:\\.[A-Za-z_][A-Za-z0-9_]*)*";
+    private static final String LITERAL = "(?:'[^'\\\\]*'|\"[^\"\\\\]*\"|-?\\d+(?:\\.\\d+)?|true|false)";
+
+    private static final Pattern EQUALS_PATH_LITERAL = Pattern
+            .compile("^(" + PATH + ")\\s*=\\s*(" + LITERAL + ")$");
+    private static final Pattern EQUALS_LITERAL_PATH = Pattern
+            .compile("^(" + LITERAL + ")\\s*=\\s*(" + PATH + ")$");
+    private static final Pattern COMPARE_PATH_LITERAL = Pattern
+            .compile("^(" + PATH + ")\\s*(?:>=|<=|>|<)\\s*" + LITERAL + "$");
+    private static final Pattern EXISTS_PATH = Pattern.compile("^\\$exists\\(\\s*(" + PATH + ")\\s*\\)$");
+    private static final Pattern BARE_PATH = Pattern.compile("^(" + PATH + ")$");
+
+    // Result of navigating a path through an array, JSONata maps the path over its elements
+    private static final Object AMBIGUOUS = new Object();
+    private static final Object ABSENT = new Object();
+
+    /**
+     * Condition a message has to fulfil for the filter of a mapping to match.
+     * A null value means the path only has to exist.
+     */
+    record IndexKey(API api, String path, String value) {
+    }
+
+    private static class ApiIndex {
+        // Structure: < MappingId, Mapping >
+        private final Map<String, Mapping> unconstrained = new ConcurrentHashMap<>();
+        // Structure: < Path, < MappingId, Mapping > >
+        private final Map<String, Map<String, Mapping>> byPresence = new ConcurrentHashMap<>();
+        // Structure: < Path, < Value, < MappingId, Mapping > > >
+        private final Map<String, Map<String, Map<String, Mapping>>> byValue = new ConcurrentHashMap<>();
+    }
+
+    private final Map<API, ApiIndex> apiIndexes = new ConcurrentHashMap<>();
+
+    // Structure: < MappingId, IndexKey >, to remove a mapping from where it was indexed
+    private final Map<String, IndexKey> indexedKeys = new ConcurrentHashMap<>();
+
+    public OutboundMappingIndex() {
+    }
+
+    public OutboundMappingIndex(Collection<Mapping> mappings) {
+        mappings.forEach(this::addMapping);
+    }
+
+    public synchronized void addMapping(Mapping mapping) {
+        removeMapping(mapping.getId());
+        if (mapping.getTargetAPI() == null) {
+            return;
+        }
+        IndexKey key = analyzeFilter(mapping.getTargetAPI(), mapping.getFilterMapping());
+        ApiIndex apiIndex = apiIndexes.computeIfAbsent(key.api(), k -> new ApiIndex());
+        if (key.path() == null) {
+            apiIndex.unconstrained.put(mapping.getId(), mapping);
+        } else if (key.value() == null) {
+            apiIndex.byPresence.computeIfAbsent(key.path(), k -> new ConcurrentHashMap<>())
+                    .put(mapping.getId(), mapping);
+        } else {
+            apiIndex.byValue.computeIfAbsent(key.path(), k -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(key.value(), k -> new ConcurrentHashMap<>())
+                    .put(mapping.getId(), mapping);
+        }
+        indexedKeys.put(mapping.getId(), key);
+    }
+
+    public synchronized void removeMapping(String mappingId) {
+        IndexKey key = indexedKeys.remove(mappingId);
+        if (key == null) {
+            return;
+        }
+        ApiIndex apiIndex = apiIndexes.get(key.api());
+        if (apiIndex == null) {
+            return;
+        }
+        if (key.path() == null) {
+            apiIndex.unconstrained.remove(mappingId);
+        } else if (key.value() == null) {
+            apiIndex.byPresence.computeIfPresent(key.path(), (path, mappings) -> {
+                mappings.remove(mappingId);
+                return mappings.isEmpty() ? null : mappings;
+            });
+        } else {
+            apiIndex.byValue.computeIfPresent(key.path(), (path, values) -> {
+                values.computeIfPresent(key.value(), (value, mappings) -> {
+                    mappings.remove(mappingId);
+                    return mappings.isEmpty() ? null : mappings;
+                });
+                return values.isEmpty() ? null : values;
+            });
+        }
+    }
+
+    public synchronized void clear() {
+        apiIndexes.clear();
+        indexedKeys.clear();
+    }
+
+    /**
+     * Returns the mappings for the API whose message filter can match the
+     * payload. Without a payload all mappings of the API are returned.
+     */
+    public List<Mapping> getCandidates(API api, Map<?, ?> payload) {
+        List<Mapping> candidates = new ArrayList<>();
+        ApiIndex apiIndex = api != null ? apiIndexes.get(api) : null;
+        if (apiIndex == null) {
+            return candidates;
+        }
+        candidates.addAll(apiIndex.unconstrained.values());
+        apiIndex.byPresence.forEach((path, mappings) -> {
+            if (payload == null || navigate(payload, path) != ABSENT) {
+                candidates.addAll(mappings.values());
+            }
+        });
+        apiIndex.byValue.forEach((path, values) -> {
+            Object value = payload != null ? navigate(payload, path) : AMBIGUOUS;
+            if (value == AMBIGUOUS) {
+                values.values().forEach(mappings -> candidates.addAll(mappings.values()));
+            } else if (value instanceof String) {
+                Map<String, Mapping> mappings = values.get(value);
+                if (mappings != null) {
+                    candidates.addAll(mappings.values());
+                }
+            }
+        });
+        return candidates;
+    }
+
+    /**
+     * Derives the index key from a message filter, the path is null if the
+     * filter cannot be analysed.
+     */
+    static IndexKey analyzeFilter(API api, String filter) {
+        if (filter == null || filter.isBlank()) {
+            return new IndexKey(api, null, null);
+        }
+        List<String> conjuncts = splitConjunction(stripOuterParentheses(filter.trim()));
+        for (String conjunct : conjuncts) {
+            IndexKey key = analyzeCondition(api, stripOuterParentheses(conjunct.trim()));
+            if (key != null) {
+                return key;
+            }
+        }
+        return new IndexKey(api, null, null);
+    }
+
+    private static IndexKey analyzeCondition(API api, String condition) {
+        Matcher matcher = EQUALS_PATH_LITERAL.matcher(condition);
+        if (matcher.matches()) {
+            return keyForEquals(api, matcher.group(1), matcher.group(2));
+        }
+        matcher = EQUALS_LITERAL_PATH.matcher(condition);
+        if (matcher.matches()) {
+            return keyForEquals(api, matcher.group(2), matcher.group(1));
+        }
+        matcher = COMPARE_PATH_LITERAL.matcher(condition);
+        if (matcher.matches()) {
+            return new IndexKey(api, matcher.group(1), null);
+        }
+        matcher = EXISTS_PATH.matcher(condition);
+        if (matcher.matches()) {
+            return new IndexKey(api, matcher.group(1), null);
+        }
+        matcher = BARE_PATH.matcher(condition);
+        if (matcher.matches() && !isKeyword(condition)) {
+            return new IndexKey(api, matcher.group(1), null);
+        }
+        return null;
+    }
+
+    private static IndexKey keyForEquals(API api, String path, String literal) {
+        if (isKeyword(path)) {
+            return null;
+        }
+        if (literal.startsWith("'") || literal.startsWith("\"")) {
+            return new IndexKey(api, path, literal.substring(1, literal.length() - 1));
+        }
+        // numbers and booleans are not indexed by value, but the path has to exist
+        return new IndexKey(api, path, null);
+    }
+
+    private static boolean isKeyword(String path) {
+        return path.equals("true") || path.equals("false") || path.equals("null")
+                || path.equals("and") || path.equals("or") || path.equals("in");
+    }
+
+    /**
+     * Splits the filter at top-level {@code and}. A filter with a top-level
+     * {@code or} is returned as a whole, since none of its parts is required.
+     */
+    private static List<String> splitConjunction(String filter) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        char quote = 0;
+        int start = 0;
+        for (int i = 0; i < filter.length(); i++) {
+            char c = filter.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '(' || c == '[' || c == '{') {
+                depth++;
+            } else if (c == ')' || c == ']' || c == '}') {
+                depth--;
+            } else if (depth == 0 && isOperatorAt(filter, i, "or")) {
+                return List.of(filter);
+            } else if (depth == 0 && isOperatorAt(filter, i, "and")) {
+                parts.add(filter.substring(start, i));
+                start = i + 3;
+                i += 2;
+            }
+        }
+        parts.add(filter.substring(start));
+        return parts;
+    }
+
+    private static boolean isOperatorAt(String filter, int index, String operator) {
+        int end = index + operator.length();
+        return filter.startsWith(operator, index)
+                && index > 0 && Character.isWhitespace(filter.charAt(index - 1))
+                && end < filter.length() && Character.isWhitespace(filter.charAt(end));
+    }
+
+    private static String stripOuterParentheses(String filter) {
+        while (filter.startsWith("(") && filter.endsWith(")") && closingParenthesis(filter) == filter.length() - 1) {
+            filter = filter.substring(1, filter.length() - 1).trim();
+        }
+        return filter;
+    }
+
+    private static int closingParenthesis(String filter) {
+        int depth = 0;
+        char quote = 0;
+        for (int i = 0; i < filter.length(); i++) {
+            char c = filter.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Object navigate(Map<?, ?> payload, String path) {
+        Object current = payload;
+        for (String segment : path.split("\\.")) {
+            if (current instanceof Map<?, ?> map) {
+                if (!map.containsKey(segment)) {
+                    return ABSENT;
+                }
+                current = map.get(segment);
+            } else if (current instanceof Collection<?>) {
+                return AMBIGUOUS;
+            } else {
+                return ABSENT;
+            }
+        }
+        return current instanceof Collection<?> ? AMBIGUOUS : current;
+    }
+}
@@ -36,8 +36,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
-import static com.dashjoin.jsonata.Jsonata.jsonata;
-
 /**
  * Service for resolving which mappings apply to messages
  */
@@ -66,9 +64,11 @@ public class MappingResolverService {
         API api = message.getApi();
 
         try {
-            Map<String, Mapping> allMappings = cacheManager.getAllOutboundMappings(tenant);
+            // Only mappings for the API whose filter can match the payload are evaluated
+            List<Mapping> candidates = cacheManager.getOutboundMappingCandidates(tenant, api,
+                    message.getParsedPayload());
 
-            for (Mapping mapping : allMappings.values()) {
+            for (Mapping mapping : candidates) {
                 if (shouldProcessMapping(tenant, mapping, message, api)) {
                     result.add(mapping);
                 }
@@ -112,7 +112,7 @@ public class MappingResolverService {
 
     private Boolean evaluateMessageFilter(String tenant, Mapping mapping, C8YMessage message) {
         try {
-            var expression = jsonata(mapping.getFilterMapping());
+            var expression = cacheManager.getCompiledExpression(tenant, mapping, mapping.getFilterMapping());
             Object result = expression.evaluate(message.getParsedPayload());
 
             boolean matches = result != null && Utils.isNodeTrue(result);
@@ -148,7 +148,7 @@ public class MappingResolverService {
             log.debug("{} - Evaluating inventory filter for source {} with fragments: {}", 
                 tenant, sourceId, inventoryData.keySet());
 
-            var expression = jsonata(mapping.getFilterInventory());
+            var expression = cacheManager.getCompiledExpression(tenant, mapping, mapping.getFilterInventory());
             Object result = expression.evaluate(inventoryData);
 
             boolean matches = result != null && Utils.isNodeTrue(result);
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.service.status;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import dynamic.mapper.model.MappingStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer meters of one mapping. The counters read the adders of the
+ * {@link MappingStatus}, so processors do not update a second counter for
+ * every message.
+ *
+ * <p>The status counters go back to zero when the status is reset, Micrometer
+ * counters must not decrease. The counters therefore add up the increases of
+ * the status counters between two reads and continue after a reset. Messages
+ * counted between the last read and a reset are lost for the meters.</p>
+ */
+class MappingStatusMeters {
+
+    private final FunctionCounter messagesCounter;
+    private final FunctionCounter errorsCounter;
+    private final Timer processingTimer;
+
+    MappingStatusMeters(String tenant, MappingStatus status) {
+        Tags tags = Tags.of("tenant", tenant, "mapping", status.identifier, "direction",
+                status.direction != null ? status.direction.name() : "UNSPECIFIED");
+        this.messagesCounter = FunctionCounter
+                .builder("dynmapper_mapping_messages_total", status,
+                        new MonotonicCount(MappingStatus::getMessagesReceived))
+                .description("Number of messages processed by the mapping")
+                .tags(tags)
+                .register(Metrics.globalRegistry);
+        this.errorsCounter = FunctionCounter
+                .builder("dynmapper_mapping_errors_total", status, new MonotonicCount(MappingStatus::getErrors))
+                .description("Number of processing errors of the mapping")
+                .tags(tags)
+                .register(Metrics.globalRegistry);
+        this.processingTimer = Timer.builder("dynmapper_mapping_processing_time")
+                .description("Processing time of a message by the mapping")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+    }
+
+    void recordProcessingTime(long nanos) {
+        processingTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void close() {
+        Metrics.globalRegistry.remove(messagesCounter);
+        Metrics.globalRegistry.remove(errorsCounter);
+        Metrics.globalRegistry.remove(processingTimer);
+    }
+
+    /**
+     * Sum of the increases of a status counter, which may be reset
+     */
+    private static final class MonotonicCount implements ToDoubleFunction<MappingStatus> {
+
+        private final ToLongFunction<MappingStatus> count;
+        private long last;
+        private long total;
+
+        private MonotonicCount(ToLongFunction<MappingStatus> count) {
+            this.count = count;
+        }
+
+        @Override
+        public synchronized double applyAsDouble(MappingStatus status) {
+            long current = count.applyAsLong(status);
+            // A lower value means the status was reset, everything since counts as new
+            total += current >= last ? current - last : current;
+            last = current;
+            return total;
+        }
+    }
+}
@@ -51,11 +51,17 @@ import java.util.concurrent.ConcurrentHashMap;
  *   <li>Initialize and maintain tenant-specific mapping statuses</li>
  *   <li>Track failure counts and handle automatic mapping deactivation</li>
  *   <li>Synchronize status updates to Cumulocity inventory</li>
+ *   <li>Export per mapping message and error counters and the processing time to Micrometer</li>
  *   <li>Send error events for mapping loading failures</li>
  * </ul>
  *
  * <p>Thread-safety: This service uses {@link ConcurrentHashMap} for thread-safe operations
- * on the status maps. All public methods include input validation to ensure data integrity.</p>
+ * on the status maps. All public methods include input validation to ensure data integrity.
+ * The counters of a {@link MappingStatus} are striped adders that processors update concurrently.</p>
+ *
+ * <p>The status fragment is only written to the inventory when a status changed since the
+ * last update. Every connector triggers the update in its housekeeping, so the updates of
+ * several connectors of a tenant are coalesced into one.</p>
  *
  * @author Christof Strack, Stefan Witschel
  * @since 1.0
@@ -81,6 +87,13 @@ public class MappingStatusService {
     // Structure: <"tenant:moId", Boolean>
     private final Set<String> reportedLoadingErrors = ConcurrentHashMap.newKeySet();
 
+    // Structure: <Tenant, <MappingIdentifier, MappingStatusMeters>>
+    private final Map<String, Map<String, MappingStatusMeters>> mappingMeters = new ConcurrentHashMap<>();
+
+    // Statuses as last sent to the inventory, used to skip updates without changes
+    // Structure: <Tenant, <MappingIdentifier, Snapshot>>
+    private final Map<String, Map<String, List<Object>>> sentSnapshots = new ConcurrentHashMap<>();
+
     /**
      * Initializes or resets status tracking for a specific tenant.
      *
@@ -112,6 +125,8 @@ public class MappingStatusService {
         } else {
             mappingStatuses.put(tenant, new ConcurrentHashMap<>());
         }
+        removeMeters(tenant);
+        mappingStatuses.get(tenant).values().forEach(status -> registerMeters(tenant, status));
 
         // Ensure unspecified mapping status exists
         ensureUnspecifiedStatus(tenant);
@@ -132,6 +147,8 @@ public class MappingStatusService {
     public void removeTenantStatus(String tenant) {
         mappingStatuses.remove(tenant);
         initialized.remove(tenant);
+        sentSnapshots.remove(tenant);
+        removeMeters(tenant);
         reportedLoadingErrors.removeIf(key -> key.startsWith(tenant + ":"));
         log.debug("{} - Status tracking removed", tenant);
     }
@@ -154,7 +171,7 @@ public class MappingStatusService {
 
         return tenantStatuses.computeIfAbsent(mapping.getIdentifier(), key -> {
             log.debug("{} - Creating new status for mapping: {}", tenant, mapping.getIdentifier());
-            return new MappingStatus(
+            MappingStatus status = new MappingStatus(
                     mapping.getId(),
                     mapping.getName(),
                     mapping.getIdentifier(),
@@ -162,9 +179,29 @@ public class MappingStatusService {
                     mapping.getMappingTopic(),
                     mapping.getPublishTopic(),
                     0, 0, 0, 0, 0, null);
+            registerMeters(tenant, status);
+            return status;
         });
     }
 
+    /**
+     * Records the time a message took to be processed by a mapping.
+     *
+     * @param tenant the tenant identifier
+     * @param mapping the mapping that processed the message
+     * @param nanos the processing time in nanoseconds
+     */
+    public void recordProcessingTime(String tenant, Mapping mapping, long nanos) {
+        if (tenant == null || mapping == null || mapping.getIdentifier() == null) {
+            return;
+        }
+        Map<String, MappingStatusMeters> tenantMeters = mappingMeters.get(tenant);
+        MappingStatusMeters meters = tenantMeters != null ? tenantMeters.get(mapping.getIdentifier()) : null;
+        if (meters != null) {
+            meters.recordProcessingTime(nanos);
+        }
+    }
+
     /**
      * Retrieves all mapping statuses for a specific tenant.
      *
@@ -195,6 +232,11 @@ public class MappingStatusService {
             return;
         }
         getStatusMap(tenant).remove(identifier);
+        Map<String, MappingStatusMeters> tenantMeters = mappingMeters.get(tenant);
+        MappingStatusMeters meters = tenantMeters != null ? tenantMeters.remove(identifier) : null;
+        if (meters != null) {
+            meters.close();
+        }
         log.debug("{} - Removed status for: {}", tenant, identifier);
     }
 
@@ -219,9 +261,9 @@ public class MappingStatusService {
             return;
         }
 
-        status.currentFailureCount++;
+        long failureCount = status.incrementCurrentFailureCount();
         log.debug("{} - Incremented failure count to {} for mapping: {}",
-                 tenant, status.currentFailureCount, mapping.getIdentifier());
+                 tenant, failureCount, mapping.getIdentifier());
 
         if (shouldDeactivateMapping(mapping, status)) {
             handleFailureThresholdExceeded(tenant, mapping, status);
@@ -246,7 +288,7 @@ public class MappingStatusService {
         }
         MappingStatus status = getStatusMap(tenant).get(identifier);
         if (status != null) {
-            status.currentFailureCount = 0;
+            status.setCurrentFailureCount(0);
             log.debug("{} - Reset failure count for: {}", tenant, identifier);
         }
     }
@@ -260,11 +302,23 @@ public class MappingStatusService {
      * are included in the update.</p>
      *
      * <p>Status sending can be disabled via service configuration. If disabled or
-     * if the tenant is not yet initialized, this method returns without action.</p>
+     * if the tenant is not yet initialized, this method returns without action.
+     * The update is skipped if no status changed since it was last sent.</p>
      *
      * @param tenant the tenant identifier
      */
     public void sendStatusToInventory(String tenant) {
+        sendStatusToInventory(tenant, false);
+    }
+
+    /**
+     * Sends current mapping statuses to the Cumulocity inventory.
+     *
+     * @param tenant the tenant identifier
+     * @param force if true, the statuses are sent even if they did not change
+     * @see #sendStatusToInventory(String)
+     */
+    public void sendStatusToInventory(String tenant, boolean force) {
         if (!shouldSendStatus(tenant)) {
             log.debug("{} - Skipping status send (not enabled or not initialized)", tenant);
             return;
@@ -280,7 +334,17 @@ public class MappingStatusService {
                 return;
             }
 
+            Map<String, List<Object>> snapshots = new HashMap<>(statusArray.length * 2);
+            for (MappingStatus status : statusArray) {
+                snapshots.put(status.identifier, status.snapshot());
+            }
+            if (!force && snapshots.equals(sentSnapshots.get(tenant))) {
+                log.debug("{} - Skipping status send, no status changed", tenant);
+                return;
+            }
+
             updateInventoryWithStatuses(tenant, statusArray);
+            sentSnapshots.put(tenant, snapshots);
             log.debug("{} - Successfully sent {} statuses to inventory", tenant, statusArray.length);
 
         } catch (IllegalArgumentException e) {
@@ -364,9 +428,28 @@ public class MappingStatusService {
     private void ensureUnspecifiedStatus(String tenant) {
         Map<String, MappingStatus> statusMap = getStatusMap(tenant);
         if (!statusMap.containsKey(MappingStatus.IDENT_UNSPECIFIED_MAPPING)) {
-            statusMap.put(
-                    MappingStatus.UNSPECIFIED_MAPPING_STATUS.identifier,
-                    MappingStatus.UNSPECIFIED_MAPPING_STATUS);
+            MappingStatus status = MappingStatus.createUnspecified();
+            statusMap.put(status.identifier, status);
+            registerMeters(tenant, status);
+        }
+    }
+
+    private void registerMeters(String tenant, MappingStatus status) {
+        Map<String, MappingStatusMeters> tenantMeters = mappingMeters
+                .computeIfAbsent(tenant, k -> new ConcurrentHashMap<>());
+        // Micrometer returns the registered meter for the same name and tags,
+        // so the previous meters have to be removed before registering again
+        MappingStatusMeters previous = tenantMeters.remove(status.identifier);
+        if (previous != null) {
+            previous.close();
+        }
+        tenantMeters.put(status.identifier, new MappingStatusMeters(tenant, status));
+    }
+
+    private void removeMeters(String tenant) {
+        Map<String, MappingStatusMeters> tenantMeters = mappingMeters.remove(tenant);
+        if (tenantMeters != null) {
+            tenantMeters.values().forEach(MappingStatusMeters::close);
         }
     }
 
@@ -377,7 +460,7 @@ public class MappingStatusService {
 
     private Boolean shouldDeactivateMapping(Mapping mapping, MappingStatus status) {
         return mapping.getMaxFailureCount() > 0 &&
-                status.currentFailureCount >= mapping.getMaxFailureCount();
+                status.getCurrentFailureCount() >= mapping.getMaxFailureCount();
     }
 
     private void handleFailureThresholdExceeded(String tenant, Mapping mapping, MappingStatus status) {
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.amqp;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.rabbitmq.client.Channel;
+
+/**
+ * Tests for AMQPAckTracker: cumulative acks over contiguous processed
+ * deliveries and individual nacks.
+ */
+class AMQPAckTrackerTest {
+
+    @Test
+    void testAckIsNotSentBeforeLowerDeliveriesComplete() throws Exception {
+        Channel channel = mock(Channel.class);
+        AMQPAckTracker tracker = new AMQPAckTracker(channel);
+        tracker.register(1);
+        tracker.register(2);
+        tracker.register(3);
+
+        tracker.ack(2);
+        tracker.ack(3);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        assertEquals(3, tracker.getPendingAcks());
+
+        tracker.ack(1);
+        verify(channel, times(1)).basicAck(3, true);
+        assertEquals(0, tracker.getPendingAcks());
+    }
+
+    @Test
+    void testRejectedDeliveryIsNackedAndDoesNotHoldBackAcks() throws Exception {
+        Channel channel = mock(Channel.class);
+        AMQPAckTracker tracker = new AMQPAckTracker(channel);
+        tracker.register(1);
+        tracker.register(2);
+        tracker.register(3);
+
+        tracker.ack(1);
+        verify(channel).basicAck(1, true);
+
+        tracker.nack(3, true);
+        verify(channel).basicNack(3, false, true);
+
+        tracker.ack(2);
+        // The nacked delivery is not part of the cumulative ack
+        verify(channel).basicAck(2, true);
+        verify(channel, never()).basicAck(3, true);
+        assertEquals(0, tracker.getPendingAcks());
+    }
+
+    @Test
+    void testUnknownAndCompletedDeliveriesAreIgnored() throws Exception {
+        Channel channel = mock(Channel.class);
+        AMQPAckTracker tracker = new AMQPAckTracker(channel);
+        tracker.register(1);
+
+        tracker.ack(7);
+        tracker.ack(1);
+        tracker.ack(1);
+        tracker.nack(1, true);
+
+        verify(channel, times(1)).basicAck(1, true);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.amqp;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.Connection;
+
+/**
+ * Tests for AMQPChannelPool: separate consume and publish channels, prefetch
+ * and asynchronous publisher confirms.
+ */
+class AMQPChannelPoolTest {
+
+    private Connection connection;
+    private Channel consumeChannel;
+    private Channel publishChannel;
+    private ConfirmListener confirmListener;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = mock(Connection.class);
+        consumeChannel = mock(Channel.class);
+        publishChannel = mock(Channel.class);
+        when(connection.createChannel()).thenReturn(consumeChannel, publishChannel);
+        when(consumeChannel.isOpen()).thenReturn(true);
+        when(publishChannel.isOpen()).thenReturn(true);
+        doAnswer(invocation -> {
+            confirmListener = invocation.getArgument(0);
+            return confirmListener;
+        }).when(publishChannel).addConfirmListener(any(ConfirmListener.class));
+        AtomicLong seqNo = new AtomicLong(1);
+        when(publishChannel.getNextPublishSeqNo()).thenAnswer(invocation -> seqNo.getAndIncrement());
+    }
+
+    @Test
+    void testOpenSetsPrefetchAndConfirmMode() throws Exception {
+        AMQPChannelPool pool = new AMQPChannelPool("tenant", "amqp_1", connection, 1, 50, 10);
+        pool.open();
+
+        verify(consumeChannel).basicQos(50);
+        verify(consumeChannel, never()).confirmSelect();
+        verify(publishChannel).confirmSelect();
+        assertTrue(pool.isOpen());
+        pool.close();
+    }
+
+    @Test
+    void testMultipleConfirmCompletesAllLowerPublishes() throws Exception {
+        AMQPChannelPool pool = new AMQPChannelPool("tenant", "amqp_1", connection, 1, 50, 10);
+        pool.open();
+
+        CompletableFuture<Void> first = pool.publish("", "a", null, new byte[0]);
+        CompletableFuture<Void> second = pool.publish("", "b", null, new byte[0]);
+        CompletableFuture<Void> third = pool.publish("", "c", null, new byte[0]);
+        assertEquals(3, pool.getOutstandingConfirms());
+
+        confirmListener.handleAck(2, true);
+        assertTrue(first.isDone() && second.isDone());
+        assertFalse(third.isDone());
+
+        confirmListener.handleNack(3, false);
+        ExecutionException e = assertThrows(ExecutionException.class, third::get);
+        assertNotNull(e.getCause());
+        assertEquals(0, pool.getOutstandingConfirms());
+        pool.close();
+    }
+
+    @Test
+    void testCloseFailsUnconfirmedPublishes() throws Exception {
+        AMQPChannelPool pool = new AMQPChannelPool("tenant", "amqp_1", connection, 1, 50, 10);
+        pool.open();
+
+        CompletableFuture<Void> unconfirmed = pool.publish("", "a", null, new byte[0]);
+        pool.close();
+
+        assertTrue(unconfirmed.isCompletedExceptionally());
+        verify(publishChannel).close();
+        verify(consumeChannel).close();
+    }
+}
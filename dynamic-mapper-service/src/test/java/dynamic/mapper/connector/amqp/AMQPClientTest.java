@@ -28,6 +28,7 @@ import java.lang.reflect.Field;
 import java.util.*;
 
 import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
 import com.rabbitmq.client.Connection;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -87,6 +88,8 @@ class AMQPClientTest {
     private Connection connection;
     @Mock
     private Channel channel;
+    @Mock
+    private Channel publishChannel;
 
     private static final String TEST_TENANT = "test_tenant";
     private static final String TEST_CONNECTOR_NAME = "test_amqp_connector";
@@ -437,14 +440,32 @@ class AMQPClientTest {
                 TEST_SUBSCRIPTION_ID,
                 TEST_TENANT);
 
-        // Inject mocked AMQP connection and channel
+        // Inject mocked AMQP connection and channels
         injectConnection(amqpClient, connection);
-        injectChannel(amqpClient, channel);
+        ConfirmListener[] confirmListener = new ConfirmListener[1];
+        doAnswer(invocation -> {
+            confirmListener[0] = invocation.getArgument(0);
+            return confirmListener[0];
+        }).when(publishChannel).addConfirmListener(any(ConfirmListener.class));
+        injectChannels(amqpClient, channel, publishChannel);
         setConnectedState(amqpClient, true);
 
         // Mock connection and channel state for isPhysicallyConnected() check
         when(connection.isOpen()).thenReturn(true);
         when(channel.isOpen()).thenReturn(true);
+        when(publishChannel.isOpen()).thenReturn(true);
+        // The broker confirms the message asynchronously
+        when(publishChannel.getNextPublishSeqNo()).thenReturn(1L);
+        doAnswer(invocation -> {
+            new Thread(() -> {
+                try {
+                    confirmListener[0].handleAck(1L, false);
+                } catch (java.io.IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }).start();
+            return null;
+        }).when(publishChannel).basicPublish(anyString(), anyString(), any(), any(byte[].class));
 
         // Create test context
         ProcessingContext<?> context = createTestProcessingContext();
@@ -452,8 +473,11 @@ class AMQPClientTest {
         // When
         amqpClient.publishMEAO(context);
 
-        // Then
-        verify(channel).basicPublish(anyString(), anyString(), any(), any(byte[].class));
+        // Then - published on the publish channel, not on the consume channel
+        verify(publishChannel).confirmSelect();
+        verify(publishChannel).basicPublish(anyString(), anyString(), any(), any(byte[].class));
+        verify(channel, never()).basicPublish(anyString(), anyString(), any(), any(byte[].class));
+        verify(context, never()).addError(any());
 
         log.info("✅ Publish MEAO test passed");
     }
@@ -539,17 +563,19 @@ class AMQPClientTest {
                 TEST_TENANT);
 
         injectConnection(amqpClient, connection);
-        injectChannel(amqpClient, channel);
+        injectChannels(amqpClient, channel, publishChannel);
         setConnectedState(amqpClient, true);
 
         when(connection.isOpen()).thenReturn(true);
         when(channel.isOpen()).thenReturn(true);
+        when(publishChannel.isOpen()).thenReturn(true);
 
         // When
         amqpClient.disconnect();
 
         // Then
         verify(channel).close();
+        verify(publishChannel).close();
         verify(connection).close();
 
         log.info("✅ Disconnect test passed");
@@ -618,11 +644,15 @@ class AMQPClientTest {
         }
     }
 
-    private void injectChannel(AMQPClient client, Channel channel) {
+    private void injectChannels(AMQPClient client, Channel consumeChannel, Channel publishChannel) {
         try {
-            Field field = AMQPClient.class.getDeclaredField("channel");
+            when(connection.createChannel()).thenReturn(consumeChannel, publishChannel);
+            AMQPChannelPool channelPool = new AMQPChannelPool(TEST_TENANT, TEST_CONNECTOR_IDENTIFIER, connection,
+                    1, 10, 10);
+            channelPool.open();
+            Field field = AMQPClient.class.getDeclaredField("channelPool");
             field.setAccessible(true);
-            field.set(client, channel);
+            field.set(client, channelPool);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
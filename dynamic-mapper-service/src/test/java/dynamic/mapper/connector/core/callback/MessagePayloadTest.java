@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.core.callback;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import dynamic.mapper.processor.inbound.deserializer.JSONPayloadDeserializer;
+
+/**
+ * Tests for MessagePayload: the received buffer is not copied, text and JSON
+ * are decoded once and shared, mappings get their own view of the JSON.
+ */
+class MessagePayloadTest {
+
+    private static final String JSON = "{\"temperature\":25.5,\"device\":{\"id\":\"sensor001\"}}";
+
+    @Test
+    void testBufferIsWrappedReadOnlyAndCopiedOnce() {
+        ByteBuffer buffer = ByteBuffer.wrap(JSON.getBytes(StandardCharsets.UTF_8));
+        MessagePayload payload = MessagePayload.of(buffer);
+
+        assertEquals(JSON.length(), payload.size());
+        assertEquals(JSON, payload.getText());
+        // Reading does not move the position of the connector's buffer
+        assertEquals(0, buffer.position());
+        byte[] bytes = payload.getBytes();
+        assertArrayEquals(JSON.getBytes(StandardCharsets.UTF_8), bytes);
+        assertSame(bytes, payload.getBytes());
+    }
+
+    @Test
+    void testTextAndJsonAreDecodedOnce() throws IOException {
+        MessagePayload payload = MessagePayload.of(JSON.getBytes(StandardCharsets.UTF_8));
+
+        assertSame(payload.getText(), payload.getText());
+        Object json = payload.getJson();
+        assertTrue(json instanceof Map);
+        assertSame(json, payload.getJson());
+    }
+
+    @Test
+    void testInvalidJsonFailsOnEveryCall() {
+        MessagePayload payload = MessagePayload.of("invalid json".getBytes(StandardCharsets.UTF_8));
+
+        IOException first = assertThrows(IOException.class, payload::getJson);
+        IOException second = assertThrows(IOException.class, payload::getJson);
+        assertSame(first, second);
+    }
+
+    @Test
+    void testNullPayload() {
+        ConnectorMessage message = ConnectorMessage.builder().tenant("testTenant").connectorIdentifier("c1")
+                .payload((byte[]) null).build();
+
+        assertFalse(message.hasPayload());
+        assertNull(message.getPayload());
+        assertNull(MessagePayload.of((ByteBuffer) null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMappingsGetTheirOwnPayload() throws IOException {
+        ConnectorMessage message = ConnectorMessage.builder().tenant("testTenant").connectorIdentifier("c1")
+                .payload(ByteBuffer.wrap(JSON.getBytes(StandardCharsets.UTF_8))).build();
+        JSONPayloadDeserializer deserializer = new JSONPayloadDeserializer();
+
+        Map<String, Object> first = (Map<String, Object>) deserializer.deserializePayload(null, message);
+        Map<String, Object> second = (Map<String, Object>) deserializer.deserializePayload(null, message);
+        first.put("_TOPIC_LEVEL_", "measurements");
+
+        assertNotSame(first, second);
+        assertFalse(second.containsKey("_TOPIC_LEVEL_"));
+        assertEquals(25.5, ((Number) second.get("temperature")).doubleValue());
+        assertSame(message.getMessagePayload().getJson(), message.getMessagePayload().getJson());
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.core.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import dynamic.mapper.configuration.InboundBackpressurePolicy;
+import dynamic.mapper.model.Qos;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Tests for InboundFlowControl: in-flight limit, shedding and blocking.
+ */
+class InboundFlowControlTest {
+
+    private final String connectorIdentifier = "connector-" + System.nanoTime();
+    private final InboundFlowControl flowControl = new InboundFlowControl("testTenant", connectorIdentifier);
+
+    @AfterEach
+    void tearDown() {
+        flowControl.close();
+    }
+
+    @Test
+    void testNoLimitAdmitsAllMessages() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(flowControl.acquire(0, InboundBackpressurePolicy.SHED_QOS0, Qos.AT_MOST_ONCE));
+        }
+        assertEquals(100, flowControl.getInFlight());
+        assertFalse(flowControl.isSaturated(0));
+    }
+
+    @Test
+    void testQos0MessagesAreShedWhenLimitIsReached() throws Exception {
+        assertTrue(flowControl.acquire(2, InboundBackpressurePolicy.SHED_QOS0, Qos.AT_MOST_ONCE));
+        assertTrue(flowControl.acquire(2, InboundBackpressurePolicy.SHED_QOS0, Qos.AT_MOST_ONCE));
+        assertTrue(flowControl.isSaturated(2));
+
+        assertFalse(flowControl.acquire(2, InboundBackpressurePolicy.SHED_QOS0, Qos.AT_MOST_ONCE));
+        assertEquals(2, flowControl.getInFlight());
+
+        flowControl.release();
+        assertTrue(flowControl.acquire(2, InboundBackpressurePolicy.SHED_QOS0, Qos.AT_MOST_ONCE));
+    }
+
+    @Test
+    void testBlockWaitsUntilReleased() throws Exception {
+        assertTrue(flowControl.acquire(1, InboundBackpressurePolicy.BLOCK, Qos.AT_MOST_ONCE));
+
+        CompletableFuture<Boolean> blocked = CompletableFuture.supplyAsync(() -> {
+            try {
+                return flowControl.acquire(1, InboundBackpressurePolicy.BLOCK, Qos.AT_MOST_ONCE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        assertThrows(TimeoutException.class, () -> blocked.get(200, TimeUnit.MILLISECONDS));
+
+        flowControl.release();
+        assertTrue(blocked.get(5, TimeUnit.SECONDS));
+        assertEquals(1, flowControl.getInFlight());
+    }
+
+    @Test
+    void testResumeBelowLowWaterMark() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            flowControl.acquire(4, InboundBackpressurePolicy.PAUSE, Qos.AT_LEAST_ONCE);
+        }
+        assertFalse(flowControl.canResume(4));
+        flowControl.release();
+        assertFalse(flowControl.canResume(4));
+        flowControl.release();
+        assertTrue(flowControl.canResume(4));
+    }
+
+    @Test
+    void testCloseRemovesMeters() throws Exception {
+        flowControl.acquire(1, InboundBackpressurePolicy.SHED_QOS0, Qos.AT_MOST_ONCE);
+        flowControl.acquire(1, InboundBackpressurePolicy.SHED_QOS0, Qos.AT_MOST_ONCE);
+        assertFalse(Metrics.globalRegistry.find("dynmapper_inbound_rejected_total")
+                .tag("connector", connectorIdentifier).counters().isEmpty());
+
+        flowControl.close();
+
+        assertTrue(Metrics.globalRegistry.find("dynmapper_inbound_inflight")
+                .tag("connector", connectorIdentifier).meters().isEmpty());
+        assertTrue(Metrics.globalRegistry.find("dynmapper_inbound_rejected_total")
+                .tag("connector", connectorIdentifier).meters().isEmpty());
+        assertTrue(Metrics.globalRegistry.find("dynmapper_inbound_backpressure_wait_time")
+                .tag("connector", connectorIdentifier).meters().isEmpty());
+    }
+}
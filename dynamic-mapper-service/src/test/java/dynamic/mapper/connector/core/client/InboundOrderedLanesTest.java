@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.core.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for InboundOrderedLanes: order per key, parallel lanes, failures and
+ * hot key detection.
+ */
+class InboundOrderedLanesTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final InboundOrderedLanes lanes = new InboundOrderedLanes("testTenant",
+            "connector-" + System.nanoTime(), executor);
+
+    @AfterEach
+    void tearDown() {
+        lanes.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testTasksWithSameKeyRunInOrder() throws Exception {
+        List<Integer> seen = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int n = i;
+            futures.add(lanes.submit("device-1", 8, () -> {
+                seen.add(n);
+                return n;
+            }));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(i, futures.get(i).get(5, TimeUnit.SECONDS));
+        }
+
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, seen.get(i));
+        }
+        assertEquals(0, lanes.getQueueDepth(InboundOrderedLanes.laneIndex("device-1", 8)));
+    }
+
+    @Test
+    void testDifferentLanesRunInParallel() throws Exception {
+        String blockedKey = "device-1";
+        String otherKey = keyOnOtherLane(blockedKey, 2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> blocked = lanes.submit(blockedKey, 2, () -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "blocked";
+        });
+        CompletableFuture<String> queued = lanes.submit(blockedKey, 2, () -> "queued");
+        CompletableFuture<String> other = lanes.submit(otherKey, 2, () -> "other");
+
+        assertEquals("other", other.get(5, TimeUnit.SECONDS));
+        assertFalse(queued.isDone());
+        assertEquals(2, lanes.getQueueDepth(InboundOrderedLanes.laneIndex(blockedKey, 2)));
+        release.countDown();
+        assertEquals("blocked", blocked.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFailedTaskDoesNotStopLane() throws Exception {
+        CompletableFuture<String> failed = lanes.submit("device-1", 4, () -> {
+            throw new IllegalStateException("mapping failed");
+        });
+        CompletableFuture<String> next = lanes.submit("device-1", 4, () -> "next");
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals("next", next.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testHotKeyIsReportedForBackedUpLane() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        futures.add(lanes.submit("device-1", 1, () -> release.await(5, TimeUnit.SECONDS)));
+        for (int i = 1; i < 1000; i++) {
+            futures.add(lanes.submit(i % 10 == 0 ? "device-" + i : "device-1", 1, () -> true));
+        }
+
+        assertEquals(1.0, lanes.getHotKeyCount());
+        release.countDown();
+        for (CompletableFuture<Boolean> future : futures) {
+            assertTrue(future.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testHotKeyInterleavedWithDistinctKeysIsReported() throws Exception {
+        // the distinct keys push the estimated count of the hot key below half the window
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        futures.add(lanes.submit("device-1", 1, () -> release.await(5, TimeUnit.SECONDS)));
+        for (int i = 1; i < 1000; i++) {
+            futures.add(lanes.submit(i % 20 < 11 ? "device-1" : "other-" + i, 1, () -> true));
+        }
+
+        assertEquals(1.0, lanes.getHotKeyCount());
+        release.countDown();
+        for (CompletableFuture<Boolean> future : futures) {
+            assertTrue(future.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testEvenlySpreadKeysAreNotHot() throws Exception {
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            futures.add(lanes.submit("device-" + (i % 100), 1, () -> true));
+        }
+        for (CompletableFuture<Boolean> future : futures) {
+            assertTrue(future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0.0, lanes.getHotKeyCount());
+    }
+
+    private static String keyOnOtherLane(String key, int laneCount) {
+        int lane = InboundOrderedLanes.laneIndex(key, laneCount);
+        for (int i = 0;; i++) {
+            String candidate = "device-" + i;
+            if (InboundOrderedLanes.laneIndex(candidate, laneCount) != lane) {
+                return candidate;
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import dynamic.mapper.connector.core.callback.ConnectorMessage;
+import dynamic.mapper.connector.core.callback.GenericMessageCallback;
+import dynamic.mapper.processor.ProcessingException;
+import dynamic.mapper.processor.model.ProcessingContext;
+import dynamic.mapper.processor.model.ProcessingResultWrapper;
+
+/**
+ * Tests for the batch processing of the HTTP connector
+ */
+class HttpClientTest {
+
+    private static final String TEST_TENANT = "testTenant";
+
+    @Test
+    void testBatchIsProcessedWithBoundedParallelism() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        GenericMessageCallback dispatcher = mock(GenericMessageCallback.class);
+        when(dispatcher.onMessage(any())).thenAnswer(invocation -> {
+            ConnectorMessage message = invocation.getArgument(0);
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            CompletableFuture<List<ProcessingContext<Object>>> result = CompletableFuture.supplyAsync(() -> {
+                sleep(5);
+                ProcessingContext<Object> context = ProcessingContext.<Object>builder().build();
+                if ("bad".equals(message.getTopic())) {
+                    context.addError(new ProcessingException("Mapping failed"));
+                }
+                inFlight.decrementAndGet();
+                return List.of(context);
+            });
+            return ProcessingResultWrapper.builder().processingResult((CompletableFuture) result).build();
+        });
+        HttpClient client = new HttpClient();
+        ReflectionTestUtils.setField(client, "dispatcher", dispatcher);
+        ReflectionTestUtils.setField(client, "tenant", TEST_TENANT);
+
+        List<ConnectorMessage> messages = List.of(message("temp/1"), message("bad"), message("temp/2"),
+                message("temp/3"), message("temp/4"));
+        List<HttpBatchItemResult> results = client.onMessages(messages.iterator(), 2);
+
+        assertEquals(5, results.size());
+        assertTrue(maxInFlight.get() <= 2, "at most two messages must be in processing");
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+            assertEquals(messages.get(i).getTopic(), results.get(i).getTopic());
+            assertEquals(1, results.get(i).getMappings());
+        }
+        assertEquals(HttpBatchItemResult.Status.FAILED, results.get(1).getStatus());
+        assertEquals(List.of("Mapping failed"), results.get(1).getErrors());
+        assertEquals(HttpBatchItemResult.Status.PROCESSED, results.get(4).getStatus());
+    }
+
+    @Test
+    void testDispatchErrorFailsOnlyThatItem() {
+        GenericMessageCallback dispatcher = mock(GenericMessageCallback.class);
+        when(dispatcher.onMessage(any())).thenAnswer(invocation -> {
+            ConnectorMessage message = invocation.getArgument(0);
+            if ("bad".equals(message.getTopic())) {
+                throw new IllegalStateException("Dispatcher rejected message");
+            }
+            return ProcessingResultWrapper.builder()
+                    .processingResult((CompletableFuture) CompletableFuture.completedFuture(List.of()))
+                    .build();
+        });
+        HttpClient client = new HttpClient();
+        ReflectionTestUtils.setField(client, "dispatcher", dispatcher);
+        ReflectionTestUtils.setField(client, "tenant", TEST_TENANT);
+
+        List<HttpBatchItemResult> results = client.onMessages(
+                List.of(message("bad"), message("temp/1")).iterator(), 4);
+
+        assertEquals(HttpBatchItemResult.Status.FAILED, results.get(0).getStatus());
+        assertEquals(List.of("Dispatcher rejected message"), results.get(0).getErrors());
+        assertEquals(HttpBatchItemResult.Status.PROCESSED, results.get(1).getStatus());
+        assertEquals(0, results.get(1).getMappings());
+    }
+
+    @Test
+    void testStuckItemTimesOutWithGatewayTimeout() {
+        GenericMessageCallback dispatcher = mock(GenericMessageCallback.class);
+        when(dispatcher.onMessage(any())).thenAnswer(invocation -> {
+            ConnectorMessage message = invocation.getArgument(0);
+            CompletableFuture<List<ProcessingContext<Object>>> result = "stuck".equals(message.getTopic())
+                    ? new CompletableFuture<>()
+                    : CompletableFuture.completedFuture(List.of());
+            return ProcessingResultWrapper.builder().processingResult((CompletableFuture) result).maxCPUTimeMS(50)
+                    .build();
+        });
+        HttpClient client = new HttpClient();
+        ReflectionTestUtils.setField(client, "dispatcher", dispatcher);
+        ReflectionTestUtils.setField(client, "tenant", TEST_TENANT);
+
+        List<HttpBatchItemResult> results = client.onMessages(
+                List.of(message("stuck"), message("temp/1")).iterator(), 4);
+
+        assertEquals(HttpBatchItemResult.Status.FAILED, results.get(0).getStatus());
+        assertEquals(504, results.get(0).getHttpStatus());
+        assertEquals(HttpBatchItemResult.Status.PROCESSED, results.get(1).getStatus());
+        assertNull(results.get(1).getHttpStatus());
+    }
+
+    private static ConnectorMessage message(String topic) {
+        return ConnectorMessage.builder()
+                .tenant(TEST_TENANT)
+                .topic(topic)
+                .connectorIdentifier(HttpClient.HTTP_CONNECTOR_IDENTIFIER)
+                .payload("{}".getBytes())
+                .build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for KafkaOffsetTracker: contiguous commit offsets, batching and rebalances.
+ */
+class KafkaOffsetTrackerTest {
+
+    private static final TopicPartition PARTITION_0 = new TopicPartition("topic", 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition("topic", 1);
+
+    @Test
+    void testOffsetIsNotCommittedBeforeLowerOffsetsComplete() {
+        KafkaOffsetTracker tracker = new KafkaOffsetTracker(100, 60_000);
+        tracker.register(PARTITION_0, 10);
+        tracker.register(PARTITION_0, 11);
+        tracker.register(PARTITION_0, 12);
+
+        tracker.complete(PARTITION_0, 11);
+        tracker.complete(PARTITION_0, 12);
+        assertTrue(tracker.collectOffsets().isEmpty());
+        assertEquals(1, tracker.getPendingAcks());
+
+        tracker.complete(PARTITION_0, 10);
+        Map<TopicPartition, OffsetAndMetadata> offsets = tracker.collectOffsets();
+        assertEquals(13, offsets.get(PARTITION_0).offset());
+        assertEquals(0, tracker.getPendingAcks());
+    }
+
+    @Test
+    void testCommittedOffsetsAreNotCollectedAgain() {
+        KafkaOffsetTracker tracker = new KafkaOffsetTracker(100, 60_000);
+        tracker.register(PARTITION_0, 0);
+        tracker.register(PARTITION_0, 1);
+        tracker.complete(PARTITION_0, 0);
+
+        Map<TopicPartition, OffsetAndMetadata> offsets = tracker.collectOffsets();
+        assertEquals(1, offsets.get(PARTITION_0).offset());
+        assertEquals(2, tracker.getCommitLag());
+
+        tracker.markCommitted(offsets);
+        assertEquals(1, tracker.getCommitLag());
+        assertTrue(tracker.collectOffsets().isEmpty());
+    }
+
+    @Test
+    void testCommitIsDueWhenBatchSizeIsReached() {
+        KafkaOffsetTracker tracker = new KafkaOffsetTracker(2, 60_000);
+        tracker.register(PARTITION_0, 0);
+        tracker.register(PARTITION_1, 0);
+        tracker.complete(PARTITION_0, 0);
+        assertFalse(tracker.isCommitDue());
+
+        tracker.complete(PARTITION_1, 0);
+        assertTrue(tracker.isCommitDue());
+
+        assertEquals(2, tracker.collectOffsets().size());
+        assertFalse(tracker.isCommitDue());
+    }
+
+    @Test
+    void testRevokeReturnsOffsetsAndIgnoresLateCompletions() {
+        KafkaOffsetTracker tracker = new KafkaOffsetTracker(100, 60_000);
+        tracker.register(PARTITION_0, 5);
+        tracker.register(PARTITION_0, 6);
+        tracker.register(PARTITION_1, 3);
+        tracker.complete(PARTITION_0, 5);
+
+        Map<TopicPartition, OffsetAndMetadata> offsets = tracker.revoke(List.of(PARTITION_0));
+        assertEquals(6, offsets.get(PARTITION_0).offset());
+        assertEquals(1, offsets.size());
+
+        // record of the revoked partition completes after the rebalance
+        tracker.complete(PARTITION_0, 6);
+        assertEquals(1, tracker.getPendingAcks());
+        assertTrue(tracker.collectOffsets().isEmpty());
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Benchmark comparing the allocation per Kafka record between the former
+ * String based consumption (StringDeserializer, getBytes() for the
+ * ConnectorMessage and an eager payload string in the exchange) and the
+ * byte[] based consumption.
+ *
+ * Run with: mvn test -Dtest=KafkaPayloadAllocationBenchmark
+ */
+class KafkaPayloadAllocationBenchmark {
+
+    private static final int ITERATIONS = 100000;
+    private static final int PAYLOAD_SIZE = 4096;
+    private static final String TOPIC = "benchmark/topic";
+
+    private final StringDeserializer stringDeserializer = new StringDeserializer();
+    private final ByteArrayDeserializer byteArrayDeserializer = new ByteArrayDeserializer();
+
+    @Test
+    void benchmarkBinaryPayloadAllocation() {
+        System.out.println("\n=== Kafka Binary Payload Allocation Benchmark ===\n");
+        byte[] payload = new byte[PAYLOAD_SIZE];
+        new Random(42).nextBytes(payload);
+
+        long stringPath = measureAllocation(payload, this::consumeAsString);
+        long bytePath = measureAllocation(payload, this::consumeAsBytes);
+
+        System.out.println("Binary payload of " + PAYLOAD_SIZE + " bytes, no text needed by the mapping:");
+        System.out.println("  StringDeserializer: " + formatBytes(stringPath) + " per record");
+        System.out.println("  ByteArrayDeserializer: " + formatBytes(bytePath) + " per record");
+    }
+
+    @Test
+    void benchmarkJsonPayloadAllocation() {
+        System.out.println("\n=== Kafka JSON Payload Allocation Benchmark ===\n");
+        byte[] payload = createJsonPayload();
+
+        // mappings working on text still decode the payload once in their deserializer
+        long stringPath = measureAllocation(payload, bytes -> decode(consumeAsString(bytes)));
+        long bytePath = measureAllocation(payload, bytes -> decode(consumeAsBytes(bytes)));
+
+        System.out.println("JSON payload of " + payload.length + " bytes, decoded once by the mapping:");
+        System.out.println("  StringDeserializer: " + formatBytes(stringPath) + " per record");
+        System.out.println("  ByteArrayDeserializer: " + formatBytes(bytePath) + " per record");
+    }
+
+    @Test
+    void testBinaryPayloadIsPassedUnchanged() {
+        byte[] payload = new byte[] { 0x08, (byte) 0x96, 0x01, (byte) 0xFF, (byte) 0xC3, 0x28 };
+
+        assertArrayEquals(payload, consumeAsBytes(payload));
+        // the String round trip replaces invalid UTF-8 sequences
+        assertFalse(Arrays.equals(payload, consumeAsString(payload)));
+    }
+
+    private byte[] consumeAsString(byte[] received) {
+        String value = stringDeserializer.deserialize(TOPIC, received);
+        byte[] payload = value.getBytes();
+        String payloadString = new String(payload);
+        blackhole(payloadString);
+        return payload;
+    }
+
+    private byte[] consumeAsBytes(byte[] received) {
+        return byteArrayDeserializer.deserialize(TOPIC, received);
+    }
+
+    private byte[] decode(byte[] payload) {
+        blackhole(new String(payload, StandardCharsets.UTF_8));
+        return payload;
+    }
+
+    private long measureAllocation(byte[] payload, Function<byte[], byte[]> consume) {
+        // Warm up JVM
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            blackhole(consume.apply(payload));
+        }
+        long before = getAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            blackhole(consume.apply(payload));
+        }
+        return (getAllocatedBytes() - before) / ITERATIONS;
+    }
+
+    private int sink;
+
+    private void blackhole(Object value) {
+        sink += System.identityHashCode(value);
+    }
+
+    private long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private byte[] createJsonPayload() {
+        StringBuilder json = new StringBuilder("{\"deviceId\":\"berlin_01\",\"values\":[");
+        for (int i = 0; i < 200; i++) {
+            json.append(i > 0 ? "," : "").append("{\"temperature\":").append(20 + i % 10)
+                    .append(",\"unit\":\"\u00b0C\"}");
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        int exp = (int) (Math.log(bytes) / Math.log(1024));
+        char pre = "KMGTPE".charAt(exp - 1);
+        return String.format("%.2f %sB", bytes / Math.pow(1024, exp), pre);
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.connector.pulsar;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.Messages;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dynamic.mapper.model.Qos;
+
+/**
+ * Tests for PulsarBatchReceiver: ordering per key within and across batches,
+ * cumulative and list acknowledgements and redelivery of failed messages.
+ */
+class PulsarBatchReceiverTest {
+
+    private static final String TEST_TENANT = "t12345";
+    private static final String TEST_CONNECTOR_IDENTIFIER = "pulsar-connector";
+
+    private ExecutorService virtualThreadPool;
+    private Consumer<byte[]> consumer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        virtualThreadPool = Executors.newVirtualThreadPerTaskExecutor();
+        consumer = mock(Consumer.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        virtualThreadPool.shutdownNow();
+    }
+
+    @Test
+    void testMessagesWithSameKeyAreProcessedInOrder() throws Exception {
+        List<Message<byte[]>> batch = List.of(
+                message("persistent://t/ns/from-device", "device/a", 1),
+                message("persistent://t/ns/from-device", "device/b", 2),
+                message("persistent://t/ns/from-device", "device/a", 3),
+                message("persistent://t/ns/from-device", "device/b", 4),
+                message("persistent://t/ns/from-device", "device/a", 5));
+        RecordingHandler handler = new RecordingHandler(Set.of());
+
+        receiver(handler, Qos.AT_LEAST_ONCE, true).processBatch(messages(batch));
+
+        assertEquals(List.of(1, 3, 5), handler.processed.get("device/a"));
+        assertEquals(List.of(2, 4), handler.processed.get("device/b"));
+    }
+
+    @Test
+    void testSuccessfulBatchIsAcknowledgedCumulativelyPerTopic() throws Exception {
+        List<Message<byte[]>> batch = List.of(
+                message("persistent://t/ns/topic-partition-0", "device/a", 1),
+                message("persistent://t/ns/topic-partition-1", "device/b", 2),
+                message("persistent://t/ns/topic-partition-0", "device/c", 3));
+
+        List<MessageId> ids = messageIds(batch);
+
+        receiver(new RecordingHandler(Set.of()), Qos.AT_LEAST_ONCE, true).processBatch(messages(batch));
+
+        verify(consumer).acknowledgeCumulative(ids.get(1));
+        verify(consumer).acknowledgeCumulative(ids.get(2));
+        verify(consumer, never()).acknowledgeCumulative(ids.get(0));
+        verify(consumer, never()).acknowledge(anyList());
+        verify(consumer, never()).negativeAcknowledge(any(Message.class));
+    }
+
+    @Test
+    void testFailedMessagesAreRedelivered() throws Exception {
+        List<Message<byte[]>> batch = List.of(
+                message("persistent://t/ns/from-device", "device/a", 1),
+                message("persistent://t/ns/from-device", "device/b", 2),
+                message("persistent://t/ns/from-device", "device/a", 3));
+
+        List<MessageId> ids = messageIds(batch);
+
+        assertFalse(receiver(new RecordingHandler(Set.of(2)), Qos.AT_LEAST_ONCE, true)
+                .processBatch(messages(batch)));
+
+        verify(consumer, never()).acknowledgeCumulative(any(MessageId.class));
+        verify(consumer).acknowledge(List.of(ids.get(0), ids.get(2)));
+        verify(consumer).redeliverUnacknowledgedMessages();
+        verify(consumer, never()).negativeAcknowledge(any(Message.class));
+    }
+
+    @Test
+    void testFailedMessageStopsItsGroup() throws Exception {
+        List<Message<byte[]>> batch = List.of(
+                message("persistent://t/ns/from-device", "device/a", 1),
+                message("persistent://t/ns/from-device", "device/b", 2),
+                message("persistent://t/ns/from-device", "device/a", 3),
+                message("persistent://t/ns/from-device", "device/a", 4),
+                message("persistent://t/ns/from-device", "device/b", 5));
+
+        List<MessageId> ids = messageIds(batch);
+        RecordingHandler handler = new RecordingHandler(Set.of(3));
+
+        receiver(handler, Qos.AT_LEAST_ONCE, true).processBatch(messages(batch));
+
+        assertEquals(List.of(1, 3), handler.processed.get("device/a"));
+        assertEquals(List.of(2, 5), handler.processed.get("device/b"));
+        verify(consumer).acknowledge(List.of(ids.get(0), ids.get(1), ids.get(4)));
+        verify(consumer).redeliverUnacknowledgedMessages();
+    }
+
+    @Test
+    void testFailedMessageIsNotCoveredByCumulativeAckOfNextBatch() throws Exception {
+        Message<byte[]> a1 = message("persistent://t/ns/from-device", "device/a", 1);
+        Message<byte[]> b2 = message("persistent://t/ns/from-device", "device/b", 2);
+        Message<byte[]> a3 = message("persistent://t/ns/from-device", "device/a", 3);
+        RecordingHandler handler = new RecordingHandler(Set.of(1));
+        PulsarBatchReceiver receiver = receiver(handler, Qos.AT_LEAST_ONCE, true);
+
+        // Batch 1: device/a fails, device/b succeeds
+        assertFalse(receiver.processBatch(messages(List.of(a1, b2))));
+        verify(consumer).acknowledge(List.of(b2.getMessageId()));
+        verify(consumer).redeliverUnacknowledgedMessages();
+        verify(consumer, never()).acknowledgeCumulative(any(MessageId.class));
+
+        // Batch 2: the redelivered message comes before the later message of the device
+        assertTrue(receiver.processBatch(messages(List.of(a1, a3))));
+
+        assertEquals(List.of(1, 1, 3), handler.processed.get("device/a"));
+        verify(consumer).acknowledgeCumulative(a3.getMessageId());
+        verify(consumer, never()).negativeAcknowledge(any(Message.class));
+    }
+
+    @Test
+    void testSharedSubscriptionRedeliversFailedMessageBeforeNextBatch() throws Exception {
+        Message<byte[]> a1 = message("persistent://t/ns/from-device", "device/a", 1);
+        Message<byte[]> a2 = message("persistent://t/ns/from-device", "device/a", 2);
+        RecordingHandler handler = new RecordingHandler(Set.of(1));
+        PulsarBatchReceiver receiver = receiver(handler, Qos.AT_LEAST_ONCE, false);
+
+        // Batch 1: the only message fails, nothing is acknowledged
+        assertFalse(receiver.processBatch(messages(List.of(a1))));
+        verify(consumer, never()).acknowledge(anyList());
+        verify(consumer).redeliverUnacknowledgedMessages();
+
+        // Batch 2: clean, the failed message is processed before the later one
+        assertTrue(receiver.processBatch(messages(List.of(a1, a2))));
+
+        assertEquals(List.of(1, 1, 2), handler.processed.get("device/a"));
+        verify(consumer).acknowledge(List.of(a1.getMessageId(), a2.getMessageId()));
+        verify(consumer, never()).acknowledgeCumulative(any(MessageId.class));
+    }
+
+    @Test
+    void testSharedSubscriptionAcknowledgesMessageList() throws Exception {
+        List<Message<byte[]>> batch = List.of(
+                message("persistent://t/ns/from-device", "device/a", 1),
+                message("persistent://t/ns/from-device", "device/b", 2));
+
+        List<MessageId> ids = messageIds(batch);
+
+        receiver(new RecordingHandler(Set.of()), Qos.AT_LEAST_ONCE, false).processBatch(messages(batch));
+
+        verify(consumer, never()).acknowledgeCumulative(any(MessageId.class));
+        verify(consumer).acknowledge(ids);
+    }
+
+    @Test
+    void testAtMostOnceBatchIsAcknowledgedBeforeProcessing() throws Exception {
+        List<Message<byte[]>> batch = List.of(
+                message("persistent://t/ns/from-device", "device/a", 1));
+        Messages<byte[]> messages = messages(batch);
+        RecordingHandler handler = new RecordingHandler(Set.of(1));
+
+        receiver(handler, Qos.AT_MOST_ONCE, false).processBatch(messages);
+
+        verify(consumer).acknowledge(messages);
+        verify(consumer, never()).redeliverUnacknowledgedMessages();
+        assertEquals(List.of(1), handler.processed.get("device/a"));
+    }
+
+    private PulsarBatchReceiver receiver(PulsarMessageHandler handler, Qos qos, boolean cumulativeAck) {
+        return new PulsarBatchReceiver(TEST_TENANT, TEST_CONNECTOR_IDENTIFIER, consumer, handler, qos,
+                cumulativeAck, virtualThreadPool);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Message<byte[]> message(String topicName, String deviceTopic, int sequence) {
+        MessageId messageId = mock(MessageId.class);
+        Message<byte[]> message = mock(Message.class);
+        when(message.getTopicName()).thenReturn(topicName);
+        when(message.getProperty(MQTTServicePulsarClient.PULSAR_PROPERTY_TOPIC)).thenReturn(deviceTopic);
+        when(message.getData()).thenReturn(new byte[] { (byte) sequence });
+        when(message.getMessageId()).thenReturn(messageId);
+        return message;
+    }
+
+    private List<MessageId> messageIds(List<Message<byte[]>> batch) {
+        List<MessageId> ids = new ArrayList<>();
+        batch.forEach(message -> ids.add(message.getMessageId()));
+        return ids;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Messages<byte[]> messages(List<Message<byte[]>> batch) {
+        Messages<byte[]> messages = mock(Messages.class);
+        when(messages.size()).thenReturn(batch.size());
+        when(messages.iterator()).thenAnswer(invocation -> batch.iterator());
+        return messages;
+    }
+
+    /**
+     * Records the sequence numbers processed per device topic, fails the given
+     * sequence numbers the first time they are processed.
+     */
+    private static class RecordingHandler implements PulsarMessageHandler {
+        private final Set<Integer> failing = ConcurrentHashMap.newKeySet();
+        private final Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+
+        RecordingHandler(Set<Integer> failing) {
+            this.failing.addAll(failing);
+        }
+
+        @Override
+        public String getOrderingKey(Message<byte[]> message) {
+            return message.getProperty(MQTTServicePulsarClient.PULSAR_PROPERTY_TOPIC);
+        }
+
+        @Override
+        public boolean process(Message<byte[]> message) {
+            int sequence = message.getData()[0];
+            // Only one thread processes the messages of a key
+            processed.computeIfAbsent(getOrderingKey(message), k -> new ArrayList<>()).add(sequence);
+            return !failing.remove(sequence);
+        }
+    }
+}
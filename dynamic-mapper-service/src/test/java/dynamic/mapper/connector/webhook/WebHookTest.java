@@ -23,17 +23,38 @@ package dynamic.mapper.connector.webhook;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import dynamic.mapper.configuration.ConnectorConfiguration;
+import dynamic.mapper.configuration.ServiceConfiguration;
+import dynamic.mapper.model.Mapping;
+import dynamic.mapper.processor.ProcessingException;
+import dynamic.mapper.processor.model.DynamicMapperRequest;
+import dynamic.mapper.processor.model.ProcessingContext;
+import reactor.core.publisher.Mono;
+
 /**
- * Tests for WebHook JSON merging functionality
+ * Tests for WebHook JSON merging functionality and for publishing requests:
+ * concurrency, retries and per-request errors
  */
 public class WebHookTest {
 
@@ -548,4 +569,103 @@ public class WebHookTest {
             fail("Exception should not be thrown: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPublishSendsRequestsConcurrentlyUpToLimit() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        WebHook webHook = webHook(Map.of("maxConcurrentRequests", 2), request -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return Mono.delay(Duration.ofMillis(50))
+                    .then(Mono.just(response(HttpStatus.OK)))
+                    .doFinally(signal -> inFlight.decrementAndGet());
+        });
+        ProcessingContext<Object> context = context("/a", "/b", "/c", "/d", "/e", "/f");
+
+        webHook.publishMEAO(context);
+
+        assertEquals(2, maxInFlight.get());
+        assertFalse(context.hasError());
+    }
+
+    @Test
+    public void testPublishRetriesServerErrors() {
+        AtomicInteger calls = new AtomicInteger();
+        WebHook webHook = webHook(Map.of("maxRetries", 2, "retryBackoffMs", 1),
+                request -> Mono.just(response(calls.incrementAndGet() == 1 ? HttpStatus.SERVICE_UNAVAILABLE
+                        : HttpStatus.OK)));
+        ProcessingContext<Object> context = context("/a");
+
+        webHook.publishMEAO(context);
+
+        assertEquals(2, calls.get());
+        assertFalse(context.hasError());
+        assertNull(context.getRequests().get(0).getError());
+    }
+
+    @Test
+    public void testPublishDoesNotRetryClientErrors() {
+        AtomicInteger calls = new AtomicInteger();
+        WebHook webHook = webHook(Map.of("maxRetries", 2, "retryBackoffMs", 1), request -> {
+            calls.incrementAndGet();
+            return Mono.just(response(HttpStatus.BAD_REQUEST));
+        });
+        ProcessingContext<Object> context = context("/a");
+
+        webHook.publishMEAO(context);
+
+        assertEquals(1, calls.get());
+        assertTrue(context.hasError());
+    }
+
+    @Test
+    public void testPublishReportsErrorsPerRequest() {
+        WebHook webHook = webHook(Map.of(), request -> Mono.just(response(
+                request.url().getPath().endsWith("/bad") ? HttpStatus.BAD_REQUEST : HttpStatus.OK)));
+        ProcessingContext<Object> context = context("/a", "/bad", "/c");
+
+        webHook.publishMEAO(context);
+
+        assertNull(context.getRequests().get(0).getError());
+        assertInstanceOf(ProcessingException.class, context.getRequests().get(1).getError());
+        assertNull(context.getRequests().get(2).getError());
+        assertEquals(1, context.getErrors().size());
+    }
+
+    private WebHook webHook(Map<String, Object> properties, ExchangeFunction exchange) {
+        ConnectorConfiguration configuration = new ConnectorConfiguration();
+        configuration.setIdentifier("webhook1");
+        configuration.setProperties(new HashMap<>(properties));
+
+        WebHook webHook = new WebHook();
+        ReflectionTestUtils.setField(webHook, "tenant", "testTenant");
+        ReflectionTestUtils.setField(webHook, "connectorIdentifier", "webhook1");
+        ReflectionTestUtils.setField(webHook, "connectorConfiguration", configuration);
+        ReflectionTestUtils.setField(webHook, "baseUrl", "http://localhost:8080");
+        ReflectionTestUtils.setField(webHook, "baseUrlEndsWithSlash", false);
+        ReflectionTestUtils.setField(webHook, "webhookClient",
+                WebClient.builder().exchangeFunction(exchange).build());
+        return webHook;
+    }
+
+    private static ClientResponse response(HttpStatus status) {
+        return ClientResponse.create(status).header("Content-Type", "text/plain").body("{}").build();
+    }
+
+    private static ProcessingContext<Object> context(String... paths) {
+        List<DynamicMapperRequest> requests = new ArrayList<>();
+        for (String path : paths) {
+            requests.add(DynamicMapperRequest.builder()
+                    .method(RequestMethod.POST)
+                    .publishTopic(path)
+                    .request("{\"value\": 1}")
+                    .build());
+        }
+        return ProcessingContext.<Object>builder()
+                .tenant("testTenant")
+                .mapping(Mapping.builder().name("webhookMapping").debug(false).build())
+                .serviceConfiguration(new ServiceConfiguration())
+                .requests(requests)
+                .build();
+    }
+}
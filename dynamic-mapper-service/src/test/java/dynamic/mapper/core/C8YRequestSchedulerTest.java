@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Tests for C8YRequestScheduler: borrowing of idle permits, handing released
+ * permits to tenants below their share and weights.
+ */
+class C8YRequestSchedulerTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testBusyTenantCannotStarveOtherTenant() throws Exception {
+        C8YRequestScheduler scheduler = new C8YRequestScheduler(4, 1, "");
+        // A single tenant may borrow all permits
+        List<C8YRequestScheduler.Permit> noisy = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            noisy.add(scheduler.acquire("noisy"));
+        }
+        assertEquals(0, scheduler.getAvailablePermits());
+
+        Future<C8YRequestScheduler.Permit> quiet = executor.submit(() -> scheduler.acquire("quiet"));
+        Future<C8YRequestScheduler.Permit> noisyMore = executor.submit(() -> scheduler.acquire("noisy"));
+        awaitCondition(() -> scheduler.getQueueLength("quiet") == 1 && scheduler.getQueueLength("noisy") == 1);
+
+        // The released permit goes to the tenant below its share, although the noisy tenant waits as well
+        noisy.remove(0).close();
+        C8YRequestScheduler.Permit quietPermit = quiet.get(5, TimeUnit.SECONDS);
+        assertFalse(noisyMore.isDone());
+        quietPermit.close();
+
+        // Without other tenants waiting the noisy tenant borrows again
+        noisyMore.get(5, TimeUnit.SECONDS).close();
+        noisy.forEach(C8YRequestScheduler.Permit::close);
+        assertEquals(4, scheduler.getAvailablePermits());
+        assertEquals(0, scheduler.getPermitsInUse("noisy"));
+    }
+
+    @Test
+    void testReleasedPermitGoesToTenantWithHigherWeight() throws Exception {
+        C8YRequestScheduler scheduler = new C8YRequestScheduler(4, 1, "premium=3");
+        List<C8YRequestScheduler.Permit> premium = new ArrayList<>();
+        premium.add(scheduler.acquire("premium"));
+        premium.add(scheduler.acquire("premium"));
+        premium.add(scheduler.acquire("premium"));
+        C8YRequestScheduler.Permit standard = scheduler.acquire("standard");
+
+        Future<C8YRequestScheduler.Permit> standardMore = executor.submit(() -> scheduler.acquire("standard"));
+        Future<C8YRequestScheduler.Permit> premiumMore = executor.submit(() -> scheduler.acquire("premium"));
+        awaitCondition(
+                () -> scheduler.getQueueLength("standard") == 1 && scheduler.getQueueLength("premium") == 1);
+
+        // Share of premium is 3 of 4 permits, standard already uses its share of 1
+        premium.remove(0).close();
+        C8YRequestScheduler.Permit premiumPermit = premiumMore.get(5, TimeUnit.SECONDS);
+        assertFalse(standardMore.isDone());
+        premiumPermit.close();
+
+        standard.close();
+        standardMore.get(5, TimeUnit.SECONDS).close();
+        premium.forEach(C8YRequestScheduler.Permit::close);
+        assertEquals(4, scheduler.getAvailablePermits());
+    }
+
+    @Test
+    void testInterruptedWaiterDoesNotLosePermit() throws Exception {
+        C8YRequestScheduler scheduler = new C8YRequestScheduler(1, 1, "");
+        C8YRequestScheduler.Permit permit = scheduler.acquire("t1");
+
+        Future<C8YRequestScheduler.Permit> interrupted = executor.submit(() -> scheduler.acquire("t2"));
+        awaitCondition(() -> scheduler.getQueueLength("t2") == 1);
+        interrupted.cancel(true);
+        awaitCondition(() -> scheduler.getQueueLength("t2") == 0);
+
+        permit.close();
+        // Closing twice must not add a permit
+        permit.close();
+        assertEquals(1, scheduler.getAvailablePermits());
+        scheduler.acquire("t2").close();
+        assertEquals(1, scheduler.getAvailablePermits());
+    }
+
+    @Test
+    void testRemovedTenantKeepsStateUntilLastPermitIsReleased() throws Exception {
+        C8YRequestScheduler scheduler = new C8YRequestScheduler(2, 1, "");
+        C8YRequestScheduler.Permit permit = scheduler.acquire("removed");
+
+        scheduler.removeTenant("removed");
+        assertEquals(1, scheduler.getPermitsInUse("removed"));
+        assertNotNull(Metrics.globalRegistry.find("dynmapper_c8y_permits_in_use").tag("tenant", "removed").gauge());
+
+        permit.close();
+        assertEquals(2, scheduler.getAvailablePermits());
+        assertNull(Metrics.globalRegistry.find("dynmapper_c8y_permits_in_use").tag("tenant", "removed").gauge());
+        assertNull(Metrics.globalRegistry.find("dynmapper_c8y_permit_wait_time").tag("tenant", "removed").timer());
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached in time");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.cumulocity.model.ID;
+import com.cumulocity.model.idtype.GId;
+import com.cumulocity.rest.representation.inventory.ManagedObjectRepresentation;
+import com.cumulocity.sdk.client.SDKException;
+
+/**
+ * Tests for DeviceCreationCoordinator: one creation per identity and cached
+ * user lookups.
+ */
+class DeviceCreationCoordinatorTest {
+
+    private static final String TEST_TENANT = "testTenant";
+
+    private final DeviceCreationCoordinator coordinator = new DeviceCreationCoordinator();
+
+    private static ManagedObjectRepresentation device(String id) {
+        ManagedObjectRepresentation mor = new ManagedObjectRepresentation();
+        mor.setId(new GId(id));
+        return mor;
+    }
+
+    @Test
+    void testConcurrentCreationsShareOneDevice() throws Exception {
+        AtomicInteger creations = new AtomicInteger();
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ManagedObjectRepresentation>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> coordinator.create(TEST_TENANT, new ID("c8y_Serial", "dev-1"),
+                        false, () -> {
+                            creations.incrementAndGet();
+                            creating.countDown();
+                            try {
+                                release.await(5, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            return device("4711");
+                        })));
+            }
+            assertTrue(creating.await(5, TimeUnit.SECONDS));
+            // give the other callers time to join the running creation
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<ManagedObjectRepresentation> future : futures) {
+                assertEquals("4711", future.get(5, TimeUnit.SECONDS).getId().getValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, creations.get());
+        assertEquals(0, coordinator.getRunningCreations());
+    }
+
+    @Test
+    void testDifferentIdentitiesAreCreatedSeparately() {
+        assertEquals("1", coordinator.create(TEST_TENANT, new ID("c8y_Serial", "dev-1"), false,
+                () -> device("1")).getId().getValue());
+        assertEquals("2", coordinator.create(TEST_TENANT, new ID("c8y_Serial", "dev-2"), false,
+                () -> device("2")).getId().getValue());
+        assertEquals("3", coordinator.create("otherTenant", new ID("c8y_Serial", "dev-1"), false,
+                () -> device("3")).getId().getValue());
+    }
+
+    @Test
+    void testFailedCreationIsPassedToWaitersAndNotKept() throws Exception {
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ManagedObjectRepresentation> leader = executor.submit(() -> coordinator.create(TEST_TENANT,
+                    new ID("c8y_Serial", "dev-1"), false, () -> {
+                        creating.countDown();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        throw new SDKException(422, "identity already exists");
+                    }));
+            assertTrue(creating.await(5, TimeUnit.SECONDS));
+            Future<ManagedObjectRepresentation> waiter = executor.submit(() -> coordinator.create(TEST_TENANT,
+                    new ID("c8y_Serial", "dev-1"), false, () -> device("unexpected")));
+            Thread.sleep(100);
+            release.countDown();
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(SDKException.class, e.getCause());
+            // the waiter either joined the failed creation or created the device after it
+            try {
+                assertEquals("unexpected", waiter.get(5, TimeUnit.SECONDS).getId().getValue());
+            } catch (ExecutionException waiterError) {
+                assertInstanceOf(SDKException.class, waiterError.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("4711", coordinator.create(TEST_TENANT, new ID("c8y_Serial", "dev-1"), false,
+                () -> device("4711")).getId().getValue());
+    }
+
+    @Test
+    void testUserLookupIsCached() {
+        AtomicInteger lookups = new AtomicInteger();
+
+        assertTrue(coordinator.userExists(TEST_TENANT, "device_dev-1", username -> {
+            lookups.incrementAndGet();
+            return true;
+        }));
+        assertTrue(coordinator.userExists(TEST_TENANT, "device_dev-1", username -> {
+            lookups.incrementAndGet();
+            return false;
+        }));
+        assertFalse(coordinator.userExists(TEST_TENANT, "device_dev-2", username -> {
+            lookups.incrementAndGet();
+            return false;
+        }));
+
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void testMissingUserIsNotCached() {
+        AtomicInteger lookups = new AtomicInteger();
+
+        assertFalse(coordinator.userExists(TEST_TENANT, "device_dev-1", username -> {
+            lookups.incrementAndGet();
+            return false;
+        }));
+        // the user was created meanwhile
+        assertTrue(coordinator.userExists(TEST_TENANT, "device_dev-1", username -> {
+            lookups.incrementAndGet();
+            return true;
+        }));
+        assertTrue(coordinator.userExists(TEST_TENANT, "device_dev-1", username -> {
+            lookups.incrementAndGet();
+            return false;
+        }));
+
+        assertEquals(2, lookups.get());
+    }
+}
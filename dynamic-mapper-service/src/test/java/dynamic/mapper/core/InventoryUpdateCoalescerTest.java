@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cumulocity.rest.representation.inventory.ManagedObjectRepresentation;
+import com.cumulocity.sdk.client.SDKException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tests for InventoryUpdateCoalescer: merging of the updates of one device,
+ * per-update results and inventory cache updates.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InventoryUpdateCoalescerTest {
+
+    private static final String TEST_TENANT = "testTenant";
+
+    @Mock
+    private C8YAgent c8yAgent;
+
+    @Mock
+    private ConfigurationRegistry configurationRegistry;
+
+    private ExecutorService executor;
+
+    private InventoryUpdateCoalescer coalescer;
+
+    private final List<ManagedObjectRepresentation> sent = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        coalescer = new InventoryUpdateCoalescer();
+        ReflectionTestUtils.setField(coalescer, "c8yAgent", c8yAgent);
+        ReflectionTestUtils.setField(coalescer, "configurationRegistry", configurationRegistry);
+        ReflectionTestUtils.setField(coalescer, "virtualThreadPool", executor);
+        when(configurationRegistry.getObjectMapper()).thenReturn(
+                new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+
+        // Echo the update, rejecting invalid names as Cumulocity would
+        when(c8yAgent.updateDevice(eq(TEST_TENANT), any())).thenAnswer(invocation -> {
+            ManagedObjectRepresentation mor = invocation.getArgument(1);
+            synchronized (sent) {
+                sent.add(mor);
+            }
+            if ("invalid".equals(mor.getName())) {
+                throw new SDKException(422, "invalid update");
+            }
+            return mor;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.cleanup();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testUpdatesWithinWindowAreSentOnce() throws Exception {
+        CompletableFuture<ManagedObjectRepresentation> first = coalescer.submit(TEST_TENANT, "4711",
+                Map.of("name", "first", "type", "c8y_Sensor"), 200);
+        CompletableFuture<ManagedObjectRepresentation> second = coalescer.submit(TEST_TENANT, "4711",
+                Map.of("name", "second"), 200);
+
+        ManagedObjectRepresentation updated = first.get(5, TimeUnit.SECONDS);
+        assertSame(updated, second.get(5, TimeUnit.SECONDS));
+        // Last write wins per fragment, other fragments are kept
+        assertEquals("second", updated.getName());
+        assertEquals("c8y_Sensor", updated.getType());
+        assertEquals("4711", updated.getId().getValue());
+        verify(c8yAgent, times(1)).updateDevice(eq(TEST_TENANT), any());
+        verify(c8yAgent).applyUpdateToInventoryCache(TEST_TENANT, "4711",
+                Map.of("name", "second", "type", "c8y_Sensor"));
+    }
+
+    @Test
+    void testDevicesAreNotMerged() throws Exception {
+        CompletableFuture<ManagedObjectRepresentation> first = coalescer.submit(TEST_TENANT, "1",
+                Map.of("name", "a"), 20);
+        CompletableFuture<ManagedObjectRepresentation> second = coalescer.submit(TEST_TENANT, "2",
+                Map.of("name", "b"), 20);
+
+        assertEquals("1", first.get(5, TimeUnit.SECONDS).getId().getValue());
+        assertEquals("2", second.get(5, TimeUnit.SECONDS).getId().getValue());
+        verify(c8yAgent, times(2)).updateDevice(eq(TEST_TENANT), any());
+    }
+
+    @Test
+    void testRejectedUpdateFailsOnlyInvalidMessage() throws Exception {
+        CompletableFuture<ManagedObjectRepresentation> valid = coalescer.submit(TEST_TENANT, "4711",
+                Map.of("type", "c8y_Sensor"), 200);
+        CompletableFuture<ManagedObjectRepresentation> invalid = coalescer.submit(TEST_TENANT, "4711",
+                Map.of("name", "invalid"), 200);
+
+        assertEquals("c8y_Sensor", valid.get(5, TimeUnit.SECONDS).getType());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> invalid.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(SDKException.class, e.getCause());
+        // One rejected merged update, then one update per message
+        verify(c8yAgent, times(3)).updateDevice(eq(TEST_TENANT), any());
+        verify(c8yAgent, times(1)).applyUpdateToInventoryCache(eq(TEST_TENANT), eq("4711"), anyMap());
+    }
+
+    @Test
+    void testServerErrorFailsAllUpdatesWithoutResending() {
+        when(c8yAgent.updateDevice(eq(TEST_TENANT), any())).thenThrow(new SDKException(503, "service unavailable"));
+
+        CompletableFuture<ManagedObjectRepresentation> first = coalescer.submit(TEST_TENANT, "4711",
+                Map.of("type", "c8y_Sensor"), 200);
+        CompletableFuture<ManagedObjectRepresentation> second = coalescer.submit(TEST_TENANT, "4711",
+                Map.of("name", "second"), 200);
+
+        assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        verify(c8yAgent, times(1)).updateDevice(eq(TEST_TENANT), any());
+        verify(c8yAgent, never()).applyUpdateToInventoryCache(anyString(), anyString(), anyMap());
+    }
+
+    @Test
+    void testShutdownSendsPendingUpdatesWhenPoolIsShutDown() throws Exception {
+        CompletableFuture<ManagedObjectRepresentation> pending = coalescer.submit(TEST_TENANT, "4711",
+                Map.of("name", "last"), 60000);
+        executor.shutdownNow();
+
+        coalescer.cleanup();
+
+        assertTrue(pending.isDone());
+        assertEquals("last", pending.get().getName());
+        verify(c8yAgent, times(1)).updateDevice(eq(TEST_TENANT), any());
+    }
+}
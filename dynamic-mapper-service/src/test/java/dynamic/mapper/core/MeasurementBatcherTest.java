@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cumulocity.model.idtype.GId;
+import com.cumulocity.rest.representation.measurement.MeasurementRepresentation;
+import com.cumulocity.sdk.client.ProcessingMode;
+import com.cumulocity.sdk.client.SDKException;
+
+/**
+ * Tests for MeasurementBatcher: size and linger triggered sends and mapping of
+ * per-measurement failures back to the submitting caller.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MeasurementBatcherTest {
+
+    private static final String TEST_TENANT = "testTenant";
+
+    @Mock
+    private C8YAgent c8yAgent;
+
+    private ExecutorService executor;
+
+    private MeasurementBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        batcher = new MeasurementBatcher();
+        ReflectionTestUtils.setField(batcher, "c8yAgent", c8yAgent);
+        ReflectionTestUtils.setField(batcher, "virtualThreadPool", executor);
+
+        // Echo the measurements with an id, as Cumulocity does
+        when(c8yAgent.createMeasurements(eq(TEST_TENANT), anyList(), any())).thenAnswer(invocation -> {
+            List<MeasurementRepresentation> measurements = invocation.getArgument(1);
+            List<MeasurementRepresentation> created = new ArrayList<>();
+            for (MeasurementRepresentation m : measurements) {
+                if ("invalid".equals(m.getType())) {
+                    throw new SDKException(422, "invalid measurement");
+                }
+                MeasurementRepresentation c = new MeasurementRepresentation();
+                c.setType(m.getType());
+                c.setId(new GId("id_" + m.getType()));
+                created.add(c);
+            }
+            return created;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.cleanup();
+        executor.shutdownNow();
+    }
+
+    private MeasurementRepresentation measurement(String type) {
+        MeasurementRepresentation m = new MeasurementRepresentation();
+        m.setType(type);
+        return m;
+    }
+
+    @Test
+    void testFullBatchIsSentInOneRequest() throws Exception {
+        CompletableFuture<MeasurementRepresentation> first = batcher.submit(TEST_TENANT, ProcessingMode.PERSISTENT,
+                measurement("a"), 2, 10_000);
+        assertFalse(first.isDone());
+
+        CompletableFuture<MeasurementRepresentation> second = batcher.submit(TEST_TENANT, ProcessingMode.PERSISTENT,
+                measurement("b"), 2, 10_000);
+
+        assertEquals("id_a", first.get(1, TimeUnit.SECONDS).getId().getValue());
+        assertEquals("id_b", second.get(1, TimeUnit.SECONDS).getId().getValue());
+        verify(c8yAgent, times(1)).createMeasurements(eq(TEST_TENANT), anyList(), eq(ProcessingMode.PERSISTENT));
+    }
+
+    @Test
+    void testIncompleteBatchIsSentAfterLinger() throws Exception {
+        CompletableFuture<MeasurementRepresentation> result = batcher.submit(TEST_TENANT, ProcessingMode.PERSISTENT,
+                measurement("a"), 100, 20);
+
+        assertEquals("id_a", result.get(5, TimeUnit.SECONDS).getId().getValue());
+    }
+
+    @Test
+    void testRejectedBatchFailsOnlyInvalidMeasurement() throws Exception {
+        CompletableFuture<MeasurementRepresentation> valid = batcher.submit(TEST_TENANT, ProcessingMode.PERSISTENT,
+                measurement("a"), 2, 10_000);
+        CompletableFuture<MeasurementRepresentation> invalid = batcher.submit(TEST_TENANT,
+                ProcessingMode.PERSISTENT, measurement("invalid"), 2, 10_000);
+
+        assertEquals("id_a", valid.get(1, TimeUnit.SECONDS).getId().getValue());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> invalid.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(SDKException.class, e.getCause());
+        // One rejected collection request, then one request per measurement
+        verify(c8yAgent, times(3)).createMeasurements(eq(TEST_TENANT), anyList(), eq(ProcessingMode.PERSISTENT));
+    }
+
+    @Test
+    void testServerErrorFailsWholeBatchWithoutResending() {
+        when(c8yAgent.createMeasurements(eq(TEST_TENANT), anyList(), any()))
+                .thenThrow(new SDKException(503, "service unavailable"));
+
+        CompletableFuture<MeasurementRepresentation> first = batcher.submit(TEST_TENANT, ProcessingMode.PERSISTENT,
+                measurement("a"), 2, 10_000);
+        CompletableFuture<MeasurementRepresentation> second = batcher.submit(TEST_TENANT, ProcessingMode.PERSISTENT,
+                measurement("b"), 2, 10_000);
+
+        assertThrows(ExecutionException.class, () -> first.get(1, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+        verify(c8yAgent, times(1)).createMeasurements(eq(TEST_TENANT), anyList(), eq(ProcessingMode.PERSISTENT));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.core.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for DeviceToClientIndex: consistency of the client → devices index and
+ * tracking of unpersisted changes.
+ */
+class DeviceToClientIndexTest {
+
+    @Test
+    void testReassignedDeviceMovesToNewClient() {
+        DeviceToClientIndex index = new DeviceToClientIndex();
+        index.putAll("clientA", List.of("d1", "d2"));
+        index.put("d3", "clientB");
+
+        index.put("d2", "clientB");
+
+        assertEquals(List.of("d1"), index.getDevices("clientA"));
+        assertEquals(2, index.getDevices("clientB").size());
+        assertTrue(index.getDevices("clientB").containsAll(List.of("d2", "d3")));
+        assertEquals("clientB", index.getClient("d2"));
+        assertEquals(List.of("clientA", "clientB"), index.getClients());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testRemovingLastDeviceRemovesClient() {
+        DeviceToClientIndex index = new DeviceToClientIndex(Map.of("d1", "clientA", "d2", "clientB"));
+
+        assertEquals("clientA", index.remove("d1"));
+        assertNull(index.remove("d1"));
+
+        assertEquals(List.of("clientB"), index.getClients());
+        assertTrue(index.getDevices("clientA").isEmpty());
+        assertFalse(index.containsDevice("d1"));
+    }
+
+    @Test
+    void testRemoveClientRemovesAllItsDevices() {
+        DeviceToClientIndex index = new DeviceToClientIndex();
+        index.putAll("clientA", List.of("d1", "d2"));
+        index.put("d3", "clientB");
+
+        List<String> removed = index.removeClient("clientA");
+
+        assertEquals(2, removed.size());
+        assertTrue(removed.containsAll(List.of("d1", "d2")));
+        assertEquals(Map.of("d3", "clientB"), index.snapshot());
+        assertTrue(index.removeClient("clientA").isEmpty());
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.getClients().isEmpty());
+    }
+
+    @Test
+    void testOnlyModificationsAreUnpersisted() {
+        DeviceToClientIndex index = new DeviceToClientIndex(Map.of("d1", "clientA"));
+        assertFalse(index.hasUnpersistedChanges(), "relations loaded from the inventory are persisted");
+
+        index.put("d1", "clientA");
+        assertFalse(index.hasUnpersistedChanges(), "unchanged relation must not count as modification");
+
+        index.put("d2", "clientA");
+        long version = index.getVersion();
+        assertTrue(index.hasUnpersistedChanges());
+
+        index.markPersisted(version);
+        assertFalse(index.hasUnpersistedChanges());
+
+        index.removeClient("clientA");
+        assertTrue(index.hasUnpersistedChanges());
+    }
+}
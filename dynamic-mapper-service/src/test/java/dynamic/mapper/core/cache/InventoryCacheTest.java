@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.core.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for InventoryCache: single load per source id, bulk prefetch, size and
+ * weight bounds and eviction notification.
+ */
+class InventoryCacheTest {
+
+    private static final String TEST_TENANT = "testTenant";
+
+    @Test
+    void testGetMOLoadsOnlyOnMiss() {
+        InventoryCache cache = new InventoryCache(10, TEST_TENANT);
+        AtomicInteger loads = new AtomicInteger();
+
+        Map<String, Object> first = cache.getMO("4711", id -> {
+            loads.incrementAndGet();
+            return Map.of("id", id, "type", "c8y_Device");
+        });
+        Map<String, Object> second = cache.getMO("4711", id -> {
+            loads.incrementAndGet();
+            return Map.of();
+        });
+
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        assertEquals("c8y_Device", cache.getMOBySource("4711").get("type"));
+        cache.close();
+    }
+
+    @Test
+    void testConcurrentLookupsShareOneLoad() throws Exception {
+        InventoryCache cache = new InventoryCache(10, TEST_TENANT);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Map<String, Object>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> cache.getMO("4711", id -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new HashMap<>(Map.of("id", id));
+                })));
+            }
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            // A lookup without waiting does not see the half loaded entry
+            assertNull(cache.getMOBySource("4711"));
+            release.countDown();
+            for (Future<Map<String, Object>> future : futures) {
+                assertEquals("4711", future.get(5, TimeUnit.SECONDS).get("id"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertThrows(UnsupportedOperationException.class, () -> cache.getMOBySource("4711").put("name", "x"));
+        cache.close();
+    }
+
+    @Test
+    void testFailedLoadIsNotCached() {
+        InventoryCache cache = new InventoryCache(10, TEST_TENANT);
+
+        assertThrows(IllegalStateException.class, () -> cache.getMO("4711", id -> {
+            throw new IllegalStateException("inventory not reachable");
+        }));
+        assertEquals("c8y_Device", cache.getMO("4711", id -> Map.of("type", "c8y_Device")).get("type"));
+        cache.close();
+    }
+
+    @Test
+    void testPrefetchLoadsOnlyMissingSourceIdsInOneCall() {
+        InventoryCache cache = new InventoryCache(10, TEST_TENANT);
+        cache.putMO("1", Map.of("id", "1"));
+        List<Set<String>> bulkLoads = new ArrayList<>();
+
+        cache.prefetchMOs(List.of("1", "2", "3"), missing -> {
+            bulkLoads.add(missing);
+            Map<String, Map<String, Object>> result = new HashMap<>();
+            missing.forEach(id -> result.put(id, Map.of("id", id)));
+            return result;
+        });
+
+        assertEquals(List.of(Set.of("2", "3")), bulkLoads);
+        assertEquals("3", cache.getMO("3", id -> {
+            throw new AssertionError("prefetched entry is loaded again");
+        }).get("id"));
+        cache.close();
+    }
+
+    @Test
+    void testFailedPrefetchCachesNothing() {
+        InventoryCache cache = new InventoryCache(10, TEST_TENANT);
+
+        assertThrows(IllegalStateException.class, () -> cache.prefetchMOs(List.of("1", "2"), missing -> {
+            throw new IllegalStateException("inventory unavailable");
+        }));
+
+        assertNull(cache.getMOBySource("1"));
+        assertEquals("c8y_Device", cache.getMO("2", id -> Map.of("id", id, "type", "c8y_Device")).get("type"));
+        cache.close();
+    }
+
+    @Test
+    void testSizeBoundEvictsAndNotifiesListener() throws InterruptedException {
+        InventoryCache cache = new InventoryCache(5, TEST_TENANT);
+        List<String> evicted = new CopyOnWriteArrayList<>();
+        cache.setEvictionListener(evicted::add);
+
+        for (int i = 0; i < 50; i++) {
+            cache.putMO(String.valueOf(i), Map.of("id", String.valueOf(i)));
+        }
+        cache.cleanUp();
+
+        assertTrue(cache.getCacheSize() <= 5);
+        // The eviction listener is notified asynchronously
+        for (int i = 0; i < 50 && evicted.isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+        assertFalse(evicted.isEmpty());
+        cache.close();
+    }
+
+    @Test
+    void testRemoveDoesNotNotifyListener() {
+        InventoryCache cache = new InventoryCache(5, TEST_TENANT);
+        List<String> evicted = new CopyOnWriteArrayList<>();
+        cache.setEvictionListener(evicted::add);
+
+        cache.putMO("4711", Map.of("id", "4711"));
+        cache.removeMO("4711");
+        cache.cleanUp();
+
+        assertNull(cache.getMOBySource("4711"));
+        assertTrue(evicted.isEmpty());
+        cache.close();
+    }
+
+    @Test
+    void testEstimateWeightCountsKeysAndValues() {
+        assertEquals(4 + 2 + 4 + 4 + 10, InventoryCache.estimateWeight("4711",
+                Map.of("id", "4711", "type", "c8y_Device")));
+        assertEquals(1, InventoryCache.estimateWeight("", Map.of()));
+    }
+}
@@ -64,6 +64,7 @@ import dynamic.mapper.processor.model.DynamicMapperRequest;
 import dynamic.mapper.processor.model.ProcessingContext;
 import dynamic.mapper.processor.model.SubstituteValue;
 import dynamic.mapper.service.MappingService;
+import dynamic.mapper.service.cache.MappingCacheManager;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -114,13 +115,14 @@ class MappingInboundExecutionIntegrationTest {
         log.info("Loaded {} inbound mappings for execution tests", inboundMappings.size());
 
         // Create processors
-        jsonataProcessor = new JSONataExtractionInboundProcessor(mappingService);
+        jsonataProcessor = new JSONataExtractionInboundProcessor(mappingService, new MappingCacheManager());
         substitutionProcessor = new SubstitutionInboundProcessor();
 
         // Inject dependencies via reflection
         injectField(substitutionProcessor, "c8yAgent", c8yAgent);
         injectField(substitutionProcessor, "mappingService", mappingService);
         injectField(substitutionProcessor, "objectMapper", new ObjectMapper());
+        injectField(substitutionProcessor, "mappingCacheManager", new MappingCacheManager());
 
         // Setup common mocks
         when(serviceConfiguration.getLogPayload()).thenReturn(false);
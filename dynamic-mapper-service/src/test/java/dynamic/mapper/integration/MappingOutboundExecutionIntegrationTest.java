@@ -63,6 +63,7 @@ import dynamic.mapper.processor.outbound.processor.SubstitutionOutboundProcessor
 import dynamic.mapper.processor.model.ProcessingContext;
 import dynamic.mapper.processor.model.SubstituteValue;
 import dynamic.mapper.service.MappingService;
+import dynamic.mapper.service.cache.MappingCacheManager;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -113,12 +114,13 @@ class MappingOutboundExecutionIntegrationTest {
         log.info("Loaded {} outbound mappings for execution tests", outboundMappings.size());
 
         // Create processors
-        jsonataProcessor = new JSONataExtractionOutboundProcessor(mappingService);
+        jsonataProcessor = new JSONataExtractionOutboundProcessor(mappingService, new MappingCacheManager());
         substitutionProcessor = new SubstitutionOutboundProcessor();
 
         // Inject dependencies via reflection
         injectField(substitutionProcessor, "c8yAgent", c8yAgent);
         injectField(substitutionProcessor, "mappingService", mappingService);
+        injectField(substitutionProcessor, "mappingCacheManager", new MappingCacheManager());
 
         // Setup common mocks
         when(serviceConfiguration.getLogPayload()).thenReturn(false);
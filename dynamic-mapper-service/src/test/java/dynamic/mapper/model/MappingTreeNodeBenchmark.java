@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Benchmark for resolving inbound topics against a tree of 10k mappings with
+ * single and multi level wildcards, with and without the topic cache.
+ *
+ * Run with: mvn test -Dtest=MappingTreeNodeBenchmark
+ */
+class MappingTreeNodeBenchmark {
+
+    private static final int MAPPINGS = 10000;
+    private static final int ITERATIONS = 200000;
+    private static final String TENANT = "BENCHMARK_TENANT";
+
+    @Test
+    void benchmarkTopicResolution() throws Exception {
+        System.out.println("\n=== Mapping Tree Topic Resolution Benchmark ===\n");
+        List<String> topics = createTopics();
+
+        MappingTreeNode uncached = createTree(0);
+        MappingTreeNode cached = createTree(MappingTreeNode.DEFAULT_TOPIC_CACHE_SIZE);
+
+        measure("Snapshot walk, no topic cache", uncached, topics);
+        measure("Snapshot walk, topic cache", cached, topics);
+    }
+
+    @Test
+    void testCachedResolutionMatchesUncached() throws Exception {
+        MappingTreeNode uncached = createTree(0);
+        MappingTreeNode cached = createTree(MappingTreeNode.DEFAULT_TOPIC_CACHE_SIZE);
+
+        for (String topic : createTopics()) {
+            List<Mapping> expected = uncached.resolveMapping(topic);
+            assertFalse(expected.isEmpty(), "Topic should resolve: " + topic);
+            assertEquals(expected, cached.resolveMapping(topic));
+            assertEquals(expected, cached.resolveMapping(topic));
+        }
+    }
+
+    private void measure(String label, MappingTreeNode tree, List<String> topics) throws Exception {
+        // Warm up JVM
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            blackhole(tree.resolveMapping(topics.get(i % topics.size())));
+        }
+        long allocatedBefore = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            blackhole(tree.resolveMapping(topics.get(i % topics.size())));
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = getAllocatedBytes() - allocatedBefore;
+
+        System.out.println(label + ":");
+        System.out.println("  Mappings: " + MAPPINGS + ", topics: " + topics.size());
+        System.out.println("  Per lookup: " + (elapsed / ITERATIONS) + " ns, " + (allocated / ITERATIONS)
+                + " B allocated");
+    }
+
+    private MappingTreeNode createTree(int topicCacheSize) throws ResolveException {
+        MappingTreeNode tree = MappingTreeNode.createRootNode(TENANT, topicCacheSize);
+        for (int i = 0; i < MAPPINGS; i++) {
+            tree.addMapping(createMapping(i, mappingTopic(i)));
+        }
+        return tree;
+    }
+
+    // A third each of exact, single level and multi level wildcard topics
+    private String mappingTopic(int i) {
+        switch (i % 3) {
+            case 0:
+                return "fleet/vehicle_" + i + "/telemetry";
+            case 1:
+                return "site/plant_" + i + "/+/measurement";
+            default:
+                return "building/floor_" + i + "/#";
+        }
+    }
+
+    private List<String> createTopics() {
+        List<String> topics = new ArrayList<>(MAPPINGS);
+        for (int i = 0; i < MAPPINGS; i++) {
+            switch (i % 3) {
+                case 0:
+                    topics.add("fleet/vehicle_" + i + "/telemetry");
+                    break;
+                case 1:
+                    topics.add("site/plant_" + i + "/sensor_" + (i % 17) + "/measurement");
+                    break;
+                default:
+                    topics.add("building/floor_" + i + "/room_" + (i % 23) + "/temperature");
+                    break;
+            }
+        }
+        return topics;
+    }
+
+    private Mapping createMapping(int i, String topic) {
+        return Mapping.builder()
+                .id(String.format("%09d", i))
+                .identifier("mapping_" + i)
+                .name("Mapping - " + i)
+                .mappingTopic(topic)
+                .build();
+    }
+
+    private int sink;
+
+    private void blackhole(Object value) {
+        sink += System.identityHashCode(value);
+    }
+
+    private long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -179,6 +179,39 @@ class MappingTreeTest {
             assertEquals(1, resolvedMappings.size(), "Should resolve 1 mapping");
             assertEquals("Mapping - 08", resolvedMappings.get(0).getName(), "Should resolve mapping 01");
         }
+
+        @Test
+        @DisplayName("Should cache resolved topics until the tree changes")
+        void testResolvedTopicsAreCachedUntilTreeChanges() throws ResolveException {
+            MappingTreeNode tree = MappingTreeNode.createRootNode("TEST_TENANT");
+            tree.addMapping(mappings.get(0));
+
+            List<Mapping> first = tree.resolveMapping("device/test");
+            assertSame(first, tree.resolveMapping("device/test"), "Should return the cached resolution");
+            assertThrows(UnsupportedOperationException.class, () -> first.add(mappings.get(8)));
+
+            tree.addMapping(mappings.get(8));
+            assertEquals(2, tree.resolveMapping("device/test").size(), "Should resolve the added mapping");
+
+            tree.deleteMapping(mappings.get(0));
+            List<Mapping> resolvedMappings = tree.resolveMapping("device/test");
+            assertEquals(1, resolvedMappings.size(), "Should not resolve the deleted mapping");
+            assertEquals("Mapping - 08", resolvedMappings.get(0).getName(), "Should resolve mapping 08");
+        }
+
+        @Test
+        @DisplayName("Should resolve topics with the topic cache disabled")
+        void testResolveWithoutTopicCache() throws ResolveException {
+            MappingTreeNode tree = MappingTreeNode.createRootNode("TEST_TENANT", 0);
+            tree.addMapping(mappings.get(5));
+            tree.addMapping(mappings.get(6));
+            tree.addMapping(mappings.get(7));
+
+            assertEquals(2, tree.resolveMapping("device/test1/sub").size(), "Should resolve 2 mappings");
+            assertEquals(2, tree.resolveMapping("device/test1/some/special/sub").size(),
+                    "Should resolve 2 mappings");
+            assertTrue(tree.resolveMapping("unknown/topic").isEmpty(), "Should not resolve any mapping");
+        }
     }
 
     private List<Mapping> deserializeMappings(String filePath) throws IOException {
@@ -317,13 +317,13 @@ class AbstractEnrichmentProcessorTest {
     @Test
     void testProcessIncrementsMessagesReceived() throws Exception {
         // Given
-        assertEquals(0L, mappingStatus.messagesReceived, "Initial count should be 0");
+        assertEquals(0L, mappingStatus.getMessagesReceived(), "Initial count should be 0");
 
         // When
         processor.process(exchange);
 
         // Then
-        assertEquals(1L, mappingStatus.messagesReceived, "Should have incremented messages received");
+        assertEquals(1L, mappingStatus.getMessagesReceived(), "Should have incremented messages received");
 
         log.info("✅ Successfully incremented messagesReceived counter");
     }
@@ -355,7 +355,7 @@ class AbstractEnrichmentProcessorTest {
         assertFalse(processor.wasEnrichPayloadCalled(),
                 "Should not call enrichPayload when GraalVM setup fails");
         assertEquals(1, processingContext.getErrors().size(), "Should have added error");
-        assertEquals(1, mappingStatus.errors, "Should have incremented error count");
+        assertEquals(1, mappingStatus.getErrors(), "Should have incremented error count");
 
         log.info("✅ Successfully handled GraalVM setup error");
     }
@@ -486,7 +486,7 @@ class AbstractEnrichmentProcessorTest {
         assertEquals(1, processingContext.getErrors().size(), "Should have added error to context");
         assertTrue(processingContext.getErrors().get(0).getMessage().contains("Failed to set up GraalVM context"),
                 "Error message should mention GraalVM context setup");
-        assertEquals(1, mappingStatus.errors, "Should have incremented error count");
+        assertEquals(1, mappingStatus.getErrors(), "Should have incremented error count");
         verify(mappingService).increaseAndHandleFailureCount(TEST_TENANT, mapping, mappingStatus);
 
         log.info("✅ Successfully handled GraalVM error");
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.processor.flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for GraalContextPool: reuse of warm contexts, invalidation and close.
+ */
+class GraalContextPoolTest {
+
+    private static Engine graalEngine;
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    @BeforeAll
+    static void setUpEngine() {
+        graalEngine = Engine.newBuilder()
+                .option("engine.WarnInterpreterOnly", "false")
+                .build();
+    }
+
+    @AfterAll
+    static void tearDownEngine() {
+        if (graalEngine != null) {
+            graalEngine.close();
+        }
+    }
+
+    private GraalContextPool createPool(int maxIdle) {
+        return new GraalContextPool("testTenant", "mapping-" + System.nanoTime(), "v1", maxIdle, pool -> {
+            created.incrementAndGet();
+            Context context = Context.newBuilder("js").engine(graalEngine).build();
+            context.eval("js", "globalThis.onMessage = function(x) { return x + 1; }");
+            return new PooledGraalContext(pool, context, context.getBindings("js").getMember("onMessage"));
+        });
+    }
+
+    @Test
+    void testReleasedContextIsReused() throws Exception {
+        try (GraalContextPool pool = createPool(2)) {
+            PooledGraalContext first = pool.borrow();
+            assertEquals(2, first.getFunction().execute(1).asInt());
+            first.release();
+
+            PooledGraalContext second = pool.borrow();
+            assertSame(first, second);
+            assertEquals(1, created.get());
+            second.release();
+        }
+    }
+
+    @Test
+    void testBorrowDoesNotBlockWhenAllContextsInUse() throws Exception {
+        try (GraalContextPool pool = createPool(1)) {
+            PooledGraalContext first = pool.borrow();
+            PooledGraalContext second = pool.borrow();
+            assertNotSame(first, second);
+            assertEquals(2, created.get());
+
+            first.release();
+            // Only one idle context is retained, the second one is closed
+            second.release();
+            assertThrows(IllegalStateException.class, () -> second.getContext().eval("js", "1"));
+        }
+    }
+
+    @Test
+    void testInvalidatedContextIsClosedOnRelease() throws Exception {
+        try (GraalContextPool pool = createPool(2)) {
+            PooledGraalContext pooled = pool.borrow();
+            pooled.invalidate();
+            pooled.release();
+
+            PooledGraalContext next = pool.borrow();
+            assertNotSame(pooled, next);
+            assertEquals(2, created.get());
+            next.release();
+        }
+    }
+
+    @Test
+    void testReleaseAfterCloseClosesContext() throws Exception {
+        GraalContextPool pool = createPool(2);
+        PooledGraalContext pooled = pool.borrow();
+        pool.close();
+        pooled.release();
+        assertThrows(IllegalStateException.class, () -> pooled.getContext().eval("js", "1"));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.processor.inbound.deserializer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tests for CopyOnWriteJson: changes of a view at any level never reach the
+ * shared payload or the views of other mappings.
+ */
+class CopyOnWriteJsonTest {
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> sharedPayload() {
+        Map<String, Object> device = new LinkedHashMap<>(Map.of("id", "sensor001"));
+        List<Object> values = new ArrayList<>(List.of(new LinkedHashMap<>(Map.of("value", 1)), 2));
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("temperature", 25.5);
+        payload.put("device", device);
+        payload.put("values", values);
+        return payload;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReadsDoNotCopy() {
+        Map<String, Object> shared = sharedPayload();
+        Map<String, Object> view = (Map<String, Object>) CopyOnWriteJson.view(shared);
+
+        assertEquals(25.5, view.get("temperature"));
+        assertEquals(shared, view);
+        assertEquals(List.of("temperature", "device", "values"), new ArrayList<>(view.keySet()));
+        // A nested view is handed out once, so changes through it are kept
+        assertSame(view.get("device"), view.get("device"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testChangesStayInTheView() {
+        Map<String, Object> shared = sharedPayload();
+        Map<String, Object> first = (Map<String, Object>) CopyOnWriteJson.view(shared);
+        Map<String, Object> second = (Map<String, Object>) CopyOnWriteJson.view(shared);
+
+        ((Map<String, Object>) first.get("device")).put("name", "Sensor 1");
+        first.put("_TOPIC_LEVEL_", List.of("measurements", "sensor001"));
+        ((Map<String, Object>) ((List<Object>) first.get("values")).get(0)).put("value", 42);
+        ((List<Object>) first.get("values")).add(3);
+
+        assertEquals("Sensor 1", ((Map<String, Object>) first.get("device")).get("name"));
+        assertEquals(42, ((Map<String, Object>) ((List<Object>) first.get("values")).get(0)).get("value"));
+        assertEquals(3, ((List<Object>) first.get("values")).size());
+        assertEquals(sharedPayload(), shared);
+        assertEquals(sharedPayload(), second);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testViewSerializesLikeThePayload() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, Object> view = (Map<String, Object>) CopyOnWriteJson.view(sharedPayload());
+        view.put("_CONTEXT_DATA_", Map.of("api", "MEASUREMENT"));
+
+        Map<String, Object> expected = sharedPayload();
+        expected.put("_CONTEXT_DATA_", Map.of("api", "MEASUREMENT"));
+        assertEquals(objectMapper.writeValueAsString(expected), objectMapper.writeValueAsString(view));
+        assertEquals("text", CopyOnWriteJson.view("text"));
+    }
+}
@@ -477,7 +477,7 @@ class CodeExtractionInboundProcessorTest {
 
         verify(mappingService).getMappingStatus(TEST_TENANT, mapping);
         verify(mappingService).increaseAndHandleFailureCount(TEST_TENANT, mapping, mappingStatus);
-        assertEquals(1, mappingStatus.errors, "Should increment error count");
+        assertEquals(1, mappingStatus.getErrors(), "Should increment error count");
 
         log.info("✅ Successfully handled error in production mode");
     }
@@ -114,7 +114,7 @@ class DeserializationInboundProcessorErrorHandlingTest {
         verify(mappingService).getMappingStatus(TEST_TENANT, mapping);
         verify(mappingService).increaseAndHandleFailureCount(eq(TEST_TENANT), eq(mapping), eq(mappingStatus));
         verify(mockDeserializer).deserializePayload(eq(mapping), eq(connectorMessage));
-        assertEquals(1, (int) mappingStatus.errors);
+        assertEquals(1, (int) mappingStatus.getErrors());
     }
 
     @Test
@@ -137,7 +137,7 @@ class DeserializationInboundProcessorErrorHandlingTest {
         verify(mappingService).getMappingStatus(TEST_TENANT, mapping);
         verify(mappingService).increaseAndHandleFailureCount(eq(TEST_TENANT), eq(mapping), eq(mappingStatus));
         verify(mockDeserializer).deserializePayload(eq(mapping), eq(connectorMessage));
-        assertEquals(1, mappingStatus.errors);
+        assertEquals(1, mappingStatus.getErrors());
     }
 
     @SuppressWarnings("unchecked")
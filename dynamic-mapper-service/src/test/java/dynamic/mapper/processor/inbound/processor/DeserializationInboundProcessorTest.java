@@ -39,6 +39,7 @@ import org.mockito.quality.Strictness;
 
 import dynamic.mapper.configuration.ServiceConfiguration;
 import dynamic.mapper.connector.core.callback.ConnectorMessage;
+import dynamic.mapper.connector.core.callback.MessagePayload;
 import dynamic.mapper.model.Direction;
 import dynamic.mapper.model.Mapping;
 import dynamic.mapper.model.MappingStatus;
@@ -102,28 +103,35 @@ class DeserializationInboundProcessorTest {
                 .thenReturn(unspecifiedMappingStatus);
     }
 
+    private void stubPayload(String payload) {
+        byte[] bytes = payload.getBytes();
+        when(connectorMessage.getPayload()).thenReturn(bytes);
+        when(connectorMessage.getMessagePayload()).thenReturn(MessagePayload.of(bytes));
+        when(connectorMessage.hasPayload()).thenReturn(true);
+    }
+
     private void setupValidPayload(MappingType mappingType) {
         switch (mappingType) {
             case JSON:
                 // Provide valid JSON data
-                when(connectorMessage.getPayload()).thenReturn("{\"temperature\":25.5,\"deviceId\":\"sensor001\",\"status\":\"active\"}".getBytes());
+                stubPayload("{\"temperature\":25.5,\"deviceId\":\"sensor001\",\"status\":\"active\"}");
                 break;
             case FLAT_FILE:
                 // Provide valid flat file data
-                when(connectorMessage.getPayload()).thenReturn("25.5,sensor001,active".getBytes());
+                stubPayload("25.5,sensor001,active");
                 break;
             case HEX:
                 // Provide valid hex data
-                when(connectorMessage.getPayload()).thenReturn("48656c6c6f".getBytes());
+                stubPayload("48656c6c6f");
                 break;
             case PROTOBUF_INTERNAL:
             case EXTENSION_JAVA:
                 // Provide valid byte array for byte-based processing
-                when(connectorMessage.getPayload()).thenReturn("test payload".getBytes());
+                stubPayload("test payload");
                 break;
             default:
                 // Default to valid JSON
-                when(connectorMessage.getPayload()).thenReturn("{\"data\": \"test\"}".getBytes());
+                stubPayload("{\"data\": \"test\"}");
         }
     }
 
@@ -224,8 +232,8 @@ class DeserializationInboundProcessorTest {
         verify(mappingService).increaseAndHandleFailureCount(eq(TEST_TENANT), eq(mapping), eq(mappingStatus));
         verify(message).setHeader(eq("processingContext"), any(ProcessingContext.class));
 
-        assertEquals(1, mappingStatus.errors);
-        assertEquals(1, unspecifiedMappingStatus.errors);
+        assertEquals(1, mappingStatus.getErrors());
+        assertEquals(1, unspecifiedMappingStatus.getErrors());
     }
 
     @Test
@@ -233,7 +241,7 @@ class DeserializationInboundProcessorTest {
         // Given
         mapping.setMappingType(MappingType.JSON);
         // Provide invalid JSON to test error handling
-        when(connectorMessage.getPayload()).thenReturn("invalid json".getBytes());
+        stubPayload("invalid json");
 
         DeserializationInboundProcessor processor = new DeserializationInboundProcessor();
         injectMappingService(processor, mappingService);
@@ -247,7 +255,7 @@ class DeserializationInboundProcessorTest {
         // Verify setHeader is NOT called when deserialization fails
         verify(message, never()).setHeader(eq("processingContext"), any(ProcessingContext.class));
 
-        assertEquals(1, mappingStatus.errors);
+        assertEquals(1, mappingStatus.getErrors());
     }
 
     @Test
@@ -283,8 +283,8 @@ class EnrichmentInboundProcessorTest {
         // Test that mappingService.getMappingStatus returns our mock
         MappingStatus status = mappingService.getMappingStatus(TEST_TENANT, mapping);
         assertNotNull(status, "MappingStatus should not be null");
-        assertEquals(0L, status.messagesReceived, "messagesReceived should be initialized to 0");
-        assertEquals(0L, status.errors, "errors should be initialized to 0");
+        assertEquals(0L, status.getMessagesReceived(), "messagesReceived should be initialized to 0");
+        assertEquals(0L, status.getErrors(), "errors should be initialized to 0");
     }
 
     @Test
@@ -750,7 +750,7 @@ class FlowProcessorInboundProcessorTest {
 
         // Then - Verify error handling
         verify(mappingService).increaseAndHandleFailureCount(eq(TEST_TENANT), eq(mapping), any(MappingStatus.class));
-        assertEquals(1, mappingStatus.errors, "Should have incremented error count");
+        assertEquals(1, mappingStatus.getErrors(), "Should have incremented error count");
 
         // Verify processing context contains error
         assertFalse(processingContext.getErrors().isEmpty(), "Should have processing errors");
@@ -57,6 +57,7 @@ import dynamic.mapper.processor.model.RepairStrategy;
 import dynamic.mapper.processor.model.SubstituteValue;
 import dynamic.mapper.processor.model.TransformationType;
 import dynamic.mapper.service.MappingService;
+import dynamic.mapper.service.cache.MappingCacheManager;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -87,7 +88,7 @@ class JSONataExtractionInboundProcessorTest {
     @BeforeEach
     void setUp() throws Exception {
         // Create the processor
-        processor = new JSONataExtractionInboundProcessor(mappingService);
+        processor = new JSONataExtractionInboundProcessor(mappingService, new MappingCacheManager());
 
         // Create test mapping with ALL required fields
         Mapping mapping = createCompleteMapping();
@@ -383,7 +384,7 @@ class JSONataExtractionInboundProcessorTest {
         processor.process(exchange);
 
         verify(mappingService, never()).increaseAndHandleFailureCount(any(), any(), any());
-        assertEquals(0, mappingStatus.errors);
+        assertEquals(0, mappingStatus.getErrors());
 
         // Just verify cache is not null
         assertNotNull(processingCache, "Processing cache should not be null");
@@ -406,7 +407,7 @@ class JSONataExtractionInboundProcessorTest {
 
         // Then - verify error handling was called
         assertTrue(processingContext.getErrors().size() > 0, "Should have added error to context");
-        assertEquals(1, mappingStatus.errors);
+        assertEquals(1, mappingStatus.getErrors());
     }
 
     // ========== COMPLEX JSONATA SCENARIO TESTS ==========
@@ -174,8 +174,8 @@ class SnoopingInboundProcessorTest {
                 "Should have correct device payload");
 
         // Verify status counters
-        assertEquals(1, mappingStatus.snoopedTemplatesTotal);
-        assertEquals(1, mappingStatus.snoopedTemplatesActive);
+        assertEquals(1, mappingStatus.getSnoopedTemplatesTotal());
+        assertEquals(1, mappingStatus.getSnoopedTemplatesActive());
 
         // Verify further processing is blocked
         assertTrue(processingContext.getIgnoreFurtherProcessing(),
@@ -365,8 +365,8 @@ class SnoopingInboundProcessorTest {
     void testSnoopIncrementsMappingStatusCorrectly() throws Exception {
         // Given - Existing snooped templates
         mapping.getSnoopedTemplates().add("{\"old\":\"template\"}");
-        mappingStatus.snoopedTemplatesTotal = 1;
-        mappingStatus.snoopedTemplatesActive = 0;
+        mappingStatus.setSnoopedTemplatesTotal(1);
+        mappingStatus.setSnoopedTemplatesActive(0);
 
         String serializedPayload = "{\"new\":\"template\"}";
         when(objectMapper.writeValueAsString(processingContext.getPayload())).thenReturn(serializedPayload);
@@ -375,8 +375,8 @@ class SnoopingInboundProcessorTest {
         processor.process(exchange);
 
         // Then
-        assertEquals(2, mappingStatus.snoopedTemplatesTotal, "Total should be incremented");
-        assertEquals(1, mappingStatus.snoopedTemplatesActive, "Active should reflect current execution");
+        assertEquals(2, mappingStatus.getSnoopedTemplatesTotal(), "Total should be incremented");
+        assertEquals(1, mappingStatus.getSnoopedTemplatesActive(), "Active should reflect current execution");
 
         log.info("✅ Successfully verified mapping status counters");
     }
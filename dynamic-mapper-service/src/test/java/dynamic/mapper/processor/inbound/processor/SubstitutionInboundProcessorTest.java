@@ -65,6 +65,7 @@ import dynamic.mapper.processor.model.RepairStrategy;
 import dynamic.mapper.processor.model.SubstituteValue;
 import dynamic.mapper.processor.model.TransformationType;
 import dynamic.mapper.service.MappingService;
+import dynamic.mapper.service.cache.MappingCacheManager;
 import dynamic.mapper.service.resolver.MappingResolverService;
 import lombok.extern.slf4j.Slf4j;
 
@@ -154,6 +155,7 @@ class SubstitutionInboundProcessorTest {
         injectField("mappingService", mappingService);
         injectField("c8yAgent", c8yAgent);
         injectField("objectMapper", objectMapper);
+        injectField("mappingCacheManager", new MappingCacheManager());
     }
 
     private void injectField(String fieldName, Object value) throws Exception {
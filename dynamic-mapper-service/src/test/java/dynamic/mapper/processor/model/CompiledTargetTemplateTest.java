@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.processor.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.jayway.jsonpath.DocumentContext;
+
+import dynamic.mapper.model.Direction;
+import dynamic.mapper.model.Mapping;
+import dynamic.mapper.processor.model.SubstituteValue.TYPE;
+
+/**
+ * Tests for CompiledTargetTemplate: independent documents, substitution
+ * semantics of the compiled slots and detection of changed mappings.
+ */
+class CompiledTargetTemplateTest {
+
+    private static Mapping mapping(Direction direction, String targetTemplate, long lastUpdate) {
+        Mapping mapping = new Mapping();
+        mapping.setId("mapping-1");
+        mapping.setDirection(direction);
+        mapping.setTargetTemplate(targetTemplate);
+        mapping.setLastUpdate(lastUpdate);
+        return mapping;
+    }
+
+    @Test
+    void testDocumentsAreIndependentCopies() throws Exception {
+        CompiledTargetTemplate template = CompiledTargetTemplate
+                .compile(mapping(Direction.INBOUND, "{\"c8y_Temperature\":{\"T\":{\"value\":0}}}", 1L));
+
+        DocumentContext first = template.newDocument();
+        template.getSlot("c8y_Temperature.T.value")
+                .apply(new SubstituteValue(42, TYPE.NUMBER, RepairStrategy.DEFAULT, false), first);
+        DocumentContext second = template.newDocument();
+
+        assertEquals(42, (Integer) first.read("$.c8y_Temperature.T.value"));
+        assertEquals(0, (Integer) second.read("$.c8y_Temperature.T.value"));
+    }
+
+    @Test
+    void testSlotsApplyRepairStrategies() throws Exception {
+        CompiledTargetTemplate template = CompiledTargetTemplate
+                .compile(mapping(Direction.INBOUND, "{\"type\":\"x\",\"text\":\"y\"}", 1L));
+        DocumentContext document = template.newDocument();
+
+        template.getSlot("text")
+                .apply(new SubstituteValue(null, TYPE.IGNORE, RepairStrategy.REMOVE_IF_MISSING_OR_NULL, false),
+                        document);
+        template.getSlot("c8y_Nested.level.value")
+                .apply(new SubstituteValue("created", TYPE.TEXTUAL, RepairStrategy.CREATE_IF_MISSING, false),
+                        document);
+        template.getSlot("$")
+                .apply(new SubstituteValue(Map.of("severity", "MAJOR"), TYPE.OBJECT, RepairStrategy.DEFAULT,
+                        false), document);
+
+        Map<String, Object> result = document.json();
+        assertFalse(result.containsKey("text"));
+        assertEquals("created", document.read("$.c8y_Nested.level.value"));
+        assertEquals("MAJOR", result.get("severity"));
+        assertEquals("x", result.get("type"));
+        assertSame(template.getSlot("text"), template.getSlot("text"));
+    }
+
+    @Test
+    void testOutboundArrayTemplateIsWrapped() throws Exception {
+        CompiledTargetTemplate template = CompiledTargetTemplate
+                .compile(mapping(Direction.OUTBOUND, "[{\"v\":0},{\"v\":0}]", 1L));
+        DocumentContext document = template.newDocument();
+
+        template.getSlot("$." + CompiledTargetTemplate.TEMP_ARRAY + "[1].v")
+                .apply(new SubstituteValue(7, TYPE.NUMBER, RepairStrategy.DEFAULT, false), document);
+
+        List<Integer> values = document.read("$." + CompiledTargetTemplate.TEMP_ARRAY + "[*].v");
+        assertEquals(List.of(0, 7), values);
+    }
+
+    @Test
+    void testChangedMappingIsDetected() {
+        Mapping mapping = mapping(Direction.INBOUND, "{\"a\":1}", 1L);
+        CompiledTargetTemplate template = CompiledTargetTemplate.compile(mapping);
+        assertTrue(template.isCompiledFrom(mapping));
+
+        mapping.setLastUpdate(2L);
+        assertFalse(template.isCompiledFrom(mapping));
+
+        mapping.setLastUpdate(1L);
+        mapping.setTargetTemplate("{\"a\":2}");
+        assertFalse(template.isCompiledFrom(mapping));
+    }
+}
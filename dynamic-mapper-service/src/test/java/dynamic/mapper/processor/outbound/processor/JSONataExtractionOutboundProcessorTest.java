@@ -57,6 +57,7 @@ import dynamic.mapper.processor.model.RepairStrategy;
 import dynamic.mapper.processor.model.SubstituteValue;
 import dynamic.mapper.processor.model.TransformationType;
 import dynamic.mapper.service.MappingService;
+import dynamic.mapper.service.cache.MappingCacheManager;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -91,7 +92,7 @@ class JSONataExtractionOutboundProcessorTest {
     @BeforeEach
     void setUp() throws Exception {
         objectMapper = new ObjectMapper();
-        processor = new JSONataExtractionOutboundProcessor(mappingService);
+        processor = new JSONataExtractionOutboundProcessor(mappingService, new MappingCacheManager());
 
         mapping = createOutboundEventMapping();
         mappingStatus = new MappingStatus(
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.service.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Tests for FlowStateStore: per key updates, time to live, key limit and the
+ * snapshot log kept across restarts.
+ */
+class FlowStateStoreTest {
+
+    private static final String TEST_TENANT = "testTenant";
+    private static final String MAPPING = "mapping1";
+
+    @Test
+    void testConcurrentWritersKeepTheirKeys() throws Exception {
+        FlowStateStore store = new FlowStateStore();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = List.of(
+                    executor.submit(() -> writeKeys(store, "a")),
+                    executor.submit(() -> writeKeys(store, "b")),
+                    executor.submit(() -> writeKeys(store, "c")),
+                    executor.submit(() -> writeKeys(store, "d")));
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Object> state = store.getStateAll(TEST_TENANT, MAPPING);
+        assertEquals(400, state.size());
+        assertEquals(99, state.get("d99"));
+    }
+
+    private static void writeKeys(FlowStateStore store, String prefix) {
+        for (int i = 0; i < 100; i++) {
+            store.setState(TEST_TENANT, MAPPING, prefix + i, i);
+        }
+    }
+
+    @Test
+    void testNullValueRemovesKey() {
+        FlowStateStore store = new FlowStateStore();
+        store.setState(TEST_TENANT, MAPPING, "count", 1);
+        store.setState(TEST_TENANT, MAPPING, "count", null);
+
+        assertNull(store.getState(TEST_TENANT, MAPPING, "count"));
+        assertTrue(store.getStateAll(TEST_TENANT, MAPPING).isEmpty());
+    }
+
+    @Test
+    void testKeyExpiresAfterTimeToLive() throws InterruptedException {
+        FlowStateStore store = new FlowStateStore();
+        store.setState(TEST_TENANT, MAPPING, "short", "x", Duration.ofMillis(20));
+        store.setState(TEST_TENANT, MAPPING, "long", "y");
+        Thread.sleep(50);
+
+        assertNull(store.getState(TEST_TENANT, MAPPING, "short"));
+        assertEquals(Map.of("long", "y"), store.getStateAll(TEST_TENANT, MAPPING));
+    }
+
+    @Test
+    void testKeyLimitRejectsNewKeysOnly() {
+        FlowStateStore store = new FlowStateStore();
+        ReflectionTestUtils.setField(store, "maxKeysPerMapping", 2);
+
+        assertTrue(store.setState(TEST_TENANT, MAPPING, "a", 1));
+        assertTrue(store.setState(TEST_TENANT, MAPPING, "b", 2));
+        assertFalse(store.setState(TEST_TENANT, MAPPING, "c", 3));
+        assertTrue(store.setState(TEST_TENANT, MAPPING, "a", 4));
+
+        store.removeState(TEST_TENANT, MAPPING, "b");
+        assertTrue(store.setState(TEST_TENANT, MAPPING, "c", 3));
+        assertEquals(Map.of("a", 4, "c", 3), store.getStateAll(TEST_TENANT, MAPPING));
+    }
+
+    @Test
+    void testClearExpiredEntriesRemovesStaleKeys() {
+        FlowStateStore store = new FlowStateStore();
+        store.setState(TEST_TENANT, MAPPING, "count", 1);
+
+        store.clearExpiredEntries(TEST_TENANT, 1);
+        assertEquals(1, store.getState(TEST_TENANT, MAPPING, "count"));
+
+        store.clearExpiredEntries(TEST_TENANT, -1);
+        assertEquals(1, store.getState(TEST_TENANT, MAPPING, "count"));
+    }
+
+    @Test
+    void testSnapshotRestoresStateAfterRestart(@TempDir Path directory) {
+        FlowStateStore store = snapshotStore(directory);
+        store.setState(TEST_TENANT, MAPPING, "count", 42);
+        store.setState(TEST_TENANT, MAPPING, "gone", "x");
+        store.setState(TEST_TENANT, "mapping2", "count", 7);
+        store.setState(TEST_TENANT, MAPPING, "short", "x", Duration.ofMillis(1));
+        store.writeSnapshot();
+
+        store.removeState(TEST_TENANT, MAPPING, "gone");
+        store.clearMappingState(TEST_TENANT, "mapping2");
+        store.shutdown();
+
+        FlowStateStore restarted = snapshotStore(directory);
+        assertEquals(Map.of("count", 42), restarted.getStateAll(TEST_TENANT, MAPPING));
+        assertTrue(restarted.getStateAll(TEST_TENANT, "mapping2").isEmpty());
+        restarted.shutdown();
+    }
+
+    @Test
+    void testValuesChangedInPlaceAreNotStored() {
+        FlowStateStore store = new FlowStateStore();
+        Map<String, Object> written = new HashMap<>(Map.of("min", 1));
+        store.setState(TEST_TENANT, MAPPING, "stats", written);
+        written.put("min", 0);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) store.getState(TEST_TENANT, MAPPING, "stats");
+        stats.put("max", 9);
+
+        assertEquals(Map.of("min", 1), store.getState(TEST_TENANT, MAPPING, "stats"));
+        store.setState(TEST_TENANT, MAPPING, "stats", stats);
+        assertEquals(Map.of("min", 1, "max", 9), store.getState(TEST_TENANT, MAPPING, "stats"));
+    }
+
+    @Test
+    void testFailedAppendIsWrittenWithNextSnapshot(@TempDir Path directory) throws Exception {
+        FlowStateStore store = snapshotStore(directory);
+        store.setState(TEST_TENANT, MAPPING, "count", 1);
+        store.setState(TEST_TENANT, "mapping2", "count", 7);
+        store.writeSnapshot();
+
+        store.setState(TEST_TENANT, MAPPING, "count", 2);
+        store.clearMappingState(TEST_TENANT, "mapping2");
+        // A directory in place of the log makes the append fail
+        Path log = directory.resolve(FlowStateSnapshot.FILE_NAME);
+        Path saved = directory.resolve("saved.log");
+        Files.move(log, saved);
+        Files.createDirectory(log);
+        store.writeSnapshot();
+
+        Files.delete(log);
+        Files.move(saved, log);
+        store.shutdown();
+
+        FlowStateStore restarted = snapshotStore(directory);
+        assertEquals(2, restarted.getState(TEST_TENANT, MAPPING, "count"));
+        assertTrue(restarted.getStateAll(TEST_TENANT, "mapping2").isEmpty());
+        restarted.shutdown();
+    }
+
+    @Test
+    void testReplayDropsIncompleteTail(@TempDir Path directory) throws Exception {
+        FlowStateStore store = snapshotStore(directory);
+        store.setState(TEST_TENANT, MAPPING, "count", 1);
+        store.shutdown();
+        Path log = directory.resolve(FlowStateSnapshot.FILE_NAME);
+        Files.writeString(log, "{\"op\":\"PUT\",\"ten", StandardOpenOption.APPEND);
+
+        FlowStateStore restarted = snapshotStore(directory);
+        restarted.setState(TEST_TENANT, MAPPING, "count", 2);
+        restarted.shutdown();
+
+        FlowStateStore again = snapshotStore(directory);
+        assertEquals(2, again.getState(TEST_TENANT, MAPPING, "count"));
+        again.shutdown();
+    }
+
+    @Test
+    void testSnapshotCompactionKeepsLatestValues(@TempDir Path directory) throws Exception {
+        FlowStateStore store = snapshotStore(directory);
+        for (int i = 0; i < 50; i++) {
+            store.setState(TEST_TENANT, MAPPING, "count", i);
+            store.writeSnapshot();
+        }
+        FlowStateSnapshot snapshot = new FlowStateSnapshot(directory);
+        long before = Files.size(snapshot.getFile());
+        snapshot.compact(List.of(new FlowStateSnapshot.Record(FlowStateSnapshot.Operation.PUT, TEST_TENANT,
+                MAPPING, "count", 49, System.currentTimeMillis(), null)));
+        store.shutdown();
+
+        assertTrue(Files.size(snapshot.getFile()) < before);
+        FlowStateStore restarted = snapshotStore(directory);
+        assertEquals(49, restarted.getState(TEST_TENANT, MAPPING, "count"));
+        restarted.shutdown();
+    }
+
+    private static FlowStateStore snapshotStore(Path directory) {
+        FlowStateStore store = new FlowStateStore();
+        ReflectionTestUtils.setField(store, "snapshotDirectory", directory.toString());
+        ReflectionTestUtils.setField(store, "snapshotIntervalSeconds", 3600);
+        store.initSnapshot();
+        return store;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.service.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.dashjoin.jsonata.Jsonata;
+
+/**
+ * Tests for JsonataExpressionCache: reuse of compiled expressions, keys per
+ * mapping version, invalidation and size-bound eviction.
+ */
+class JsonataExpressionCacheTest {
+
+    private static final String TEST_TENANT = "testTenant";
+
+    @Test
+    void testCompiledExpressionIsReused() {
+        JsonataExpressionCache cache = new JsonataExpressionCache(10, TEST_TENANT);
+
+        Jsonata first = cache.getExpression("mapping1", 1, "$.value");
+        Jsonata second = cache.getExpression("mapping1", 1, "$.value");
+
+        assertSame(first, second);
+        assertEquals(1, cache.getCacheSize());
+    }
+
+    @Test
+    void testNewMappingVersionCompilesAgain() {
+        JsonataExpressionCache cache = new JsonataExpressionCache(10, TEST_TENANT);
+
+        Jsonata version1 = cache.getExpression("mapping1", 1, "$.value");
+        Jsonata version2 = cache.getExpression("mapping1", 2, "$.value");
+
+        assertNotSame(version1, version2);
+        assertNotSame(version1, cache.getExpression("mapping2", 1, "$.value"));
+    }
+
+    @Test
+    void testInvalidateMappingRemovesAllVersions() {
+        JsonataExpressionCache cache = new JsonataExpressionCache(10, TEST_TENANT);
+        Jsonata version1 = cache.getExpression("mapping1", 1, "$.value");
+        cache.getExpression("mapping1", 2, "$.value");
+        Jsonata other = cache.getExpression("mapping2", 1, "$.value");
+
+        cache.invalidateMapping("mapping1");
+
+        assertEquals(1, cache.getCacheSize());
+        assertSame(other, cache.getExpression("mapping2", 1, "$.value"));
+        assertNotSame(version1, cache.getExpression("mapping1", 1, "$.value"));
+    }
+
+    @Test
+    void testInvalidExpressionIsNotCached() {
+        JsonataExpressionCache cache = new JsonataExpressionCache(10, TEST_TENANT);
+
+        assertThrows(RuntimeException.class, () -> cache.getExpression("mapping1", 1, "$.value["));
+
+        assertEquals(0, cache.getCacheSize());
+    }
+
+    @Test
+    void testFullCacheKeepsFrequentlyUsedExpression() {
+        JsonataExpressionCache cache = new JsonataExpressionCache(10, TEST_TENANT);
+        Jsonata hot = cache.getExpression("mapping1", 1, "$.hot");
+
+        for (int i = 0; i < 100; i++) {
+            cache.getExpression("mapping1", 1, "$.value" + i);
+            assertSame(hot, cache.getExpression("mapping1", 1, "$.hot"));
+            cache.cleanUp();
+        }
+
+        assertTrue(cache.getCacheSize() <= 10);
+        assertSame(hot, cache.getExpression("mapping1", 1, "$.hot"));
+    }
+}
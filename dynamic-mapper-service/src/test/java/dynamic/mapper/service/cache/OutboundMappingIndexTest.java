@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.service.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import dynamic.mapper.model.API;
+import dynamic.mapper.model.Mapping;
+
+/**
+ * Tests for OutboundMappingIndex: filter analysis, candidate lookup and
+ * incremental updates.
+ */
+class OutboundMappingIndexTest {
+
+    private static Mapping mapping(String id, API api, String filter) {
+        return Mapping.builder().id(id).targetAPI(api).filterMapping(filter).build();
+    }
+
+    private static List<String> candidateIds(OutboundMappingIndex index, API api, Map<String, Object> payload) {
+        return index.getCandidates(api, payload).stream().map(Mapping::getId).sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    void testAnalyzeFilter() {
+        assertEquals(new OutboundMappingIndex.IndexKey(API.EVENT, "type", "c8y_Bus"),
+                OutboundMappingIndex.analyzeFilter(API.EVENT, "type = 'c8y_Bus'"));
+        assertEquals(new OutboundMappingIndex.IndexKey(API.EVENT, "type", "c8y_Bus"),
+                OutboundMappingIndex.analyzeFilter(API.EVENT, "(\"c8y_Bus\"=type)"));
+        assertEquals(new OutboundMappingIndex.IndexKey(API.MEASUREMENT, "c8y_Temperature", null),
+                OutboundMappingIndex.analyzeFilter(API.MEASUREMENT, "$exists(c8y_Temperature)"));
+        assertEquals(new OutboundMappingIndex.IndexKey(API.MEASUREMENT, "c8y_Temperature.T.value", null),
+                OutboundMappingIndex.analyzeFilter(API.MEASUREMENT, "c8y_Temperature.T.value > 50"));
+        assertEquals(new OutboundMappingIndex.IndexKey(API.EVENT, "type", "c8y_Bus"),
+                OutboundMappingIndex.analyzeFilter(API.EVENT, "$count(x) > 1 and type = 'c8y_Bus'"));
+
+        // not analysable, the mapping is a candidate for every message of its API
+        assertNull(OutboundMappingIndex.analyzeFilter(API.EVENT, "type = 'a' or type = 'b'").path());
+        assertNull(OutboundMappingIndex.analyzeFilter(API.EVENT, "type != 'a'").path());
+        assertNull(OutboundMappingIndex.analyzeFilter(API.EVENT, "$contains(text, 'and')").path());
+        assertNull(OutboundMappingIndex.analyzeFilter(API.EVENT, "").path());
+    }
+
+    @Test
+    void testCandidatesAreNarrowedByApiAndFilter() {
+        OutboundMappingIndex index = new OutboundMappingIndex(List.of(
+                mapping("bus", API.EVENT, "type = 'c8y_Bus'"),
+                mapping("train", API.EVENT, "type = 'c8y_Train'"),
+                mapping("location", API.EVENT, "$exists(c8y_Position)"),
+                mapping("all", API.EVENT, ""),
+                mapping("measurement", API.MEASUREMENT, "type = 'c8y_Bus'")));
+
+        assertEquals(List.of("all", "bus"), candidateIds(index, API.EVENT, Map.of("type", "c8y_Bus")));
+        assertEquals(List.of("all", "location", "train"),
+                candidateIds(index, API.EVENT, Map.of("type", "c8y_Train", "c8y_Position", Map.of())));
+        assertEquals(List.of("measurement"), candidateIds(index, API.MEASUREMENT, Map.of("type", "c8y_Bus")));
+        assertTrue(candidateIds(index, API.ALARM, Map.of("type", "c8y_Bus")).isEmpty());
+    }
+
+    @Test
+    void testArraysAndMissingPayloadDoNotExcludeMappings() {
+        OutboundMappingIndex index = new OutboundMappingIndex(List.of(
+                mapping("bus", API.EVENT, "items.type = 'c8y_Bus'")));
+
+        assertEquals(List.of("bus"),
+                candidateIds(index, API.EVENT, Map.of("items", List.of(Map.of("type", "c8y_Bus")))));
+        assertEquals(List.of("bus"), candidateIds(index, API.EVENT, null));
+        assertTrue(candidateIds(index, API.EVENT, Map.of("items", Map.of("type", "c8y_Train"))).isEmpty());
+    }
+
+    @Test
+    void testUpdateAndRemoveMapping() {
+        OutboundMappingIndex index = new OutboundMappingIndex(List.of(
+                mapping("bus", API.EVENT, "type = 'c8y_Bus'")));
+
+        index.addMapping(mapping("bus", API.EVENT, "type = 'c8y_Train'"));
+        assertTrue(candidateIds(index, API.EVENT, Map.of("type", "c8y_Bus")).isEmpty());
+        assertEquals(List.of("bus"), candidateIds(index, API.EVENT, Map.of("type", "c8y_Train")));
+
+        index.removeMapping("bus");
+        assertTrue(candidateIds(index, API.EVENT, Map.of("type", "c8y_Train")).isEmpty());
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2022-2025 Cumulocity GmbH.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  @authors Christof Strack, Stefan Witschel
+ *
+ */
+
+package dynamic.mapper.service.status;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.cumulocity.microservice.subscription.service.MicroserviceSubscriptionsService;
+import com.cumulocity.rest.representation.inventory.ManagedObjectRepresentation;
+
+import dynamic.mapper.configuration.ServiceConfiguration;
+import dynamic.mapper.core.ConfigurationRegistry;
+import dynamic.mapper.core.facade.InventoryFacade;
+import dynamic.mapper.model.Direction;
+import dynamic.mapper.model.MapperServiceRepresentation;
+import dynamic.mapper.model.Mapping;
+import dynamic.mapper.model.MappingStatus;
+import dynamic.mapper.service.cache.MappingCacheManager;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for MappingStatusService: concurrent counter updates, per mapping
+ * meters and coalesced inventory updates.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MappingStatusServiceTest {
+
+    private static final String TENANT = "testTenant";
+
+    @Mock
+    private InventoryFacade inventoryApi;
+
+    @Mock
+    private ConfigurationRegistry configurationRegistry;
+
+    @Mock
+    private MappingCacheManager cacheManager;
+
+    @Mock
+    private MicroserviceSubscriptionsService subscriptionsService;
+
+    private MappingStatusService statusService;
+    private Mapping mapping;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        Metrics.globalRegistry.add(meterRegistry);
+
+        MapperServiceRepresentation serviceRep = new MapperServiceRepresentation();
+        serviceRep.setId("4711");
+        when(configurationRegistry.getMapperServiceRepresentation(TENANT)).thenReturn(serviceRep);
+        when(configurationRegistry.getServiceConfiguration(TENANT)).thenReturn(new ServiceConfiguration());
+        when(cacheManager.containsInboundMappingByIdentifier(eq(TENANT), anyString())).thenReturn(true);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, Runnable.class).run();
+            return null;
+        }).when(subscriptionsService).runForTenant(eq(TENANT), any(Runnable.class));
+
+        mapping = Mapping.builder().id("1").identifier("ident1").name("Mapping 1")
+                .direction(Direction.INBOUND).mappingTopic("device/+/data").build();
+
+        statusService = new MappingStatusService(inventoryApi, configurationRegistry, cacheManager,
+                subscriptionsService);
+        statusService.initializeTenantStatus(TENANT, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statusService.removeTenantStatus(TENANT);
+        Metrics.globalRegistry.remove(meterRegistry);
+        meterRegistry.close();
+    }
+
+    @Test
+    void testConcurrentIncrementsAreNotLost() throws Exception {
+        MappingStatus status = statusService.getOrCreateStatus(TENANT, mapping);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        status.incrementMessagesReceived();
+                        status.incrementErrors();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(80_000, status.getMessagesReceived());
+        assertEquals(80_000, status.getErrors());
+    }
+
+    @Test
+    void testMetersArePublishedPerMapping() {
+        MappingStatus status = statusService.getOrCreateStatus(TENANT, mapping);
+        status.incrementMessagesReceived();
+        status.incrementMessagesReceived();
+        statusService.recordProcessingTime(TENANT, mapping, 1_000_000);
+
+        FunctionCounter messages = Metrics.globalRegistry.find("dynmapper_mapping_messages_total")
+                .tags("tenant", TENANT, "mapping", "ident1").functionCounter();
+        Timer processingTime = Metrics.globalRegistry.find("dynmapper_mapping_processing_time")
+                .tags("tenant", TENANT, "mapping", "ident1").timer();
+        assertNotNull(messages);
+        assertEquals(2.0, messages.count());
+        assertNotNull(processingTime);
+        assertEquals(1, processingTime.count());
+
+        statusService.removeStatus(TENANT, "ident1");
+        assertNull(Metrics.globalRegistry.find("dynmapper_mapping_messages_total")
+                .tags("tenant", TENANT, "mapping", "ident1").functionCounter());
+    }
+
+    @Test
+    void testMessageCounterDoesNotDecreaseOnReset() {
+        MappingStatus status = statusService.getOrCreateStatus(TENANT, mapping);
+        status.incrementMessagesReceived();
+        status.incrementMessagesReceived();
+        FunctionCounter messages = Metrics.globalRegistry.find("dynmapper_mapping_messages_total")
+                .tags("tenant", TENANT, "mapping", "ident1").functionCounter();
+        assertEquals(2.0, messages.count());
+
+        status.reset();
+        status.incrementMessagesReceived();
+
+        assertEquals(1, status.getMessagesReceived());
+        assertEquals(3.0, messages.count());
+    }
+
+    @Test
+    void testMetersSurviveReinitialization() {
+        statusService.initializeTenantStatus(TENANT, true);
+
+        assertNotNull(Metrics.globalRegistry.find("dynmapper_mapping_messages_total")
+                .tags("tenant", TENANT, "mapping", MappingStatus.IDENT_UNSPECIFIED_MAPPING).functionCounter());
+    }
+
+    @Test
+    void testUnchangedStatusIsNotSentAgain() {
+        MappingStatus status = statusService.getOrCreateStatus(TENANT, mapping);
+        status.incrementMessagesReceived();
+
+        statusService.sendStatusToInventory(TENANT);
+        statusService.sendStatusToInventory(TENANT);
+        verify(inventoryApi, times(1)).update(any(ManagedObjectRepresentation.class), eq(false));
+
+        status.incrementMessagesReceived();
+        statusService.sendStatusToInventory(TENANT);
+        verify(inventoryApi, times(2)).update(any(ManagedObjectRepresentation.class), eq(false));
+
+        statusService.sendStatusToInventory(TENANT, true);
+        verify(inventoryApi, times(3)).update(any(ManagedObjectRepresentation.class), eq(false));
+    }
+}
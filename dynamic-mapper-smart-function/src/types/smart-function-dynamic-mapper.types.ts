@@ -120,7 +120,10 @@ export interface DynamicMapperDeviceMessage {
  *
  * ### Persistent state
  * `setState` / `getState` values survive across messages for the same mapping.
- * They are cleared when the mapping is deleted and do not survive a service restart.
+ * Each key is stored on its own; when messages are processed concurrently the
+ * last write of a key wins. A key can expire after `ttlSeconds`.
+ * They are cleared when the mapping is deleted and survive a service restart
+ * only when the service is configured with a flow state snapshot directory.
  *
  * @example
  * function onMessage(msg: DynamicMapperDeviceMessage, context: SmartFunctionContext) {
@@ -152,6 +155,18 @@ export interface SmartFunctionContext extends DataPrepContext {
    */
   getStateAll(): Record<string, any>;
 
+  /**
+   * Stores a value in the state that expires after the given time.
+   *
+   * @param key - The state key
+   * @param value - The value to store
+   * @param ttlSeconds - Seconds after which the key expires, 0 for no expiry
+   *
+   * @example
+   * context.setState("lastAlarm", Date.now(), 300);
+   */
+  setState(key: string, value: any, ttlSeconds?: number): void;
+
   /**
    * Retrieves the MQTT client ID or transport client identifier.
    *
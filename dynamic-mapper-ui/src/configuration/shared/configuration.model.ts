@@ -44,6 +44,13 @@ export interface ServiceConfiguration {
   suppressDeprecationWarning?: boolean;
   acceptedDeprecationNotice?: string;
   supportESM?: boolean;
+  graalContextPoolSize?: number;
+  measurementBatchSize?: number;
+  measurementBatchLingerMs?: number;
+  inboundMaxInFlight?: number;
+  inboundBackpressurePolicy?: 'BLOCK' | 'SHED_QOS0' | 'PAUSE';
+  inboundOrderingKey?: 'NONE' | 'TOPIC' | 'CLIENT_ID' | 'EXTERNAL_ID';
+  inboundOrderingLanes?: number;
 }
 
 export enum TemplateType {
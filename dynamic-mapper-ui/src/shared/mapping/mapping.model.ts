@@ -156,6 +156,9 @@ export interface Mapping {
   /** Whether to update existing devices */
   updateExistingDevice: boolean;
 
+  /** Window in milliseconds in which inventory updates of an existing device are merged, 0 disables merging */
+  inventoryUpdateCoalesceMs?: number;
+
   /** Whether to automatically acknowledge operations */
   autoAckOperation?: boolean;
 